@@ -0,0 +1,92 @@
+package com.example.fixclient.capture;
+
+import com.example.fixclient.listener.FixTrafficListener;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Decodes captures written by {@link SessionRecorder}.
+ * <p>
+ * Usage: {@code CaptureReader <capture-directory>} prints every message with
+ * SOH shown as '|'.
+ */
+public final class CaptureReader {
+
+    private static final FixTrafficListener.Direction[] DIRECTIONS = FixTrafficListener.Direction.values();
+
+    public record CapturedMessage(long timestampNanos, FixTrafficListener.Direction direction, boolean admin,
+                                  String text) {
+
+        @Override
+        public String toString() {
+            return timestampNanos + " " + direction + (admin ? " admin " : " app ") + text.replace('\u0001', '|');
+        }
+    }
+
+    private CaptureReader() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: CaptureReader <capture-directory>");
+            System.exit(1);
+        }
+        read(Path.of(args[0]), System.out::println);
+    }
+
+    /**
+     * Returns the segment files of a capture in the order they were written.
+     */
+    public static List<Path> segments(Path capture) throws IOException {
+        try (Stream<Path> files = Files.list(capture)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(".cap")).sorted().toList();
+        }
+    }
+
+    /**
+     * Decodes all complete records of a capture, segment by segment.
+     */
+    public static void read(Path capture, Consumer<CapturedMessage> consumer) throws IOException {
+        for (Path segment : segments(capture)) {
+            readSegment(segment, consumer);
+        }
+    }
+
+    private static void readSegment(Path file, Consumer<CapturedMessage> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.remaining() < SessionRecorder.SEGMENT_HEADER_SIZE
+                    || buffer.getInt() != SessionRecorder.SEGMENT_MAGIC) {
+                throw new IOException("Not a capture segment: " + file);
+            }
+            short version = buffer.getShort();
+            if (version != SessionRecorder.SEGMENT_VERSION) {
+                throw new IOException("Unsupported capture version " + version + " in " + file);
+            }
+            while (buffer.remaining() >= SessionRecorder.RECORD_HEADER_SIZE) {
+                int length = buffer.getInt();
+                if (length <= 0 || length > buffer.remaining() - SessionRecorder.RECORD_HEADER_SIZE + 4) {
+                    break;
+                }
+                long timestamp = buffer.getLong();
+                FixTrafficListener.Direction direction = DIRECTIONS[buffer.get()];
+                boolean admin = buffer.get() != 0;
+                byte[] text = new byte[length];
+                buffer.get(text);
+                consumer.accept(new CapturedMessage(timestamp, direction, admin,
+                        new String(text, StandardCharsets.ISO_8859_1)));
+            }
+        }
+    }
+}
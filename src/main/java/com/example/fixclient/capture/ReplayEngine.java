@@ -0,0 +1,188 @@
+package com.example.fixclient.capture;
+
+import com.example.fixclient.listener.FixTrafficListener;
+import com.example.fixclient.model.ReplayRequest;
+import com.example.fixclient.service.FixSessionGateway;
+import com.example.fixclient.websocket.SessionMessaging;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.stereotype.Component;
+import quickfix.InvalidMessage;
+import quickfix.Message;
+import quickfix.SessionID;
+import quickfix.field.BodyLength;
+import quickfix.field.CheckSum;
+import quickfix.field.MsgSeqNum;
+import quickfix.field.OrigSendingTime;
+import quickfix.field.PossDupFlag;
+import quickfix.field.SendingTime;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends the outbound application messages of a capture through
+ * {@link FixSessionGateway} again, preserving their original spacing scaled by a
+ * speed factor (1 = as recorded, N = N times faster, 0 = as fast as possible).
+ * Replayed messages go through {@code toApp} like any other, so they get fresh
+ * sequence numbers, timestamps and signatures.
+ */
+@Component
+@Slf4j
+public class ReplayEngine {
+
+    private static final int TIMESTAMP_FIELD = 9481;
+    private static final int SIGNATURE_FIELD = 9489;
+    private static final long SPIN_THRESHOLD_NANOS = 50_000;
+
+    /**
+     * Drift is how late each message left compared to its scheduled time; it is
+     * not measured for maximum-speed replays.
+     */
+    public record ReplayStats(String capture, int sent, int failed, long durationMillis, double achievedRate,
+                              double meanDriftMicros, double p50DriftMicros, double p99DriftMicros,
+                              double maxDriftMicros) {
+    }
+
+    private final FixSessionGateway sessionGateway;
+    private final SessionRecorder recorder;
+    private final SimpMessageSendingOperations messagingTemplate;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "capture-replay");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ReplayEngine(FixSessionGateway sessionGateway, SessionRecorder recorder,
+                        SimpMessageSendingOperations messagingTemplate) {
+        this.sessionGateway = sessionGateway;
+        this.recorder = recorder;
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queues a replay and reports its statistics to the user on {@code /queue/replay}.
+     * Replays run one at a time.
+     */
+    public void replay(ReplayRequest request, String wsSessionId) {
+        Path capture = recorder.capturePath(request.capture());
+        SessionID target = new SessionID("FIX.4.1", request.senderCompId(), request.targetCompId());
+        executor.execute(() -> {
+            try {
+                ReplayStats stats = replay(capture, target, request.speed());
+                SessionMessaging.sendToSession(messagingTemplate, wsSessionId, "/queue/replay", stats);
+            } catch (Exception e) {
+                log.error("Replay of {} into {} failed", request.capture(), target, e);
+                SessionMessaging.sendToSession(messagingTemplate, wsSessionId, "/queue/replay",
+                        "Replay failed: " + e.getMessage());
+            }
+        });
+    }
+
+    ReplayStats replay(Path capture, SessionID target, double speed) throws IOException, InvalidMessage {
+        List<CaptureReader.CapturedMessage> captured = new ArrayList<>();
+        CaptureReader.read(capture, message -> {
+            if (message.direction() == FixTrafficListener.Direction.OUTBOUND && !message.admin()) {
+                captured.add(message);
+            }
+        });
+
+        // Parse everything up front so the timed loop only sends
+        Message[] messages = new Message[captured.size()];
+        long[] offsets = new long[captured.size()];
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = prepare(captured.get(i).text());
+            offsets[i] = captured.get(i).timestampNanos() - captured.get(0).timestampNanos();
+        }
+
+        boolean timed = speed > 0;
+        long[] drift = new long[messages.length];
+        int sent = 0;
+        int failed = 0;
+        log.info("Replaying {} messages from {} into {} at {}", messages.length, capture.getFileName(), target,
+                timed ? speed + "x" : "maximum speed");
+
+        long start = System.nanoTime();
+        for (int i = 0; i < messages.length; i++) {
+            if (timed) {
+                long scheduled = start + (long) (offsets[i] / speed);
+                waitUntil(scheduled);
+                drift[i] = System.nanoTime() - scheduled;
+            }
+            try {
+                if (sessionGateway.sendToTarget(messages[i], target)) {
+                    sent++;
+                } else {
+                    failed++;
+                }
+            } catch (Exception e) {
+                failed++;
+                log.warn("Replay send failed for message {} of {}", i + 1, capture.getFileName(), e);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        ReplayStats stats = stats(capture.getFileName().toString(), sent, failed, elapsed,
+                timed ? drift : new long[0]);
+        log.info("Replay finished: {}", stats);
+        return stats;
+    }
+
+    private static Message prepare(String text) throws InvalidMessage {
+        Message message = new Message();
+        message.fromString(text, null, false);
+        // Session-assigned fields are filled in again on send
+        message.getHeader().removeField(BodyLength.FIELD);
+        message.getHeader().removeField(MsgSeqNum.FIELD);
+        message.getHeader().removeField(SendingTime.FIELD);
+        message.getHeader().removeField(PossDupFlag.FIELD);
+        message.getHeader().removeField(OrigSendingTime.FIELD);
+        message.getTrailer().removeField(CheckSum.FIELD);
+        message.removeField(TIMESTAMP_FIELD);
+        message.removeField(SIGNATURE_FIELD);
+        return message;
+    }
+
+    private static void waitUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            if (remaining > SPIN_THRESHOLD_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private static ReplayStats stats(String capture, int sent, int failed, long elapsedNanos, long[] drift) {
+        double seconds = elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1);
+        double rate = seconds > 0 ? sent / seconds : 0;
+        if (drift.length == 0) {
+            return new ReplayStats(capture, sent, failed, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), rate,
+                    0, 0, 0, 0);
+        }
+        long[] sorted = drift.clone();
+        Arrays.sort(sorted);
+        double mean = Arrays.stream(sorted).average().orElse(0);
+        return new ReplayStats(capture, sent, failed, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), rate,
+                mean / 1000.0, percentile(sorted, 0.50) / 1000.0, percentile(sorted, 0.99) / 1000.0,
+                sorted[sorted.length - 1] / 1000.0);
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        return sorted[(int) Math.max(0, Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1))];
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.fixclient.capture;
+
+import com.example.fixclient.exception.CaptureNotFoundException;
+import com.example.fixclient.listener.FixTrafficListener;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import quickfix.Message;
+import quickfix.SessionID;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Records the traffic of selected sessions into memory-mapped segment files
+ * for later inspection or replay. Recording is switched on and off per session;
+ * sessions that are not being recorded cost one map lookup per message.
+ * <p>
+ * A capture is a directory of {@code segment-NNNNN.cap} files. Each segment
+ * starts with {@link #SEGMENT_MAGIC} and {@link #SEGMENT_VERSION}, followed by
+ * records of
+ * <pre>
+ * int length | long timestampNanos | byte direction | byte admin | length bytes of message
+ * </pre>
+ * in little-endian order. The length is written last, so a zero length marks the
+ * end of the data even if the process died mid-record.
+ */
+@Component
+@Slf4j
+public class SessionRecorder implements FixTrafficListener {
+
+    static final int SEGMENT_MAGIC = 0x50414346; // "FCAP"
+    static final short SEGMENT_VERSION = 1;
+    static final int SEGMENT_HEADER_SIZE = 4 + 2;
+    static final int RECORD_HEADER_SIZE = 4 + 8 + 1 + 1;
+
+    private static final Pattern CAPTURE_NAME = Pattern.compile("[A-Za-z0-9_.-]+");
+
+    private final Path directory;
+    private final int segmentSize;
+    private final Map<SessionID, Capture> captures = new ConcurrentHashMap<>();
+
+    // Monotonic clock anchored to wall-clock time, so timestamps are both comparable and readable
+    private final long epochNanosBase = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+    private final long nanoTimeBase = System.nanoTime();
+
+    public SessionRecorder(@Value("${fix.capture.directory:log/capture}") Path directory,
+                           @Value("${fix.capture.segment-size:67108864}") int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Starts recording the session into a new capture and returns the capture's
+     * name. Returns the current capture's name if the session is already recorded.
+     */
+    public synchronized String start(SessionID sessionID) throws IOException {
+        Capture existing = captures.get(sessionID);
+        if (existing != null) {
+            return existing.name;
+        }
+        String name = sessionID.getSenderCompID() + "-" + sessionID.getTargetCompID() + "-"
+                + System.currentTimeMillis();
+        Capture capture = new Capture(name, Files.createDirectories(directory.resolve(name)));
+        captures.put(sessionID, capture);
+        log.info("Recording {} into {}", sessionID, capture.path);
+        return name;
+    }
+
+    public synchronized boolean stop(SessionID sessionID) {
+        Capture capture = captures.remove(sessionID);
+        if (capture == null) {
+            return false;
+        }
+        capture.close();
+        log.info("Stopped recording {}: {} messages in {}", sessionID, capture.records, capture.path);
+        return true;
+    }
+
+    public boolean isRecording(SessionID sessionID) {
+        return captures.containsKey(sessionID);
+    }
+
+    /**
+     * Resolves a capture name returned by {@link #start} to its directory.
+     */
+    public Path capturePath(String name) {
+        Path capture = name != null && CAPTURE_NAME.matcher(name).matches() ? directory.resolve(name) : null;
+        if (capture == null || !Files.isDirectory(capture)) {
+            throw new CaptureNotFoundException("Capture " + name + " does not exist");
+        }
+        return capture;
+    }
+
+    @Override
+    public void onMessage(SessionID sessionID, Direction direction, boolean admin, Message message) {
+        Capture capture = captures.get(sessionID);
+        if (capture != null) {
+            long timestamp = epochNanosBase + (System.nanoTime() - nanoTimeBase);
+            capture.append(timestamp, direction, admin, message.toString());
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        captures.values().forEach(Capture::close);
+        captures.clear();
+    }
+
+    private final class Capture {
+
+        private final String name;
+        private final Path path;
+        private int segmentIndex;
+        private MappedByteBuffer segment;
+        private long records;
+        private boolean closed;
+
+        private Capture(String name, Path path) throws IOException {
+            this.name = name;
+            this.path = path;
+            openSegment();
+        }
+
+        private void openSegment() throws IOException {
+            Path file = path.resolve(String.format("segment-%05d.cap", segmentIndex++));
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            }
+            segment.order(ByteOrder.LITTLE_ENDIAN);
+            segment.putInt(SEGMENT_MAGIC);
+            segment.putShort(SEGMENT_VERSION);
+        }
+
+        synchronized void append(long timestamp, Direction direction, boolean admin, String text) {
+            if (closed) {
+                return;
+            }
+            int length = text.length();
+            int required = RECORD_HEADER_SIZE + length;
+            if (required > segmentSize - SEGMENT_HEADER_SIZE - 4) {
+                log.warn("Message of {} bytes does not fit a capture segment, skipped", length);
+                return;
+            }
+            // Keep room for a zero length after the last record
+            if (segment.remaining() < required + 4) {
+                try {
+                    segment.force();
+                    openSegment();
+                } catch (IOException e) {
+                    log.error("Failed to open next capture segment in {}, recording stopped", path, e);
+                    closed = true;
+                    return;
+                }
+            }
+
+            int start = segment.position();
+            segment.position(start + 4);
+            segment.putLong(timestamp);
+            segment.put((byte) direction.ordinal());
+            segment.put(admin ? (byte) 1 : 0);
+            for (int i = 0; i < length; i++) {
+                char c = text.charAt(i);
+                segment.put(c <= 0xFF ? (byte) c : (byte) '?');
+            }
+            segment.putInt(start, length);
+            records++;
+        }
+
+        synchronized void close() {
+            if (!closed) {
+                closed = true;
+                segment.force();
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.fixclient.config;
+
+import com.example.fixclient.exception.ConfigurationException;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable, pre-indexed view of configuration.json. A new snapshot is built on
+ * every reload and swapped in atomically, so lookups never lock or scan.
+ */
+public record ConfigSnapshot(Map<String, EnvironmentConfig> environments,
+                             Map<String, Map<String, EnvironmentConfig.InitiatorConfig>> initiatorsByEnv,
+                             Map<String, EnvironmentConfig.InitiatorConfig> initiatorsBySender) {
+
+    public static final ConfigSnapshot EMPTY = of(Collections.emptyMap());
+
+    /**
+     * @throws ConfigurationException if an environment or initiator entry is
+     *                                empty or an initiator has no senderCompId
+     */
+    public static ConfigSnapshot of(Map<String, EnvironmentConfig> environments) {
+        Map<String, Map<String, EnvironmentConfig.InitiatorConfig>> byEnv = new HashMap<>();
+        // First environment in file order wins, matching the previous linear search
+        Map<String, EnvironmentConfig.InitiatorConfig> bySender = new HashMap<>();
+
+        environments.forEach((env, config) -> {
+            if (config == null) {
+                throw new ConfigurationException("Environment " + env + " has no configuration");
+            }
+            Map<String, EnvironmentConfig.InitiatorConfig> initiators = new LinkedHashMap<>();
+            if (config.initiators() != null) {
+                for (EnvironmentConfig.InitiatorConfig initiator : config.initiators()) {
+                    if (initiator == null || initiator.senderCompId() == null) {
+                        throw new ConfigurationException("Environment " + env
+                                + " has an initiator without senderCompId");
+                    }
+                    initiators.putIfAbsent(initiator.senderCompId(), initiator);
+                    bySender.putIfAbsent(initiator.senderCompId(), initiator);
+                }
+            }
+            byEnv.put(env, Collections.unmodifiableMap(initiators));
+        });
+
+        return new ConfigSnapshot(
+                Collections.unmodifiableMap(new LinkedHashMap<>(environments)),
+                Map.copyOf(byEnv),
+                Map.copyOf(bySender));
+    }
+
+    public EnvironmentConfig environment(String env) {
+        return env == null ? null : environments.get(env);
+    }
+
+    public EnvironmentConfig.InitiatorConfig initiator(String env, String senderCompId) {
+        Map<String, EnvironmentConfig.InitiatorConfig> initiators = env == null ? null : initiatorsByEnv.get(env);
+        return initiators == null || senderCompId == null ? null : initiators.get(senderCompId);
+    }
+
+    public EnvironmentConfig.InitiatorConfig initiator(String senderCompId) {
+        return senderCompId == null ? null : initiatorsBySender.get(senderCompId);
+    }
+}
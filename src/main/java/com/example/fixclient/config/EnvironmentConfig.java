@@ -7,9 +7,51 @@ public record EnvironmentConfig(ConnectionConfig connection, List<InitiatorConfi
     public record ConnectionConfig(String address, int port) {
     }
 
-    public record InitiatorConfig(String senderCompId, String keystorePassword, Boolean enabled) {
+    public record InitiatorConfig(String senderCompId, String keystorePassword, Boolean enabled,
+                                  RateLimitConfig rateLimit) {
+
+        public InitiatorConfig(String senderCompId, String keystorePassword, Boolean enabled) {
+            this(senderCompId, keystorePassword, enabled, null);
+        }
+
         public boolean isEnabled() {
             return enabled == null || enabled;
         }
     }
+
+    /**
+     * Outbound message limit the counterparty enforces on a session.
+     *
+     * @param messagesPerSecond sustained rate; 0 or less disables the throttle
+     * @param burst             messages that may go out back to back after an idle
+     *                          period, 1 if absent
+     * @param mode              what a send over the limit does, {@link ThrottleMode#QUEUE} if absent
+     * @param maxQueueMillis    longest a queued send may wait before it is rejected instead,
+     *                          1000 if absent
+     */
+    public record RateLimitConfig(int messagesPerSecond, Integer burst, ThrottleMode mode, Long maxQueueMillis) {
+
+        public int effectiveBurst() {
+            return burst != null && burst > 0 ? burst : 1;
+        }
+
+        public ThrottleMode effectiveMode() {
+            return mode != null ? mode : ThrottleMode.QUEUE;
+        }
+
+        public long effectiveMaxQueueMillis() {
+            return maxQueueMillis != null && maxQueueMillis >= 0 ? maxQueueMillis : 1000;
+        }
+    }
+
+    public enum ThrottleMode {
+        /**
+         * Delay the sending thread until the send fits under the limit.
+         */
+        QUEUE,
+        /**
+         * Fail the send right away with a ThrottleRejectedException.
+         */
+        REJECT
+    }
 }
@@ -0,0 +1,26 @@
+package com.example.fixclient.config;
+
+import com.example.fixclient.stream.RawTrafficStream;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+/**
+ * Plain WebSocket endpoint next to the STOMP one in {@link WebSocketConfig}.
+ */
+@Configuration
+@EnableWebSocket
+public class RawStreamConfig implements WebSocketConfigurer {
+
+    private final RawTrafficStream rawTrafficStream;
+
+    public RawStreamConfig(RawTrafficStream rawTrafficStream) {
+        this.rawTrafficStream = rawTrafficStream;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(rawTrafficStream, "/ws-raw");
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.fixclient.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Behaviour of the embedded exchange simulator, bound from {@code fix.simulator.*}.
+ *
+ * @param fillModel        how each NewOrderSingle is answered
+ * @param partialFills     number of partial fills before the final fill (PARTIAL_FILL, MIXED)
+ * @param rejectRatio      probability of rejecting an order (MIXED)
+ * @param partialRatio     probability of partially filling an accepted order (MIXED)
+ * @param latency          distribution of the delay before each ExecutionReport
+ * @param latencyMicros    fixed delay, or mean delay for UNIFORM/EXPONENTIAL
+ * @param maxLatencyMicros upper bound for sampled delays
+ * @param workerThreads    threads producing ExecutionReports
+ * @param defaultPrice     fill price used when the order carries no Price (44)
+ */
+@ConfigurationProperties("fix.simulator")
+public record SimulatorConfig(FillModel fillModel, Integer partialFills, Double rejectRatio, Double partialRatio,
+                              LatencyDistribution latency, Long latencyMicros, Long maxLatencyMicros,
+                              Integer workerThreads, Double defaultPrice) {
+
+    public enum FillModel {
+        ACK_ONLY,
+        FULL_FILL,
+        PARTIAL_FILL,
+        REJECT,
+        MIXED
+    }
+
+    public enum LatencyDistribution {
+        FIXED,
+        UNIFORM,
+        EXPONENTIAL
+    }
+
+    public SimulatorConfig {
+        fillModel = fillModel != null ? fillModel : FillModel.FULL_FILL;
+        partialFills = partialFills != null ? partialFills : 2;
+        rejectRatio = rejectRatio != null ? rejectRatio : 0.05;
+        partialRatio = partialRatio != null ? partialRatio : 0.3;
+        latency = latency != null ? latency : LatencyDistribution.FIXED;
+        latencyMicros = latencyMicros != null ? latencyMicros : 0L;
+        maxLatencyMicros = maxLatencyMicros != null ? maxLatencyMicros : 10 * Math.max(latencyMicros, 100L);
+        workerThreads = workerThreads != null ? workerThreads : 2;
+        defaultPrice = defaultPrice != null ? defaultPrice : 100.0;
+    }
+}
@@ -1,15 +1,50 @@
 package com.example.fixclient.config;
 
+import com.example.fixclient.metrics.MessageTracer;
+import com.example.fixclient.websocket.OutboundGuard;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import java.util.ArrayList;
+import java.util.List;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final MessageTracer tracer;
+    private final OutboundGuard outboundGuard;
+    private final int inboundPoolSize;
+    private final int outboundPoolSize;
+    private final int messageSizeLimit;
+    private final List<ThreadPoolTaskExecutor> channelExecutors = new ArrayList<>();
+
+    public WebSocketConfig(MessageTracer tracer, OutboundGuard outboundGuard,
+                           @Value("${fix.ws.inbound.pool-size:0}") int inboundPoolSize,
+                           @Value("${fix.ws.outbound.pool-size:0}") int outboundPoolSize,
+                           @Value("${fix.ws.message-size-limit:65536}") int messageSizeLimit) {
+        this.tracer = tracer;
+        this.outboundGuard = outboundGuard;
+        this.inboundPoolSize = inboundPoolSize;
+        this.outboundPoolSize = outboundPoolSize;
+        this.messageSizeLimit = messageSizeLimit;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         config.enableSimpleBroker("/topic", "/queue");
@@ -21,4 +56,67 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/ws").withSockJS();
     }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setMessageSizeLimit(messageSizeLimit);
+        registration.addDecoratorFactory(outboundGuard);
+    }
+
+    /**
+     * Runs after Boot's configurer, which hands both channels the shared
+     * applicationTaskExecutor, so a configured pool size takes precedence.
+     */
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        if (inboundPoolSize > 0) {
+            registration.executor(channelExecutor("ws-inbound-", inboundPoolSize));
+        }
+        if (tracer.isEnabled()) {
+            registration.interceptors(new InboundTimestampInterceptor());
+        }
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        if (outboundPoolSize > 0) {
+            registration.executor(channelExecutor("ws-outbound-", outboundPoolSize));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        channelExecutors.forEach(ThreadPoolTaskExecutor::shutdown);
+    }
+
+    private ThreadPoolTaskExecutor channelExecutor(String threadNamePrefix, int poolSize) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.initialize();
+        channelExecutors.add(executor);
+        return executor;
+    }
+
+    /**
+     * Stamps SEND frames as they enter the inbound channel, before they queue for
+     * an executor thread, so traces can show the time spent waiting there.
+     */
+    private static final class InboundTimestampInterceptor implements ChannelInterceptor {
+
+        @Override
+        public Message<?> preSend(Message<?> message, MessageChannel channel) {
+            if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) {
+                return message;
+            }
+            long now = System.nanoTime();
+            MessageHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, MessageHeaderAccessor.class);
+            if (accessor != null && accessor.isMutable()) {
+                accessor.setHeader(MessageTracer.INBOUND_HEADER, now);
+                return message;
+            }
+            return MessageBuilder.fromMessage(message).setHeader(MessageTracer.INBOUND_HEADER, now).build();
+        }
+    }
 }
@@ -1,15 +1,38 @@
 package com.example.fixclient.controller;
 
+import com.example.fixclient.capture.ReplayEngine;
+import com.example.fixclient.capture.SessionRecorder;
 import com.example.fixclient.exception.BatchAlreadyRunningException;
+import com.example.fixclient.exception.SessionNotOwnedException;
+import com.example.fixclient.index.TrafficIndex;
+import com.example.fixclient.metrics.MessageTracer;
+import com.example.fixclient.orders.OrderStateCache;
+import com.example.fixclient.model.CaptureRequest;
 import com.example.fixclient.model.MessageRequestDto;
+import com.example.fixclient.model.OrderQuery;
+import com.example.fixclient.model.ReplayRequest;
 import com.example.fixclient.model.StartSessionRequest;
+import com.example.fixclient.model.TrafficQuery;
+import com.example.fixclient.model.UploadChunk;
+import com.example.fixclient.model.UploadCommand;
+import com.example.fixclient.model.UploadOpenRequest;
 import com.example.fixclient.service.BatchMessageSenderService;
+import com.example.fixclient.service.BatchScheduler;
 import com.example.fixclient.service.FixSessionManager;
+import com.example.fixclient.service.WarmupService;
+import com.example.fixclient.stream.RawTrafficStream;
+import com.example.fixclient.upload.ChunkedUploadService;
+import com.example.fixclient.websocket.OutboundGuard;
 import lombok.RequiredArgsConstructor;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.annotation.SendToUser;
 import org.springframework.stereotype.Controller;
+import quickfix.SessionID;
+
+import java.io.IOException;
+import java.util.List;
 
 @Controller
 @RequiredArgsConstructor
@@ -17,6 +40,15 @@ public class FixWebSocketController {
 
     private final FixSessionManager sessionManager;
     private final BatchMessageSenderService batchSender;
+    private final MessageTracer tracer;
+    private final SessionRecorder recorder;
+    private final ReplayEngine replayEngine;
+    private final OrderStateCache orderStates;
+    private final TrafficIndex trafficIndex;
+    private final ChunkedUploadService uploads;
+    private final OutboundGuard outboundGuard;
+    private final WarmupService warmup;
+    private final RawTrafficStream rawStream;
 
     @MessageMapping("/startInitiator")
     public void startSession(@Payload StartSessionRequest request, SimpMessageHeaderAccessor headerAccessor)
@@ -33,17 +65,140 @@ public class FixWebSocketController {
 
     @MessageMapping("/sendFixMessages")
     public void sendMessage(@Payload MessageRequestDto request, SimpMessageHeaderAccessor headerAccessor) {
-        if (request.repeatCount() > 1 && request.interval() > 0) {
+        if (request.repeatCount() > 1 && request.intervalNanos() > 0) {
             if (!batchSender.startSending(request, headerAccessor.getSessionId())) {
                 throw new BatchAlreadyRunningException("Batch sender is already running");
             }
         } else {
-            batchSender.sendOnce(request, headerAccessor.getSessionId());
+            tracer.requestReceived((Long) headerAccessor.getHeader(MessageTracer.INBOUND_HEADER));
+            try {
+                batchSender.sendOnce(request, headerAccessor.getSessionId());
+            } finally {
+                tracer.requestDone();
+            }
         }
     }
 
+    @MessageMapping("/upload/open")
+    @SendToUser("/queue/upload")
+    public ChunkedUploadService.UploadAck openUpload(@Payload UploadOpenRequest request,
+                                                     SimpMessageHeaderAccessor headerAccessor) {
+        return uploads.open(request, headerAccessor.getSessionId());
+    }
+
+    @MessageMapping("/upload/chunk")
+    public void uploadChunk(@Payload UploadChunk chunk, SimpMessageHeaderAccessor headerAccessor) {
+        uploads.chunk(chunk, headerAccessor.getSessionId());
+    }
+
+    @MessageMapping("/upload/commit")
+    public void commitUpload(@Payload UploadCommand command, SimpMessageHeaderAccessor headerAccessor) {
+        uploads.commit(command, headerAccessor.getSessionId());
+    }
+
+    @MessageMapping("/upload/abort")
+    public void abortUpload(@Payload UploadCommand command, SimpMessageHeaderAccessor headerAccessor) {
+        uploads.abort(command, headerAccessor.getSessionId());
+    }
+
+    @MessageMapping("/startCapture")
+    @SendToUser("/queue/capture")
+    public String startCapture(@Payload CaptureRequest request, SimpMessageHeaderAccessor headerAccessor)
+            throws IOException {
+        requireOwner(request.senderCompId(), request.targetCompId(), headerAccessor);
+        return recorder.start(new SessionID("FIX.4.1", request.senderCompId(), request.targetCompId()));
+    }
+
+    @MessageMapping("/stopCapture")
+    public void stopCapture(@Payload CaptureRequest request, SimpMessageHeaderAccessor headerAccessor) {
+        requireOwner(request.senderCompId(), request.targetCompId(), headerAccessor);
+        recorder.stop(new SessionID("FIX.4.1", request.senderCompId(), request.targetCompId()));
+    }
+
+    @MessageMapping("/replay")
+    public void replay(@Payload ReplayRequest request, SimpMessageHeaderAccessor headerAccessor) {
+        requireOwner(request.senderCompId(), request.targetCompId(), headerAccessor);
+        replayEngine.replay(request, headerAccessor.getSessionId());
+    }
+
+    @MessageMapping("/orders")
+    @SendToUser("/queue/orders")
+    public List<OrderStateCache.Summary> orders(@Payload OrderQuery query,
+                                                SimpMessageHeaderAccessor headerAccessor) {
+        String wsSessionId = headerAccessor.getSessionId();
+        return orderStates.summaries(query.senderCompId(), query.targetCompId()).stream()
+                .filter(summary -> wsSessionId != null && wsSessionId.equals(sessionManager.getOwner(
+                        new SessionID("FIX.4.1", summary.senderCompId(), summary.targetCompId()))))
+                .toList();
+    }
+
+    @MessageMapping("/orderState")
+    @SendToUser("/queue/orderState")
+    public OrderStateCache.OrderState orderState(@Payload OrderQuery query,
+                                                 SimpMessageHeaderAccessor headerAccessor) {
+        requireOwner(query.senderCompId(), query.targetCompId(), headerAccessor);
+        return orderStates.find(query.senderCompId(), query.targetCompId(), query.clOrdId());
+    }
+
+    @MessageMapping("/searchTraffic")
+    @SendToUser("/queue/traffic")
+    public TrafficIndex.SearchResult searchTraffic(@Payload TrafficQuery query,
+                                                   SimpMessageHeaderAccessor headerAccessor) {
+        requireOwner(query.senderCompId(), query.targetCompId(), headerAccessor);
+        return trafficIndex.search(query.senderCompId(), query.targetCompId(), query.terms(), query.sinceMillis(),
+                query.limit());
+    }
+
+    @MessageMapping("/batchStats")
+    @SendToUser("/queue/batchStats")
+    public BatchScheduler.Stats batchStats() {
+        return batchSender.getStats();
+    }
+
+    @MessageMapping("/outboundStats")
+    @SendToUser("/queue/outboundStats")
+    public List<OutboundGuard.ClientStats> outboundStats() {
+        return outboundGuard.stats();
+    }
+
+    @MessageMapping("/warmup")
+    @SendToUser("/queue/warmup")
+    public WarmupService.Report warmup() {
+        warmup.start();
+        return warmup.report();
+    }
+
+    @MessageMapping("/warmupStatus")
+    @SendToUser("/queue/warmup")
+    public WarmupService.Report warmupStatus() {
+        return warmup.report();
+    }
+
+    @MessageMapping("/rawStreamToken")
+    @SendToUser("/queue/raw-token")
+    public String rawStreamToken(SimpMessageHeaderAccessor headerAccessor) {
+        return rawStream.issueToken(headerAccessor.getSessionId());
+    }
+
+    @MessageMapping("/traces")
+    @SendToUser("/queue/traces")
+    public MessageTracer.Summary traces() {
+        return tracer.summary();
+    }
+
     @MessageMapping("/stopSendingBulkMessages")
     public void stopBatchMessages() {
         batchSender.stopSending();
     }
+
+    /**
+     * Rejects a request about a FIX session the calling STOMP session does not own.
+     */
+    private void requireOwner(String senderCompId, String targetCompId, SimpMessageHeaderAccessor headerAccessor) {
+        SessionID sessionID = new SessionID("FIX.4.1", senderCompId, targetCompId);
+        String wsSessionId = headerAccessor.getSessionId();
+        if (wsSessionId == null || !wsSessionId.equals(sessionManager.getOwner(sessionID))) {
+            throw new SessionNotOwnedException("Session " + sessionID + " is not owned by this connection");
+        }
+    }
 }
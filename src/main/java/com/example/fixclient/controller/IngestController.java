@@ -0,0 +1,30 @@
+package com.example.fixclient.controller;
+
+import com.example.fixclient.ingest.NdjsonIngestService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+@RestController
+@RequiredArgsConstructor
+public class IngestController {
+
+    static final String NDJSON = "application/x-ndjson";
+
+    private final NdjsonIngestService ingestService;
+
+    /**
+     * Reads the request body and writes the results on the servlet streams
+     * directly, so neither side is buffered in full.
+     */
+    @PostMapping(path = "/api/ingest", consumes = NDJSON)
+    public void ingest(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding("UTF-8");
+        ingestService.ingest(request.getInputStream(), response.getOutputStream());
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.fixclient.exception;
+
+public class CaptureNotFoundException extends RuntimeException {
+    public CaptureNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -2,6 +2,10 @@ package com.example.fixclient.exception;
 
 public class ConfigurationException extends RuntimeException {
 
+    public ConfigurationException(String message) {
+        super(message);
+    }
+
     public ConfigurationException(String message, Throwable cause) {
         super(message, cause);
     }
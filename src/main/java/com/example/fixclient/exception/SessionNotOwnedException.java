@@ -0,0 +1,7 @@
+package com.example.fixclient.exception;
+
+public class SessionNotOwnedException extends RuntimeException {
+    public SessionNotOwnedException(String message) {
+        super(message);
+    }
+}
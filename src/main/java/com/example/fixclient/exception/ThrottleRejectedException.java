@@ -0,0 +1,7 @@
+package com.example.fixclient.exception;
+
+public class ThrottleRejectedException extends RuntimeException {
+    public ThrottleRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.fixclient.exception;
+
+public class UploadNotFoundException extends RuntimeException {
+    public UploadNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.fixclient.exception;
+
+public class UploadRejectedException extends RuntimeException {
+    public UploadRejectedException(String message) {
+        super(message);
+    }
+}
@@ -18,10 +18,22 @@ public class WebSocketErrorHandler {
 
         if (ex instanceof SessionNotFoundException) {
             return createProblemDetail(HttpStatus.NOT_FOUND, "Session Not Found", ex.getMessage());
+        } else if (ex instanceof SessionNotOwnedException) {
+            return createProblemDetail(HttpStatus.FORBIDDEN, "Session Not Owned", ex.getMessage());
         } else if (ex instanceof SessionLogonRequiredException) {
             return createProblemDetail(HttpStatus.BAD_REQUEST, "Logon Required", ex.getMessage());
         } else if (ex instanceof BatchAlreadyRunningException) {
             return createProblemDetail(HttpStatus.CONFLICT, "Batch Already Running", ex.getMessage());
+        } else if (ex instanceof CaptureNotFoundException) {
+            return createProblemDetail(HttpStatus.NOT_FOUND, "Capture Not Found", ex.getMessage());
+        } else if (ex instanceof OrderNotFoundException) {
+            return createProblemDetail(HttpStatus.NOT_FOUND, "Order Not Found", ex.getMessage());
+        } else if (ex instanceof ThrottleRejectedException) {
+            return createProblemDetail(HttpStatus.TOO_MANY_REQUESTS, "Throttled", ex.getMessage());
+        } else if (ex instanceof UploadNotFoundException) {
+            return createProblemDetail(HttpStatus.NOT_FOUND, "Upload Not Found", ex.getMessage());
+        } else if (ex instanceof UploadRejectedException) {
+            return createProblemDetail(HttpStatus.BAD_REQUEST, "Upload Rejected", ex.getMessage());
         } else if (ex instanceof ConfigurationException) {
             return createProblemDetail(HttpStatus.INTERNAL_SERVER_ERROR, "Configuration Error", ex.getMessage());
         } else {
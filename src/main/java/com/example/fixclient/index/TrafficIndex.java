@@ -0,0 +1,372 @@
+package com.example.fixclient.index;
+
+import com.example.fixclient.listener.FixTrafficListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import quickfix.FieldMap;
+import quickfix.FieldNotFound;
+import quickfix.Message;
+import quickfix.SessionID;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Searchable window over the most recent traffic of every session.
+ * <p>
+ * Each session appends its raw messages to a byte ring of up to
+ * {@code fix.index.buffer-size} bytes and keeps at most
+ * {@code fix.index.max-messages} of them; whichever limit is hit first evicts the
+ * oldest messages. Both grow on demand, so quiet sessions stay small.
+ * <p>
+ * For the tags in {@code fix.index.tags} every value maps to a postings list of
+ * message sequence numbers. Queries intersect the postings of indexed terms and
+ * check the remaining terms against the raw message, newest first. Postings of
+ * evicted messages are trimmed lazily and swept every half window.
+ */
+@Component
+@Slf4j
+public class TrafficIndex implements FixTrafficListener {
+
+    public record Hit(long seq, long timestampMillis, Direction direction, boolean admin, String message) {
+    }
+
+    public record SearchResult(String senderCompId, String targetCompId, long indexedMessages, List<Hit> hits,
+                               boolean truncated, double tookMillis) {
+    }
+
+    static final int DEFAULT_LIMIT = 100;
+    static final int MAX_LIMIT = 1000;
+
+    private static final int INITIAL_MESSAGES = 1024;
+    private static final int INITIAL_BYTES = 256 * 1024;
+    private static final char SOH = '\u0001';
+
+    private final int[] tags;
+    private final int maxMessages;
+    private final int bufferSize;
+    private final Map<SessionID, SessionIndex> sessions = new ConcurrentHashMap<>();
+
+    public TrafficIndex(@Value("${fix.index.tags:11,37,55,35,39}") int[] tags,
+                        @Value("${fix.index.max-messages:1000000}") int maxMessages,
+                        @Value("${fix.index.buffer-size:134217728}") int bufferSize) {
+        this.tags = tags.clone();
+        this.maxMessages = Math.max(1, maxMessages);
+        this.bufferSize = Math.max(1, bufferSize);
+        log.info("Indexing tags {} over the last {} messages / {} bytes per session", Arrays.toString(tags),
+                this.maxMessages, this.bufferSize);
+    }
+
+    @Override
+    public void onMessage(SessionID sessionID, Direction direction, boolean admin, Message message) {
+        SessionIndex index = sessions.computeIfAbsent(sessionID, id -> new SessionIndex());
+        String[] values = new String[tags.length];
+        for (int i = 0; i < tags.length; i++) {
+            values[i] = value(message, tags[i]);
+        }
+        index.append(System.currentTimeMillis(), direction, admin, message.toString(), values);
+    }
+
+    /**
+     * Returns the newest messages of the session carrying every tag=value term
+     * and, if {@code sinceMillis} is given, received or sent at or after it.
+     */
+    public SearchResult search(String senderCompId, String targetCompId, Map<Integer, String> terms,
+                               Long sinceMillis, Integer limit) {
+        long start = System.nanoTime();
+        SessionID sessionID = new SessionID("FIX.4.1", senderCompId, targetCompId);
+        SessionIndex index = sessions.get(sessionID);
+        int max = limit == null || limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+        List<Hit> hits = new ArrayList<>();
+        boolean truncated = false;
+        long indexed = 0;
+        if (index != null) {
+            truncated = index.search(terms == null ? Map.of() : terms, sinceMillis == null ? 0 : sinceMillis,
+                    max, hits);
+            indexed = index.size();
+        }
+        return new SearchResult(senderCompId, targetCompId, indexed, hits, truncated,
+                (System.nanoTime() - start) / 1_000_000.0);
+    }
+
+    private static String value(Message message, int tag) {
+        FieldMap map = message.isSetField(tag) ? message
+                : message.getHeader().isSetField(tag) ? message.getHeader()
+                : message.getTrailer().isSetField(tag) ? message.getTrailer() : null;
+        if (map == null) {
+            return null;
+        }
+        try {
+            return map.getString(tag);
+        } catch (FieldNotFound e) {
+            return null;
+        }
+    }
+
+    private int tagIndex(int tag) {
+        for (int i = 0; i < tags.length; i++) {
+            if (tags[i] == tag) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Growable window of ascending message sequence numbers.
+     */
+    static final class Postings {
+
+        private long[] seqs = new long[4];
+        private int start;
+        private int end;
+
+        void add(long seq) {
+            if (end == seqs.length) {
+                int size = end - start;
+                long[] target = size < seqs.length / 2 ? seqs : new long[seqs.length * 2];
+                System.arraycopy(seqs, start, target, 0, size);
+                seqs = target;
+                start = 0;
+                end = size;
+            }
+            seqs[end++] = seq;
+        }
+
+        void trimBefore(long firstSeq) {
+            while (start < end && seqs[start] < firstSeq) {
+                start++;
+            }
+        }
+
+        boolean isEmpty() {
+            return start == end;
+        }
+
+        int size() {
+            return end - start;
+        }
+
+        long get(int i) {
+            return seqs[start + i];
+        }
+
+        boolean contains(long seq) {
+            return Arrays.binarySearch(seqs, start, end, seq) >= 0;
+        }
+    }
+
+    /**
+     * One session's window. Appends come from that session's sending and
+     * receiving threads; searches hold the same lock for their duration.
+     */
+    final class SessionIndex {
+
+        private final List<Map<String, Postings>> postings = new ArrayList<>();
+
+        private byte[] buffer = new byte[Math.min(INITIAL_BYTES, bufferSize)];
+        private long writePosition;
+
+        private long[] offsets = new long[Math.min(INITIAL_MESSAGES, maxMessages)];
+        private int[] lengths = new int[offsets.length];
+        private long[] timestamps = new long[offsets.length];
+        private byte[] flags = new byte[offsets.length];
+        private long firstSeq;
+        private long nextSeq;
+        private long sweepAt = Math.max(1, maxMessages / 2);
+
+        SessionIndex() {
+            for (int i = 0; i < tags.length; i++) {
+                postings.add(new HashMap<>());
+            }
+        }
+
+        synchronized long size() {
+            return nextSeq - firstSeq;
+        }
+
+        synchronized void append(long timestamp, Direction direction, boolean admin, String text,
+                                 String[] values) {
+            int length = text.length();
+            if (length > bufferSize) {
+                return;
+            }
+            ensureCapacity(length);
+
+            long seq = nextSeq++;
+            int slot = slot(seq);
+            offsets[slot] = writePosition;
+            lengths[slot] = length;
+            timestamps[slot] = timestamp;
+            flags[slot] = (byte) ((direction == Direction.INBOUND ? 1 : 0) | (admin ? 2 : 0));
+            int position = (int) (writePosition % buffer.length);
+            for (int i = 0; i < length; i++) {
+                char c = text.charAt(i);
+                buffer[position] = c <= 0xFF ? (byte) c : (byte) '?';
+                if (++position == buffer.length) {
+                    position = 0;
+                }
+            }
+            writePosition += length;
+
+            // Evict messages whose slot or bytes were just reused
+            long oldestOffset = writePosition - buffer.length;
+            while (firstSeq < nextSeq - offsets.length || offsets[slot(firstSeq)] < oldestOffset) {
+                firstSeq++;
+            }
+
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) {
+                    postings.get(i).computeIfAbsent(values[i], v -> new Postings()).add(seq);
+                }
+            }
+            if (nextSeq >= sweepAt) {
+                sweep();
+                sweepAt = nextSeq + Math.max(1, maxMessages / 2);
+            }
+        }
+
+        synchronized boolean search(Map<Integer, String> terms, long sinceMillis, int limit, List<Hit> hits) {
+            List<Postings> indexed = new ArrayList<>();
+            List<byte[]> unindexed = new ArrayList<>();
+            for (Map.Entry<Integer, String> term : terms.entrySet()) {
+                int tagIndex = tagIndex(term.getKey());
+                if (tagIndex < 0) {
+                    unindexed.add(("" + SOH + term.getKey() + "=" + term.getValue() + SOH)
+                            .getBytes(StandardCharsets.ISO_8859_1));
+                    continue;
+                }
+                Postings list = postings.get(tagIndex).get(term.getValue());
+                if (list == null) {
+                    return false;
+                }
+                list.trimBefore(firstSeq);
+                indexed.add(list);
+            }
+
+            if (indexed.isEmpty()) {
+                for (long seq = nextSeq - 1; seq >= firstSeq; seq--) {
+                    Boolean more = collect(seq, sinceMillis, unindexed, limit, hits);
+                    if (more != null) {
+                        return more;
+                    }
+                }
+                return false;
+            }
+
+            // Walk the shortest list newest first and probe the others
+            indexed.sort((a, b) -> Integer.compare(a.size(), b.size()));
+            Postings driver = indexed.get(0);
+            for (int i = driver.size() - 1; i >= 0; i--) {
+                long seq = driver.get(i);
+                if (seq < firstSeq) {
+                    break;
+                }
+                boolean inAll = true;
+                for (int j = 1; j < indexed.size() && inAll; j++) {
+                    inAll = indexed.get(j).contains(seq);
+                }
+                if (inAll) {
+                    Boolean more = collect(seq, sinceMillis, unindexed, limit, hits);
+                    if (more != null) {
+                        return more;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Adds the message if it matches; returns non-null once the search is over,
+         * true meaning there were more matches than the limit.
+         */
+        private Boolean collect(long seq, long sinceMillis, List<byte[]> unindexed, int limit, List<Hit> hits) {
+            int slot = slot(seq);
+            if (timestamps[slot] < sinceMillis) {
+                return false;
+            }
+            for (byte[] term : unindexed) {
+                if (!contains(slot, term)) {
+                    return null;
+                }
+            }
+            if (hits.size() == limit) {
+                return true;
+            }
+            Direction direction = (flags[slot] & 1) != 0 ? Direction.INBOUND : Direction.OUTBOUND;
+            hits.add(new Hit(seq, timestamps[slot], direction, (flags[slot] & 2) != 0, text(slot)));
+            return null;
+        }
+
+        private boolean contains(int slot, byte[] term) {
+            // Terms are SOH-delimited, so BeginString at the very start never matches
+            int start = (int) (offsets[slot] % buffer.length);
+            int end = start + lengths[slot] - term.length;
+            byte first = term[0];
+            outer:
+            for (int i = start; i <= end; i++) {
+                if (buffer[i < buffer.length ? i : i - buffer.length] != first) {
+                    continue;
+                }
+                for (int j = 1; j < term.length; j++) {
+                    int k = i + j;
+                    if (buffer[k < buffer.length ? k : k - buffer.length] != term[j]) {
+                        continue outer;
+                    }
+                }
+                return true;
+            }
+            return false;
+        }
+
+        private String text(int slot) {
+            char[] chars = new char[lengths[slot]];
+            long offset = offsets[slot];
+            for (int i = 0; i < chars.length; i++) {
+                char c = (char) (buffer[(int) ((offset + i) % buffer.length)] & 0xFF);
+                chars[i] = c == SOH ? '|' : c;
+            }
+            return new String(chars);
+        }
+
+        private int slot(long seq) {
+            return (int) (seq % offsets.length);
+        }
+
+        private void ensureCapacity(int length) {
+            // Grow only before the first wrap, while positions still equal indices
+            if (nextSeq == offsets.length && offsets.length < maxMessages) {
+                int capacity = (int) Math.min((long) offsets.length * 2, maxMessages);
+                offsets = Arrays.copyOf(offsets, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+                timestamps = Arrays.copyOf(timestamps, capacity);
+                flags = Arrays.copyOf(flags, capacity);
+            }
+            if (writePosition + length > buffer.length && buffer.length < bufferSize
+                    && writePosition <= buffer.length) {
+                long needed = Math.max((long) buffer.length * 2, writePosition + length);
+                buffer = Arrays.copyOf(buffer, (int) Math.min(needed, bufferSize));
+            }
+        }
+
+        private void sweep() {
+            for (Map<String, Postings> byValue : postings) {
+                Iterator<Postings> it = byValue.values().iterator();
+                while (it.hasNext()) {
+                    Postings list = it.next();
+                    list.trimBefore(firstSeq);
+                    if (list.isEmpty()) {
+                        it.remove();
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.fixclient.ingest;
+
+import com.example.fixclient.model.MessageRequestDto;
+import com.example.fixclient.service.BatchMessageSenderService;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sends an NDJSON stream of batch requests, one {@link MessageRequestDto}-shaped
+ * object per line, as it is read.
+ * <p>
+ * The input is parsed token by token. Messages of a line are collected into
+ * chunks of {@code fix.ingest.chunk-messages} and handed to the batch engine as
+ * each chunk fills, so memory use does not depend on the size of the stream
+ * or of a single line. {@code senderCompId} therefore has to come before
+ * {@code fixMessages} in each object. {@code repeatCount} applies to each chunk,
+ * and {@code interval} is ignored. One result line is written and flushed per
+ * chunk; the last result of an input line has {@code done} set. Malformed JSON
+ * ends the stream with an error result, since the parser cannot resync.
+ */
+@Service
+@Slf4j
+public class NdjsonIngestService {
+
+    /**
+     * @param line  input line the request object started on
+     * @param chunk 0-based chunk of that line
+     */
+    public record LineResult(long line, int chunk, String senderCompId, long messages, long sent, long failed,
+                             boolean done, String error) {
+    }
+
+    public record Summary(long lines, long messages, long sent, long failed) {
+    }
+
+    private final BatchMessageSenderService batchSender;
+    private final int chunkMessages;
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public NdjsonIngestService(BatchMessageSenderService batchSender,
+                               @Value("${fix.ingest.chunk-messages:500}") int chunkMessages) {
+        this.batchSender = batchSender;
+        this.chunkMessages = Math.max(1, chunkMessages);
+        mapper.getFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    public Summary ingest(InputStream in, OutputStream out) throws IOException {
+        long startNanos = System.nanoTime();
+        Totals totals = new Totals();
+        try (JsonParser parser = jsonFactory.createParser(in)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                long line = parser.currentTokenLocation().getLineNr();
+                if (token != JsonToken.START_OBJECT) {
+                    write(out, new LineResult(line, 0, null, 0, 0, 0, true, "Expected a JSON object"));
+                    break;
+                }
+                new Line(line, out, totals).read(parser);
+            }
+        } catch (JsonProcessingException e) {
+            long line = e.getLocation() != null ? e.getLocation().getLineNr() : -1;
+            write(out, new LineResult(line, 0, null, 0, 0, 0, true, "Malformed JSON: " + e.getOriginalMessage()));
+        }
+        Summary summary = new Summary(totals.lines, totals.messages, totals.sent, totals.messages - totals.sent);
+        log.info("Ingested {} in {} ms", summary, (System.nanoTime() - startNanos) / 1_000_000);
+        return summary;
+    }
+
+    private void write(OutputStream out, LineResult result) throws IOException {
+        mapper.writeValue(out, result);
+        out.write('\n');
+        out.flush();
+    }
+
+    private static final class Totals {
+        private long lines;
+        private long messages;
+        private long sent;
+    }
+
+    /**
+     * Parse and send state of one request object.
+     */
+    private final class Line {
+
+        private final long line;
+        private final OutputStream out;
+        private final Totals totals;
+        private final List<String> pending = new ArrayList<>();
+        private String senderCompId;
+        private boolean urgent;
+        private int repeatCount = 1;
+        private String error;
+        private int chunk;
+        private long messages;
+        private long sent;
+
+        private Line(long line, OutputStream out, Totals totals) {
+            this.line = line;
+            this.out = out;
+            this.totals = totals;
+        }
+
+        void read(JsonParser parser) throws IOException {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "senderCompId" -> senderCompId = parser.getValueAsString();
+                    case "urgent" -> urgent = parser.getValueAsBoolean();
+                    case "repeatCount" -> repeatCount = Math.max(1, parser.getValueAsInt(1));
+                    case "fixMessages" -> readMessages(parser, value);
+                    default -> parser.skipChildren();
+                }
+            }
+            flush(true);
+            totals.lines++;
+        }
+
+        private void readMessages(JsonParser parser, JsonToken value) throws IOException {
+            if (value != JsonToken.START_ARRAY) {
+                error = "fixMessages must be an array";
+                parser.skipChildren();
+                return;
+            }
+            if (senderCompId == null && error == null) {
+                error = "senderCompId must come before fixMessages";
+            }
+            JsonToken element;
+            while ((element = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (element != JsonToken.VALUE_STRING && error == null) {
+                    error = "fixMessages must contain strings";
+                }
+                parser.skipChildren();
+                pending.add(parser.getText());
+                if (pending.size() == chunkMessages) {
+                    flush(false);
+                }
+            }
+        }
+
+        private void flush(boolean done) throws IOException {
+            if (pending.isEmpty() && !done) {
+                return;
+            }
+            long chunkMessages = (long) pending.size() * repeatCount;
+            long chunkSent = 0;
+            if (!pending.isEmpty() && error == null) {
+                try {
+                    chunkSent = batchSender.sendChunk(new MessageRequestDto(repeatCount, 0, senderCompId,
+                            List.copyOf(pending), null, null, urgent), null);
+                } catch (RuntimeException e) {
+                    log.error("Ingest line {} chunk {} failed", line, chunk, e);
+                }
+            }
+            pending.clear();
+            messages += chunkMessages;
+            sent += chunkSent;
+            totals.messages += chunkMessages;
+            totals.sent += chunkSent;
+            write(out, new LineResult(line, chunk++, senderCompId, messages, sent, messages - sent, done, error));
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.fixclient.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.example.fix.BatchIteration")
+@Label("FIX Batch Iteration")
+@Category({"FIX", "Batch"})
+@Description("One pass of BatchMessageSenderService over the request's messages")
+@StackTrace(false)
+public class BatchIterationEvent extends Event {
+
+    @Label("Sender")
+    String sender;
+
+    @Label("Iteration")
+    int iteration;
+
+    @Label("Messages")
+    int messages;
+
+    @Label("Sent")
+    int sent;
+
+    public void complete(String sender, int iteration, int messages, int sent) {
+        end();
+        if (shouldCommit()) {
+            this.sender = sender;
+            this.iteration = iteration;
+            this.messages = messages;
+            this.sent = sent;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.fixclient.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import quickfix.FieldNotFound;
+import quickfix.Message;
+import quickfix.SessionID;
+import quickfix.field.MsgType;
+
+/**
+ * One QuickFIX/J application callback (toApp, fromApp, toAdmin, fromAdmin).
+ * <p>
+ * Usage follows the usual JFR pattern: create and {@link #begin()} on entry,
+ * {@link #complete} on exit. When the event is disabled, {@code shouldCommit()}
+ * is false and the instance is eliminated by escape analysis.
+ */
+@Name("com.example.fix.Message")
+@Label("FIX Message Callback")
+@Category({"FIX", "Messages"})
+@Description("QuickFIX/J application callback with session and MsgType")
+@StackTrace(false)
+public class FixMessageEvent extends Event {
+
+    @Label("Callback")
+    String callback;
+
+    @Label("MsgType")
+    String msgType;
+
+    @Label("Sender")
+    String sender;
+
+    @Label("Target")
+    String target;
+
+    public void complete(String callback, Message message, SessionID sessionID) {
+        end();
+        if (shouldCommit()) {
+            this.callback = callback;
+            this.msgType = msgTypeOf(message);
+            this.sender = sessionID.getSenderCompID();
+            this.target = sessionID.getTargetCompID();
+            commit();
+        }
+    }
+
+    private static String msgTypeOf(Message message) {
+        try {
+            return message.getHeader().isSetField(MsgType.FIELD) ? message.getHeader().getString(MsgType.FIELD)
+                    : null;
+        } catch (FieldNotFound e) {
+            return null;
+        }
+    }
+}
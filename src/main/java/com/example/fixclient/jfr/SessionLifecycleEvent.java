@@ -0,0 +1,40 @@
+package com.example.fixclient.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.example.fix.SessionLifecycle")
+@Label("FIX Session Start/Stop")
+@Category({"FIX", "Sessions"})
+@Description("FixSessionManager starting or stopping an initiator")
+public class SessionLifecycleEvent extends Event {
+
+    public static final String START = "start";
+    public static final String STOP = "stop";
+
+    @Label("Action")
+    String action;
+
+    @Label("Sender")
+    String sender;
+
+    @Label("Target")
+    String target;
+
+    @Label("Environment")
+    String environment;
+
+    public void complete(String action, String sender, String target, String environment) {
+        end();
+        if (shouldCommit()) {
+            this.action = action;
+            this.sender = sender;
+            this.target = target;
+            this.environment = environment;
+            commit();
+        }
+    }
+}
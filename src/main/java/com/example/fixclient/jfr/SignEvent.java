@@ -0,0 +1,42 @@
+package com.example.fixclient.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import quickfix.FieldNotFound;
+import quickfix.Message;
+import quickfix.field.SenderCompID;
+
+@Name("com.example.fix.Sign")
+@Label("FIX Message Signing")
+@Category({"FIX", "Security"})
+@Description("CertificateService.signMessage")
+@StackTrace(false)
+public class SignEvent extends Event {
+
+    @Label("Sender")
+    String sender;
+
+    @Label("Signed")
+    boolean signed;
+
+    public void complete(Message message, boolean signed) {
+        end();
+        if (shouldCommit()) {
+            this.sender = senderOf(message);
+            this.signed = signed;
+            commit();
+        }
+    }
+
+    private static String senderOf(Message message) {
+        try {
+            return message.getHeader().getString(SenderCompID.FIELD);
+        } catch (FieldNotFound e) {
+            return null;
+        }
+    }
+}
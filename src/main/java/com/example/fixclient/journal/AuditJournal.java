@@ -0,0 +1,395 @@
+package com.example.fixclient.journal;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+import org.springframework.stereotype.Component;
+import quickfix.SessionID;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Append-only binary journal for QuickFIX/J session logs.
+ * <p>
+ * Producers (QuickFIX/J threads) copy each record into an off-heap ring buffer
+ * with a single CAS and never block: when the ring is full the record is dropped
+ * and counted. A background thread drains the ring into rolling journal files.
+ * A failed write abandons the current file and the writer rolls to a new one
+ * after a back-off; until that succeeds the journal reports itself as down.
+ * Use {@link JournalReader} to decode them.
+ */
+@Component
+@Slf4j
+public class AuditJournal implements HealthIndicator {
+
+    static final int FILE_MAGIC = 0x464A524E; // "FJRN"
+    static final short FILE_VERSION = 1;
+
+    static final byte TYPE_SESSION = 0;
+    static final byte TYPE_INCOMING = 1;
+    static final byte TYPE_OUTGOING = 2;
+    static final byte TYPE_EVENT = 3;
+    static final byte TYPE_ERROR = 4;
+    // Set on the type byte when the payload was cut at MAX_PAYLOAD
+    static final byte FLAG_TRUNCATED = (byte) 0x80;
+
+    // Record: int length | int sessionId | long timestampMicros | byte type | payload
+    static final int HEADER_LENGTH = 17;
+    private static final int ALIGNMENT = 8;
+    static final int MAX_PAYLOAD = 64 * 1024;
+    private static final int FILE_HEADER_LENGTH = 6;
+    private static final long RETRY_MIN_MILLIS = 500;
+    private static final long RETRY_MAX_MILLIS = 30_000;
+    private static final VarHandle INT_VIEW = MethodHandles.byteBufferViewVarHandle(int[].class,
+            ByteOrder.LITTLE_ENDIAN);
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final Path directory;
+    private final long maxFileSize;
+    private final ByteBuffer ring;
+    private final int capacity;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    private final Map<String, Integer> sessionIds = new ConcurrentHashMap<>();
+    private final List<String> sessionNames = new CopyOnWriteArrayList<>();
+    private final long epochMicrosBase = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis())
+            - TimeUnit.NANOSECONDS.toMicros(System.nanoTime());
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder truncated = new LongAdder();
+    private final LongAdder writeFailures = new LongAdder();
+    private volatile String failure;
+
+    // Drainer-thread state
+    private final ByteBuffer staging = ByteBuffer.allocateDirect(256 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+    private final BitSet definedInFile = new BitSet();
+    private FileChannel channel;
+    private Path file;
+    private long fileSize;
+    private int stagedRecords;
+    private long retryMillis = RETRY_MIN_MILLIS;
+    private int fileCounter;
+    private Thread drainer;
+    private volatile boolean running;
+
+    public AuditJournal(@Value("${fix.journal.directory:log/journal}") Path directory,
+                        @Value("${fix.journal.buffer-size:8388608}") int bufferSize,
+                        @Value("${fix.journal.max-file-size:67108864}") long maxFileSize) {
+        this.directory = directory;
+        this.maxFileSize = maxFileSize;
+        this.capacity = Integer.highestOneBit(Math.max(bufferSize, 2 * (MAX_PAYLOAD + HEADER_LENGTH)) - 1) << 1;
+        this.mask = capacity - 1;
+        this.ring = ByteBuffer.allocateDirect(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        Files.createDirectories(directory);
+        running = true;
+        drainer = new Thread(this::drainLoop, "audit-journal-writer");
+        drainer.setDaemon(true);
+        drainer.start();
+        log.info("Audit journal writing to {} ({} KB ring buffer)", directory.toAbsolutePath(), capacity / 1024);
+    }
+
+    @PreDestroy
+    public void close() {
+        running = false;
+        if (drainer != null) {
+            LockSupport.unpark(drainer);
+            try {
+                drainer.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        log.info("Audit journal closed: {} records written, {} dropped", written.sum(), dropped.sum());
+    }
+
+    /**
+     * Returns the compact id used for the given session in journal records.
+     */
+    public int register(SessionID sessionID) {
+        return sessionIds.computeIfAbsent(sessionID.toString(), name -> {
+            synchronized (sessionNames) {
+                sessionNames.add(name);
+                return sessionNames.size() - 1;
+            }
+        });
+    }
+
+    /**
+     * Appends a record without blocking. Returns false if the ring was full and
+     * the record was dropped.
+     */
+    public boolean append(int sessionId, byte type, String text) {
+        int payloadLength = Math.min(text.length(), MAX_PAYLOAD);
+        if (payloadLength < text.length()) {
+            type |= FLAG_TRUNCATED;
+            truncated.increment();
+        }
+        int length = HEADER_LENGTH + payloadLength;
+        long position = claim(align(length));
+        if (position < 0) {
+            dropped.increment();
+            return false;
+        }
+
+        int index = (int) (position & mask);
+        ring.putInt(index + 4, sessionId);
+        ring.putLong(index + 8, epochMicrosBase + TimeUnit.NANOSECONDS.toMicros(System.nanoTime()));
+        ring.put(index + 16, type);
+        int offset = index + HEADER_LENGTH;
+        for (int i = 0; i < payloadLength; i++) {
+            char c = text.charAt(i);
+            ring.put(offset + i, c <= 0xFF ? (byte) c : (byte) '?');
+        }
+        // Publishing the length makes the record visible to the drainer
+        INT_VIEW.setRelease(ring, index, length);
+        return true;
+    }
+
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getTruncatedCount() {
+        return truncated.sum();
+    }
+
+    public long getWriteFailureCount() {
+        return writeFailures.sum();
+    }
+
+    /**
+     * Down while the writer cannot write to disk, records appended meanwhile are dropped.
+     */
+    @Override
+    public Health health() {
+        Health.Builder builder = failure == null ? Health.up() : Health.down().withDetail("error", failure);
+        return builder.withDetail("written", written.sum())
+                .withDetail("dropped", dropped.sum())
+                .withDetail("writeFailures", writeFailures.sum())
+                .build();
+    }
+
+    /**
+     * Bytes appended to the ring but not yet drained to disk.
+     */
+    public long getBacklogBytes() {
+        return tail.get() - head;
+    }
+
+    private long claim(int required) {
+        while (true) {
+            long currentTail = tail.get();
+            long available = capacity - (currentTail - head);
+            int index = (int) (currentTail & mask);
+            int toEnd = capacity - index;
+
+            if (required <= toEnd) {
+                if (required > available) {
+                    return -1;
+                }
+                if (tail.compareAndSet(currentTail, currentTail + required)) {
+                    return currentTail;
+                }
+            } else {
+                // Record does not fit before the end of the ring: pad and wrap to the start
+                if (toEnd + required > available) {
+                    return -1;
+                }
+                if (tail.compareAndSet(currentTail, currentTail + toEnd + required)) {
+                    INT_VIEW.setRelease(ring, index, -toEnd);
+                    return currentTail + toEnd;
+                }
+            }
+        }
+    }
+
+    private void drainLoop() {
+        while (true) {
+            try {
+                if (channel == null) {
+                    openNextFile();
+                }
+                while (running) {
+                    if (drain() == 0) {
+                        flushStaging();
+                        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                    }
+                }
+                drain();
+                flushStaging();
+                channel.force(true);
+                channel.close();
+                return;
+            } catch (IOException | RuntimeException e) {
+                writeFailures.increment();
+                failure = e.toString();
+                abandonFile();
+                if (!running) {
+                    log.error("Audit journal writer failed while closing", e);
+                    return;
+                }
+                log.error("Audit journal write to {} failed, retrying on a new file in {} ms", file, retryMillis, e);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(retryMillis));
+                retryMillis = Math.min(retryMillis * 2, RETRY_MAX_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Drops the staged records and closes the failed file, deleting it if it
+     * never got a complete header.
+     */
+    private void abandonFile() {
+        dropped.add(stagedRecords);
+        stagedRecords = 0;
+        staging.clear();
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.debug("Closing failed journal file {}", file, e);
+            }
+            channel = null;
+        }
+        if (file != null && fileSize < FILE_HEADER_LENGTH) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.debug("Deleting empty journal file {}", file, e);
+            }
+        }
+    }
+
+    private int drain() throws IOException {
+        int records = 0;
+        while (true) {
+            long position = head;
+            int index = (int) (position & mask);
+            int length = (int) INT_VIEW.getAcquire(ring, index);
+            if (length == 0) {
+                return records;
+            }
+            if (length < 0) {
+                zero(index, -length);
+                head = position - length;
+                continue;
+            }
+
+            int sessionId = ring.getInt(index + 4);
+            String sessionName = sessionNames.get(sessionId);
+            ensureStagingCapacity(length + HEADER_LENGTH + sessionName.length());
+            // Checked after a possible roll, every file has to define its sessions
+            if (!definedInFile.get(sessionId)) {
+                writeSessionDefinition(sessionId, sessionName);
+            }
+            staging.put(ring.slice(index, length));
+
+            int aligned = align(length);
+            zero(index, aligned);
+            head = position + aligned;
+            stagedRecords++;
+            records++;
+        }
+    }
+
+    private void writeSessionDefinition(int sessionId, String name) {
+        staging.putInt(HEADER_LENGTH + name.length());
+        staging.putInt(sessionId);
+        staging.putLong(epochMicrosBase + TimeUnit.NANOSECONDS.toMicros(System.nanoTime()));
+        staging.put(TYPE_SESSION);
+        for (int i = 0; i < name.length(); i++) {
+            staging.put((byte) name.charAt(i));
+        }
+        definedInFile.set(sessionId);
+    }
+
+    private void ensureStagingCapacity(int length) throws IOException {
+        if (staging.remaining() < length) {
+            flushStaging();
+        }
+        if (fileSize + staging.position() + length > maxFileSize) {
+            flushStaging();
+            openNextFile();
+        }
+    }
+
+    private void flushStaging() throws IOException {
+        staging.flip();
+        while (staging.hasRemaining()) {
+            fileSize += channel.write(staging);
+        }
+        staging.clear();
+        if (failure != null) {
+            log.info("Audit journal writing to {} again", file);
+            failure = null;
+            retryMillis = RETRY_MIN_MILLIS;
+        }
+        written.add(stagedRecords);
+        stagedRecords = 0;
+    }
+
+    private void openNextFile() throws IOException {
+        if (channel != null) {
+            channel.force(true);
+            channel.close();
+        }
+        String name = String.format("journal-%s-%04d.fjl", LocalDateTime.now().format(FILE_TIME), fileCounter++);
+        file = directory.resolve(name);
+        fileSize = 0;
+        channel = openChannel(file);
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(FILE_MAGIC).putShort(FILE_VERSION).flip();
+        while (header.hasRemaining()) {
+            fileSize += channel.write(header);
+        }
+        // Every file is self-describing, so session names are written again after a roll
+        definedInFile.clear();
+    }
+
+    FileChannel openChannel(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    private void zero(int index, int length) {
+        for (int i = 0; i < length; i += Long.BYTES) {
+            ring.putLong(index + i, 0L);
+        }
+    }
+
+    private static int align(int length) {
+        return (length + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+}
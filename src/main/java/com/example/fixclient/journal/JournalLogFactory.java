@@ -0,0 +1,59 @@
+package com.example.fixclient.journal;
+
+import quickfix.Log;
+import quickfix.LogFactory;
+import quickfix.SessionID;
+
+/**
+ * LogFactory that records session traffic and events into the {@link AuditJournal}
+ * instead of printing them to stdout.
+ */
+public class JournalLogFactory implements LogFactory {
+
+    private final AuditJournal journal;
+
+    public JournalLogFactory(AuditJournal journal) {
+        this.journal = journal;
+    }
+
+    @Override
+    public Log create(SessionID sessionID) {
+        return new JournalLog(journal, journal.register(sessionID));
+    }
+
+    private static final class JournalLog implements Log {
+
+        private final AuditJournal journal;
+        private final int sessionId;
+
+        private JournalLog(AuditJournal journal, int sessionId) {
+            this.journal = journal;
+            this.sessionId = sessionId;
+        }
+
+        @Override
+        public void clear() {
+            // The journal is append-only, nothing to clear
+        }
+
+        @Override
+        public void onIncoming(String message) {
+            journal.append(sessionId, AuditJournal.TYPE_INCOMING, message);
+        }
+
+        @Override
+        public void onOutgoing(String message) {
+            journal.append(sessionId, AuditJournal.TYPE_OUTGOING, message);
+        }
+
+        @Override
+        public void onEvent(String text) {
+            journal.append(sessionId, AuditJournal.TYPE_EVENT, text);
+        }
+
+        @Override
+        public void onErrorEvent(String text) {
+            journal.append(sessionId, AuditJournal.TYPE_ERROR, text);
+        }
+    }
+}
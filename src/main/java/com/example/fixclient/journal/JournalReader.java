@@ -0,0 +1,125 @@
+package com.example.fixclient.journal;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Decodes journal files written by {@link AuditJournal}.
+ * <p>
+ * Usage: {@code JournalReader <file-or-directory> [regex]} prints every record,
+ * or only those whose session or text matches the regex, with SOH shown as '|'.
+ */
+public final class JournalReader {
+
+    /**
+     * A decoded record, {@code truncated} when the writer cut the text at the payload limit.
+     */
+    public record Entry(long timestampMicros, String session, String type, String text, boolean truncated) {
+
+        public Instant timestamp() {
+            return Instant.EPOCH.plusNanos(timestampMicros * 1_000);
+        }
+
+        @Override
+        public String toString() {
+            return timestamp() + " " + session + " " + type + " " + text.replace('\u0001', '|')
+                    + (truncated ? " [truncated]" : "");
+        }
+    }
+
+    private JournalReader() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: JournalReader <file-or-directory> [regex]");
+            System.exit(1);
+        }
+        Pattern filter = args.length > 1 ? Pattern.compile(args[1]) : null;
+        for (Path file : journalFiles(Path.of(args[0]))) {
+            read(file, entry -> {
+                if (filter == null || filter.matcher(entry.session()).find() || filter.matcher(entry.text()).find()) {
+                    System.out.println(entry);
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns the journal files at the given path in the order they were written.
+     */
+    public static List<Path> journalFiles(Path path) throws IOException {
+        if (!Files.isDirectory(path)) {
+            return List.of(path);
+        }
+        try (Stream<Path> files = Files.list(path)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(".fjl")).sorted().toList();
+        }
+    }
+
+    /**
+     * Decodes all complete records of a single journal file.
+     */
+    public static void read(Path file, Consumer<Entry> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.remaining() < 6 || buffer.getInt() != AuditJournal.FILE_MAGIC) {
+                throw new IOException("Not a journal file: " + file);
+            }
+            short version = buffer.getShort();
+            if (version != AuditJournal.FILE_VERSION) {
+                throw new IOException("Unsupported journal version " + version + ": " + file);
+            }
+
+            Map<Integer, String> sessions = new HashMap<>();
+            while (buffer.remaining() >= AuditJournal.HEADER_LENGTH) {
+                int start = buffer.position();
+                int length = buffer.getInt();
+                if (length < AuditJournal.HEADER_LENGTH || length > buffer.remaining() + Integer.BYTES) {
+                    // Truncated tail of a file that is still being written
+                    break;
+                }
+                int sessionId = buffer.getInt();
+                long timestampMicros = buffer.getLong();
+                byte type = buffer.get();
+                byte[] payload = new byte[length - AuditJournal.HEADER_LENGTH];
+                buffer.get(payload);
+                String text = new String(payload, StandardCharsets.ISO_8859_1);
+
+                if (type == AuditJournal.TYPE_SESSION) {
+                    sessions.put(sessionId, text);
+                } else {
+                    String session = sessions.getOrDefault(sessionId, "#" + sessionId);
+                    boolean truncated = (type & AuditJournal.FLAG_TRUNCATED) != 0;
+                    byte baseType = (byte) (type & ~AuditJournal.FLAG_TRUNCATED);
+                    consumer.accept(new Entry(timestampMicros, session, typeName(baseType), text, truncated));
+                }
+                buffer.position(start + length);
+            }
+        }
+    }
+
+    private static String typeName(byte type) {
+        return switch (type) {
+            case AuditJournal.TYPE_INCOMING -> "IN";
+            case AuditJournal.TYPE_OUTGOING -> "OUT";
+            case AuditJournal.TYPE_EVENT -> "EVENT";
+            case AuditJournal.TYPE_ERROR -> "ERROR";
+            default -> "TYPE" + type;
+        };
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.fixclient.listener;
+
+import quickfix.Message;
+import quickfix.SessionID;
+
+/**
+ * Observer of every message passing through the initiator's QuickFIX/J
+ * callbacks. Implementations run on the sending or receiving thread, so they
+ * must return quickly and must not modify the message.
+ */
+public interface FixTrafficListener {
+
+    enum Direction {
+        INBOUND,
+        OUTBOUND
+    }
+
+    /**
+     * @param admin true for session-level messages (toAdmin/fromAdmin)
+     */
+    void onMessage(SessionID sessionID, Direction direction, boolean admin, Message message);
+}
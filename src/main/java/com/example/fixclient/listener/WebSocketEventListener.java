@@ -1,6 +1,9 @@
 package com.example.fixclient.listener;
 
 import com.example.fixclient.service.FixSessionManager;
+import com.example.fixclient.service.WorkerThreads;
+import com.example.fixclient.stream.RawTrafficStream;
+import com.example.fixclient.upload.ChunkedUploadService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
@@ -11,9 +14,16 @@ import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 public class WebSocketEventListener {
 
     private final FixSessionManager sessionManager;
+    private final ChunkedUploadService uploads;
+    private final WorkerThreads workerThreads;
+    private final RawTrafficStream rawStream;
 
-    public WebSocketEventListener(FixSessionManager sessionManager) {
+    public WebSocketEventListener(FixSessionManager sessionManager, ChunkedUploadService uploads,
+                                  WorkerThreads workerThreads, RawTrafficStream rawStream) {
         this.sessionManager = sessionManager;
+        this.uploads = uploads;
+        this.workerThreads = workerThreads;
+        this.rawStream = rawStream;
     }
 
     @EventListener
@@ -21,6 +31,11 @@ public class WebSocketEventListener {
         String sessionId = event.getSessionId();
         log.info("WebSocket Disconnected. Session ID: {}", sessionId);
 
-        sessionManager.stopSessionsByWsId(sessionId);
+        uploads.abortAll(sessionId);
+        rawStream.revokeTokens(sessionId);
+        // Ownership is released here; logouts block for up to the logout timeout, keep them
+        // off the WebSocket container thread
+        sessionManager.stopSessionsByWsId(sessionId,
+                task -> workerThreads.newThread("ws-disconnect-" + sessionId, task).start());
     }
 }
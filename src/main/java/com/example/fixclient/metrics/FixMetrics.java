@@ -0,0 +1,426 @@
+package com.example.fixclient.metrics;
+
+import com.example.fixclient.journal.AuditJournal;
+import com.example.fixclient.model.SlowConsumerPolicy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import quickfix.SessionID;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Central place for all FIX related meters. Meters are created once per session
+ * (or per MsgType within a session) and cached, so recording on the message path
+ * is a map or array lookup followed by a lock-free Micrometer update, with no
+ * allocation once a session has seen each of its message types.
+ */
+@Component
+public class FixMetrics {
+
+    public static final String DIRECTION_IN = "in";
+    public static final String DIRECTION_OUT = "out";
+
+    private final MeterRegistry registry;
+    private final Map<SessionID, SessionMeters> sessions = new ConcurrentHashMap<>();
+    private final Map<String, Timer> signTimers = new ConcurrentHashMap<>();
+
+    private final Counter batchRuns;
+    private final Counter batchIterations;
+    private final Counter batchSent;
+    private final Counter batchFailed;
+    private final Counter batchOverruns;
+    private final Counter batchSkipped;
+    private final Timer batchLateness;
+    private final Timer sessionStartTimer;
+    private final Timer wsSendTimer;
+    private final Counter wsSlowDisconnects;
+    private final Map<SlowConsumerPolicy, Counter> wsDropped = new EnumMap<>(SlowConsumerPolicy.class);
+    private final Counter rawDropped;
+
+    public FixMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.batchRuns = Counter.builder("fix.batch.runs")
+                .description("Batch jobs started")
+                .register(registry);
+        this.batchIterations = Counter.builder("fix.batch.iterations")
+                .description("Batch iterations executed")
+                .register(registry);
+        this.batchSent = Counter.builder("fix.batch.messages")
+                .tag("result", "sent")
+                .description("Messages handed to QuickFIX/J by batch jobs")
+                .register(registry);
+        this.batchFailed = Counter.builder("fix.batch.messages")
+                .tag("result", "failed")
+                .description("Messages handed to QuickFIX/J by batch jobs")
+                .register(registry);
+        this.batchOverruns = Counter.builder("fix.batch.overruns")
+                .description("Batch iterations that ran past the start of the next one")
+                .register(registry);
+        this.batchSkipped = Counter.builder("fix.batch.skipped")
+                .description("Batch iterations dropped by the SKIP overrun policy")
+                .register(registry);
+        this.batchLateness = Timer.builder("fix.batch.lateness")
+                .description("Actual minus intended start of batch iterations")
+                .register(registry);
+        this.sessionStartTimer = Timer.builder("fix.session.start")
+                .description("Time to build settings and start an initiator")
+                .register(registry);
+        this.wsSendTimer = Timer.builder("fix.ws.send")
+                .publishPercentiles(0.5, 0.99)
+                .description("Time a write of one frame to a WebSocket client blocked")
+                .register(registry);
+        this.wsSlowDisconnects = Counter.builder("fix.ws.slow.disconnects")
+                .description("WebSocket clients disconnected for not keeping up")
+                .register(registry);
+        this.rawDropped = Counter.builder("fix.raw.dropped")
+                .description("Records not streamed to /ws-raw clients because their backlog was full")
+                .register(registry);
+        for (SlowConsumerPolicy policy : SlowConsumerPolicy.values()) {
+            wsDropped.put(policy, Counter.builder("fix.ws.dropped")
+                    .tag("policy", policy.name())
+                    .description("Frames to slow WebSocket clients dropped or conflated away")
+                    .register(registry));
+        }
+    }
+
+    public SessionMeters session(SessionID sessionID) {
+        SessionMeters meters = sessions.get(sessionID);
+        return meters != null ? meters : sessions.computeIfAbsent(sessionID, SessionMeters::new);
+    }
+
+    public Timer signTimer(String senderCompId) {
+        Timer timer = signTimers.get(senderCompId);
+        return timer != null ? timer : signTimers.computeIfAbsent(senderCompId, sender -> Timer.builder("fix.sign")
+                .tag("sender", sender)
+                .description("Message signing time")
+                .register(registry));
+    }
+
+    /**
+     * Registers a gauge reporting the state of a session, for example the ordinal
+     * of its {@code SessionStatus}. The state object is held weakly by Micrometer.
+     */
+    public <T> void sessionStateGauge(SessionID sessionID, T stateObject, ToDoubleFunction<T> state) {
+        Gauge.builder("fix.session.state", stateObject, state)
+                .tags(sessionTags(sessionID))
+                .description("Session state (SessionStatus ordinal)")
+                .register(registry);
+    }
+
+    public void activeSessionsGauge(Supplier<Number> activeSessions) {
+        Gauge.builder("fix.sessions.active", activeSessions)
+                .description("Initiator sessions currently started")
+                .register(registry);
+    }
+
+    /**
+     * Registers a gauge for the depth of a named internal queue.
+     */
+    public void queueDepthGauge(String queue, Supplier<Number> depth) {
+        Gauge.builder("fix.queue.depth", depth)
+                .tag("queue", queue)
+                .description("Items waiting in an internal queue")
+                .register(registry);
+    }
+
+    /**
+     * Exposes the audit journal's backlog, record counters and write failures.
+     */
+    public void bindJournal(AuditJournal journal) {
+        Gauge.builder("fix.journal.backlog", journal, AuditJournal::getBacklogBytes)
+                .baseUnit("bytes")
+                .description("Journal records waiting to be written to disk")
+                .register(registry);
+        FunctionCounter.builder("fix.journal.records", journal, AuditJournal::getWrittenCount)
+                .tag("result", "written")
+                .register(registry);
+        FunctionCounter.builder("fix.journal.records", journal, AuditJournal::getDroppedCount)
+                .tag("result", "dropped")
+                .register(registry);
+        FunctionCounter.builder("fix.journal.truncated", journal, AuditJournal::getTruncatedCount)
+                .description("Journal records whose text was cut at the payload limit")
+                .register(registry);
+        FunctionCounter.builder("fix.journal.write.failures", journal, AuditJournal::getWriteFailureCount)
+                .description("Journal writes that failed and made the writer roll to a new file")
+                .register(registry);
+    }
+
+    public void batchStarted() {
+        batchRuns.increment();
+    }
+
+    public void batchIteration() {
+        batchIterations.increment();
+    }
+
+    public void batchMessage(boolean sent) {
+        (sent ? batchSent : batchFailed).increment();
+    }
+
+    public void batchOverrun() {
+        batchOverruns.increment();
+    }
+
+    public void batchSkipped(long iterations) {
+        batchSkipped.increment(iterations);
+    }
+
+    public void batchLateness(long nanos) {
+        batchLateness.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public Timer sessionStartTimer() {
+        return sessionStartTimer;
+    }
+
+    public Timer wsSendTimer() {
+        return wsSendTimer;
+    }
+
+    public void wsSlowDisconnect() {
+        wsSlowDisconnects.increment();
+    }
+
+    public void wsDropped(SlowConsumerPolicy policy, long frames) {
+        wsDropped.get(policy).increment(frames);
+    }
+
+    /**
+     * Exposes the bytes queued for all WebSocket clients and the number of clients.
+     */
+    public <T> void wsOutboundGauges(T guard, ToDoubleFunction<T> queuedBytes, ToDoubleFunction<T> clients) {
+        Gauge.builder("fix.ws.outbound.queued", guard, queuedBytes)
+                .baseUnit("bytes")
+                .description("Frames waiting to be written to WebSocket clients")
+                .register(registry);
+        Gauge.builder("fix.ws.clients", guard, clients)
+                .description("Connected WebSocket clients")
+                .register(registry);
+    }
+
+    public void rawStreamGauge(Supplier<Number> clients) {
+        Gauge.builder("fix.raw.clients", clients)
+                .description("Clients connected to the raw traffic stream")
+                .register(registry);
+    }
+
+    public void rawDropped() {
+        rawDropped.increment();
+    }
+
+    /**
+     * TLS handshakes of initiator connections, from connect to secured. A
+     * resumed handshake reused a cached session and skipped the key exchange.
+     */
+    public Timer tlsHandshakeTimer(String environment, boolean resumed) {
+        return Timer.builder("fix.tls.handshake")
+                .tag("environment", environment)
+                .tag("resumed", String.valueOf(resumed))
+                .description("TLS handshake time")
+                .register(registry);
+    }
+
+    /**
+     * TestRequest to Heartbeat round trip of a session. Percentiles cover a
+     * rolling window of about a minute.
+     */
+    public Timer rttTimer(SessionID sessionID, String environment) {
+        return Timer.builder("fix.rtt")
+                .tags(sessionTags(sessionID))
+                .tag("environment", environment)
+                .publishPercentiles(0.5, 0.9, 0.99)
+                .distributionStatisticExpiry(Duration.ofMinutes(1))
+                .distributionStatisticBufferLength(3)
+                .description("TestRequest to Heartbeat round trip")
+                .register(registry);
+    }
+
+    public Counter rttTimeouts(SessionID sessionID, String environment) {
+        return Counter.builder("fix.rtt.timeouts")
+                .tags(sessionTags(sessionID))
+                .tag("environment", environment)
+                .description("TestRequests not answered within the probe timeout")
+                .register(registry);
+    }
+
+    /**
+     * Time to serve a ResendRequest from a session's message store.
+     */
+    public Timer resendGapFillTimer(SessionID sessionID) {
+        return Timer.builder("fix.resend.gapfill")
+                .tags(sessionTags(sessionID))
+                .description("Time to collect the messages of a ResendRequest")
+                .register(registry);
+    }
+
+    /**
+     * Resent messages of a session by where they came from: {@code memory} for
+     * the resend window, {@code store} for the underlying message store.
+     */
+    public Counter resendServed(SessionID sessionID, String source) {
+        return Counter.builder("fix.resend.served")
+                .tags(sessionTags(sessionID))
+                .tag("source", source)
+                .description("Messages served for ResendRequests")
+                .register(registry);
+    }
+
+    /**
+     * Time sends of a rate limited session spent waiting for the throttle.
+     */
+    public Timer throttleWaitTimer(SessionID sessionID) {
+        return Timer.builder("fix.throttle.wait")
+                .tags(sessionTags(sessionID))
+                .description("Time sends were delayed to stay under the session rate limit")
+                .register(registry);
+    }
+
+    public Counter throttleRejections(SessionID sessionID) {
+        return Counter.builder("fix.throttle.rejected")
+                .tags(sessionTags(sessionID))
+                .description("Sends refused by the session rate limit")
+                .register(registry);
+    }
+
+    /**
+     * Exposes how much of a session's rate limit is in use (0 to 1) and the limit itself.
+     */
+    public <T> void throttleGauges(SessionID sessionID, T throttle, ToDoubleFunction<T> utilization,
+                                   ToDoubleFunction<T> messagesPerSecond) {
+        Gauge.builder("fix.throttle.utilization", throttle, utilization)
+                .tags(sessionTags(sessionID))
+                .description("Share of the session's rate limit burst currently spent")
+                .register(registry);
+        Gauge.builder("fix.throttle.limit", throttle, messagesPerSecond)
+                .tags(sessionTags(sessionID))
+                .baseUnit("messages/s")
+                .description("Configured outbound rate limit of the session, 0 if unlimited")
+                .register(registry);
+    }
+
+    public void removeThrottleGauges(SessionID sessionID) {
+        for (String name : new String[]{"fix.throttle.utilization", "fix.throttle.limit"}) {
+            registry.find(name).tags(sessionTags(sessionID)).gauges().forEach(registry::remove);
+        }
+    }
+
+    private static Tags sessionTags(SessionID sessionID) {
+        return Tags.of("sender", sessionID.getSenderCompID(), "target", sessionID.getTargetCompID());
+    }
+
+    /**
+     * Meters of one FIX session.
+     */
+    public final class SessionMeters {
+
+        // Single character MsgTypes (the vast majority) are looked up by char
+        private static final int SINGLE_CHAR_TYPES = 128;
+
+        private final Tags tags;
+        private final AtomicReferenceArray<Counter> inByChar = new AtomicReferenceArray<>(SINGLE_CHAR_TYPES);
+        private final AtomicReferenceArray<Counter> outByChar = new AtomicReferenceArray<>(SINGLE_CHAR_TYPES);
+        private final Map<String, Counter> inByType = new ConcurrentHashMap<>();
+        private final Map<String, Counter> outByType = new ConcurrentHashMap<>();
+        private final Timer toAppTimer;
+        private final Timer sendTimer;
+        private final Timer burstTimer;
+        private final DistributionSummary burstSize;
+        private final Map<String, Timer> laneWaitTimers = new ConcurrentHashMap<>();
+
+        private SessionMeters(SessionID sessionID) {
+            this.tags = sessionTags(sessionID);
+            this.toAppTimer = Timer.builder("fix.toapp")
+                    .tags(tags)
+                    .description("Outgoing application message enrichment (timestamp and signature)")
+                    .register(registry);
+            this.sendTimer = Timer.builder("fix.send")
+                    .tags(tags)
+                    .description("Session.sendToTarget time")
+                    .register(registry);
+            this.burstTimer = Timer.builder("fix.send.burst")
+                    .tags(tags)
+                    .description("Time to send a burst of messages, including its coalesced write")
+                    .register(registry);
+            this.burstSize = DistributionSummary.builder("fix.send.burst.size")
+                    .tags(tags)
+                    .description("Messages per burst")
+                    .register(registry);
+        }
+
+        public void received(String msgType) {
+            counter(msgType, DIRECTION_IN, inByChar, inByType).increment();
+        }
+
+        public void sent(String msgType) {
+            counter(msgType, DIRECTION_OUT, outByChar, outByType).increment();
+        }
+
+        public Timer toAppTimer() {
+            return toAppTimer;
+        }
+
+        public Timer sendTimer() {
+            return sendTimer;
+        }
+
+        public Timer burstTimer() {
+            return burstTimer;
+        }
+
+        public DistributionSummary burstSize() {
+            return burstSize;
+        }
+
+        /**
+         * Time sends of one outbound lane waited for the wire, as a histogram so
+         * lanes can be compared at high percentiles.
+         */
+        public Timer laneWaitTimer(String lane) {
+            return laneWaitTimers.computeIfAbsent(lane, l -> Timer.builder("fix.lane.wait")
+                    .tags(tags)
+                    .tag("lane", l.toLowerCase())
+                    .publishPercentiles(0.5, 0.99, 0.999)
+                    .publishPercentileHistogram()
+                    .description("Time a send waited for its turn on the session connection")
+                    .register(registry));
+        }
+
+        private Counter counter(String msgType, String direction, AtomicReferenceArray<Counter> byChar,
+                                Map<String, Counter> byType) {
+            if (msgType.length() == 1 && msgType.charAt(0) < SINGLE_CHAR_TYPES) {
+                int index = msgType.charAt(0);
+                Counter counter = byChar.get(index);
+                if (counter == null) {
+                    // Racing threads get the same meter back from the registry
+                    counter = register(msgType, direction);
+                    byChar.set(index, counter);
+                }
+                return counter;
+            }
+            Counter counter = byType.get(msgType);
+            return counter != null ? counter : byType.computeIfAbsent(msgType, type -> register(type, direction));
+        }
+
+        private Counter register(String msgType, String direction) {
+            return Counter.builder("fix.messages")
+                    .tags(tags)
+                    .tag("direction", direction)
+                    .tag("msgType", msgType)
+                    .description("FIX messages by session, direction and MsgType")
+                    .register(registry);
+        }
+    }
+}
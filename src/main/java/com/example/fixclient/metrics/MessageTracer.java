@@ -0,0 +1,225 @@
+package com.example.fixclient.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sampled per-message stage tracing. Every {@code fix.trace.sample-every}-th
+ * outgoing message gets a slot in a preallocated ring of {@code fix.trace.capacity}
+ * traces and each stage it passes stamps {@link System#nanoTime()} into that slot.
+ * The oldest trace is overwritten when the ring wraps.
+ * <p>
+ * The slot follows the message on the sending thread through a thread local,
+ * which is how {@code toApp} finds it, and through the ClOrdID for the
+ * acknowledgement arriving in {@code fromApp}.
+ * <p>
+ * Diagnostics only: stamps are plain writes, so a summary taken while traffic
+ * is flowing may include traces that are still being written.
+ */
+@Component
+@Slf4j
+public class MessageTracer {
+
+    public static final int NO_TRACE = -1;
+
+    /**
+     * Message header carrying the time the STOMP frame entered the inbound channel.
+     */
+    public static final String INBOUND_HEADER = "fixTraceInboundNanos";
+
+    public enum Stage {
+        INBOUND,
+        DISPATCHED,
+        PARSED,
+        TO_APP_ENTER,
+        TO_APP_EXIT,
+        SENT,
+        ACKED
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+    private static final int STAGE_COUNT = STAGES.length;
+
+    public record StageLatency(Stage from, Stage to, int count, double p50Micros, double p99Micros,
+                               double maxMicros) {
+    }
+
+    public record Summary(long sampled, int sampleEvery, int capacity, List<StageLatency> stages) {
+    }
+
+    private final int capacity;
+    private final int sampleEvery;
+    private final long[] stamps;
+    private final String[] ackKeys;
+    private final AtomicLong messages = new AtomicLong();
+    private final AtomicLong sampled = new AtomicLong();
+    private final Map<String, Integer> pendingAcks = new ConcurrentHashMap<>();
+
+    // [0] = inbound, [1] = dispatched, of the STOMP request being handled on this thread
+    private final ThreadLocal<long[]> request = ThreadLocal.withInitial(() -> new long[2]);
+    private final ThreadLocal<int[]> current = ThreadLocal.withInitial(() -> new int[]{NO_TRACE});
+
+    public MessageTracer(@Value("${fix.trace.capacity:4096}") int capacity,
+                         @Value("${fix.trace.sample-every:0}") int sampleEvery) {
+        this.capacity = Math.max(1, capacity);
+        this.sampleEvery = sampleEvery;
+        this.stamps = new long[this.capacity * STAGE_COUNT];
+        this.ackKeys = new String[this.capacity];
+        if (isEnabled()) {
+            log.info("Message tracing enabled: 1 in {} messages, {} slots", sampleEvery, this.capacity);
+        }
+    }
+
+    public boolean isEnabled() {
+        return sampleEvery > 0;
+    }
+
+    /**
+     * Remembers when the STOMP request handled on this thread arrived, so traces
+     * started for its messages include the inbound channel stages.
+     */
+    public void requestReceived(Long inboundNanos) {
+        if (!isEnabled()) {
+            return;
+        }
+        long[] stompStamps = request.get();
+        long now = System.nanoTime();
+        stompStamps[0] = inboundNanos != null ? inboundNanos : 0;
+        stompStamps[1] = now;
+    }
+
+    public void requestDone() {
+        if (isEnabled()) {
+            Arrays.fill(request.get(), 0L);
+        }
+    }
+
+    /**
+     * Decides whether the next message is sampled and, if so, claims and returns
+     * its slot. Returns {@link #NO_TRACE} otherwise.
+     */
+    public int begin() {
+        return begin(System.nanoTime());
+    }
+
+    /**
+     * Like {@link #begin()} for a message the sender picked up at
+     * {@code pickedUpNanos} and only now knows it will send.
+     */
+    public int begin(long pickedUpNanos) {
+        if (!isEnabled() || messages.getAndIncrement() % sampleEvery != 0) {
+            return NO_TRACE;
+        }
+        int slot = (int) (sampled.getAndIncrement() % capacity);
+        String previousKey = ackKeys[slot];
+        if (previousKey != null) {
+            pendingAcks.remove(previousKey, slot);
+            ackKeys[slot] = null;
+        }
+        int base = slot * STAGE_COUNT;
+        Arrays.fill(stamps, base, base + STAGE_COUNT, 0L);
+        long[] stompStamps = request.get();
+        stamps[base + Stage.INBOUND.ordinal()] = stompStamps[0];
+        // Scheduled batch runs have no STOMP request: dispatch is when the sender picks the message up
+        stamps[base + Stage.DISPATCHED.ordinal()] = stompStamps[1] != 0 ? stompStamps[1] : pickedUpNanos;
+        return slot;
+    }
+
+    public void stamp(int slot, Stage stage) {
+        if (slot != NO_TRACE) {
+            stamps[slot * STAGE_COUNT + stage.ordinal()] = System.nanoTime();
+        }
+    }
+
+    /**
+     * Makes the slot visible to callbacks running on this thread, e.g. {@code toApp}.
+     */
+    public void setCurrent(int slot) {
+        if (isEnabled()) {
+            current.get()[0] = slot;
+        }
+    }
+
+    public int current() {
+        return isEnabled() ? current.get()[0] : NO_TRACE;
+    }
+
+    /**
+     * Links the slot to a ClOrdID so the first response carrying it stamps {@link Stage#ACKED}.
+     */
+    public void expectAck(int slot, String clOrdId) {
+        if (slot == NO_TRACE || clOrdId == null) {
+            return;
+        }
+        ackKeys[slot] = clOrdId;
+        pendingAcks.put(clOrdId, slot);
+    }
+
+    public void acknowledged(String clOrdId) {
+        if (pendingAcks.isEmpty() || clOrdId == null) {
+            return;
+        }
+        Integer slot = pendingAcks.remove(clOrdId);
+        if (slot != null) {
+            stamp(slot, Stage.ACKED);
+        }
+    }
+
+    /**
+     * Latency between consecutive stamped stages over all traces in the ring.
+     */
+    public Summary summary() {
+        int used = (int) Math.min(sampled.get(), capacity);
+        long[][] deltas = new long[STAGE_COUNT * STAGE_COUNT][];
+        int[] counts = new int[STAGE_COUNT * STAGE_COUNT];
+
+        for (int slot = 0; slot < used; slot++) {
+            int base = slot * STAGE_COUNT;
+            int previous = -1;
+            for (int stage = 0; stage < STAGE_COUNT; stage++) {
+                long stampNanos = stamps[base + stage];
+                if (stampNanos == 0) {
+                    continue;
+                }
+                if (previous >= 0) {
+                    int pair = previous * STAGE_COUNT + stage;
+                    if (deltas[pair] == null) {
+                        deltas[pair] = new long[used];
+                    }
+                    deltas[pair][counts[pair]++] = stampNanos - stamps[base + previous];
+                }
+                previous = stage;
+            }
+        }
+
+        List<StageLatency> stages = new ArrayList<>();
+        for (int pair = 0; pair < deltas.length; pair++) {
+            if (counts[pair] == 0) {
+                continue;
+            }
+            long[] values = Arrays.copyOf(deltas[pair], counts[pair]);
+            Arrays.sort(values);
+            stages.add(new StageLatency(STAGES[pair / STAGE_COUNT], STAGES[pair % STAGE_COUNT], values.length,
+                    micros(percentile(values, 0.50)), micros(percentile(values, 0.99)),
+                    micros(values[values.length - 1])));
+        }
+        return new Summary(sampled.get(), sampleEvery, capacity, stages);
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)];
+    }
+
+    private static double micros(long nanos) {
+        return nanos / (double) TimeUnit.MICROSECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,4 @@
+package com.example.fixclient.model;
+
+public record CaptureRequest(String senderCompId, String targetCompId) {
+}
@@ -1,6 +1,33 @@
 package com.example.fixclient.model;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
-public record MessageRequestDto(int repeatCount, int interval, String senderCompId, List<String> fixMessages) {
+/**
+ * @param interval       batch period in milliseconds
+ * @param intervalMicros optional batch period in microseconds, overrides {@code interval}
+ * @param overrunPolicy  optional, {@link OverrunPolicy#CATCH_UP} (the fixed-rate behaviour) if absent
+ * @param urgent         optional, true sends every message in the urgent lane ahead of bulk traffic;
+ *                       otherwise the lane follows the MsgType
+ */
+public record MessageRequestDto(int repeatCount, int interval, String senderCompId, List<String> fixMessages,
+                                Long intervalMicros, OverrunPolicy overrunPolicy, Boolean urgent) {
+
+    public MessageRequestDto(int repeatCount, int interval, String senderCompId, List<String> fixMessages) {
+        this(repeatCount, interval, senderCompId, fixMessages, null, null, null);
+    }
+
+    public long intervalNanos() {
+        return intervalMicros != null
+                ? TimeUnit.MICROSECONDS.toNanos(intervalMicros)
+                : TimeUnit.MILLISECONDS.toNanos(interval);
+    }
+
+    public boolean isUrgent() {
+        return urgent != null && urgent;
+    }
+
+    public OverrunPolicy effectiveOverrunPolicy() {
+        return overrunPolicy != null ? overrunPolicy : OverrunPolicy.CATCH_UP;
+    }
 }
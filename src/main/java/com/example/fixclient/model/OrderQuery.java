@@ -0,0 +1,4 @@
+package com.example.fixclient.model;
+
+public record OrderQuery(String senderCompId, String targetCompId, String clOrdId) {
+}
@@ -0,0 +1,19 @@
+package com.example.fixclient.model;
+
+/**
+ * What a batch job does when an iteration runs past the start of the next one.
+ */
+public enum OverrunPolicy {
+    /**
+     * Drop the iterations whose start time has passed and resume on the original timeline.
+     */
+    SKIP,
+    /**
+     * Run the missed iterations back to back until the job is on its original timeline again.
+     */
+    CATCH_UP,
+    /**
+     * Start the next iteration right away and shift the timeline by the overrun.
+     */
+    STRETCH
+}
@@ -0,0 +1,10 @@
+package com.example.fixclient.model;
+
+/**
+ * @param capture      capture name returned when recording started
+ * @param senderCompId session to replay into
+ * @param targetCompId session to replay into
+ * @param speed        1 = original timing, N = N times faster, 0 = as fast as possible
+ */
+public record ReplayRequest(String capture, String senderCompId, String targetCompId, double speed) {
+}
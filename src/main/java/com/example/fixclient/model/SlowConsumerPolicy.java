@@ -0,0 +1,21 @@
+package com.example.fixclient.model;
+
+/**
+ * What happens to a WebSocket client whose queued outbound frames exceed the
+ * buffer limit.
+ */
+public enum SlowConsumerPolicy {
+    /**
+     * Drop the oldest queued messages until the queue fits again.
+     */
+    DROP_OLDEST,
+    /**
+     * Keep only the newest queued message per subscription, then drop the oldest
+     * if that is still not enough.
+     */
+    CONFLATE,
+    /**
+     * Close the connection, as also happens when one write blocks longer than the send time limit.
+     */
+    DISCONNECT
+}
@@ -0,0 +1,12 @@
+package com.example.fixclient.model;
+
+import java.util.Map;
+
+/**
+ * @param terms tag=value pairs that must all be present, e.g. {"35": "8", "55": "IBM"}
+ * @param sinceMillis optional lower bound on the message time, epoch millis
+ * @param limit optional maximum number of messages, newest first
+ */
+public record TrafficQuery(String senderCompId, String targetCompId, Map<Integer, String> terms,
+                           Long sinceMillis, Integer limit) {
+}
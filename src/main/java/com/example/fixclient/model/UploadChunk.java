@@ -0,0 +1,10 @@
+package com.example.fixclient.model;
+
+import java.util.List;
+
+/**
+ * @param seq         0-based chunk number; chunks may arrive out of order within the window
+ * @param fixMessages raw messages in the same format as {@link MessageRequestDto#fixMessages()}
+ */
+public record UploadChunk(String uploadId, long seq, List<String> fixMessages) {
+}
@@ -0,0 +1,7 @@
+package com.example.fixclient.model;
+
+/**
+ * @param lastSeq sequence number of the final chunk; only used by commit
+ */
+public record UploadCommand(String uploadId, Long lastSeq) {
+}
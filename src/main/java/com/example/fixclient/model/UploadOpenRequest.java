@@ -0,0 +1,10 @@
+package com.example.fixclient.model;
+
+/**
+ * @param senderCompId session the uploaded messages are sent from
+ * @param urgent       optional, sends every message in the urgent lane
+ * @param window       optional, chunks the client may have unacknowledged at once;
+ *                     capped by {@code fix.upload.max-window}
+ */
+public record UploadOpenRequest(String senderCompId, Boolean urgent, Integer window) {
+}
@@ -0,0 +1,327 @@
+package com.example.fixclient.orders;
+
+import com.example.fixclient.exception.OrderNotFoundException;
+import com.example.fixclient.listener.FixTrafficListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import quickfix.FieldNotFound;
+import quickfix.Message;
+import quickfix.SessionID;
+import quickfix.field.AvgPx;
+import quickfix.field.ClOrdID;
+import quickfix.field.CumQty;
+import quickfix.field.MsgType;
+import quickfix.field.OrdStatus;
+import quickfix.field.OrigClOrdID;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-session view of order state built from inbound execution reports (35=8)
+ * and order cancel rejects (35=9).
+ * <p>
+ * Each session's orders live in parallel primitive arrays indexed by a slot
+ * number, with a ClOrdID to slot map in front. Slots of evicted orders are
+ * reused, so steady traffic allocates little beyond the map entries.
+ * <p>
+ * An order is tracked under its latest ClOrdID: when a report names an unknown
+ * ClOrdID together with a known OrigClOrdID (cancel or cancel/replace), the
+ * existing order is re-keyed; a replaced order keeps working under its new
+ * ClOrdID and counts as open. Orders that reach a terminal status are kept for
+ * lookups until more than {@code fix.orders.retain-terminal} terminal orders
+ * have accumulated on the session, then evicted oldest first.
+ */
+@Component
+@Slf4j
+public class OrderStateCache implements FixTrafficListener {
+
+    public record OrderState(String senderCompId, String targetCompId, String clOrdId, String status,
+                             double cumQty, double avgPx, long updatedMillis) {
+    }
+
+    public record Summary(String senderCompId, String targetCompId, int tracked, int open, long evicted,
+                          Map<String, Integer> byStatus) {
+    }
+
+    private static final int INITIAL_CAPACITY = 256;
+    private static final String[] STATUS_NAMES = new String[128];
+
+    static {
+        STATUS_NAMES[OrdStatus.NEW] = "NEW";
+        STATUS_NAMES[OrdStatus.PARTIALLY_FILLED] = "PARTIALLY_FILLED";
+        STATUS_NAMES[OrdStatus.FILLED] = "FILLED";
+        STATUS_NAMES[OrdStatus.DONE_FOR_DAY] = "DONE_FOR_DAY";
+        STATUS_NAMES[OrdStatus.CANCELED] = "CANCELED";
+        STATUS_NAMES[OrdStatus.REPLACED] = "REPLACED";
+        STATUS_NAMES[OrdStatus.PENDING_CANCEL] = "PENDING_CANCEL";
+        STATUS_NAMES[OrdStatus.STOPPED] = "STOPPED";
+        STATUS_NAMES[OrdStatus.REJECTED] = "REJECTED";
+        STATUS_NAMES[OrdStatus.SUSPENDED] = "SUSPENDED";
+        STATUS_NAMES[OrdStatus.PENDING_NEW] = "PENDING_NEW";
+        STATUS_NAMES[OrdStatus.CALCULATED] = "CALCULATED";
+        STATUS_NAMES[OrdStatus.EXPIRED] = "EXPIRED";
+        STATUS_NAMES[OrdStatus.ACCEPTED_FOR_BIDDING] = "ACCEPTED_FOR_BIDDING";
+        STATUS_NAMES[OrdStatus.PENDING_REPLACE] = "PENDING_REPLACE";
+    }
+
+    private final int retainTerminal;
+    private final Map<SessionID, OrderBook> books = new ConcurrentHashMap<>();
+
+    public OrderStateCache(@Value("${fix.orders.retain-terminal:10000}") int retainTerminal) {
+        this.retainTerminal = Math.max(0, retainTerminal);
+    }
+
+    @Override
+    public void onMessage(SessionID sessionID, Direction direction, boolean admin, Message message) {
+        if (direction != Direction.INBOUND || admin) {
+            return;
+        }
+        try {
+            String msgType = message.getHeader().getString(MsgType.FIELD);
+            if (MsgType.EXECUTION_REPORT.equals(msgType)) {
+                onExecutionReport(sessionID, message);
+            } else if (MsgType.ORDER_CANCEL_REJECT.equals(msgType)) {
+                onCancelReject(sessionID, message);
+            }
+        } catch (FieldNotFound e) {
+            log.warn("Ignoring order update without {} on {}", e.field, sessionID);
+        }
+    }
+
+    private void onExecutionReport(SessionID sessionID, Message message) throws FieldNotFound {
+        String clOrdId = message.getString(ClOrdID.FIELD);
+        char status = message.getChar(OrdStatus.FIELD);
+        String origClOrdId = message.isSetField(OrigClOrdID.FIELD) ? message.getString(OrigClOrdID.FIELD) : null;
+        double cumQty = message.isSetField(CumQty.FIELD) ? message.getDouble(CumQty.FIELD) : Double.NaN;
+        double avgPx = message.isSetField(AvgPx.FIELD) ? message.getDouble(AvgPx.FIELD) : Double.NaN;
+        book(sessionID).update(clOrdId, origClOrdId, status, cumQty, avgPx, System.currentTimeMillis());
+    }
+
+    private void onCancelReject(SessionID sessionID, Message message) throws FieldNotFound {
+        // ClOrdID names the rejected cancel request; OrdStatus is that of the original order.
+        // A pending report before the reject has already re-keyed the order to the request.
+        String clOrdId = message.getString(ClOrdID.FIELD);
+        String origClOrdId = message.getString(OrigClOrdID.FIELD);
+        char status = message.getChar(OrdStatus.FIELD);
+        book(sessionID).updateStatus(clOrdId, origClOrdId, status, System.currentTimeMillis());
+    }
+
+    private OrderBook book(SessionID sessionID) {
+        return books.computeIfAbsent(sessionID, id -> new OrderBook(retainTerminal));
+    }
+
+    public OrderState find(String senderCompId, String targetCompId, String clOrdId) {
+        SessionID sessionID = new SessionID("FIX.4.1", senderCompId, targetCompId);
+        OrderBook book = books.get(sessionID);
+        OrderState state = book == null ? null : book.find(sessionID, clOrdId);
+        if (state == null) {
+            throw new OrderNotFoundException("Order " + clOrdId + " is not tracked on " + sessionID);
+        }
+        return state;
+    }
+
+    /**
+     * Returns one summary per session matching the given CompIDs; a null CompID
+     * matches any session.
+     */
+    public List<Summary> summaries(String senderCompId, String targetCompId) {
+        List<Summary> summaries = new ArrayList<>();
+        books.forEach((sessionID, book) -> {
+            if ((senderCompId == null || senderCompId.equals(sessionID.getSenderCompID()))
+                    && (targetCompId == null || targetCompId.equals(sessionID.getTargetCompID()))) {
+                summaries.add(book.summary(sessionID));
+            }
+        });
+        summaries.sort(Comparator.comparing(Summary::senderCompId).thenComparing(Summary::targetCompId));
+        return summaries;
+    }
+
+    static boolean isTerminal(char status) {
+        return status == OrdStatus.FILLED || status == OrdStatus.CANCELED || status == OrdStatus.REJECTED
+                || status == OrdStatus.DONE_FOR_DAY || status == OrdStatus.EXPIRED;
+    }
+
+    private static String statusName(char status) {
+        String name = status < STATUS_NAMES.length ? STATUS_NAMES[status] : null;
+        return name != null ? name : String.valueOf(status);
+    }
+
+    /**
+     * Orders of one session. All access is synchronized on the book; updates for a
+     * session arrive on that session's receiving thread, so contention comes only
+     * from queries.
+     */
+    static final class OrderBook {
+
+        private final int retainTerminal;
+        private final Map<String, Integer> slots = new HashMap<>();
+
+        private String[] clOrdIds = new String[INITIAL_CAPACITY];
+        private char[] statuses = new char[INITIAL_CAPACITY];
+        private double[] cumQtys = new double[INITIAL_CAPACITY];
+        private double[] avgPxs = new double[INITIAL_CAPACITY];
+        private long[] updated = new long[INITIAL_CAPACITY];
+
+        private int[] freeSlots = new int[INITIAL_CAPACITY];
+        private int freeCount;
+        private int highWater;
+
+        // FIFO of slots that became terminal, in the order they did
+        private int[] terminalQueue = new int[INITIAL_CAPACITY];
+        private int terminalHead;
+        private int terminalSize;
+
+        private final int[] statusCounts = new int[STATUS_NAMES.length];
+        private int open;
+        private long evicted;
+
+        OrderBook(int retainTerminal) {
+            this.retainTerminal = retainTerminal;
+        }
+
+        synchronized void update(String clOrdId, String origClOrdId, char status, double cumQty, double avgPx,
+                                 long now) {
+            Integer slot = slots.get(clOrdId);
+            if (slot == null && origClOrdId != null) {
+                slot = slots.remove(origClOrdId);
+                if (slot != null) {
+                    clOrdIds[slot] = clOrdId;
+                    slots.put(clOrdId, slot);
+                }
+            }
+            if (slot == null) {
+                slot = allocate(clOrdId);
+            }
+            if (!Double.isNaN(cumQty)) {
+                cumQtys[slot] = cumQty;
+            }
+            if (!Double.isNaN(avgPx)) {
+                avgPxs[slot] = avgPx;
+            }
+            setStatus(slot, status, now);
+        }
+
+        synchronized void updateStatus(String clOrdId, String origClOrdId, char status, long now) {
+            Integer slot = slots.get(clOrdId);
+            if (slot == null) {
+                slot = slots.get(origClOrdId);
+            }
+            if (slot != null) {
+                setStatus(slot, status, now);
+            }
+        }
+
+        synchronized OrderState find(SessionID sessionID, String clOrdId) {
+            Integer slot = clOrdId == null ? null : slots.get(clOrdId);
+            if (slot == null) {
+                return null;
+            }
+            return new OrderState(sessionID.getSenderCompID(), sessionID.getTargetCompID(), clOrdId,
+                    statusName(statuses[slot]), cumQtys[slot], avgPxs[slot], updated[slot]);
+        }
+
+        synchronized Summary summary(SessionID sessionID) {
+            Map<String, Integer> byStatus = new LinkedHashMap<>();
+            for (char status = 0; status < statusCounts.length; status++) {
+                if (statusCounts[status] > 0) {
+                    byStatus.put(statusName(status), statusCounts[status]);
+                }
+            }
+            return new Summary(sessionID.getSenderCompID(), sessionID.getTargetCompID(), slots.size(), open,
+                    evicted, byStatus);
+        }
+
+        private int allocate(String clOrdId) {
+            int slot;
+            if (freeCount > 0) {
+                slot = freeSlots[--freeCount];
+            } else {
+                if (highWater == clOrdIds.length) {
+                    grow();
+                }
+                slot = highWater++;
+            }
+            clOrdIds[slot] = clOrdId;
+            statuses[slot] = 0;
+            cumQtys[slot] = 0;
+            avgPxs[slot] = 0;
+            slots.put(clOrdId, slot);
+            return slot;
+        }
+
+        private void setStatus(int slot, char status, long now) {
+            char previous = statuses[slot];
+            updated[slot] = now;
+            if (previous == status) {
+                return;
+            }
+            statuses[slot] = status;
+            if (previous != 0) {
+                count(previous, -1);
+            }
+            count(status, 1);
+            if (isTerminal(status) && (previous == 0 || !isTerminal(previous))) {
+                enqueueTerminal(slot);
+            }
+        }
+
+        private void count(char status, int delta) {
+            if (status < statusCounts.length) {
+                statusCounts[status] += delta;
+            }
+            if (!isTerminal(status)) {
+                open += delta;
+            }
+        }
+
+        private void enqueueTerminal(int slot) {
+            if (terminalSize == terminalQueue.length) {
+                int[] queue = new int[terminalQueue.length * 2];
+                for (int i = 0; i < terminalSize; i++) {
+                    queue[i] = terminalQueue[(terminalHead + i) % terminalQueue.length];
+                }
+                terminalQueue = queue;
+                terminalHead = 0;
+            }
+            terminalQueue[(terminalHead + terminalSize++) % terminalQueue.length] = slot;
+            while (terminalSize > retainTerminal) {
+                int oldest = terminalQueue[terminalHead];
+                terminalHead = (terminalHead + 1) % terminalQueue.length;
+                terminalSize--;
+                // An order may have left its terminal status again after being queued
+                if (isTerminal(statuses[oldest])) {
+                    release(oldest);
+                }
+            }
+        }
+
+        private void release(int slot) {
+            slots.remove(clOrdIds[slot]);
+            count(statuses[slot], -1);
+            clOrdIds[slot] = null;
+            statuses[slot] = 0;
+            if (freeCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+            }
+            freeSlots[freeCount++] = slot;
+            evicted++;
+        }
+
+        private void grow() {
+            int capacity = clOrdIds.length * 2;
+            clOrdIds = Arrays.copyOf(clOrdIds, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+            cumQtys = Arrays.copyOf(cumQtys, capacity);
+            avgPxs = Arrays.copyOf(avgPxs, capacity);
+            updated = Arrays.copyOf(updated, capacity);
+        }
+    }
+}
@@ -2,18 +2,23 @@ package com.example.fixclient.service;
 
 import com.example.fixclient.exception.SessionLogonRequiredException;
 import com.example.fixclient.exception.SessionNotFoundException;
+import com.example.fixclient.exception.ThrottleRejectedException;
+import com.example.fixclient.jfr.BatchIterationEvent;
+import com.example.fixclient.metrics.FixMetrics;
+import com.example.fixclient.metrics.MessageTracer;
 import com.example.fixclient.model.MessageRequestDto;
+import com.example.fixclient.websocket.SessionMessaging;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.simp.SimpMessageSendingOperations;
 import org.springframework.stereotype.Service;
 import quickfix.Message;
 import quickfix.SessionID;
+import quickfix.SessionNotFound;
+import quickfix.field.ClOrdID;
 import quickfix.field.TargetCompID;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -21,16 +26,25 @@ import java.util.concurrent.atomic.AtomicReference;
 @Slf4j
 public class BatchMessageSenderService {
 
-    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
     private final AtomicBoolean running = new AtomicBoolean(false);
-    private final AtomicReference<ScheduledFuture<?>> currentTask = new AtomicReference<>();
+    private final AtomicReference<BatchScheduler> currentJob = new AtomicReference<>();
+    private volatile BatchScheduler lastJob;
 
     private final FixSessionGateway sessionGateway;
     private final SimpMessageSendingOperations messagingTemplate;
+    private final FixMetrics metrics;
+    private final MessageTracer tracer;
 
-    public BatchMessageSenderService(FixSessionGateway sessionGateway, SimpMessageSendingOperations messagingTemplate) {
+    public BatchMessageSenderService(FixSessionGateway sessionGateway, SimpMessageSendingOperations messagingTemplate,
+                                     FixMetrics metrics, MessageTracer tracer) {
         this.sessionGateway = sessionGateway;
         this.messagingTemplate = messagingTemplate;
+        this.metrics = metrics;
+        this.tracer = tracer;
+        metrics.queueDepthGauge("batch", () -> {
+            BatchScheduler job = currentJob.get();
+            return job != null ? job.backlog() : 0;
+        });
     }
 
     /**
@@ -47,7 +61,8 @@ public class BatchMessageSenderService {
             return false;
         }
 
-        log.info("Starting batch sender: {} repeats every {}ms for session {}", request.repeatCount(), request.interval(), request.senderCompId());
+        log.info("Starting batch sender: {} repeats every {}us ({}) for session {}", request.repeatCount(),
+                request.intervalNanos() / 1000, request.effectiveOverrunPolicy(), request.senderCompId());
 
         Runnable sendTask = () -> {
             try {
@@ -57,14 +72,20 @@ public class BatchMessageSenderService {
             }
         };
 
-        ScheduledFuture<?> future = executor.scheduleAtFixedRate(sendTask, 0, request.interval(), TimeUnit.MILLISECONDS);
-        currentTask.set(future);
+        metrics.batchStarted();
+        BatchScheduler job = new BatchScheduler(request.senderCompId(), request.intervalNanos(),
+                request.effectiveOverrunPolicy(), sendTask, metrics);
+        currentJob.set(job);
+        lastJob = job;
+        job.start();
 
         return true;
     }
 
     /**
-     * Sends the messages once immediately.
+     * Sends the messages once immediately. Stops at the first message that
+     * cannot be parsed or sent and throws; the messages before it have been
+     * sent by then, the ones after it are not.
      *
      * @param request     a MessageRequestDto
      * @param wsSessionId WebSocket session ID
@@ -74,11 +95,40 @@ public class BatchMessageSenderService {
         processMessageBatch(request, wsSessionId, true);
     }
 
-    private void processMessageBatch(MessageRequestDto request, String wsSessionId, boolean throwOnError) {
+    /**
+     * Sends one chunk of a streamed upload. Failures are logged and counted
+     * rather than thrown, so one bad message does not end the upload.
+     *
+     * @param wsSessionId WebSocket session to report progress to, or null for none
+     * @return number of messages handed to QuickFIX/J
+     */
+    public int sendChunk(MessageRequestDto request, String wsSessionId) {
+        return processMessageBatch(request, wsSessionId, false);
+    }
+
+    /**
+     * Consecutive messages for the same session are sent as one burst, so a basket
+     * goes out under a single lock acquisition and, where possible, in one write.
+     *
+     * @return number of messages sent over all iterations
+     */
+    private int processMessageBatch(MessageRequestDto request, String wsSessionId, boolean throwOnError) {
+        int messageCount = request.fixMessages().size();
+        int[] traceSlots = new int[messageCount];
+        // Null lets the gateway pick the lane by MsgType
+        OutboundLane lane = request.isUrgent() ? OutboundLane.URGENT : null;
+        int totalSent = 0;
         for (int i = 0; i < request.repeatCount(); i++) {
+            metrics.batchIteration();
+            BatchIterationEvent iterationEvent = new BatchIterationEvent();
+            iterationEvent.begin();
+            int sentCount = 0;
             int messageIndex = 0;
+            SessionID basketSession = null;
+            List<Message> basket = new ArrayList<>(messageCount);
             for (String rawMsg : request.fixMessages()) {
                 messageIndex++;
+                long pickedUpNanos = tracer.isEnabled() ? System.nanoTime() : 0;
                 try {
                     String sanitizedMessage = sanitizeMessage(rawMsg);
 
@@ -92,41 +142,102 @@ public class BatchMessageSenderService {
                     if (!sessionGateway.doesSessionExist(sessionId)) {
                         String err = String.format("Session %s does not exist", sessionId);
                         log.warn(err);
-                        if (throwOnError) throw new SessionNotFoundException(err);
+                        if (throwOnError) {
+                            sendBasket(basket, traceSlots, basketSession, lane, i, wsSessionId, true);
+                            throw new SessionNotFoundException(err);
+                        }
                         continue;
                     }
 
-                    Message msgToSend = new Message();
-                    msgToSend.fromString(sanitizedMessage, null, false);
+                    // Only messages that will be sent claim a slot
+                    int traceSlot = tracer.begin(pickedUpNanos);
+                    if (traceSlot != MessageTracer.NO_TRACE) {
+                        tracer.stamp(traceSlot, MessageTracer.Stage.PARSED);
+                        if (message.isSetField(ClOrdID.FIELD)) {
+                            tracer.expectAck(traceSlot, message.getString(ClOrdID.FIELD));
+                        }
+                    }
 
-                    boolean sent = sessionGateway.sendToTarget(msgToSend, sessionId);
-                    if (sent) {
-                        log.debug("Message {}/{} (iteration {}) sent successfully", messageIndex, request.fixMessages().size(), i + 1);
-                        messagingTemplate.convertAndSendToUser(wsSessionId, "/topic/progress", "Sent batch " + (i + 1));
-                    } else {
-                        String err = "Failed to send message (Logon required)";
-                        log.warn(err);
-                        if (throwOnError) throw new SessionLogonRequiredException(err);
+                    if (!sessionId.equals(basketSession)) {
+                        sentCount += sendBasket(basket, traceSlots, basketSession, lane, i, wsSessionId, throwOnError);
+                        basket = new ArrayList<>(messageCount);
+                        basketSession = sessionId;
                     }
+                    traceSlots[basket.size()] = traceSlot;
+                    basket.add(message);
                 } catch (RuntimeException e) {
                     // Rethrow custom runtime exceptions
                     throw e;
                 } catch (Exception e) {
                     log.error("Error processing message", e);
-                    if (throwOnError) throw new RuntimeException(e);
+                    if (throwOnError) {
+                        sendBasket(basket, traceSlots, basketSession, lane, i, wsSessionId, true);
+                        throw new RuntimeException(e);
+                    }
+                }
+            }
+            sentCount += sendBasket(basket, traceSlots, basketSession, lane, i, wsSessionId, throwOnError);
+            iterationEvent.complete(request.senderCompId(), i + 1, messageIndex, sentCount);
+            totalSent += sentCount;
+        }
+        return totalSent;
+    }
+
+    private int sendBasket(List<Message> basket, int[] traceSlots, SessionID sessionId, OutboundLane lane,
+                           int iteration, String wsSessionId, boolean throwOnError) {
+        if (basket.isEmpty()) {
+            return 0;
+        }
+        boolean[] results;
+        try {
+            // toApp runs on this thread and picks the slot up from the tracer
+            if (basket.size() == 1) {
+                tracer.setCurrent(traceSlots[0]);
+                results = new boolean[]{sessionGateway.sendToTarget(basket.get(0), sessionId, lane)};
+            } else {
+                results = sessionGateway.sendBurst(basket, sessionId, lane,
+                        index -> tracer.setCurrent(traceSlots[index]));
+            }
+        } catch (SessionNotFound e) {
+            log.error("Error sending {} message(s) to {}", basket.size(), sessionId, e);
+            if (throwOnError) throw new RuntimeException(e);
+            results = new boolean[basket.size()];
+        } catch (ThrottleRejectedException e) {
+            if (throwOnError) throw e;
+            log.warn("Batch iteration {} throttled: {}", iteration + 1, e.getMessage());
+            results = new boolean[basket.size()];
+        } finally {
+            tracer.setCurrent(MessageTracer.NO_TRACE);
+        }
+
+        int sentCount = 0;
+        for (int m = 0; m < results.length; m++) {
+            tracer.stamp(traceSlots[m], MessageTracer.Stage.SENT);
+            metrics.batchMessage(results[m]);
+            if (results[m]) {
+                sentCount++;
+                log.debug("Message {}/{} (iteration {}) sent successfully", m + 1, results.length, iteration + 1);
+                if (wsSessionId != null) {
+                    SessionMessaging.sendToSession(messagingTemplate, wsSessionId, "/topic/progress",
+                            "Sent batch " + (iteration + 1));
                 }
+            } else {
+                String err = "Failed to send message (Logon required)";
+                log.warn(err);
+                if (throwOnError) throw new SessionLogonRequiredException(err);
             }
         }
+        return sentCount;
     }
 
     /**
      * Stops the currently running batch sender.
      */
     public void stopSending() {
-        ScheduledFuture<?> task = currentTask.getAndSet(null);
-        if (task != null) {
-            task.cancel(false);
-            log.info("Batch sender stopped");
+        BatchScheduler job = currentJob.getAndSet(null);
+        if (job != null) {
+            job.stop();
+            log.info("Batch sender stopped: {}", job.stats());
         }
         running.set(false);
     }
@@ -138,7 +249,16 @@ public class BatchMessageSenderService {
         return running.get();
     }
 
-    private String sanitizeMessage(String rawInput) {
+    /**
+     * Returns timing statistics of the running batch, or of the last one if none
+     * is running; null if no batch was ever started.
+     */
+    public BatchScheduler.Stats getStats() {
+        BatchScheduler job = lastJob;
+        return job != null ? job.stats() : null;
+    }
+
+    static String sanitizeMessage(String rawInput) {
         String message = rawInput.replace('|', '\u0001');
 
         if (message.startsWith("\"") && message.endsWith("\"")) {
@@ -0,0 +1,188 @@
+package com.example.fixclient.service;
+
+import com.example.fixclient.metrics.FixMetrics;
+import com.example.fixclient.model.OverrunPolicy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs one batch job on its own thread at a fixed period, tracking when every
+ * iteration was meant to start and when it actually did.
+ * <p>
+ * Iterations are scheduled on an absolute timeline (origin + n * period), so
+ * wake-up jitter does not accumulate. Waits park until shortly before the start
+ * and spin for the rest, which keeps sub-millisecond periods stable at the cost
+ * of one busy core while a short-period job runs. When an iteration ends after
+ * the next one should have started, the job's {@link OverrunPolicy} decides what
+ * happens next, and the overrun is counted.
+ */
+@Slf4j
+public final class BatchScheduler {
+
+    /**
+     * @param driftMicros        how far the latest iteration started behind its slot on the
+     *                           original timeline; only STRETCH lets this grow
+     * @param meanLatenessMicros actual minus intended start, averaged over all iterations
+     */
+    public record Stats(long jobId, String senderCompId, OverrunPolicy policy, double intervalMicros,
+                        boolean running, long iterations, long overruns, long skipped, double driftMicros,
+                        double meanLatenessMicros, double maxLatenessMicros, double intendedRate,
+                        double achievedRate) {
+    }
+
+    static final long SPIN_THRESHOLD_NANOS = 100_000;
+
+    private static final AtomicLong JOB_IDS = new AtomicLong();
+
+    private final long jobId = JOB_IDS.incrementAndGet();
+    private final String senderCompId;
+    private final long periodNanos;
+    private final OverrunPolicy policy;
+    private final Runnable iteration;
+    private final FixMetrics metrics;
+    private final Thread thread;
+    private volatile boolean running;
+    private volatile long nextStart;
+
+    // Written by the scheduler thread, read under the same lock by stats()
+    private long origin;
+    private long lastStart;
+    private long iterations;
+    private long overruns;
+    private long skipped;
+    private long drift;
+    private long latenessTotal;
+    private long latenessMax;
+
+    BatchScheduler(String senderCompId, long periodNanos, OverrunPolicy policy, Runnable iteration,
+                   FixMetrics metrics) {
+        if (periodNanos <= 0) {
+            throw new IllegalArgumentException("Batch period must be positive");
+        }
+        this.senderCompId = senderCompId;
+        this.periodNanos = periodNanos;
+        this.policy = policy;
+        this.iteration = iteration;
+        this.metrics = metrics;
+        this.thread = new Thread(this::loop, "batch-scheduler-" + jobId);
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        running = true;
+        thread.start();
+    }
+
+    /**
+     * Stops the job; an iteration in progress is allowed to finish.
+     */
+    void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+
+    boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        thread.join(Math.max(1, unit.toMillis(timeout)));
+        return !thread.isAlive();
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Iterations whose start time has passed but which have not started yet.
+     */
+    long backlog() {
+        long next = nextStart;
+        long late = System.nanoTime() - next;
+        return running && next != 0 && late > 0 ? late / periodNanos + 1 : 0;
+    }
+
+    synchronized Stats stats() {
+        double elapsedSeconds = (lastStart - origin) / (double) TimeUnit.SECONDS.toNanos(1);
+        // n iterations span n - 1 periods
+        double achievedRate = iterations > 1 && elapsedSeconds > 0 ? (iterations - 1) / elapsedSeconds : 0;
+        return new Stats(jobId, senderCompId, policy, periodNanos / 1000.0, running, iterations, overruns, skipped,
+                drift / 1000.0, iterations > 0 ? latenessTotal / 1000.0 / iterations : 0, latenessMax / 1000.0,
+                TimeUnit.SECONDS.toNanos(1) / (double) periodNanos, achievedRate);
+    }
+
+    private void loop() {
+        long next = System.nanoTime();
+        synchronized (this) {
+            origin = next;
+        }
+        long slot = 0;
+        while (running) {
+            nextStart = next;
+            waitUntil(next);
+            if (!running) {
+                break;
+            }
+            long actual = System.nanoTime();
+            record(actual, actual - next, actual - (origin + slot * periodNanos));
+
+            try {
+                iteration.run();
+            } catch (RuntimeException e) {
+                log.error("Batch job {} iteration failed", jobId, e);
+            }
+
+            long end = System.nanoTime();
+            slot++;
+            next += periodNanos;
+            if (end > next) {
+                overrun(end, next);
+                switch (policy) {
+                    case SKIP -> {
+                        long missed = (end - next + periodNanos - 1) / periodNanos;
+                        next += missed * periodNanos;
+                        slot += missed;
+                        skipped(missed);
+                    }
+                    case STRETCH -> next = end;
+                    case CATCH_UP -> {
+                        // Start right away and keep the original timeline
+                    }
+                }
+            }
+        }
+        log.info("Batch job {} finished: {}", jobId, stats());
+    }
+
+    private synchronized void record(long actual, long lateness, long driftNanos) {
+        lastStart = actual;
+        iterations++;
+        latenessTotal += lateness;
+        latenessMax = Math.max(latenessMax, lateness);
+        drift = driftNanos;
+        metrics.batchLateness(lateness);
+    }
+
+    private synchronized void overrun(long end, long next) {
+        overruns++;
+        metrics.batchOverrun();
+        log.debug("Batch job {} iteration {} overran the next start by {} us", jobId, iterations,
+                TimeUnit.NANOSECONDS.toMicros(end - next));
+    }
+
+    private synchronized void skipped(long missed) {
+        skipped += missed;
+        metrics.batchSkipped(missed);
+    }
+
+    private void waitUntil(long deadline) {
+        long remaining;
+        while (running && (remaining = deadline - System.nanoTime()) > 0) {
+            if (remaining > SPIN_THRESHOLD_NANOS) {
+                LockSupport.parkNanos(this, remaining - SPIN_THRESHOLD_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+}
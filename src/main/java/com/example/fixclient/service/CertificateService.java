@@ -1,5 +1,7 @@
 package com.example.fixclient.service;
 
+import com.example.fixclient.jfr.SignEvent;
+import com.example.fixclient.metrics.FixMetrics;
 import com.example.fixclient.util.EMXSigner;
 
 import lombok.RequiredArgsConstructor;
@@ -20,6 +22,7 @@ import java.util.Base64;
 import java.util.Enumeration;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @Slf4j
@@ -29,6 +32,7 @@ public class CertificateService {
     private final Map<String, String> certCache = new ConcurrentHashMap<>();
     private final Map<String, PrivateKey> privateKeyCache = new ConcurrentHashMap<>();
     private final ConfigService configService;
+    private final FixMetrics metrics;
 
     /**
      * Returns the Base64-encoded certificate for the given senderCompId.
@@ -38,9 +42,28 @@ public class CertificateService {
         return certCache.computeIfAbsent(senderCompId, this::loadAndEncode);
     }
 
+    /**
+     * Loads the certificate and private key of a sender ahead of its first
+     * logon and first signature.
+     *
+     * @return true if both were found
+     */
+    public boolean preload(String senderCompId) {
+        return getCertificateBase64(senderCompId) != null && getPrivateKey(senderCompId) != null;
+    }
+
     public String signMessage(Message message) {
+        SignEvent event = new SignEvent();
+        event.begin();
+        String signature = sign(message);
+        event.complete(message, signature != null);
+        return signature;
+    }
+
+    private String sign(Message message) {
         try {
             String senderCompId = message.getHeader().getString(SenderCompID.FIELD);
+            long startNanos = System.nanoTime();
 
             // Check caches first
             String certBase64 = getCertificateBase64(senderCompId);
@@ -65,7 +88,9 @@ public class CertificateService {
             CertificateFactory cf = CertificateFactory.getInstance("X.509");
             X509Certificate cert = (X509Certificate) cf.generateCertificate(new java.io.ByteArrayInputStream(decoded));
 
-            return EMXSigner.signMessageWithPrivateAndPublicKey(cert, privateKey);
+            String signature = EMXSigner.signMessageWithPrivateAndPublicKey(cert, privateKey);
+            metrics.signTimer(senderCompId).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            return signature;
 
         } catch (FieldNotFound e) {
             log.error("Could not find SenderCompID in message header", e);
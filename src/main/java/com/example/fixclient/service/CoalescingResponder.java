@@ -0,0 +1,79 @@
+package com.example.fixclient.service;
+
+import quickfix.Responder;
+
+/**
+ * Responder wrapper that lets one thread collect several encoded messages and
+ * hand them to the transport as a single write, so a burst becomes one socket
+ * write and, over TLS, as few records as its size allows.
+ * <p>
+ * QuickFIX/J calls {@link #send} with the session's sender sequence lock held,
+ * in sequence number order. Writes from any other thread while a burst is open
+ * (heartbeats, resends) flush the collected messages first, so the wire order
+ * always matches the sequence numbers.
+ */
+final class CoalescingResponder implements Responder {
+
+    private final Responder delegate;
+    private final StringBuilder pending = new StringBuilder(4096);
+    private Thread burstOwner;
+    private int pendingCount;
+
+    CoalescingResponder(Responder delegate) {
+        this.delegate = delegate;
+    }
+
+    Responder delegate() {
+        return delegate;
+    }
+
+    synchronized void beginBurst() {
+        burstOwner = Thread.currentThread();
+    }
+
+    /**
+     * Closes the burst and writes whatever it collected.
+     *
+     * @return false if the write of the collected messages failed
+     */
+    synchronized boolean endBurst() {
+        burstOwner = null;
+        return flush();
+    }
+
+    @Override
+    public synchronized boolean send(String data) {
+        if (burstOwner == Thread.currentThread()) {
+            pending.append(data);
+            pendingCount++;
+            return true;
+        }
+        if (!flush()) {
+            return false;
+        }
+        return delegate.send(data);
+    }
+
+    @Override
+    public synchronized void disconnect() {
+        // Nothing collected can be delivered once the connection goes
+        pending.setLength(0);
+        pendingCount = 0;
+        delegate.disconnect();
+    }
+
+    @Override
+    public String getRemoteAddress() {
+        return delegate.getRemoteAddress();
+    }
+
+    private boolean flush() {
+        if (pendingCount == 0) {
+            return true;
+        }
+        String data = pending.toString();
+        pending.setLength(0);
+        pendingCount = 0;
+        return delegate.send(data);
+    }
+}
@@ -1,92 +1,189 @@
 package com.example.fixclient.service;
 
+import com.example.fixclient.config.ConfigSnapshot;
 import com.example.fixclient.config.EnvironmentConfig;
 import com.example.fixclient.exception.ConfigurationException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
 import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.util.Collections;
 import java.util.Map;
-import java.util.Optional;
 
 @Service
+@Slf4j
 public class ConfigService {
 
-    private Map<String, EnvironmentConfig> configData;
+    private static final long RELOAD_DEBOUNCE_MS = 200;
+
+    private final Path configPath;
+    private final ObjectMapper mapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    // Swapped atomically on reload; readers always see one consistent snapshot
+    private volatile ConfigSnapshot snapshot = ConfigSnapshot.EMPTY;
+
+    private WatchService watchService;
 
     // Default constructor for Spring
     public ConfigService() {
+        this(Path.of("configuration.json"));
+    }
+
+    ConfigService(Path configPath) {
+        this.configPath = configPath;
     }
 
     // Check-visible for testing
     ConfigService(Map<String, EnvironmentConfig> configData) {
-        this.configData = configData;
+        this.configPath = null;
+        this.snapshot = ConfigSnapshot.of(configData);
     }
 
     @PostConstruct
     public void loadConfig() {
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-        File configFile = new File("configuration.json");
         try {
-            if (configFile.exists()) {
-                configData = mapper.readValue(configFile, new TypeReference<>() {
-                });
+            if (Files.exists(configPath)) {
+                snapshot = readSnapshot();
             } else {
-                System.out.println("configuration.json not found, starting with empty config.");
-                configData = Collections.emptyMap();
+                log.warn("{} not found, starting with empty config.", configPath);
+                snapshot = ConfigSnapshot.EMPTY;
             }
         } catch (IOException e) {
-            throw new ConfigurationException("Failed to load configuration.json", e);
+            throw new ConfigurationException("Failed to load " + configPath, e);
+        } catch (ConfigurationException e) {
+            throw new ConfigurationException("Invalid " + configPath + ": " + e.getMessage(), e);
+        }
+        startWatching();
+    }
+
+    @PreDestroy
+    public void stopWatching() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                log.warn("Failed to close configuration watcher", e);
+            }
+        }
+    }
+
+    /**
+     * Re-reads the configuration file and swaps in the new snapshot. On a parse
+     * or validation error the current snapshot stays in place. Running sessions are not touched.
+     */
+    void reload() {
+        try {
+            ConfigSnapshot updated = readSnapshot();
+            snapshot = updated;
+            log.info("Reloaded {}: {} environment(s)", configPath, updated.environments().size());
+        } catch (IOException | RuntimeException e) {
+            // A bad file must not end the watcher thread
+            log.error("Failed to reload {}, keeping previous configuration", configPath, e);
         }
     }
 
+    private ConfigSnapshot readSnapshot() throws IOException {
+        Map<String, EnvironmentConfig> configData = mapper.readValue(configPath.toFile(), new TypeReference<>() {
+        });
+        return ConfigSnapshot.of(configData != null ? configData : Collections.emptyMap());
+    }
+
+    private void startWatching() {
+        Path directory = configPath.toAbsolutePath().getParent();
+        if (directory == null || !Files.isDirectory(directory)) {
+            return;
+        }
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            log.warn("Cannot watch {} for changes, hot reload disabled", configPath, e);
+            return;
+        }
+        Thread watcher = new Thread(this::watchLoop, "config-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private void watchLoop() {
+        Path fileName = configPath.getFileName();
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (fileName.equals(event.context())) {
+                        changed = true;
+                    }
+                }
+                key.reset();
+                if (changed) {
+                    // Editors often write in several steps, wait for the file to settle
+                    Thread.sleep(RELOAD_DEBOUNCE_MS);
+                    WatchKey pending = watchService.poll();
+                    if (pending != null) {
+                        pending.pollEvents();
+                        pending.reset();
+                    }
+                    reload();
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            // Shutting down
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the current configuration snapshot.
+     */
+    public ConfigSnapshot getSnapshot() {
+        return snapshot;
+    }
+
     public String getAddress(String env) {
-        return getEnv(env).map(e -> e.connection().address()).orElse(null);
+        EnvironmentConfig config = snapshot.environment(env);
+        return config != null && config.connection() != null ? config.connection().address() : null;
     }
 
     public int getPort(String env) {
-        return getEnv(env).map(e -> e.connection().port()).orElse(0);
+        EnvironmentConfig config = snapshot.environment(env);
+        return config != null && config.connection() != null ? config.connection().port() : 0;
     }
 
     public String getPassword(String env, String senderCompId) {
-        return getEnv(env)
-                .map(EnvironmentConfig::initiators)
-                .orElse(Collections.emptyList())
-                .stream()
-                .filter(i -> i.senderCompId().equals(senderCompId))
-                .findFirst()
-                .map(EnvironmentConfig.InitiatorConfig::keystorePassword)
-                .orElse(null);
+        EnvironmentConfig.InitiatorConfig initiator = snapshot.initiator(env, senderCompId);
+        return initiator != null ? initiator.keystorePassword() : null;
     }
 
     public String findPassword(String senderCompId) {
-        return configData.values().stream()
-                .map(EnvironmentConfig::initiators)
-                .flatMap(java.util.List::stream)
-                .filter(i -> i.senderCompId().equals(senderCompId))
-                .findFirst()
-                .map(EnvironmentConfig.InitiatorConfig::keystorePassword)
-                .orElse(null);
+        EnvironmentConfig.InitiatorConfig initiator = snapshot.initiator(senderCompId);
+        return initiator != null ? initiator.keystorePassword() : null;
     }
 
-    public boolean isValid(String env, String target, String sender) {
-        if (!configData.containsKey(env))
-            return false;
-
-        return getEnv(env)
-                .map(EnvironmentConfig::initiators)
-                .orElse(Collections.emptyList())
-                .stream()
-                .anyMatch(i -> i.senderCompId().equals(sender) && i.isEnabled());
+    public EnvironmentConfig.RateLimitConfig getRateLimit(String env, String senderCompId) {
+        EnvironmentConfig.InitiatorConfig initiator = snapshot.initiator(env, senderCompId);
+        return initiator != null ? initiator.rateLimit() : null;
     }
 
-    private Optional<EnvironmentConfig> getEnv(String env) {
-        return Optional.ofNullable(configData.get(env));
+    public boolean isValid(String env, String target, String sender) {
+        EnvironmentConfig.InitiatorConfig initiator = snapshot.initiator(env, sender);
+        return initiator != null && initiator.isEnabled();
     }
 }
@@ -1,20 +1,45 @@
 package com.example.fixclient.service;
 
+import com.example.fixclient.exception.ConfigurationException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import quickfix.ConfigError;
 import quickfix.SessionID;
 import quickfix.SessionSettings;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
 
 @Service
 @Slf4j
 public class DynamicSettingsBuilder {
 
+    private static final String TEMPLATE_RESOURCE = "/initiator.cfg";
+
     private final ConfigService configService;
 
+    // [default] section of initiator.cfg, parsed once and copied into every session's settings.
+    // DataDictionary=FIX41.xml is resolved from the classpath; QuickFIX/J keeps one parsed
+    // dictionary per path for the whole JVM, so all sessions share the same instance.
+    private final Map<Object, Object> defaultSettings;
+
     public DynamicSettingsBuilder(ConfigService configService) {
         this.configService = configService;
+        this.defaultSettings = loadDefaultSettings();
+    }
+
+    private static Map<Object, Object> loadDefaultSettings() {
+        try (InputStream in = DynamicSettingsBuilder.class.getResourceAsStream(TEMPLATE_RESOURCE)) {
+            if (in == null) {
+                throw new ConfigurationException("Missing classpath resource " + TEMPLATE_RESOURCE, null);
+            }
+            SessionSettings template = new SessionSettings(in);
+            return Map.copyOf(template.getDefaultProperties());
+        } catch (ConfigError | IOException e) {
+            throw new ConfigurationException("Failed to load " + TEMPLATE_RESOURCE, e);
+        }
     }
 
     public SessionSettings buildSettings(String sender, String target, String envName) {
@@ -22,13 +47,8 @@ public class DynamicSettingsBuilder {
             // Maybe log WARN but proceed, or throw.
         }
 
-        SessionSettings settings;
-        try {
-            settings = new SessionSettings("src/main/resources/initiator.cfg");
-        } catch (quickfix.ConfigError e) {
-            log.error("Failed to load initiator.cfg", e);
-            throw new RuntimeException(e);
-        }
+        SessionSettings settings = new SessionSettings();
+        settings.set(defaultSettings);
 
         SessionID sessionID = new SessionID("FIX.4.1", sender, target);
 
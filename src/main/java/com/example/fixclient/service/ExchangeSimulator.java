@@ -0,0 +1,328 @@
+package com.example.fixclient.service;
+
+import com.example.fixclient.config.SimulatorConfig;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+import quickfix.Application;
+import quickfix.FieldNotFound;
+import quickfix.Message;
+import quickfix.Session;
+import quickfix.SessionID;
+import quickfix.field.AvgPx;
+import quickfix.field.ClOrdID;
+import quickfix.field.CumQty;
+import quickfix.field.ExecID;
+import quickfix.field.ExecTransType;
+import quickfix.field.ExecType;
+import quickfix.field.LastPx;
+import quickfix.field.LastShares;
+import quickfix.field.LeavesQty;
+import quickfix.field.MsgType;
+import quickfix.field.OrdStatus;
+import quickfix.field.OrderID;
+import quickfix.field.OrderQty;
+import quickfix.field.Price;
+import quickfix.field.Side;
+import quickfix.field.Symbol;
+import quickfix.field.Text;
+import quickfix.fix41.ExecutionReport;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Acceptor-side application that behaves like a venue: every NewOrderSingle is
+ * answered with ExecutionReports according to the configured fill model, after
+ * a delay sampled from the configured latency distribution. Reports are produced
+ * on the simulator's own worker threads, never on the QuickFIX/J thread.
+ * <p>
+ * Acceptors on different ports serve sessions with the same SessionID when an
+ * initiator is configured in several environments, and the static registry behind
+ * {@link Session#lookupSession} keeps only one of them. Each acceptor therefore
+ * runs the simulator through {@link #forAcceptor}, which answers on the session
+ * that received the order.
+ */
+@Component
+@Slf4j
+@ConditionalOnExpression("'${fix.acceptor.mode:lazy}' != 'off'")
+public class ExchangeSimulator implements Application {
+
+    private final SimulatorConfig config;
+    private final FixSessionGateway sessionGateway;
+    private final ScheduledExecutorService workers;
+    private final AtomicLong idSequence = new AtomicLong();
+
+    private final LongAdder ordersReceived = new LongAdder();
+    private final LongAdder acks = new LongAdder();
+    private final LongAdder partialFills = new LongAdder();
+    private final LongAdder fills = new LongAdder();
+    private final LongAdder rejects = new LongAdder();
+    private final LongAdder sendFailures = new LongAdder();
+
+    public record Counters(long ordersReceived, long acks, long partialFills, long fills, long rejects,
+                           long sendFailures) {
+    }
+
+    public ExchangeSimulator(SimulatorConfig config, FixSessionGateway sessionGateway) {
+        this.config = config;
+        this.sessionGateway = sessionGateway;
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.workers = Executors.newScheduledThreadPool(config.workerThreads(), r -> {
+            Thread thread = new Thread(r, "exchange-sim-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("Exchange simulator: {} model, {} latency ({} us), {} worker(s)", config.fillModel(),
+                config.latency(), config.latencyMicros(), config.workerThreads());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    public Counters getCounters() {
+        return new Counters(ordersReceived.sum(), acks.sum(), partialFills.sum(), fills.sum(), rejects.sum(),
+                sendFailures.sum());
+    }
+
+    @Override
+    public void onCreate(SessionID sessionId) {
+        log.info("Acceptor Session Created: {}", sessionId);
+    }
+
+    @Override
+    public void onLogon(SessionID sessionId) {
+        log.info("Acceptor Session Logon: {}", sessionId);
+    }
+
+    @Override
+    public void onLogout(SessionID sessionId) {
+        log.info("Acceptor Session Logout: {}", sessionId);
+    }
+
+    @Override
+    public void toAdmin(Message message, SessionID sessionId) {
+    }
+
+    @Override
+    public void fromAdmin(Message message, SessionID sessionId) {
+    }
+
+    @Override
+    public void toApp(Message message, SessionID sessionId) {
+    }
+
+    @Override
+    public void fromApp(Message message, SessionID sessionId) throws FieldNotFound {
+        receive(message, sessionId, null);
+    }
+
+    /**
+     * @param sessions finds the acceptor's own session for a SessionID
+     * @return the application for one acceptor
+     */
+    public Application forAcceptor(Function<SessionID, Session> sessions) {
+        return new AcceptorApplication(sessions);
+    }
+
+    /**
+     * @param session the session to answer on, or null to look it up by id
+     */
+    private void receive(Message message, SessionID sessionId, Session session) throws FieldNotFound {
+        log.debug("Acceptor Received: {}", message);
+        if (!MsgType.ORDER_SINGLE.equals(message.getHeader().getString(MsgType.FIELD))) {
+            return;
+        }
+        ordersReceived.increment();
+
+        SimulatedOrder order = new SimulatedOrder(sessionId, session,
+                "SIM-" + idSequence.incrementAndGet(),
+                message.isSetField(ClOrdID.FIELD) ? message.getString(ClOrdID.FIELD) : "",
+                message.isSetField(Symbol.FIELD) ? message.getString(Symbol.FIELD) : "",
+                message.isSetField(Side.FIELD) ? message.getChar(Side.FIELD) : Side.BUY,
+                message.isSetField(OrderQty.FIELD) ? message.getDouble(OrderQty.FIELD) : 100,
+                message.isSetField(Price.FIELD) ? message.getDouble(Price.FIELD) : config.defaultPrice());
+
+        workers.schedule(() -> respond(order), sampleLatencyMicros(), TimeUnit.MICROSECONDS);
+    }
+
+    private void respond(SimulatedOrder order) {
+        switch (chooseModel()) {
+            case REJECT -> {
+                send(order, ExecType.REJECTED, OrdStatus.REJECTED, 0, "Rejected by simulator");
+                rejects.increment();
+            }
+            case ACK_ONLY -> acknowledge(order);
+            case FULL_FILL -> {
+                acknowledge(order);
+                scheduleFill(order, 1, 1);
+            }
+            default -> {
+                acknowledge(order);
+                int slices = config.partialFills() + 1;
+                scheduleFill(order, 1, slices);
+            }
+        }
+    }
+
+    private SimulatorConfig.FillModel chooseModel() {
+        if (config.fillModel() != SimulatorConfig.FillModel.MIXED) {
+            return config.fillModel();
+        }
+        double draw = ThreadLocalRandom.current().nextDouble();
+        if (draw < config.rejectRatio()) {
+            return SimulatorConfig.FillModel.REJECT;
+        }
+        return draw < config.rejectRatio() + config.partialRatio()
+                ? SimulatorConfig.FillModel.PARTIAL_FILL
+                : SimulatorConfig.FillModel.FULL_FILL;
+    }
+
+    private void acknowledge(SimulatedOrder order) {
+        send(order, ExecType.NEW, OrdStatus.NEW, 0, null);
+        acks.increment();
+    }
+
+    /**
+     * Sends slice {@code slice} of {@code slices} after another sampled delay and
+     * chains the next one, so reports for one order stay in order.
+     */
+    private void scheduleFill(SimulatedOrder order, int slice, int slices) {
+        workers.schedule(() -> {
+            double sliceQty = order.quantity / slices;
+            if (slice < slices) {
+                order.cumQty += sliceQty;
+                send(order, ExecType.PARTIAL_FILL, OrdStatus.PARTIALLY_FILLED, sliceQty, null);
+                partialFills.increment();
+                scheduleFill(order, slice + 1, slices);
+            } else {
+                double lastQty = order.quantity - order.cumQty;
+                order.cumQty = order.quantity;
+                send(order, ExecType.FILL, OrdStatus.FILLED, lastQty, null);
+                fills.increment();
+            }
+        }, sampleLatencyMicros(), TimeUnit.MICROSECONDS);
+    }
+
+    private void send(SimulatedOrder order, char execType, char ordStatus, double lastQty, String text) {
+        boolean rejected = execType == ExecType.REJECTED;
+        double leavesQty = rejected ? 0 : order.quantity - order.cumQty;
+        ExecutionReport report = new ExecutionReport(
+                new OrderID(order.orderId),
+                new ExecID(order.orderId + "-" + idSequence.incrementAndGet()),
+                new ExecTransType(ExecTransType.NEW),
+                new ExecType(execType),
+                new OrdStatus(ordStatus),
+                new Symbol(order.symbol),
+                new Side(order.side),
+                new OrderQty(order.quantity),
+                new LastShares(lastQty),
+                new LastPx(lastQty > 0 ? order.price : 0),
+                new LeavesQty(leavesQty),
+                new CumQty(order.cumQty),
+                new AvgPx(order.cumQty > 0 ? order.price : 0));
+        report.set(new ClOrdID(order.clOrdId));
+        if (text != null) {
+            report.set(new Text(text));
+        }
+
+        try {
+            boolean sent = order.session != null ? order.session.send(report)
+                    : sessionGateway.sendToTarget(report, order.sessionId);
+            if (!sent) {
+                sendFailures.increment();
+            }
+        } catch (Exception e) {
+            sendFailures.increment();
+            log.warn("Simulator failed to send ExecutionReport for {}", order.clOrdId, e);
+        }
+    }
+
+    long sampleLatencyMicros() {
+        long mean = config.latencyMicros();
+        long max = config.maxLatencyMicros();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long sample = switch (config.latency()) {
+            case FIXED -> mean;
+            case UNIFORM -> random.nextLong(2 * mean + 1);
+            case EXPONENTIAL -> (long) (-mean * Math.log(1.0 - random.nextDouble()));
+        };
+        return Math.min(sample, max);
+    }
+
+    private final class AcceptorApplication implements Application {
+
+        private final Function<SessionID, Session> sessions;
+
+        private AcceptorApplication(Function<SessionID, Session> sessions) {
+            this.sessions = sessions;
+        }
+
+        @Override
+        public void onCreate(SessionID sessionId) {
+            ExchangeSimulator.this.onCreate(sessionId);
+        }
+
+        @Override
+        public void onLogon(SessionID sessionId) {
+            ExchangeSimulator.this.onLogon(sessionId);
+        }
+
+        @Override
+        public void onLogout(SessionID sessionId) {
+            ExchangeSimulator.this.onLogout(sessionId);
+        }
+
+        @Override
+        public void toAdmin(Message message, SessionID sessionId) {
+        }
+
+        @Override
+        public void fromAdmin(Message message, SessionID sessionId) {
+        }
+
+        @Override
+        public void toApp(Message message, SessionID sessionId) {
+        }
+
+        @Override
+        public void fromApp(Message message, SessionID sessionId) throws FieldNotFound {
+            receive(message, sessionId, sessions.apply(sessionId));
+        }
+    }
+
+    private static final class SimulatedOrder {
+        private final SessionID sessionId;
+        // Null when the session is looked up by id
+        private final Session session;
+        private final String orderId;
+        private final String clOrdId;
+        private final String symbol;
+        private final char side;
+        private final double quantity;
+        private final double price;
+        // Only touched by the chained fill tasks, which run one after another
+        private volatile double cumQty;
+
+        private SimulatedOrder(SessionID sessionId, Session session, String orderId, String clOrdId, String symbol,
+                               char side, double quantity, double price) {
+            this.sessionId = sessionId;
+            this.session = session;
+            this.orderId = orderId;
+            this.clOrdId = clOrdId;
+            this.symbol = symbol;
+            this.side = side;
+            this.quantity = quantity;
+            this.price = price;
+        }
+    }
+}
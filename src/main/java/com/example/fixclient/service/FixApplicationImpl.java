@@ -1,6 +1,11 @@
 package com.example.fixclient.service;
 
+import com.example.fixclient.jfr.FixMessageEvent;
+import com.example.fixclient.listener.FixTrafficListener;
+import com.example.fixclient.metrics.FixMetrics;
+import com.example.fixclient.metrics.MessageTracer;
 import com.example.fixclient.model.SessionStatus;
+import com.example.fixclient.websocket.SessionMessaging;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.simp.SimpMessageSendingOperations;
@@ -9,13 +14,17 @@ import quickfix.Application;
 import quickfix.FieldNotFound;
 import quickfix.Message;
 import quickfix.SessionID;
+import quickfix.field.ClOrdID;
 import quickfix.field.MsgSeqNum;
 import quickfix.field.MsgType;
+import quickfix.field.PossDupFlag;
 import quickfix.field.Text;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import quickfix.Session;
@@ -25,18 +34,30 @@ import quickfix.Session;
 public class FixApplicationImpl implements Application {
 
     private static final int CERT_FIELD = 9479;
+    static final int TIMESTAMP_FIELD = 9481;
+    static final int SIGNATURE_FIELD = 9489;
     private static final Pattern SEQ_NUM_EXPECTED_PATTERN = Pattern.compile("expected \\[(\\d+)\\]");
 
     private final CertificateService certificateService;
     private final SimpMessageSendingOperations messagingTemplate;
+    private final FixMetrics metrics;
+    private final MessageTracer tracer;
+    private final FixTrafficListener[] trafficListeners;
+    private final WorkerThreads workerThreads;
     private final Map<SessionID, SessionStatus> sessionStatuses = new ConcurrentHashMap<>();
 
     @Setter
     private FixSessionManager sessionManager;
 
-    public FixApplicationImpl(CertificateService certificateService, SimpMessageSendingOperations messagingTemplate) {
+    public FixApplicationImpl(CertificateService certificateService, SimpMessageSendingOperations messagingTemplate,
+                              FixMetrics metrics, MessageTracer tracer, List<FixTrafficListener> trafficListeners,
+                              WorkerThreads workerThreads) {
         this.certificateService = certificateService;
         this.messagingTemplate = messagingTemplate;
+        this.metrics = metrics;
+        this.tracer = tracer;
+        this.trafficListeners = trafficListeners.toArray(new FixTrafficListener[0]);
+        this.workerThreads = workerThreads;
     }
 
     public SessionStatus getStatus(SessionID sessionID) {
@@ -47,6 +68,7 @@ public class FixApplicationImpl implements Application {
     public void onCreate(SessionID sessionID) {
         log.info("Session created: {}", sessionID);
         sessionStatuses.put(sessionID, SessionStatus.DISCONNECTED);
+        metrics.sessionStateGauge(sessionID, this, app -> app.getStatus(sessionID).ordinal());
     }
 
     @Override
@@ -66,6 +88,8 @@ public class FixApplicationImpl implements Application {
 
     @Override
     public void toAdmin(Message message, SessionID sessionID) {
+        FixMessageEvent event = new FixMessageEvent();
+        event.begin();
         try {
             String msgType = message.getHeader().isSetField(MsgType.FIELD)
                     ? message.getHeader().getString(MsgType.FIELD)
@@ -73,6 +97,7 @@ public class FixApplicationImpl implements Application {
             int seqNum = message.getHeader().isSetField(MsgSeqNum.FIELD) ? message.getHeader().getInt(MsgSeqNum.FIELD)
                     : -1;
             log.info("[INITIATOR][toAdmin] MsgType: {}, MsgSeqNum: {}", msgType, seqNum);
+            metrics.session(sessionID).sent(msgType);
 
             if (MsgType.LOGON.equals(msgType)) {
                 String senderCompId = sessionID.getSenderCompID();
@@ -86,18 +111,25 @@ public class FixApplicationImpl implements Application {
             }
         } catch (FieldNotFound e) {
             log.error("Error reading MsgType from admin message", e);
+        } finally {
+            notifyTraffic(sessionID, FixTrafficListener.Direction.OUTBOUND, true, message);
+            event.complete("toAdmin", message, sessionID);
         }
     }
 
     @Override
     public void fromAdmin(Message message, SessionID sessionID) {
+        FixMessageEvent event = new FixMessageEvent();
+        event.begin();
         try {
+            notifyTraffic(sessionID, FixTrafficListener.Direction.INBOUND, true, message);
             String msgType = message.getHeader().isSetField(MsgType.FIELD)
                     ? message.getHeader().getString(MsgType.FIELD)
                     : "UNKNOWN";
             int seqNum = message.getHeader().isSetField(MsgSeqNum.FIELD) ? message.getHeader().getInt(MsgSeqNum.FIELD)
                     : -1;
             log.info("[INITIATOR][fromAdmin] MsgType: {}, MsgSeqNum: {}", msgType, seqNum);
+            metrics.session(sessionID).received(msgType);
             log.debug("[INITIATOR][fromAdmin] Full message: {}", message);
 
             if (MsgType.LOGOUT.equals(msgType)) {
@@ -105,6 +137,8 @@ public class FixApplicationImpl implements Application {
             }
         } catch (FieldNotFound e) {
             log.error("Error reading MsgType from admin message", e);
+        } finally {
+            event.complete("fromAdmin", message, sessionID);
         }
     }
 
@@ -138,7 +172,7 @@ public class FixApplicationImpl implements Application {
                 // Stop in a separate thread to avoid blocking QuickFIX/J callback
                 String sender = sessionID.getSenderCompID();
                 String target = sessionID.getTargetCompID();
-                new Thread(() -> {
+                workerThreads.newThread("initiator-stop-" + sender, () -> {
                     try {
                         // Small delay to let QuickFIX/J finish processing
                         Thread.sleep(100);
@@ -146,7 +180,7 @@ public class FixApplicationImpl implements Application {
                     } catch (InterruptedException e) {
                         Thread.currentThread().interrupt();
                     }
-                }, "initiator-stop-" + sender).start();
+                }).start();
             } else {
                 log.warn("SessionManager not set - cannot stop initiator automatically");
             }
@@ -155,17 +189,68 @@ public class FixApplicationImpl implements Application {
 
     @Override
     public void toApp(Message message, SessionID sessionID) {
-        log.info("[INITIATOR][ToApp] {} {}", sessionID, message);
+        FixMessageEvent event = new FixMessageEvent();
+        event.begin();
+        try {
+            int traceSlot = tracer.current();
+            tracer.stamp(traceSlot, MessageTracer.Stage.TO_APP_ENTER);
+            log.info("[INITIATOR][ToApp] {} {}", sessionID, message);
+            FixMetrics.SessionMeters sessionMeters = metrics.session(sessionID);
+            sessionMeters.sent(getMsgType(message));
+
+            // Resent messages come from the store already stamped and signed
+            if (isResendOfSignedMessage(message)) {
+                log.debug("Skipping re-signing of resent message for session {}", sessionID);
+                return;
+            }
+
+            long startNanos = System.nanoTime();
+
+            // Add Timestamp (9481)
+            message.setString(TIMESTAMP_FIELD, LocalDateTime.now().toString());
+
+            // Add Signature (9489)
+            String signature = certificateService.signMessage(message);
+            if (signature != null) {
+                message.setString(SIGNATURE_FIELD, signature);
+            } else {
+                log.warn("Failed to sign message for session {}", sessionID);
+            }
+            sessionMeters.toAppTimer().record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            tracer.stamp(traceSlot, MessageTracer.Stage.TO_APP_EXIT);
+        } finally {
+            notifyTraffic(sessionID, FixTrafficListener.Direction.OUTBOUND, false, message);
+            event.complete("toApp", message, sessionID);
+        }
+    }
+
+    private void notifyTraffic(SessionID sessionID, FixTrafficListener.Direction direction, boolean admin,
+                               Message message) {
+        for (FixTrafficListener listener : trafficListeners) {
+            try {
+                listener.onMessage(sessionID, direction, admin, message);
+            } catch (RuntimeException e) {
+                log.warn("Traffic listener {} failed for {}", listener.getClass().getSimpleName(), sessionID, e);
+            }
+        }
+    }
 
-        // Add Timestamp (9481)
-        message.setString(9481, LocalDateTime.now().toString());
+    private static String getMsgType(Message message) {
+        try {
+            return message.getHeader().isSetField(MsgType.FIELD) ? message.getHeader().getString(MsgType.FIELD)
+                    : "UNKNOWN";
+        } catch (FieldNotFound e) {
+            return "UNKNOWN";
+        }
+    }
 
-        // Add Signature (9489)
-        String signature = certificateService.signMessage(message);
-        if (signature != null) {
-            message.setString(9489, signature);
-        } else {
-            log.warn("Failed to sign message for session {}", sessionID);
+    private boolean isResendOfSignedMessage(Message message) {
+        try {
+            return message.isSetField(SIGNATURE_FIELD)
+                    && message.getHeader().isSetField(PossDupFlag.FIELD)
+                    && message.getHeader().getBoolean(PossDupFlag.FIELD);
+        } catch (FieldNotFound e) {
+            return false;
         }
     }
 
@@ -218,13 +303,29 @@ public class FixApplicationImpl implements Application {
 
     @Override
     public void fromApp(Message message, SessionID sessionID) {
-        log.info("[INITIATOR][FromApp] {}: {}", sessionID, message);
+        FixMessageEvent event = new FixMessageEvent();
+        event.begin();
+        try {
+            notifyTraffic(sessionID, FixTrafficListener.Direction.INBOUND, false, message);
+            log.info("[INITIATOR][FromApp] {}: {}", sessionID, message);
+            metrics.session(sessionID).received(getMsgType(message));
+            if (message.isSetField(ClOrdID.FIELD)) {
+                try {
+                    tracer.acknowledged(message.getString(ClOrdID.FIELD));
+                } catch (FieldNotFound e) {
+                    // Checked above
+                }
+            }
 
-        if (sessionManager != null) {
-            String wsSessionId = sessionManager.getOwner(sessionID);
-            if (wsSessionId != null) {
-                messagingTemplate.convertAndSendToUser(wsSessionId, "/topic/fixMessages", message.toString());
+            if (sessionManager != null) {
+                String wsSessionId = sessionManager.getOwner(sessionID);
+                if (wsSessionId != null) {
+                    SessionMessaging.sendToSession(messagingTemplate, wsSessionId, "/topic/fixMessages",
+                            message.toString());
+                }
             }
+        } finally {
+            event.complete("fromApp", message, sessionID);
         }
     }
 
@@ -1,22 +1,274 @@
 package com.example.fixclient.service;
 
+import com.example.fixclient.config.EnvironmentConfig;
+import com.example.fixclient.exception.ThrottleRejectedException;
+import com.example.fixclient.metrics.FixMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import quickfix.FieldNotFound;
 import quickfix.Message;
+import quickfix.Responder;
 import quickfix.Session;
 import quickfix.SessionID;
 import quickfix.SessionNotFound;
+import quickfix.SessionStateListener;
+import quickfix.field.MsgType;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
 
 /**
  * Gateway to wrap static QuickFIX/J Session calls for testability.
+ * <p>
+ * Sends for one session take turns on the session's {@link OutboundLanes wire}.
+ * Urgent sends go before queued bulk sends and cut into bulk bursts between
+ * messages. A send is urgent if the caller says so or its MsgType is listed in
+ * {@code fix.lanes.urgent-types}; by default cancels, cancel/replaces, mass
+ * cancels and TestRequests. Within a lane, sends keep their order.
+ * <p>
+ * Sessions with a {@link #setRateLimit rate limit} share one {@link SessionThrottle}
+ * across every caller, so batches, one-off sends, replays and probes together
+ * stay under the counterparty's cap. Depending on the configured mode a send over
+ * the limit waits, before it takes the wire, or fails with a
+ * {@link ThrottleRejectedException}.
  */
 @Component
 public class FixSessionGateway {
 
+    private final FixMetrics metrics;
+    private final Set<String> urgentTypes;
+    private final Map<SessionID, OutboundLanes> lanes = new ConcurrentHashMap<>();
+    private final Map<SessionID, SessionThrottle> throttles = new ConcurrentHashMap<>();
+
+    public FixSessionGateway(FixMetrics metrics,
+                             @Value("${fix.lanes.urgent-types:F,G,q,1}") String[] urgentTypes) {
+        this.metrics = metrics;
+        this.urgentTypes = Set.of(urgentTypes);
+    }
+
     public boolean doesSessionExist(SessionID sessionID) {
         return Session.doesSessionExist(sessionID);
     }
 
+    public boolean isLoggedOn(SessionID sessionID) {
+        Session session = Session.lookupSession(sessionID);
+        return session != null && session.isLoggedOn();
+    }
+
     public boolean sendToTarget(Message message, SessionID sessionID) throws SessionNotFound {
-        return Session.sendToTarget(message, sessionID);
+        return sendToTarget(message, sessionID, null);
+    }
+
+    /**
+     * @param lane null to pick the lane from the MsgType
+     */
+    public boolean sendToTarget(Message message, SessionID sessionID, OutboundLane lane) throws SessionNotFound {
+        throttle(sessionID, 1);
+        long startNanos = System.nanoTime();
+        OutboundLanes wire = lanes(sessionID);
+        wire.acquire(lane != null ? lane : laneOf(message));
+        try {
+            return Session.sendToTarget(message, sessionID);
+        } finally {
+            wire.release();
+            metrics.session(sessionID).sendTimer().record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public boolean[] sendBurst(List<Message> messages, SessionID sessionID) throws SessionNotFound {
+        return sendBurst(messages, sessionID, null, index -> {
+        });
+    }
+
+    /**
+     * Sends the messages to one session in order, holding the wire for the whole
+     * burst. A bulk burst steps aside between messages for waiting urgent sends.
+     * When {@link #enableBurstWrites} was called for the session, the encoded
+     * messages are collected and written to the connection in one go.
+     * <p>
+     * Under a rate limit every message is admitted on its own, so a burst larger
+     * than the bucket sends what the bucket holds. A queueing limit writes the
+     * collected messages before each wait, so pacing holds on the wire. If a
+     * message would wait longer than the limit allows, or a rejecting limit has
+     * no room for it, it and the rest of the burst are not sent; if that is the
+     * first message, the burst fails with a {@link ThrottleRejectedException}.
+     *
+     * @param lane       null for urgent if every message is, bulk otherwise
+     * @param beforeEach called with the message index right before each message
+     *                   is handed to QuickFIX/J, on the calling thread
+     * @return per message, whether it was sent; all false if a collected write failed
+     */
+    public boolean[] sendBurst(List<Message> messages, SessionID sessionID, OutboundLane lane,
+                               IntConsumer beforeEach) throws SessionNotFound {
+        Session session = Session.lookupSession(sessionID);
+        if (session == null) {
+            throw new SessionNotFound("Session not found: " + sessionID);
+        }
+        SessionThrottle throttle = throttles.get(sessionID);
+        boolean limited = throttle != null && throttle.isLimited();
+        OutboundLane effectiveLane = lane != null ? lane : laneOf(messages);
+        boolean[] sent = new boolean[messages.size()];
+        long startNanos = System.nanoTime();
+        OutboundLanes wire = lanes(sessionID);
+        wire.acquire(effectiveLane);
+        try {
+            CoalescingResponder responder = session.getResponder() instanceof CoalescingResponder coalescing
+                    ? coalescing : null;
+            boolean written = true;
+            beginBurst(responder);
+            try {
+                for (int i = 0; i < sent.length; i++) {
+                    if (effectiveLane == OutboundLane.BULK && wire.urgentWaiting()) {
+                        written &= endBurst(responder);
+                        wire.yieldToUrgent();
+                        beginBurst(responder);
+                    }
+                    if (limited) {
+                        long waitNanos = throttle.reserve(1);
+                        if (waitNanos == SessionThrottle.REJECTED) {
+                            if (i == 0) {
+                                throw rejected(sessionID, messages.size(), throttle);
+                            }
+                            break;
+                        }
+                        if (waitNanos > 0) {
+                            written &= endBurst(responder);
+                            throttle.await(waitNanos);
+                            beginBurst(responder);
+                        }
+                    }
+                    beforeEach.accept(i);
+                    sent[i] = session.send(messages.get(i));
+                }
+            } finally {
+                written &= endBurst(responder);
+            }
+            if (!written) {
+                Arrays.fill(sent, false);
+            }
+        } finally {
+            wire.release();
+            FixMetrics.SessionMeters meters = metrics.session(sessionID);
+            meters.burstTimer().record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            meters.burstSize().record(sent.length);
+        }
+        return sent;
+    }
+
+    /**
+     * Lane a send without an explicit lane goes to.
+     */
+    public OutboundLane laneOf(Message message) {
+        try {
+            return message.getHeader().isSetField(MsgType.FIELD)
+                    && urgentTypes.contains(message.getHeader().getString(MsgType.FIELD))
+                    ? OutboundLane.URGENT : OutboundLane.BULK;
+        } catch (FieldNotFound e) {
+            return OutboundLane.BULK;
+        }
+    }
+
+    private OutboundLane laneOf(List<Message> messages) {
+        for (Message message : messages) {
+            if (laneOf(message) == OutboundLane.BULK) {
+                return OutboundLane.BULK;
+            }
+        }
+        return OutboundLane.URGENT;
+    }
+
+    private static void beginBurst(CoalescingResponder responder) {
+        if (responder != null) {
+            responder.beginBurst();
+        }
+    }
+
+    private static boolean endBurst(CoalescingResponder responder) {
+        return responder == null || responder.endBurst();
+    }
+
+    /**
+     * Wraps every future connection of the session in a {@link CoalescingResponder}
+     * so bursts go out as single writes. Call once after the session was created;
+     * a connection that was already established is left as it is and its bursts
+     * are written message by message.
+     */
+    public void enableBurstWrites(SessionID sessionID) {
+        Session session = Session.lookupSession(sessionID);
+        if (session == null) {
+            return;
+        }
+        session.addStateListener(new SessionStateListener() {
+            @Override
+            public void onConnect() {
+                // Runs inside Session.setResponder, so the swap cannot race a disconnect.
+                // Installing the wrapper fires onConnect once more, which finds it in place.
+                Responder responder = session.getResponder();
+                if (responder != null && !(responder instanceof CoalescingResponder)) {
+                    session.setResponder(new CoalescingResponder(responder));
+                }
+            }
+        });
+    }
+
+    /**
+     * Sets or replaces the outbound rate limit of a session; null removes it.
+     */
+    public void setRateLimit(SessionID sessionID, EnvironmentConfig.RateLimitConfig limit) {
+        SessionThrottle throttle = throttles.get(sessionID);
+        if (throttle == null) {
+            if (limit == null || limit.messagesPerSecond() <= 0) {
+                return;
+            }
+            throttle = throttles.computeIfAbsent(sessionID, id -> {
+                SessionThrottle created = new SessionThrottle(metrics.throttleWaitTimer(id),
+                        metrics.throttleRejections(id));
+                metrics.throttleGauges(id, created, SessionThrottle::utilization, SessionThrottle::messagesPerSecond);
+                return created;
+            });
+        }
+        throttle.update(limit);
+    }
+
+    private void throttle(SessionID sessionID, int permits) {
+        SessionThrottle throttle = throttles.get(sessionID);
+        if (throttle == null || !throttle.isLimited()) {
+            return;
+        }
+        long waitNanos = throttle.reserve(permits);
+        if (waitNanos == SessionThrottle.REJECTED) {
+            throw rejected(sessionID, permits, throttle);
+        }
+        throttle.await(waitNanos);
+    }
+
+    private static ThrottleRejectedException rejected(SessionID sessionID, int permits, SessionThrottle throttle) {
+        return new ThrottleRejectedException(String.format("%d message(s) to %s exceed the limit of %d msg/s",
+                permits, sessionID, throttle.messagesPerSecond()));
+    }
+
+    /**
+     * Drops the wire and the rate limit of a stopped session, with the limit's
+     * gauges, so a restarted session starts with an idle wire and a full bucket.
+     */
+    public void removeSession(SessionID sessionID) {
+        lanes.remove(sessionID);
+        if (throttles.remove(sessionID) != null) {
+            metrics.removeThrottleGauges(sessionID);
+        }
+    }
+
+    private OutboundLanes lanes(SessionID sessionID) {
+        OutboundLanes wire = lanes.get(sessionID);
+        return wire != null ? wire : lanes.computeIfAbsent(sessionID, id -> {
+            FixMetrics.SessionMeters meters = metrics.session(id);
+            return new OutboundLanes(meters.laneWaitTimer(OutboundLane.URGENT.name()),
+                    meters.laneWaitTimer(OutboundLane.BULK.name()));
+        });
     }
 }
@@ -1,16 +1,27 @@
 package com.example.fixclient.service;
 
+import com.example.fixclient.jfr.SessionLifecycleEvent;
+import com.example.fixclient.journal.AuditJournal;
+import com.example.fixclient.journal.JournalLogFactory;
+import com.example.fixclient.metrics.FixMetrics;
 import com.example.fixclient.model.FixSessionKey;
 import com.example.fixclient.model.SessionStatus;
+import com.example.fixclient.tls.TlsContextProvider;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.mina.core.filterchain.IoFilterChainBuilder;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 import quickfix.*;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @Slf4j
@@ -18,6 +29,14 @@ public class FixSessionManager {
 
     private final FixApplicationImpl application;
     private final DynamicSettingsBuilder settingsBuilder;
+    private final AuditJournal auditJournal;
+    // Absent when fix.acceptor.mode=off
+    private final ObjectProvider<TestAcceptorService> localAcceptor;
+    private final FixMetrics metrics;
+    private final FixSessionGateway sessionGateway;
+    private final RttProber rttProber;
+    private final ConfigService configService;
+    private final TlsContextProvider tlsContexts;
     private final Map<FixSessionKey, SocketInitiator> initiators = new ConcurrentHashMap<>();
 
     // Maps WebSocket Session ID -> Set of FIX Session Keys started by that WS
@@ -28,15 +47,31 @@ public class FixSessionManager {
     // Used to route incoming messages back to the correct user
     private final Map<SessionID, String> fixSessionOwners = new ConcurrentHashMap<>();
 
-    public FixSessionManager(FixApplicationImpl application, DynamicSettingsBuilder settingsBuilder) {
+    // Initiators released by stopSessionsByWsId whose logout is still running.
+    // QuickFIX/J registers sessions by SessionID, so a new start has to wait for it.
+    private final Map<SessionID, CompletableFuture<Void>> stopping = new ConcurrentHashMap<>();
+
+    public FixSessionManager(FixApplicationImpl application, DynamicSettingsBuilder settingsBuilder,
+                             AuditJournal auditJournal, ObjectProvider<TestAcceptorService> localAcceptor,
+                             FixMetrics metrics, FixSessionGateway sessionGateway, RttProber rttProber,
+                             ConfigService configService, TlsContextProvider tlsContexts) {
         this.application = application;
         this.settingsBuilder = settingsBuilder;
+        this.auditJournal = auditJournal;
+        this.localAcceptor = localAcceptor;
+        this.metrics = metrics;
+        this.sessionGateway = sessionGateway;
+        this.rttProber = rttProber;
+        this.configService = configService;
+        this.tlsContexts = tlsContexts;
     }
 
     @PostConstruct
     public void init() {
         // Wire callback to avoid circular constructor dependency
         application.setSessionManager(this);
+        metrics.activeSessionsGauge(initiators::size);
+        metrics.bindJournal(auditJournal);
     }
 
     @PreDestroy
@@ -47,28 +82,87 @@ public class FixSessionManager {
 
     public void startSession(String sender, String target, String env, String wsSessionId) throws ConfigError {
         FixSessionKey key = new FixSessionKey(sender, target, env);
-        if (initiators.containsKey(key)) {
-            log.info("Session already active for {}", key);
+        SessionID sessionID = new SessionID("FIX.4.1", sender, target);
+        if (claimActive(key, sessionID, wsSessionId)) {
             return;
         }
+        CompletableFuture<Void> previousStop = stopping.get(sessionID);
+        if (previousStop != null) {
+            log.info("Waiting for the previous {} to log out", sessionID);
+            previousStop.join();
+        }
+
+        localAcceptor.ifAvailable(acceptor -> acceptor.ensureStarted(env));
 
         log.info("Starting session for {} (WS Owner: {})", key, wsSessionId);
+        SessionLifecycleEvent event = new SessionLifecycleEvent();
+        event.begin();
+        long startNanos = System.nanoTime();
+        long heapBefore = usedHeap();
 
         SessionSettings settings = settingsBuilder.buildSettings(sender, target, env);
 
-        FileStoreFactory storeFactory = new FileStoreFactory(settings);
-        LogFactory logFactory = new ScreenLogFactory(settings);
+        MessageStoreFactory storeFactory = new ResendWindowStoreFactory(new FileStoreFactory(settings), settings,
+                metrics);
+        LogFactory logFactory = new JournalLogFactory(auditJournal);
         MessageFactory messageFactory = new DefaultMessageFactory();
 
         SocketInitiator initiator = new SocketInitiator(application, storeFactory, settings, logFactory,
                 messageFactory);
+        IoFilterChainBuilder tlsFilters = tlsContexts.prepare(settings, sessionID, env);
+        if (tlsFilters != null) {
+            initiator.setIoFilterChainBuilder(tlsFilters);
+        }
         initiator.start();
+        sessionGateway.enableBurstWrites(sessionID);
+        sessionGateway.setRateLimit(sessionID, configService.getRateLimit(env, sender));
+        rttProber.register(sessionID, env);
+        long elapsedNanos = System.nanoTime() - startNanos;
+        event.complete(SessionLifecycleEvent.START, sender, target, env);
+        metrics.sessionStartTimer().record(elapsedNanos, TimeUnit.NANOSECONDS);
+        log.info("Session {} started in {} ms, heap grew by ~{} KB", key,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), (usedHeap() - heapBefore) / 1024);
 
-        initiators.put(key, initiator);
+        // Register with its owner under the lock claimActive takes
+        synchronized (this) {
+            initiators.put(key, initiator);
+            wsToFixSessions.computeIfAbsent(wsSessionId, k -> ConcurrentHashMap.newKeySet()).add(key);
+            fixSessionOwners.put(sessionID, wsSessionId);
+        }
+    }
 
-        // Register owner
-        wsToFixSessions.computeIfAbsent(wsSessionId, k -> ConcurrentHashMap.newKeySet()).add(key);
-        fixSessionOwners.put(new SessionID("FIX.4.1", sender, target), wsSessionId);
+    /**
+     * Handles a start request for a session that is already running. A session
+     * the warm-up logged on is handed over to the new owner, under the same lock
+     * as {@link #stopSessionOwnedBy}, so the warm-up cannot stop it afterwards.
+     *
+     * @return false if the session is not running and has to be started
+     */
+    private synchronized boolean claimActive(FixSessionKey key, SessionID sessionID, String wsSessionId) {
+        if (!initiators.containsKey(key)) {
+            return false;
+        }
+        String owner = fixSessionOwners.get(sessionID);
+        if (WarmupService.OWNER.equals(owner) && !WarmupService.OWNER.equals(wsSessionId)) {
+            Set<FixSessionKey> warmupSessions = wsToFixSessions.get(owner);
+            if (warmupSessions != null) {
+                warmupSessions.remove(key);
+                if (warmupSessions.isEmpty()) {
+                    wsToFixSessions.remove(owner);
+                }
+            }
+            wsToFixSessions.computeIfAbsent(wsSessionId, k -> ConcurrentHashMap.newKeySet()).add(key);
+            fixSessionOwners.put(sessionID, wsSessionId);
+            log.info("Session {} taken over from warm-up by WS Owner {}", key, wsSessionId);
+        } else {
+            log.info("Session already active for {}", key);
+        }
+        return true;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
     }
 
     public void stopSession(String sender, String target, String env) {
@@ -76,10 +170,24 @@ public class FixSessionManager {
         stopSessionByKey(key);
     }
 
+    /**
+     * Stops a session only if {@code owner} still owns it, so a session someone
+     * else has taken over in the meantime keeps running.
+     *
+     * @return whether the session was stopped
+     */
+    public synchronized boolean stopSessionOwnedBy(String sender, String target, String env, String owner) {
+        if (!owner.equals(getOwner(sender, target, env))) {
+            return false;
+        }
+        stopSessionByKey(new FixSessionKey(sender, target, env));
+        return true;
+    }
+
     private void stopSessionByKey(FixSessionKey key) {
         SocketInitiator initiator = initiators.remove(key);
         if (initiator != null) {
-            initiator.stop(true);
+            stopInitiator(key, initiator);
             log.info("Stopped session for {} (forced)", key);
 
             // Remove from ownership and reverse maps
@@ -103,30 +211,56 @@ public class FixSessionManager {
         }
     }
 
+    private void stopInitiator(FixSessionKey key, SocketInitiator initiator) {
+        SessionID sessionID = new SessionID("FIX.4.1", key.senderCompId(), key.targetCompId());
+        rttProber.unregister(sessionID);
+        SessionLifecycleEvent event = new SessionLifecycleEvent();
+        event.begin();
+        initiator.stop(true);
+        sessionGateway.removeSession(sessionID);
+        event.complete(SessionLifecycleEvent.STOP, key.senderCompId(), key.targetCompId(), key.environment());
+    }
+
     /**
-     * Stops all sessions owned by the specific WebSocket session.
+     * Stops all sessions owned by the specific WebSocket session. Ownership and
+     * the initiators are released before this returns, under the lock
+     * {@link #claimActive} takes, so a client that reconnects can start the same
+     * sessions again right away. The blocking logouts run on {@code stopper}; a
+     * start of one of these sessions waits for its logout to finish.
      */
-    public void stopSessionsByWsId(String wsSessionId) {
-        Set<FixSessionKey> ownedSessions = wsToFixSessions.remove(wsSessionId);
-        if (ownedSessions != null) {
-            log.info("Stopping all sessions for WS Owner: {}", wsSessionId);
+    public void stopSessionsByWsId(String wsSessionId, Executor stopper) {
+        Map<FixSessionKey, SocketInitiator> released = new LinkedHashMap<>();
+        synchronized (this) {
+            Set<FixSessionKey> ownedSessions = wsToFixSessions.remove(wsSessionId);
+            if (ownedSessions == null) {
+                return;
+            }
             for (FixSessionKey key : ownedSessions) {
-                // We call the internal stop that also cleans up maps,
-                // but we already removed the set from wsToFixSessions to prevent concurrent
-                // modification issues
-                // if we iterated directly. However, we need to be careful.
-                // The efficient way is to just stop the initiators and remove from maps.
-
+                SessionID sessionId = new SessionID("FIX.4.1", key.senderCompId(), key.targetCompId());
+                fixSessionOwners.remove(sessionId);
                 SocketInitiator initiator = initiators.remove(key);
                 if (initiator != null) {
-                    initiator.stop(true);
-                    log.info("Stopped session {} (forced)", key);
+                    released.put(key, initiator);
+                    stopping.put(sessionId, new CompletableFuture<>());
                 }
-
-                SessionID sessionId = new SessionID("FIX.4.1", key.senderCompId(), key.targetCompId());
-                fixSessionOwners.remove(sessionId);
             }
         }
+        if (released.isEmpty()) {
+            return;
+        }
+        log.info("Stopping all sessions for WS Owner: {}", wsSessionId);
+        stopper.execute(() -> released.forEach((key, initiator) -> {
+            SessionID sessionId = new SessionID("FIX.4.1", key.senderCompId(), key.targetCompId());
+            try {
+                stopInitiator(key, initiator);
+                log.info("Stopped session {} (forced)", key);
+            } finally {
+                CompletableFuture<Void> done = stopping.remove(sessionId);
+                if (done != null) {
+                    done.complete(null);
+                }
+            }
+        }));
     }
 
     /**
@@ -156,4 +290,25 @@ public class FixSessionManager {
     public String getOwner(SessionID sessionId) {
         return fixSessionOwners.get(sessionId);
     }
+
+    /**
+     * @return the owner of the session in this environment, or null if it is
+     * not running there
+     */
+    public String getOwner(String sender, String target, String env) {
+        if (!initiators.containsKey(new FixSessionKey(sender, target, env))) {
+            return null;
+        }
+        return fixSessionOwners.get(new SessionID("FIX.4.1", sender, target));
+    }
+
+    /**
+     * @return whether the initiator runs in any environment. QuickFIX/J
+     * registers sessions by {@link SessionID} alone, so it cannot run in a
+     * second one at the same time.
+     */
+    public boolean isActive(SessionID sessionId) {
+        return initiators.keySet().stream().anyMatch(key -> key.senderCompId().equals(sessionId.getSenderCompID())
+                && key.targetCompId().equals(sessionId.getTargetCompID()));
+    }
 }
@@ -0,0 +1,17 @@
+package com.example.fixclient.service;
+
+/**
+ * Priority class of an outbound send. Within a lane sends keep their arrival
+ * order; across lanes urgent sends go first.
+ */
+public enum OutboundLane {
+    /**
+     * Cancels, replaces, probes and anything flagged urgent; overtakes queued and
+     * in-flight bulk traffic.
+     */
+    URGENT,
+    /**
+     * Everything else, including batch baskets.
+     */
+    BULK
+}
@@ -0,0 +1,125 @@
+package com.example.fixclient.service;
+
+import io.micrometer.core.instrument.Timer;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission to one session's wire, with a FIFO queue per {@link OutboundLane}.
+ * <p>
+ * Exactly one thread owns the wire at a time. When it is released, the head of
+ * the urgent queue goes next, and bulk senders go only while no urgent sender
+ * waits. A bulk burst also checks {@link #urgentWaiting()} between messages and
+ * {@link #yieldToUrgent() steps aside}. It then takes the wire back before any
+ * other bulk sender, so an urgent message waits for at most one bulk message
+ * and bulk order is kept. The wire is re-entrant for its owner.
+ */
+final class OutboundLanes {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private final ArrayDeque<Thread> urgent = new ArrayDeque<>();
+    private final ArrayDeque<Thread> bulk = new ArrayDeque<>();
+    private final Timer urgentWait;
+    private final Timer bulkWait;
+    private volatile int urgentWaiters;
+    private Thread owner;
+    private int holds;
+    private boolean bulkPaused;
+
+    OutboundLanes(Timer urgentWait, Timer bulkWait) {
+        this.urgentWait = urgentWait;
+        this.bulkWait = bulkWait;
+    }
+
+    void acquire(OutboundLane lane) {
+        long startNanos = System.nanoTime();
+        Thread current = Thread.currentThread();
+        lock.lock();
+        try {
+            if (owner == current) {
+                holds++;
+                return;
+            }
+            ArrayDeque<Thread> queue = lane == OutboundLane.URGENT ? urgent : bulk;
+            queue.addLast(current);
+            if (lane == OutboundLane.URGENT) {
+                urgentWaiters++;
+            }
+            while (!mayEnter(lane, current)) {
+                released.awaitUninterruptibly();
+            }
+            queue.removeFirst();
+            if (lane == OutboundLane.URGENT) {
+                urgentWaiters--;
+            }
+            owner = current;
+            holds = 1;
+        } finally {
+            lock.unlock();
+        }
+        (lane == OutboundLane.URGENT ? urgentWait : bulkWait)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void release() {
+        lock.lock();
+        try {
+            if (owner != Thread.currentThread()) {
+                throw new IllegalMonitorStateException("Wire not owned by " + Thread.currentThread().getName());
+            }
+            if (--holds == 0) {
+                owner = null;
+                released.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Lock-free check for the wire owner, cheap enough to call per message.
+     */
+    boolean urgentWaiting() {
+        return urgentWaiters > 0;
+    }
+
+    /**
+     * Lets every queued urgent sender go, then takes the wire back ahead of the
+     * bulk queue. Must be called by the owner.
+     */
+    void yieldToUrgent() {
+        Thread current = Thread.currentThread();
+        lock.lock();
+        try {
+            if (owner != current || urgent.isEmpty()) {
+                return;
+            }
+            int ownerHolds = holds;
+            owner = null;
+            bulkPaused = true;
+            released.signalAll();
+            while (owner != null || !urgent.isEmpty()) {
+                released.awaitUninterruptibly();
+            }
+            bulkPaused = false;
+            owner = current;
+            holds = ownerHolds;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean mayEnter(OutboundLane lane, Thread current) {
+        if (owner != null) {
+            return false;
+        }
+        if (lane == OutboundLane.URGENT) {
+            return urgent.peekFirst() == current;
+        }
+        return urgent.isEmpty() && !bulkPaused && bulk.peekFirst() == current;
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.fixclient.service;
+
+import com.example.fixclient.metrics.FixMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import quickfix.MessageStore;
+import quickfix.SessionID;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MessageStore decorator that keeps the last N outbound messages in memory.
+ * The cached strings are exactly what went on the wire (already enriched and
+ * signed in toApp), so a ResendRequest covering the recent window is served
+ * without touching the file store. Older gaps fall back to the delegate.
+ * Gap fills are timed into {@code fix.resend.gapfill} and the messages served
+ * are counted in {@code fix.resend.served} by source.
+ */
+@Slf4j
+public class ResendWindowStore implements MessageStore, Closeable {
+
+    private final MessageStore delegate;
+    private final SessionID sessionID;
+    private final int capacity;
+    private final String[] messages;
+    private final int[] seqNums;
+
+    private final Timer gapFillTimer;
+    private final Counter servedFromMemory;
+    private final Counter servedFromStore;
+
+    public ResendWindowStore(MessageStore delegate, SessionID sessionID, int capacity, FixMetrics metrics) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Resend window capacity must be positive: " + capacity);
+        }
+        this.delegate = delegate;
+        this.sessionID = sessionID;
+        this.capacity = capacity;
+        this.messages = new String[capacity];
+        this.seqNums = new int[capacity];
+        this.gapFillTimer = metrics.resendGapFillTimer(sessionID);
+        this.servedFromMemory = metrics.resendServed(sessionID, "memory");
+        this.servedFromStore = metrics.resendServed(sessionID, "store");
+    }
+
+    @Override
+    public boolean set(int sequence, String message) throws IOException {
+        boolean stored = delegate.set(sequence, message);
+        synchronized (this) {
+            int slot = sequence % capacity;
+            messages[slot] = message;
+            seqNums[slot] = sequence;
+        }
+        return stored;
+    }
+
+    @Override
+    public void get(int startSequence, int endSequence, Collection<String> result) throws IOException {
+        long start = System.nanoTime();
+        int fromStore = 0;
+
+        List<String> cached = new ArrayList<>();
+        int firstCached = collectCached(startSequence, endSequence, cached);
+
+        if (firstCached > startSequence) {
+            // Older part of the gap is outside the window, read it from the store
+            int sizeBefore = result.size();
+            delegate.get(startSequence, firstCached - 1, result);
+            fromStore = result.size() - sizeBefore;
+        }
+        result.addAll(cached);
+        int fromMemory = cached.size();
+
+        long elapsed = System.nanoTime() - start;
+        gapFillTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        servedFromMemory.increment(fromMemory);
+        servedFromStore.increment(fromStore);
+        log.info("Gap fill {}..{} for {} took {} us ({} from memory, {} from store)",
+                startSequence, endSequence, sessionID, elapsed / 1_000, fromMemory, fromStore);
+    }
+
+    /**
+     * Collects the longest contiguous suffix of [start, end] that is still held
+     * in the window and returns the first sequence number it covers. Returns
+     * {@code end + 1} when nothing from the range is cached.
+     */
+    private synchronized int collectCached(int startSequence, int endSequence, List<String> cached) {
+        int first = endSequence + 1;
+        int lowest = Math.max(startSequence, endSequence - capacity + 1);
+        for (int seq = endSequence; seq >= lowest; seq--) {
+            int slot = seq % capacity;
+            if (seqNums[slot] != seq || messages[slot] == null) {
+                break;
+            }
+            first = seq;
+        }
+        for (int seq = first; seq <= endSequence; seq++) {
+            cached.add(messages[seq % capacity]);
+        }
+        return first;
+    }
+
+    private synchronized void clearWindow() {
+        Arrays.fill(messages, null);
+        Arrays.fill(seqNums, 0);
+    }
+
+    @Override
+    public int getNextSenderMsgSeqNum() throws IOException {
+        return delegate.getNextSenderMsgSeqNum();
+    }
+
+    @Override
+    public int getNextTargetMsgSeqNum() throws IOException {
+        return delegate.getNextTargetMsgSeqNum();
+    }
+
+    @Override
+    public void setNextSenderMsgSeqNum(int next) throws IOException {
+        delegate.setNextSenderMsgSeqNum(next);
+    }
+
+    @Override
+    public void setNextTargetMsgSeqNum(int next) throws IOException {
+        delegate.setNextTargetMsgSeqNum(next);
+    }
+
+    @Override
+    public void incrNextSenderMsgSeqNum() throws IOException {
+        delegate.incrNextSenderMsgSeqNum();
+    }
+
+    @Override
+    public void incrNextTargetMsgSeqNum() throws IOException {
+        delegate.incrNextTargetMsgSeqNum();
+    }
+
+    @Override
+    public Date getCreationTime() throws IOException {
+        return delegate.getCreationTime();
+    }
+
+    @Override
+    public void reset() throws IOException {
+        delegate.reset();
+        clearWindow();
+    }
+
+    @Override
+    public void refresh() throws IOException {
+        // The store is re-read from disk, cached entries may no longer match it
+        delegate.refresh();
+        clearWindow();
+    }
+
+    /**
+     * Closes the delegate if it holds resources, e.g. the files of a FileStore.
+     * QuickFIX/J closes a session's store when the session is closed, and only
+     * if the store itself is Closeable.
+     */
+    @Override
+    public void close() throws IOException {
+        if (delegate instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    public long getGapFillCount() {
+        return gapFillTimer.count();
+    }
+
+    public long getServedFromMemory() {
+        return (long) servedFromMemory.count();
+    }
+
+    public long getServedFromStore() {
+        return (long) servedFromStore.count();
+    }
+
+    public long getGapFillNanos() {
+        return (long) gapFillTimer.totalTime(TimeUnit.NANOSECONDS);
+    }
+}
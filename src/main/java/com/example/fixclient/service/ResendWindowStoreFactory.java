@@ -0,0 +1,55 @@
+package com.example.fixclient.service;
+
+import com.example.fixclient.metrics.FixMetrics;
+import lombok.extern.slf4j.Slf4j;
+import quickfix.ConfigError;
+import quickfix.FieldConvertError;
+import quickfix.MessageStore;
+import quickfix.MessageStoreFactory;
+import quickfix.SessionID;
+import quickfix.SessionSettings;
+
+/**
+ * Wraps another MessageStoreFactory so every created store serves recent
+ * resends from memory. The window size is read from the "ResendWindowSize"
+ * session setting.
+ */
+@Slf4j
+public class ResendWindowStoreFactory implements MessageStoreFactory {
+
+    public static final String SETTING_RESEND_WINDOW_SIZE = "ResendWindowSize";
+    static final int DEFAULT_RESEND_WINDOW_SIZE = 5000;
+
+    private final MessageStoreFactory delegate;
+    private final SessionSettings settings;
+    private final FixMetrics metrics;
+
+    public ResendWindowStoreFactory(MessageStoreFactory delegate, SessionSettings settings, FixMetrics metrics) {
+        this.delegate = delegate;
+        this.settings = settings;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public MessageStore create(SessionID sessionID) {
+        MessageStore store = delegate.create(sessionID);
+        int windowSize = getWindowSize(sessionID);
+        if (windowSize <= 0) {
+            return store;
+        }
+        log.info("Resend window of {} messages enabled for {}", windowSize, sessionID);
+        return new ResendWindowStore(store, sessionID, windowSize, metrics);
+    }
+
+    private int getWindowSize(SessionID sessionID) {
+        try {
+            if (settings.isSetting(sessionID, SETTING_RESEND_WINDOW_SIZE)) {
+                return (int) settings.getLong(sessionID, SETTING_RESEND_WINDOW_SIZE);
+            }
+        } catch (ConfigError | FieldConvertError e) {
+            log.warn("Invalid {} for {}, using default {}", SETTING_RESEND_WINDOW_SIZE, sessionID,
+                    DEFAULT_RESEND_WINDOW_SIZE, e);
+        }
+        return DEFAULT_RESEND_WINDOW_SIZE;
+    }
+}
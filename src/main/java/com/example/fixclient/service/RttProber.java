@@ -0,0 +1,192 @@
+package com.example.fixclient.service;
+
+import com.example.fixclient.listener.FixTrafficListener;
+import com.example.fixclient.metrics.FixMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import quickfix.FieldNotFound;
+import quickfix.Message;
+import quickfix.SessionID;
+import quickfix.field.MsgType;
+import quickfix.field.TestReqID;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures counterparty responsiveness independently of order flow by sending
+ * a TestRequest (35=1) with a unique TestReqID to every registered session each
+ * {@code fix.probe.interval-ms} and timing the Heartbeat that echoes it.
+ * <p>
+ * Round trips go to the {@code fix.rtt} timer per session and environment.
+ * Probes still unanswered after {@code fix.probe.timeout-ms} are counted in
+ * {@code fix.rtt.timeouts} and logged, which usually precedes a heartbeat
+ * timeout by a good margin. Probing is off when the interval is 0.
+ * <p>
+ * A round trip starts when {@code toAdmin} hands the TestRequest to the wire,
+ * not when the prober queues it, so time spent in the session throttle or
+ * behind order flow on the outbound lane is not counted.
+ */
+@Service
+@Slf4j
+public class RttProber implements FixTrafficListener {
+
+    static final String TEST_REQ_ID_PREFIX = "RTT-";
+
+    private final FixSessionGateway sessionGateway;
+    private final FixMetrics metrics;
+    private final long intervalMillis;
+    private final long timeoutNanos;
+    private final Map<SessionID, Probe> probes = new ConcurrentHashMap<>();
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+    private final ScheduledExecutorService scheduler;
+
+    private record Probe(String environment, Timer rtt, Counter timeouts) {
+    }
+
+    private static final class Pending {
+
+        private final SessionID sessionID;
+        private final long queuedNanos;
+        // 0 until toAdmin has seen the TestRequest go out
+        private volatile long sentNanos;
+
+        private Pending(SessionID sessionID, long queuedNanos) {
+            this.sessionID = sessionID;
+            this.queuedNanos = queuedNanos;
+        }
+    }
+
+    public RttProber(FixSessionGateway sessionGateway, FixMetrics metrics,
+                     @Value("${fix.probe.interval-ms:0}") long intervalMillis,
+                     @Value("${fix.probe.timeout-ms:5000}") long timeoutMillis) {
+        this.sessionGateway = sessionGateway;
+        this.metrics = metrics;
+        this.intervalMillis = intervalMillis;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        if (isEnabled()) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "rtt-prober");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleAtFixedRate(this::probeAll, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+            log.info("RTT probing every {} ms, timeout {} ms", intervalMillis, timeoutMillis);
+        } else {
+            scheduler = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return intervalMillis > 0;
+    }
+
+    public void register(SessionID sessionID, String environment) {
+        if (isEnabled()) {
+            probes.computeIfAbsent(sessionID, id -> new Probe(environment, metrics.rttTimer(id, environment),
+                    metrics.rttTimeouts(id, environment)));
+        }
+    }
+
+    public void unregister(SessionID sessionID) {
+        probes.remove(sessionID);
+        pending.values().removeIf(p -> p.sessionID.equals(sessionID));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Override
+    public void onMessage(SessionID sessionID, Direction direction, boolean admin, Message message) {
+        if (!admin || pending.isEmpty()) {
+            return;
+        }
+        long now = System.nanoTime();
+        try {
+            if (!message.isSetField(TestReqID.FIELD)) {
+                return;
+            }
+            String msgType = message.getHeader().getString(MsgType.FIELD);
+            if (direction == Direction.OUTBOUND) {
+                Pending probe = MsgType.TEST_REQUEST.equals(msgType)
+                        ? pending.get(message.getString(TestReqID.FIELD)) : null;
+                if (probe != null && probe.sessionID.equals(sessionID)) {
+                    probe.sentNanos = now;
+                }
+                return;
+            }
+            if (!MsgType.HEARTBEAT.equals(msgType)) {
+                return;
+            }
+            Pending probe = pending.remove(message.getString(TestReqID.FIELD));
+            Probe session = probe != null ? probes.get(sessionID) : null;
+            long sentNanos = probe != null ? probe.sentNanos : 0;
+            if (session != null && sentNanos != 0 && probe.sessionID.equals(sessionID)) {
+                session.rtt().record(now - sentNanos, TimeUnit.NANOSECONDS);
+            }
+        } catch (FieldNotFound e) {
+            // Checked above
+        }
+    }
+
+    void probeAll() {
+        try {
+            expireUnanswered();
+            probes.keySet().forEach(this::probe);
+        } catch (RuntimeException e) {
+            log.error("RTT probing failed", e);
+        }
+    }
+
+    private void probe(SessionID sessionID) {
+        if (!sessionGateway.isLoggedOn(sessionID)) {
+            return;
+        }
+        String testReqId = TEST_REQ_ID_PREFIX + nextId.incrementAndGet();
+        Message testRequest = new Message();
+        testRequest.getHeader().setString(MsgType.FIELD, MsgType.TEST_REQUEST);
+        testRequest.setString(TestReqID.FIELD, testReqId);
+        pending.put(testReqId, new Pending(sessionID, System.nanoTime()));
+        try {
+            if (!sessionGateway.sendToTarget(testRequest, sessionID)) {
+                pending.remove(testReqId);
+            }
+        } catch (Exception e) {
+            pending.remove(testReqId);
+            log.debug("Could not send TestRequest to {}", sessionID, e);
+        }
+    }
+
+    private void expireUnanswered() {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<String, Pending>> it = pending.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Pending> entry = it.next();
+            Pending probe = entry.getValue();
+            // From queueing, so a TestRequest stuck before the wire also times out
+            if (now - probe.queuedNanos > timeoutNanos) {
+                it.remove();
+                Probe session = probes.get(probe.sessionID);
+                if (session != null) {
+                    session.timeouts().increment();
+                    log.warn("No Heartbeat for TestRequest {} on {} ({}) after {} ms", entry.getKey(),
+                            probe.sessionID, session.environment(), TimeUnit.NANOSECONDS.toMillis(now - probe.queuedNanos));
+                }
+            }
+        }
+    }
+}
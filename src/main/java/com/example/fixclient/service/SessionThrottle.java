@@ -0,0 +1,122 @@
+package com.example.fixclient.service;
+
+import com.example.fixclient.config.EnvironmentConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Outbound rate limit of one session as a lock-free GCRA token bucket.
+ * <p>
+ * The whole bucket state is a single theoretical arrival time (TAT): the moment
+ * at which the bucket would be full again if nothing else were sent. A send of n
+ * messages fits when moving the TAT n intervals ahead keeps it within one bucket
+ * of now; it is admitted with a single CAS. A send that does not fit either gets
+ * the earliest start at which it would and waits for it, or is refused, so every
+ * sending thread shares the one budget without taking a lock.
+ */
+final class SessionThrottle {
+
+    private record Limits(int messagesPerSecond, int burst, long intervalNanos, long capacityNanos,
+                          EnvironmentConfig.ThrottleMode mode, long maxWaitNanos) {
+    }
+
+    /**
+     * Reservation result of a send that does not fit.
+     */
+    static final long REJECTED = -1;
+
+    private final AtomicLong theoreticalArrival = new AtomicLong(System.nanoTime());
+    private final Timer waitTimer;
+    private final Counter rejections;
+    private volatile Limits limits;
+
+    SessionThrottle(Timer waitTimer, Counter rejections) {
+        this.waitTimer = waitTimer;
+        this.rejections = rejections;
+    }
+
+    /**
+     * Applies new limits; null or a non-positive rate lets everything through.
+     */
+    void update(EnvironmentConfig.RateLimitConfig config) {
+        if (config == null || config.messagesPerSecond() <= 0) {
+            limits = null;
+            return;
+        }
+        long interval = TimeUnit.SECONDS.toNanos(1) / config.messagesPerSecond();
+        limits = new Limits(config.messagesPerSecond(), config.effectiveBurst(), interval,
+                interval * config.effectiveBurst(), config.effectiveMode(),
+                TimeUnit.MILLISECONDS.toNanos(config.effectiveMaxQueueMillis()));
+    }
+
+    boolean isLimited() {
+        return limits != null;
+    }
+
+    int messagesPerSecond() {
+        Limits current = limits;
+        return current != null ? current.messagesPerSecond() : 0;
+    }
+
+    /**
+     * Takes {@code permits} messages out of the bucket.
+     *
+     * @return nanoseconds the caller must wait before sending, or {@link #REJECTED}
+     * if the send is refused; a refused send takes nothing out of the bucket
+     */
+    long reserve(int permits) {
+        Limits current = limits;
+        if (current == null) {
+            return 0;
+        }
+        long cost = current.intervalNanos() * permits;
+        while (true) {
+            long now = System.nanoTime();
+            long tat = theoreticalArrival.get();
+            long start = Math.max(now, Math.max(tat, now) + cost - current.capacityNanos());
+            long wait = start - now;
+            if (wait > 0 && (current.mode() == EnvironmentConfig.ThrottleMode.REJECT
+                    || wait > current.maxWaitNanos())) {
+                rejections.increment();
+                return REJECTED;
+            }
+            if (theoreticalArrival.compareAndSet(tat, Math.max(tat, start) + cost)) {
+                return wait;
+            }
+        }
+    }
+
+    /**
+     * Blocks for a wait returned by {@link #reserve}. Interrupts do not cut the
+     * wait short, since the reserved start is what keeps the session under its cap.
+     */
+    void await(long waitNanos) {
+        if (waitNanos <= 0) {
+            return;
+        }
+        long deadline = System.nanoTime() + waitNanos;
+        long remaining = waitNanos;
+        while (remaining > 0) {
+            LockSupport.parkNanos(this, remaining);
+            remaining = deadline - System.nanoTime();
+        }
+        waitTimer.record(waitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Share of the bucket currently spent: 0 when idle, 1 right after a full
+     * burst or when queued sends are waiting.
+     */
+    double utilization() {
+        Limits current = limits;
+        if (current == null) {
+            return 0;
+        }
+        long backlog = theoreticalArrival.get() - System.nanoTime();
+        return backlog <= 0 ? 0 : Math.min(1.0, backlog / (double) current.capacityNanos());
+    }
+}
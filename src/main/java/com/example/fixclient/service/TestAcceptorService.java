@@ -1,113 +1,191 @@
 package com.example.fixclient.service;
 
-import jakarta.annotation.PostConstruct;
+import com.example.fixclient.config.EnvironmentConfig;
+import com.example.fixclient.journal.AuditJournal;
+import com.example.fixclient.journal.JournalLogFactory;
 import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import quickfix.*;
 
+import java.net.InetAddress;
+import java.net.UnknownHostException;
 import java.util.HashMap;
 import java.util.Map;
-
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Local acceptor farm for development and load testing. One acceptor is created
+ * per configured loopback port, with a session for every initiator configured
+ * for that environment. Controlled by {@code fix.acceptor.mode}:
+ * <ul>
+ *     <li>{@code lazy} (default) - an environment's acceptor starts when the first
+ *     initiator session for that environment is started</li>
+ *     <li>{@code eager} - all acceptors start once the application is ready</li>
+ *     <li>{@code off} - the farm and the simulator are not created at all</li>
+ * </ul>
+ */
 @Service
 @Slf4j
+@ConditionalOnExpression("'${fix.acceptor.mode:lazy}' != 'off'")
 public class TestAcceptorService {
 
-    private SocketAcceptor acceptor;
+    private final AuditJournal auditJournal;
+    private final ExchangeSimulator simulator;
+    private final ConfigService configService;
+    private final String mode;
+    private final String compId;
+    private final String keyStore;
+    private final String keyStorePassword;
+
+    // Acceptors by listening port
+    private final Map<Integer, SocketAcceptor> acceptors = new ConcurrentHashMap<>();
+
+    public TestAcceptorService(AuditJournal auditJournal, ExchangeSimulator simulator, ConfigService configService,
+                               @Value("${fix.acceptor.mode:lazy}") String mode,
+                               @Value("${fix.acceptor.comp-id:ACCEPTOR_A}") String compId,
+                               @Value("${fix.acceptor.key-store:certs/INITIATOR1.p12}") String keyStore,
+                               @Value("${fix.acceptor.key-store-password:password}") String keyStorePassword) {
+        this.auditJournal = auditJournal;
+        this.simulator = simulator;
+        this.configService = configService;
+        this.mode = mode;
+        this.compId = compId;
+        this.keyStore = keyStore;
+        this.keyStorePassword = keyStorePassword;
+    }
 
-    private static SessionSettings getSessionSettings() {
-        SessionSettings settings = new SessionSettings();
+    @EventListener(ApplicationReadyEvent.class)
+    public void startEagerly() {
+        if ("eager".equalsIgnoreCase(mode)) {
+            configService.getSnapshot().environments().keySet().forEach(this::ensureStarted);
+        }
+    }
 
-        // Default configuration for the acceptor
-        Map<Object, Object> defaults = getObjectObjectMap();
+    /**
+     * Starts the acceptor serving the given environment, if that environment
+     * points at this machine and its acceptor is not running yet.
+     *
+     * @return whether a local acceptor now serves the environment
+     */
+    public synchronized boolean ensureStarted(String env) {
+        EnvironmentConfig config = configService.getSnapshot().environment(env);
+        if (config == null || config.connection() == null || !isLocal(config.connection().address())) {
+            return false;
+        }
+        int port = config.connection().port();
+        if (acceptors.containsKey(port)) {
+            return true;
+        }
 
-        settings.set(defaults);
+        long startNanos = System.nanoTime();
+        try {
+            SessionSettings settings = buildSettings(port);
+            if (settings.size() == 0) {
+                log.info("No initiators configured for port {}, not starting a test acceptor", port);
+                return false;
+            }
 
-        SessionID sess1 = new SessionID("FIX.4.1", "ACCEPTOR_A", "INITIATOR1");
-        settings.setString(sess1, "SenderCompID", "ACCEPTOR_A");
-        settings.setString(sess1, "TargetCompID", "INITIATOR1");
+            SocketAcceptor acceptor = createAcceptor(settings);
+            acceptor.start();
+            acceptors.put(port, acceptor);
+            log.info("Test acceptor for {} started on port {} in {} ms", env, port,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+            return true;
+        } catch (Exception e) {
+            log.error("Failed to start test acceptor on port {}", port, e);
+            return false;
+        }
+    }
+
+    /**
+     * Creates an acceptor whose simulator answers on the acceptor's own sessions.
+     * An initiator configured in two environments has the same acceptor SessionID
+     * on both ports, and {@link Session#lookupSession} only finds the one created last.
+     */
+    SocketAcceptor createAcceptor(SessionSettings settings) throws ConfigError {
+        AtomicReference<SocketAcceptor> created = new AtomicReference<>();
+        SocketAcceptor acceptor = new SocketAcceptor(
+                simulator.forAcceptor(sessionID -> managedSession(created.get(), sessionID)),
+                new FileStoreFactory(settings), settings, new JournalLogFactory(auditJournal),
+                new DefaultMessageFactory());
+        created.set(acceptor);
+        return acceptor;
+    }
+
+    private static Session managedSession(SocketAcceptor acceptor, SessionID sessionID) {
+        if (acceptor != null) {
+            for (Session session : acceptor.getManagedSessions()) {
+                if (session.getSessionID().equals(sessionID)) {
+                    return session;
+                }
+            }
+        }
+        return null;
+    }
 
-        SessionID sess2 = new SessionID("FIX.4.1", "ACCEPTOR_A", "INITIATOR2");
-        settings.setString(sess2, "SenderCompID", "ACCEPTOR_A");
-        settings.setString(sess2, "TargetCompID", "INITIATOR2");
+    /**
+     * Builds acceptor settings for every initiator of every environment that
+     * listens on the given port.
+     */
+    SessionSettings buildSettings(int port) {
+        SessionSettings settings = new SessionSettings();
+        settings.set(getDefaults(port));
+
+        // Sorted for a stable session order in logs
+        Map<String, EnvironmentConfig> environments = new TreeMap<>(configService.getSnapshot().environments());
+        environments.forEach((env, config) -> {
+            if (config.connection() == null || config.connection().port() != port || config.initiators() == null) {
+                return;
+            }
+            for (EnvironmentConfig.InitiatorConfig initiator : config.initiators()) {
+                SessionID sessionID = new SessionID("FIX.4.1", compId, initiator.senderCompId());
+                settings.setString(sessionID, "SenderCompID", compId);
+                settings.setString(sessionID, "TargetCompID", initiator.senderCompId());
+            }
+        });
         return settings;
     }
 
-    private static Map<Object, Object> getObjectObjectMap() {
+    private Map<Object, Object> getDefaults(int port) {
         Map<Object, Object> defaults = new HashMap<>();
         defaults.put("ConnectionType", "acceptor");
-        defaults.put("SocketAcceptPort", "9876");
+        defaults.put("SocketAcceptPort", String.valueOf(port));
         defaults.put("StartTime", "00:00:00");
         defaults.put("EndTime", "00:00:00");
         defaults.put("HeartBtInt", "30");
         defaults.put("UseDataDictionary", "Y");
         defaults.put("DataDictionary", "FIX41.xml");
-        defaults.put("FileStorePath", "store/acceptor");
+        defaults.put("FileStorePath", "store/acceptor/" + port);
         defaults.put("FileLogPath", "acceptor_log");
 
         defaults.put("SocketUseSSL", "Y");
-        defaults.put("SocketKeyStore", "certs/INITIATOR1.p12"); // Re-using for simplicity/testing
-        defaults.put("SocketKeyStorePassword", "password");
+        defaults.put("SocketKeyStore", keyStore); // Re-using an initiator keystore for simplicity/testing
+        defaults.put("SocketKeyStorePassword", keyStorePassword);
         return defaults;
     }
 
-    @PostConstruct
-    public void startAcceptor() {
+    private static boolean isLocal(String address) {
+        if (address == null) {
+            return true;
+        }
         try {
-            log.info("Starting Embedded Test Acceptor on port 9876...");
-            SessionSettings settings = getSessionSettings();
-
-            FileStoreFactory storeFactory = new FileStoreFactory(settings);
-            LogFactory logFactory = new ScreenLogFactory(settings);
-            MessageFactory messageFactory = new DefaultMessageFactory();
-
-            Application application = new Application() {
-                @Override
-                public void onCreate(SessionID sessionId) {
-                    log.info("Acceptor Session Created: {}", sessionId);
-                }
-
-                @Override
-                public void onLogon(SessionID sessionId) {
-                    log.info("Acceptor Session Logon: {}", sessionId);
-                }
-
-                @Override
-                public void onLogout(SessionID sessionId) {
-                    log.info("Acceptor Session Logout: {}", sessionId);
-                }
-
-                @Override
-                public void toAdmin(Message message, SessionID sessionId) {
-                }
-
-                @Override
-                public void fromAdmin(Message message, SessionID sessionId) {
-                }
-
-                @Override
-                public void toApp(Message message, SessionID sessionId) {
-                }
-
-                @Override
-                public void fromApp(Message message, SessionID sessionId) {
-                    log.info("Acceptor Received: {}", message);
-                }
-            };
-
-            acceptor = new SocketAcceptor(application, storeFactory, settings, logFactory, messageFactory);
-            acceptor.start();
-            log.info("Test Acceptor Started.");
-
-        } catch (Exception e) {
-            log.error("Failed to start Test Acceptor", e);
+            return InetAddress.getByName(address).isLoopbackAddress();
+        } catch (UnknownHostException e) {
+            return false;
         }
     }
 
     @PreDestroy
     public void stopAcceptor() {
-        if (acceptor != null) {
-            acceptor.stop();
-        }
+        acceptors.values().forEach(SocketAcceptor::stop);
+        acceptors.clear();
     }
 }
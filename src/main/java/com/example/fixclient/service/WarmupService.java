@@ -0,0 +1,323 @@
+package com.example.fixclient.service;
+
+import com.example.fixclient.config.EnvironmentConfig;
+import com.example.fixclient.model.MessageRequestDto;
+import com.example.fixclient.model.SessionStatus;
+import com.example.fixclient.tls.TlsContextProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import quickfix.InvalidMessage;
+import quickfix.Message;
+import quickfix.SessionID;
+import quickfix.SessionSettings;
+
+import javax.net.ssl.SSLContext;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Gets the service warm before the first orders of the day, at startup when
+ * {@code fix.warmup.on-startup} is set or on demand.
+ * <ol>
+ *   <li>Loads the certificate and private key of every configured initiator,
+ *   builds its session settings and its shared TLS context, and starts the
+ *   local acceptor of every local environment, which also parses the data
+ *   dictionary QuickFIX/J shares between sessions.</li>
+ *   <li>If a local acceptor serves an initiator nobody has started, logs that
+ *   session on, owned by {@value #OWNER}, and stops it again at the end
+ *   unless a user has taken it over by starting it meanwhile.</li>
+ *   <li>Runs rounds of {@code fix.warmup.batch-messages} synthetic orders through
+ *   the sanitize, parse, sign and encode steps of the batch path, and through
+ *   the real batch path on that session if there is one. Rounds stop once
+ *   {@code fix.warmup.stable-rounds} in a row spent less than
+ *   {@code fix.warmup.jit-quiet-ms} in the JIT compiler, or after
+ *   {@code fix.warmup.max-rounds}.</li>
+ * </ol>
+ * Synthetic orders use ClOrdIDs starting with {@value #CL_ORD_ID_PREFIX}.
+ */
+@Service
+@Slf4j
+public class WarmupService {
+
+    public enum State {
+        IDLE, RUNNING, WARM, FAILED
+    }
+
+    /**
+     * @param sessionMessages synthetic orders sent to the local acceptor
+     * @param compileMillis   JIT compilation time during the rounds, -1 if the JVM does not report it
+     */
+    public record Report(State state, int certificates, int tlsContexts, String session, int rounds,
+                         long messages, long sessionMessages, long compileMillis, long elapsedMillis,
+                         String error) {
+
+        static final Report IDLE = new Report(State.IDLE, 0, 0, null, 0, 0, 0, 0, 0, null);
+        static final Report RUNNING = new Report(State.RUNNING, 0, 0, null, 0, 0, 0, 0, 0, null);
+    }
+
+    static final String OWNER = "warmup";
+    static final String CL_ORD_ID_PREFIX = "WARMUP-";
+
+    private final ConfigService configService;
+    private final CertificateService certificateService;
+    private final DynamicSettingsBuilder settingsBuilder;
+    private final TlsContextProvider tlsContexts;
+    // Absent when fix.acceptor.mode=off
+    private final ObjectProvider<TestAcceptorService> localAcceptor;
+    private final ObjectProvider<FixSessionManager> sessionManager;
+    private final BatchMessageSenderService batchSender;
+    private final WorkerThreads workerThreads;
+    private final boolean onStartup;
+    private final String targetCompId;
+    private final int batchMessages;
+    private final int stableRounds;
+    private final int maxRounds;
+    private final long jitQuietMillis;
+    private final long logonTimeoutMillis;
+    private final AtomicReference<Report> report = new AtomicReference<>(Report.IDLE);
+
+    public WarmupService(ConfigService configService, CertificateService certificateService,
+                         DynamicSettingsBuilder settingsBuilder, TlsContextProvider tlsContexts,
+                         ObjectProvider<TestAcceptorService> localAcceptor,
+                         ObjectProvider<FixSessionManager> sessionManager, BatchMessageSenderService batchSender,
+                         WorkerThreads workerThreads,
+                         @Value("${fix.warmup.on-startup:false}") boolean onStartup,
+                         @Value("${fix.acceptor.comp-id:ACCEPTOR_A}") String targetCompId,
+                         @Value("${fix.warmup.batch-messages:200}") int batchMessages,
+                         @Value("${fix.warmup.stable-rounds:3}") int stableRounds,
+                         @Value("${fix.warmup.max-rounds:200}") int maxRounds,
+                         @Value("${fix.warmup.jit-quiet-ms:5}") long jitQuietMillis,
+                         @Value("${fix.warmup.logon-timeout-ms:10000}") long logonTimeoutMillis) {
+        this.configService = configService;
+        this.certificateService = certificateService;
+        this.settingsBuilder = settingsBuilder;
+        this.tlsContexts = tlsContexts;
+        this.localAcceptor = localAcceptor;
+        this.sessionManager = sessionManager;
+        this.batchSender = batchSender;
+        this.workerThreads = workerThreads;
+        this.onStartup = onStartup;
+        this.targetCompId = targetCompId;
+        this.batchMessages = Math.max(1, batchMessages);
+        this.stableRounds = Math.max(1, stableRounds);
+        this.maxRounds = Math.max(this.stableRounds, maxRounds);
+        this.jitQuietMillis = Math.max(0, jitQuietMillis);
+        this.logonTimeoutMillis = logonTimeoutMillis;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startOnReady() {
+        if (onStartup) {
+            start();
+        }
+    }
+
+    /**
+     * Starts a warm-up on a worker thread.
+     *
+     * @return false if one is already running
+     */
+    public boolean start() {
+        Report current = report.get();
+        if (current.state() == State.RUNNING || !report.compareAndSet(current, Report.RUNNING)) {
+            return false;
+        }
+        workerThreads.newThread("warmup", this::run).start();
+        return true;
+    }
+
+    public Report report() {
+        return report.get();
+    }
+
+    void run() {
+        long startNanos = System.nanoTime();
+        Report result;
+        try {
+            result = warmUp(startNanos);
+        } catch (Exception e) {
+            log.error("Warm-up failed", e);
+            result = new Report(State.FAILED, 0, 0, null, 0, 0, 0, -1, elapsedMillis(startNanos), e.getMessage());
+        }
+        report.set(result);
+        if (result.state() == State.WARM) {
+            log.info("Service is warm: {}", result);
+        } else {
+            log.warn("Warm-up did not settle: {}", result);
+        }
+    }
+
+    private Report warmUp(long startNanos) throws Exception {
+        List<SessionTarget> targets = new ArrayList<>();
+        Set<SSLContext> contexts = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<String> certificates = new HashSet<>();
+        for (Map.Entry<String, EnvironmentConfig> entry : configService.getSnapshot().environments().entrySet()) {
+            String env = entry.getKey();
+            TestAcceptorService acceptor = localAcceptor.getIfAvailable();
+            boolean local = acceptor != null && acceptor.ensureStarted(env);
+            List<EnvironmentConfig.InitiatorConfig> initiators = entry.getValue().initiators();
+            for (EnvironmentConfig.InitiatorConfig initiator : initiators == null
+                    ? List.<EnvironmentConfig.InitiatorConfig>of() : initiators) {
+                String sender = initiator.senderCompId();
+                if (!certificates.contains(sender) && certificateService.preload(sender)) {
+                    certificates.add(sender);
+                }
+                SessionSettings settings = settingsBuilder.buildSettings(sender, targetCompId, env);
+                SessionID sessionID = new SessionID("FIX.4.1", sender, targetCompId);
+                SSLContext context = tlsContexts.context(settings, sessionID);
+                if (context != null) {
+                    contexts.add(context);
+                }
+                targets.add(new SessionTarget(env, sessionID, local));
+            }
+        }
+        log.info("Warm-up preloaded {} certificates and {} TLS contexts for {} initiators", certificates.size(),
+                contexts.size(), targets.size());
+
+        SessionTarget live = logOnLocalSession(targets);
+        try {
+            return runRounds(certificates.size(), contexts.size(), live, targets, startNanos);
+        } finally {
+            // A user may have taken the session over meanwhile, it is theirs then
+            if (live != null) {
+                sessionManager.getObject().stopSessionOwnedBy(live.sessionID().getSenderCompID(),
+                        live.sessionID().getTargetCompID(), live.env(), OWNER);
+            }
+        }
+    }
+
+    private Report runRounds(int certificates, int contexts, SessionTarget live, List<SessionTarget> targets,
+                             long startNanos) throws InvalidMessage {
+        String session = live != null ? live.sessionID().toString() : null;
+        SessionID offline = live != null ? live.sessionID() : targets.isEmpty()
+                ? new SessionID("FIX.4.1", "WARMUP", targetCompId) : targets.get(0).sessionID();
+        CompilationMXBean compiler = ManagementFactory.getCompilationMXBean();
+        boolean timed = compiler != null && compiler.isCompilationTimeMonitoringSupported();
+        long compileStart = timed ? compiler.getTotalCompilationTime() : 0;
+        long lastCompile = compileStart;
+        long messages = 0;
+        long sessionMessages = 0;
+        int quietRounds = 0;
+        int rounds = 0;
+        while (rounds < maxRounds && quietRounds < stableRounds) {
+            List<String> batch = syntheticBatch(offline, rounds);
+            for (String raw : batch) {
+                encodeAndSign(raw);
+            }
+            messages += batch.size();
+            for (int i = 0; live != null && i < batch.size(); i++) {
+                // Checked per message, a user taking the session over gets at most the one in flight
+                if (!ownedByWarmup(live)) {
+                    log.info("Warm-up session {} was taken over, no more synthetic orders on it", live.sessionID());
+                    live = null;
+                    break;
+                }
+                sessionMessages += batchSender.sendChunk(new MessageRequestDto(1, 0,
+                        live.sessionID().getSenderCompID(), List.of(batch.get(i))), null);
+            }
+            rounds++;
+            if (timed) {
+                long compile = compiler.getTotalCompilationTime();
+                quietRounds = compile - lastCompile < jitQuietMillis ? quietRounds + 1 : 0;
+                lastCompile = compile;
+            } else {
+                quietRounds++;
+            }
+        }
+        State state = quietRounds >= stableRounds ? State.WARM : State.FAILED;
+        String error = state == State.WARM ? null : "JIT still compiling after " + rounds + " rounds";
+        return new Report(state, certificates, contexts, session,
+                rounds, messages, sessionMessages, timed ? lastCompile - compileStart : -1,
+                elapsedMillis(startNanos), error);
+    }
+
+    /**
+     * The steps of the batch path up to the wire: sanitize, parse without a
+     * dictionary, stamp and sign as toApp does, and encode.
+     */
+    private void encodeAndSign(String raw) throws InvalidMessage {
+        Message message = new Message();
+        message.fromString(BatchMessageSenderService.sanitizeMessage(raw), null, false);
+        message.setString(FixApplicationImpl.TIMESTAMP_FIELD, LocalDateTime.now().toString());
+        String signature = certificateService.signMessage(message);
+        if (signature != null) {
+            message.setString(FixApplicationImpl.SIGNATURE_FIELD, signature);
+        }
+        message.toString();
+    }
+
+    /**
+     * @return the session logged on for warm-up, or null if no local acceptor
+     * serves an idle initiator
+     */
+    private SessionTarget logOnLocalSession(List<SessionTarget> targets) throws Exception {
+        FixSessionManager manager = sessionManager.getIfAvailable();
+        if (manager == null) {
+            return null;
+        }
+        for (SessionTarget target : targets) {
+            SessionID sessionID = target.sessionID();
+            String sender = sessionID.getSenderCompID();
+            String targetId = sessionID.getTargetCompID();
+            // Running in another environment counts too, the two would share one QuickFIX/J session
+            if (!target.local() || manager.isActive(sessionID)) {
+                continue;
+            }
+            manager.startSession(sender, targetId, target.env(), OWNER);
+            if (!ownedByWarmup(target)) {
+                // Someone started it first
+                continue;
+            }
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(logonTimeoutMillis);
+            while (manager.getStatus(sender, targetId, target.env()) != SessionStatus.CONNECTED
+                    && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            if (manager.getStatus(sender, targetId, target.env()) == SessionStatus.CONNECTED
+                    && ownedByWarmup(target)) {
+                log.info("Warm-up sending synthetic orders on {} against the local acceptor", sessionID);
+                return target;
+            }
+            log.warn("Warm-up session {} did not log on within {} ms", sessionID, logonTimeoutMillis);
+            manager.stopSessionOwnedBy(sender, targetId, target.env(), OWNER);
+        }
+        return null;
+    }
+
+    private boolean ownedByWarmup(SessionTarget target) {
+        SessionID sessionID = target.sessionID();
+        return OWNER.equals(sessionManager.getObject().getOwner(sessionID.getSenderCompID(),
+                sessionID.getTargetCompID(), target.env()));
+    }
+
+    private List<String> syntheticBatch(SessionID sessionID, int round) {
+        List<String> batch = new ArrayList<>(batchMessages);
+        for (int i = 0; i < batchMessages; i++) {
+            batch.add("8=FIX.4.1|35=D|49=" + sessionID.getSenderCompID() + "|56=" + sessionID.getTargetCompID()
+                    + "|11=" + CL_ORD_ID_PREFIX + round + "-" + i + "|21=1|55=WARMUP|54=" + (i % 2 + 1)
+                    + "|38=" + (i + 1) + "|40=2|44=" + (100 + i % 10) + "|");
+        }
+        return batch;
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private record SessionTarget(String env, SessionID sessionID, boolean local) {
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.fixclient.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates the threads for blocking background work: upload senders and
+ * session stops. They follow {@code spring.threads.virtual.enabled}, the same
+ * switch that moves the STOMP inbound and outbound channels and Tomcat onto
+ * virtual threads, so a slow TLS handshake or logout parks a virtual thread
+ * instead of holding a pooled one. Below Java 21 the switch is ignored and
+ * platform daemon threads are used.
+ */
+@Component
+@Slf4j
+public class WorkerThreads {
+
+    private final ThreadFactory virtualThreads;
+
+    public WorkerThreads(Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            this.virtualThreads = new VirtualThreadTaskExecutor().getVirtualThreadFactory();
+            log.info("Blocking work runs on virtual threads");
+        } else {
+            this.virtualThreads = null;
+            if (environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)) {
+                log.warn("spring.threads.virtual.enabled needs Java 21+, running on {}; using platform threads",
+                        Runtime.version().feature());
+            }
+        }
+    }
+
+    public boolean isVirtual() {
+        return virtualThreads != null;
+    }
+
+    /**
+     * @return an unstarted daemon thread
+     */
+    public Thread newThread(String name, Runnable task) {
+        Thread thread;
+        if (virtualThreads != null) {
+            thread = virtualThreads.newThread(task);
+            thread.setName(name);
+        } else {
+            thread = new Thread(task, name);
+            thread.setDaemon(true);
+        }
+        return thread;
+    }
+}
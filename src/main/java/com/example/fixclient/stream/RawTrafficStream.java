@@ -0,0 +1,380 @@
+package com.example.fixclient.stream;
+
+import com.example.fixclient.listener.FixTrafficListener;
+import com.example.fixclient.metrics.FixMetrics;
+import com.example.fixclient.service.FixSessionManager;
+import com.example.fixclient.service.WorkerThreads;
+import lombok.extern.slf4j.Slf4j;
+import org.quickfixj.CharsetSupport;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+import quickfix.FieldNotFound;
+import quickfix.Message;
+import quickfix.SessionID;
+import quickfix.field.MsgType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Streams FIX traffic to plain WebSocket clients on {@code /ws-raw}, without
+ * STOMP or SockJS framing.
+ * <p>
+ * Clients send text commands, one per frame, each answered with {@code OK} or
+ * {@code ERR} and a reason:
+ * <ul>
+ *   <li>{@code SUB <token>} streams the sessions owned by the STOMP session the
+ *   token was issued to, as in the ownership map of {@link FixSessionManager}.
+ *   A STOMP client gets its token from {@code /app/rawStreamToken}; it is valid
+ *   until that STOMP session disconnects. {@code SUB *} streams all sessions and
+ *   is refused unless {@code fix.raw.allow-all} is set</li>
+ *   <li>{@code UNSUB <token>} or {@code UNSUB *} undoes a {@code SUB}</li>
+ *   <li>{@code FILTER <MsgType>,...} streams only those types, admin ones included;
+ *   {@code FILTER *} returns to the default of all application messages</li>
+ * </ul>
+ * Traffic arrives in binary frames of up to {@code fix.raw.max-frame-bytes},
+ * holding as many records as were waiting. Each record is big-endian:
+ * {@code int} length of the rest, {@code byte} flags (1 outbound, 2 admin),
+ * {@code long} epoch millis, {@code short} length and UTF-8 session ID, then
+ * the FIX message as on the wire. A record is encoded once and shared by all
+ * clients. Each client has its own writer thread; when its backlog would
+ * exceed {@code fix.raw.max-pending-bytes} new records are dropped and a
+ * {@code DROPPED <n>} text frame precedes the next batch.
+ */
+@Component
+@Slf4j
+public class RawTrafficStream extends AbstractWebSocketHandler implements FixTrafficListener {
+
+    static final byte FLAG_OUTBOUND = 1;
+    static final byte FLAG_ADMIN = 2;
+    static final String ALL = "*";
+
+    // FixSessionManager needs FixApplicationImpl, which needs the traffic listeners
+    private final ObjectProvider<FixSessionManager> sessionManager;
+    private final FixMetrics metrics;
+    private final WorkerThreads workerThreads;
+    private final int maxFrameBytes;
+    private final long maxPendingBytes;
+    private final boolean allowAll;
+    private final SecureRandom random = new SecureRandom();
+    // Token -> STOMP session ID of the owner it was issued to
+    private final Map<String, String> ownersByToken = new ConcurrentHashMap<>();
+    private final List<Client> clients = new CopyOnWriteArrayList<>();
+    private final Map<String, Client> clientsById = new ConcurrentHashMap<>();
+
+    public RawTrafficStream(ObjectProvider<FixSessionManager> sessionManager, FixMetrics metrics,
+                            WorkerThreads workerThreads,
+                            @Value("${fix.raw.max-frame-bytes:65536}") int maxFrameBytes,
+                            @Value("${fix.raw.max-pending-bytes:4194304}") long maxPendingBytes,
+                            @Value("${fix.raw.allow-all:false}") boolean allowAll) {
+        this.sessionManager = sessionManager;
+        this.metrics = metrics;
+        this.workerThreads = workerThreads;
+        this.maxFrameBytes = maxFrameBytes;
+        this.maxPendingBytes = maxPendingBytes;
+        this.allowAll = allowAll;
+        metrics.rawStreamGauge(clients::size);
+    }
+
+    @Override
+    public void onMessage(SessionID sessionID, Direction direction, boolean admin, Message message) {
+        if (clients.isEmpty()) {
+            return;
+        }
+        String msgType = msgType(message);
+        byte[] record = null;
+        String owner = null;
+        boolean ownerResolved = false;
+        for (Client client : clients) {
+            Subscription subscription = client.subscription;
+            if (!subscription.accepts(msgType, admin)) {
+                continue;
+            }
+            if (!subscription.all) {
+                if (!ownerResolved) {
+                    FixSessionManager manager = sessionManager.getIfAvailable();
+                    owner = manager == null ? null : manager.getOwner(sessionID);
+                    ownerResolved = true;
+                }
+                if (owner == null || !subscription.owners.contains(owner)) {
+                    continue;
+                }
+            }
+            if (record == null) {
+                record = encode(sessionID, direction, admin, message);
+            }
+            client.enqueue(record);
+        }
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        Client client = new Client(session);
+        clientsById.put(session.getId(), client);
+        clients.add(client);
+        client.writer.start();
+        log.info("Raw stream client {} connected", session.getId());
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        Client client = clientsById.get(session.getId());
+        if (client != null) {
+            client.reply(client.command(message.getPayload().trim()));
+        }
+    }
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) {
+        Client client = clientsById.get(session.getId());
+        if (client != null) {
+            client.reply("ERR commands are text frames");
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        Client client = clientsById.remove(session.getId());
+        if (client != null) {
+            clients.remove(client);
+            client.stop();
+            log.info("Raw stream client {} disconnected ({})", session.getId(), status);
+        }
+    }
+
+    /**
+     * Issues a token that lets a raw client stream the sessions of this STOMP session.
+     */
+    public String issueToken(String wsSessionId) {
+        byte[] bytes = new byte[18];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        ownersByToken.put(token, wsSessionId);
+        return token;
+    }
+
+    /**
+     * Invalidates the tokens of a STOMP session that went away; raw clients
+     * already subscribed keep streaming only what that owner still owns.
+     */
+    public void revokeTokens(String wsSessionId) {
+        ownersByToken.values().removeIf(wsSessionId::equals);
+    }
+
+    int clientCount() {
+        return clients.size();
+    }
+
+    static byte[] encode(SessionID sessionID, Direction direction, boolean admin, Message message) {
+        byte[] session = sessionID.toString().getBytes(StandardCharsets.UTF_8);
+        byte[] fix = message.toString().getBytes(CharsetSupport.getCharsetInstance());
+        int length = 1 + Long.BYTES + Short.BYTES + session.length + fix.length;
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + length);
+        buffer.putInt(length);
+        buffer.put((byte) ((direction == Direction.OUTBOUND ? FLAG_OUTBOUND : 0) | (admin ? FLAG_ADMIN : 0)));
+        buffer.putLong(System.currentTimeMillis());
+        buffer.putShort((short) session.length);
+        buffer.put(session);
+        buffer.put(fix);
+        return buffer.array();
+    }
+
+    private static String msgType(Message message) {
+        try {
+            return message.getHeader().getString(MsgType.FIELD);
+        } catch (FieldNotFound e) {
+            return "";
+        }
+    }
+
+    /**
+     * Immutable, swapped as a whole on each command.
+     *
+     * @param msgTypes null for all application messages
+     */
+    private record Subscription(boolean all, Set<String> owners, Set<String> msgTypes) {
+
+        static final Subscription NONE = new Subscription(false, Set.of(), null);
+
+        boolean accepts(String msgType, boolean admin) {
+            if (!all && owners.isEmpty()) {
+                return false;
+            }
+            return msgTypes == null ? !admin : msgTypes.contains(msgType);
+        }
+    }
+
+    private final class Client {
+
+        private final WebSocketSession session;
+        private final Thread writer;
+        private volatile Subscription subscription = Subscription.NONE;
+
+        // Guarded by this; byte[] records and String replies
+        private final ArrayDeque<Object> pending = new ArrayDeque<>();
+        private long pendingBytes;
+        private long dropped;
+        private boolean stopped;
+
+        private Client(WebSocketSession session) {
+            this.session = session;
+            this.writer = workerThreads.newThread("raw-writer-" + session.getId(), this::writeLoop);
+        }
+
+        /**
+         * Commands arrive on one container thread per session, so updates do not race.
+         */
+        String command(String line) {
+            String[] parts = line.split("\\s+", 2);
+            String argument = parts.length > 1 ? parts[1].trim() : "";
+            Subscription current = subscription;
+            switch (parts[0].toUpperCase()) {
+                case "SUB", "UNSUB" -> {
+                    if (argument.isEmpty()) {
+                        return "ERR " + parts[0] + " needs a token or *";
+                    }
+                    boolean add = parts[0].equalsIgnoreCase("SUB");
+                    Set<String> owners = new HashSet<>(current.owners());
+                    boolean all = current.all();
+                    if (ALL.equals(argument)) {
+                        if (add && !allowAll) {
+                            return "ERR SUB * is disabled";
+                        }
+                        all = add;
+                    } else {
+                        String owner = ownersByToken.get(argument);
+                        if (owner == null) {
+                            return "ERR unknown token";
+                        }
+                        if (add) {
+                            owners.add(owner);
+                        } else {
+                            owners.remove(owner);
+                        }
+                    }
+                    subscription = new Subscription(all, Set.copyOf(owners), current.msgTypes());
+                }
+                case "FILTER" -> {
+                    if (argument.isEmpty()) {
+                        return "ERR FILTER needs MsgTypes or *";
+                    }
+                    Set<String> msgTypes = ALL.equals(argument) ? null
+                            : Set.copyOf(Arrays.asList(argument.split("\\s*,\\s*")));
+                    subscription = new Subscription(current.all(), current.owners(), msgTypes);
+                }
+                default -> {
+                    return "ERR unknown command " + parts[0];
+                }
+            }
+            return "OK " + line;
+        }
+
+        synchronized void enqueue(byte[] record) {
+            if (stopped) {
+                return;
+            }
+            if (pendingBytes + record.length > maxPendingBytes) {
+                dropped++;
+                metrics.rawDropped();
+                return;
+            }
+            pending.addLast(record);
+            pendingBytes += record.length;
+            notifyAll();
+        }
+
+        synchronized void reply(String text) {
+            if (!stopped) {
+                pending.addLast(text);
+                notifyAll();
+            }
+        }
+
+        synchronized void stop() {
+            stopped = true;
+            pending.clear();
+            pendingBytes = 0;
+            notifyAll();
+        }
+
+        private void writeLoop() {
+            ByteBuffer frame = ByteBuffer.allocate(maxFrameBytes);
+            while (true) {
+                String text = null;
+                long droppedSinceLast;
+                synchronized (this) {
+                    while (pending.isEmpty() && !stopped) {
+                        try {
+                            wait();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                    }
+                    if (stopped) {
+                        return;
+                    }
+                    droppedSinceLast = dropped;
+                    dropped = 0;
+                    if (pending.peekFirst() instanceof String reply) {
+                        pending.pollFirst();
+                        text = reply;
+                    } else {
+                        frame = fill(frame);
+                    }
+                }
+                try {
+                    if (droppedSinceLast > 0) {
+                        session.sendMessage(new TextMessage("DROPPED " + droppedSinceLast));
+                    }
+                    if (text != null) {
+                        session.sendMessage(new TextMessage(text));
+                    } else {
+                        session.sendMessage(new BinaryMessage(frame, true));
+                    }
+                } catch (IOException | RuntimeException e) {
+                    log.debug("Write to raw stream client {} failed, stopping its writer", session.getId(), e);
+                    stop();
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Moves waiting records into the frame, at least one even if it is larger than the frame.
+         */
+        private ByteBuffer fill(ByteBuffer frame) {
+            frame.clear();
+            byte[] first = (byte[]) pending.peekFirst();
+            if (first.length > frame.capacity()) {
+                frame = ByteBuffer.allocate(first.length);
+            } else if (frame.capacity() > maxFrameBytes) {
+                frame = ByteBuffer.allocate(maxFrameBytes);
+            }
+            while (pending.peekFirst() instanceof byte[] record && record.length <= frame.remaining()) {
+                pending.pollFirst();
+                pendingBytes -= record.length;
+                frame.put(record);
+            }
+            frame.flip();
+            return frame;
+        }
+    }
+}
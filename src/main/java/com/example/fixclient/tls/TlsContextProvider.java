@@ -0,0 +1,171 @@
+package com.example.fixclient.tls;
+
+import com.example.fixclient.metrics.FixMetrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.mina.core.filterchain.DefaultIoFilterChainBuilder;
+import org.apache.mina.core.filterchain.IoFilterAdapter;
+import org.apache.mina.core.filterchain.IoFilterChainBuilder;
+import org.apache.mina.core.session.AttributeKey;
+import org.apache.mina.core.session.IoSession;
+import org.apache.mina.filter.FilterEvent;
+import org.apache.mina.filter.ssl.SslEvent;
+import org.apache.mina.filter.ssl.SslFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import quickfix.ConfigError;
+import quickfix.FieldConvertError;
+import quickfix.SessionID;
+import quickfix.SessionSettings;
+import quickfix.mina.ssl.SSLConfig;
+import quickfix.mina.ssl.SSLContextFactory;
+import quickfix.mina.ssl.SSLSupport;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSessionContext;
+import java.security.GeneralSecurityException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TLS setup shared by all initiators.
+ * <p>
+ * QuickFIX/J builds the {@link SSLContext} of a connection through
+ * {@link SSLContextFactory}, which keeps one context per distinct
+ * {@link SSLConfig} for the life of the JVM. Since the keystore is
+ * {@code certs/<sender>.p12}, that is one context per sender, and the keystore
+ * is read only when the first session of a sender starts. This class resolves
+ * the context through the same factory before the initiator starts, so the
+ * context QuickFIX/J later picks up is the one tuned here:
+ * <ul>
+ *   <li>its client session cache is sized by {@code fix.tls.session-cache-size}
+ *   and keeps sessions for {@code fix.tls.session-timeout-seconds}. MINA creates
+ *   each engine with the peer host and port, so a reconnect to the same venue
+ *   offers the cached session and, if the venue still has it, gets an
+ *   abbreviated handshake without the key exchange</li>
+ *   <li>each handshake is timed from connect to secured into
+ *   {@code fix.tls.handshake}, tagged with the environment and whether the
+ *   session was resumed</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+public class TlsContextProvider {
+
+    private static final String FILTER_NAME = "tlsHandshakeTimer";
+
+    private final FixMetrics metrics;
+    private final int sessionCacheSize;
+    private final int sessionTimeoutSeconds;
+    private final Map<SSLConfig, SSLContext> contexts = new ConcurrentHashMap<>();
+
+    public TlsContextProvider(FixMetrics metrics,
+                              @Value("${fix.tls.session-cache-size:256}") int sessionCacheSize,
+                              @Value("${fix.tls.session-timeout-seconds:86400}") int sessionTimeoutSeconds) {
+        this.metrics = metrics;
+        this.sessionCacheSize = Math.max(0, sessionCacheSize);
+        this.sessionTimeoutSeconds = Math.max(0, sessionTimeoutSeconds);
+    }
+
+    /**
+     * Loads and tunes the TLS context of a session that is about to start.
+     *
+     * @return filter chain to install on the session's initiator, or null if the
+     * session does not use TLS
+     */
+    public IoFilterChainBuilder prepare(SessionSettings settings, SessionID sessionID, String environment)
+            throws ConfigError {
+        if (context(settings, sessionID) == null) {
+            return null;
+        }
+        DefaultIoFilterChainBuilder builder = new DefaultIoFilterChainBuilder();
+        builder.addLast(FILTER_NAME, new HandshakeTimer(metrics.tlsHandshakeTimer(environment, false),
+                metrics.tlsHandshakeTimer(environment, true)));
+        return builder;
+    }
+
+    /**
+     * @return the shared context QuickFIX/J will use for this session, or null
+     * if the session does not use TLS
+     */
+    public SSLContext context(SessionSettings settings, SessionID sessionID) throws ConfigError {
+        try {
+            if (!settings.isSetting(sessionID, SSLSupport.SETTING_USE_SSL)
+                    || !settings.getBool(sessionID, SSLSupport.SETTING_USE_SSL)) {
+                return null;
+            }
+        } catch (FieldConvertError e) {
+            throw new ConfigError(e);
+        }
+        SSLConfig config = SSLSupport.getSslConfig(settings, sessionID);
+        SSLContext context = contexts.get(config);
+        if (context != null) {
+            return context;
+        }
+        try {
+            return contexts.computeIfAbsent(config, this::load);
+        } catch (IllegalStateException e) {
+            throw new ConfigError("Cannot create TLS context for " + sessionID, e.getCause());
+        }
+    }
+
+    private SSLContext load(SSLConfig config) {
+        long startNanos = System.nanoTime();
+        SSLContext context;
+        try {
+            context = SSLContextFactory.getInstance(config);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+        SSLSessionContext clientSessions = context.getClientSessionContext();
+        clientSessions.setSessionCacheSize(sessionCacheSize);
+        clientSessions.setSessionTimeout(sessionTimeoutSeconds);
+        log.info("TLS context for {} ready in {} ms, caching {} sessions for {} s", config.getKeyStoreName(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), sessionCacheSize,
+                sessionTimeoutSeconds);
+        return context;
+    }
+
+    int cachedContexts() {
+        return contexts.size();
+    }
+
+    /**
+     * Sits behind the SSL filter, where it sees the connection open in clear and
+     * then the {@link SslEvent#SECURED} event.
+     */
+    static final class HandshakeTimer extends IoFilterAdapter {
+
+        private static final AttributeKey STARTED = new AttributeKey(HandshakeTimer.class, "started");
+
+        private final Timer full;
+        private final Timer resumed;
+
+        HandshakeTimer(Timer full, Timer resumed) {
+            this.full = full;
+            this.resumed = resumed;
+        }
+
+        @Override
+        public void sessionCreated(NextFilter nextFilter, IoSession session) throws Exception {
+            session.setAttribute(STARTED, new long[]{System.nanoTime(), System.currentTimeMillis()});
+            nextFilter.sessionCreated(session);
+        }
+
+        @Override
+        public void event(NextFilter nextFilter, IoSession session, FilterEvent event) throws Exception {
+            if (event == SslEvent.SECURED) {
+                long[] started = (long[]) session.removeAttribute(STARTED);
+                if (started != null) {
+                    // A resumed session was created by an earlier connection
+                    SSLSession ssl = (SSLSession) session.getAttribute(SslFilter.SSL_SECURED);
+                    boolean wasResumed = ssl != null && ssl.getCreationTime() < started[1];
+                    (wasResumed ? resumed : full).record(System.nanoTime() - started[0], TimeUnit.NANOSECONDS);
+                }
+            }
+            nextFilter.event(session, event);
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.example.fixclient.upload;
+
+import com.example.fixclient.exception.UploadNotFoundException;
+import com.example.fixclient.exception.UploadRejectedException;
+import com.example.fixclient.model.MessageRequestDto;
+import com.example.fixclient.model.UploadChunk;
+import com.example.fixclient.model.UploadCommand;
+import com.example.fixclient.model.UploadOpenRequest;
+import com.example.fixclient.service.BatchMessageSenderService;
+import com.example.fixclient.service.WorkerThreads;
+import com.example.fixclient.websocket.SessionMessaging;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams large batches over STOMP in chunks instead of one frame.
+ * <p>
+ * A client opens an upload and gets its id and a window of credits in the
+ * reply to the open request. It pushes numbered
+ * chunks and finally commits with the number of the last chunk. Each upload
+ * has one sender thread that parses and sends chunks in sequence order while
+ * later chunks are still arriving. A chunk is acknowledged on
+ * {@code /user/queue/upload} once it was sent, which returns its credit. At most
+ * {@code window} chunks are buffered per upload; a chunk outside the window is
+ * rejected. Chunks may arrive out of order within the window, since the inbound
+ * channel does not preserve frame order. An upload that receives no chunk or
+ * commit for {@code fix.upload.idle-timeout-ms} while it has nothing left to
+ * send is aborted, so an abandoned upload does not hold one of the
+ * {@code fix.upload.max-open} slots.
+ */
+@Service
+@Slf4j
+public class ChunkedUploadService {
+
+    public enum State {
+        OPEN, COMMITTED, COMPLETED, ABORTED
+    }
+
+    /**
+     * @param ackedSeq chunks up to and including this one have been sent; -1 before the first
+     * @param credits  chunks the client may send beyond {@code ackedSeq}
+     */
+    public record UploadAck(String uploadId, State state, long ackedSeq, int credits, long messagesSent,
+                            long messagesFailed, String error) {
+    }
+
+    static final String ACK_DESTINATION = "/queue/upload";
+
+    private final BatchMessageSenderService batchSender;
+    private final SimpMessageSendingOperations messagingTemplate;
+    private final WorkerThreads workerThreads;
+    private final int maxWindow;
+    private final int maxChunkMessages;
+    private final int maxOpen;
+    private final long idleTimeoutNanos;
+    private final Map<String, Upload> uploads = new ConcurrentHashMap<>();
+
+    public ChunkedUploadService(BatchMessageSenderService batchSender,
+                                SimpMessageSendingOperations messagingTemplate,
+                                WorkerThreads workerThreads,
+                                @Value("${fix.upload.max-window:16}") int maxWindow,
+                                @Value("${fix.upload.max-chunk-messages:500}") int maxChunkMessages,
+                                @Value("${fix.upload.max-open:8}") int maxOpen,
+                                @Value("${fix.upload.idle-timeout-ms:60000}") long idleTimeoutMillis) {
+        this.batchSender = batchSender;
+        this.messagingTemplate = messagingTemplate;
+        this.workerThreads = workerThreads;
+        this.maxWindow = Math.max(1, maxWindow);
+        this.maxChunkMessages = Math.max(1, maxChunkMessages);
+        this.maxOpen = Math.max(1, maxOpen);
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, idleTimeoutMillis));
+    }
+
+    /**
+     * @return the first acknowledgement, carrying the upload id and the credits
+     */
+    public UploadAck open(UploadOpenRequest request, String wsSessionId) {
+        if (uploads.size() >= maxOpen) {
+            throw new UploadRejectedException("Too many open uploads (" + maxOpen + ")");
+        }
+        int window = request.window() == null || request.window() <= 0 ? maxWindow
+                : Math.min(request.window(), maxWindow);
+        String uploadId = UUID.randomUUID().toString();
+        Upload upload = new Upload(uploadId, wsSessionId, request.senderCompId(),
+                request.urgent() != null && request.urgent(), window);
+        uploads.put(uploadId, upload);
+        log.info("Upload {} opened for {} with a window of {} chunks", uploadId, request.senderCompId(), window);
+        upload.start();
+        return upload.snapshot(null);
+    }
+
+    public void chunk(UploadChunk chunk, String wsSessionId) {
+        Upload upload = find(chunk.uploadId(), wsSessionId);
+        List<String> messages = chunk.fixMessages() == null ? List.of() : chunk.fixMessages();
+        if (messages.size() > maxChunkMessages) {
+            throw new UploadRejectedException("Chunk " + chunk.seq() + " has " + messages.size()
+                    + " messages, at most " + maxChunkMessages + " allowed");
+        }
+        upload.accept(chunk.seq(), messages);
+    }
+
+    public void commit(UploadCommand command, String wsSessionId) {
+        if (command.lastSeq() == null) {
+            throw new UploadRejectedException("Commit needs the sequence number of the last chunk");
+        }
+        find(command.uploadId(), wsSessionId).commit(command.lastSeq());
+    }
+
+    public void abort(UploadCommand command, String wsSessionId) {
+        find(command.uploadId(), wsSessionId).abort("Aborted by client");
+    }
+
+    /**
+     * Aborts every upload of a disconnected WebSocket session.
+     */
+    public void abortAll(String wsSessionId) {
+        uploads.values().stream()
+                .filter(upload -> upload.wsSessionId.equals(wsSessionId))
+                .forEach(upload -> upload.abort("WebSocket session closed"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        uploads.values().forEach(upload -> upload.abort("Shutting down"));
+    }
+
+    int openUploads() {
+        return uploads.size();
+    }
+
+    private Upload find(String uploadId, String wsSessionId) {
+        Upload upload = uploadId == null ? null : uploads.get(uploadId);
+        if (upload == null || !upload.wsSessionId.equals(wsSessionId)) {
+            throw new UploadNotFoundException("No open upload " + uploadId);
+        }
+        return upload;
+    }
+
+    private void ack(Upload upload, UploadAck ack) {
+        SessionMessaging.sendToSession(messagingTemplate, upload.wsSessionId, ACK_DESTINATION, ack);
+    }
+
+    private record Chunk(long seq, List<String> messages) {
+    }
+
+    /**
+     * One upload. Inbound threads add chunks, the upload's own thread sends them.
+     */
+    private final class Upload {
+
+        private final String id;
+        private final String wsSessionId;
+        private final String senderCompId;
+        private final boolean urgent;
+        private final int window;
+        private final Thread sender;
+
+        // Guarded by this
+        private final Map<Long, List<String>> received = new HashMap<>();
+        private final ArrayDeque<Chunk> ready = new ArrayDeque<>();
+        private long nextReady;
+        private long sentThrough = -1;
+        private long lastSeq = -1;
+        private State state = State.OPEN;
+        private long messagesSent;
+        private long messagesFailed;
+        private long lastActivityNanos = System.nanoTime();
+
+        private Upload(String id, String wsSessionId, String senderCompId, boolean urgent, int window) {
+            this.id = id;
+            this.wsSessionId = wsSessionId;
+            this.senderCompId = senderCompId;
+            this.urgent = urgent;
+            this.window = window;
+            this.sender = workerThreads.newThread("upload-" + id.substring(0, 8), this::sendLoop);
+        }
+
+        void start() {
+            sender.start();
+        }
+
+        synchronized void accept(long seq, List<String> messages) {
+            if (state != State.OPEN && state != State.COMMITTED) {
+                throw new UploadRejectedException("Upload " + id + " is " + state);
+            }
+            if (seq <= sentThrough || seq < nextReady || received.containsKey(seq)) {
+                // Retransmission of a chunk we already have
+                return;
+            }
+            if (seq > sentThrough + window) {
+                throw new UploadRejectedException("Chunk " + seq + " is outside the window, acknowledged up to "
+                        + sentThrough + " with " + window + " credits");
+            }
+            if (state == State.COMMITTED && seq > lastSeq) {
+                throw new UploadRejectedException("Chunk " + seq + " is past the committed last chunk " + lastSeq);
+            }
+            received.put(seq, messages);
+            lastActivityNanos = System.nanoTime();
+            List<String> next;
+            while ((next = received.remove(nextReady)) != null) {
+                ready.addLast(new Chunk(nextReady++, next));
+            }
+            notifyAll();
+        }
+
+        synchronized void commit(long last) {
+            if (state != State.OPEN) {
+                throw new UploadRejectedException("Upload " + id + " is " + state);
+            }
+            long highest = received.keySet().stream().mapToLong(Long::longValue).max().orElse(nextReady - 1);
+            if (last < Math.max(highest, nextReady - 1)) {
+                throw new UploadRejectedException("Chunks up to " + Math.max(highest, nextReady - 1)
+                        + " were already received");
+            }
+            lastSeq = last;
+            state = State.COMMITTED;
+            lastActivityNanos = System.nanoTime();
+            notifyAll();
+        }
+
+        void abort(String reason) {
+            UploadAck ack;
+            synchronized (this) {
+                if (state == State.ABORTED || state == State.COMPLETED) {
+                    return;
+                }
+                state = State.ABORTED;
+                received.clear();
+                ready.clear();
+                notifyAll();
+                ack = snapshot(reason);
+            }
+            uploads.remove(id, this);
+            log.info("Upload {} aborted: {}", id, reason);
+            ack(this, ack);
+        }
+
+        private void sendLoop() {
+            while (true) {
+                Chunk chunk;
+                synchronized (this) {
+                    while (ready.isEmpty() && state != State.ABORTED && !isComplete()) {
+                        long idleNanos = lastActivityNanos + idleTimeoutNanos - System.nanoTime();
+                        if (idleNanos <= 0) {
+                            break;
+                        }
+                        try {
+                            TimeUnit.NANOSECONDS.timedWait(this, idleNanos);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                    }
+                    if (state == State.ABORTED) {
+                        return;
+                    }
+                    if (isComplete() && ready.isEmpty()) {
+                        state = State.COMPLETED;
+                        break;
+                    }
+                    chunk = ready.pollFirst();
+                }
+                if (chunk == null) {
+                    // Nothing to send and the client went quiet
+                    abort("No chunk received for " + TimeUnit.NANOSECONDS.toMillis(idleTimeoutNanos) + " ms");
+                    return;
+                }
+
+                int sent = 0;
+                try {
+                    sent = batchSender.sendChunk(new MessageRequestDto(1, 0, senderCompId, chunk.messages(), null,
+                            null, urgent), wsSessionId);
+                } catch (RuntimeException e) {
+                    log.error("Upload {} chunk {} failed", id, chunk.seq(), e);
+                }
+
+                UploadAck ack;
+                synchronized (this) {
+                    if (state == State.ABORTED) {
+                        return;
+                    }
+                    sentThrough = chunk.seq();
+                    // The client may have been waiting for this credit
+                    lastActivityNanos = System.nanoTime();
+                    messagesSent += sent;
+                    messagesFailed += chunk.messages().size() - sent;
+                    ack = snapshot(null);
+                }
+                ack(this, ack);
+            }
+
+            UploadAck ack;
+            synchronized (this) {
+                ack = snapshot(null);
+            }
+            uploads.remove(id, this);
+            log.info("Upload {} completed: {} sent, {} failed in {} chunks", id, ack.messagesSent(),
+                    ack.messagesFailed(), lastSeq + 1);
+            ack(this, ack);
+        }
+
+        private boolean isComplete() {
+            return state == State.COMMITTED && sentThrough == lastSeq;
+        }
+
+        private synchronized UploadAck snapshot(String error) {
+            int credits = state == State.OPEN || state == State.COMMITTED ? window : 0;
+            return new UploadAck(id, state, sentThrough, credits, messagesSent, messagesFailed, error);
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package com.example.fixclient.websocket;
+
+import com.example.fixclient.metrics.FixMetrics;
+import com.example.fixclient.model.SlowConsumerPolicy;
+import com.example.fixclient.service.WorkerThreads;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gives every WebSocket client its own outbound queue and writer thread.
+ * <p>
+ * Spring's session decorator lets the clientOutboundChannel thread that finds
+ * a session idle do the blocking socket write, so a browser that stops reading
+ * holds a pool thread and other clients' frames queue behind it. Here frames
+ * are only queued by channel threads and written by the client's writer, so
+ * the channel never blocks on a socket. Queued bytes and write times are
+ * tracked per client. When the queue exceeds {@code fix.ws.outbound.buffer-size-limit}
+ * the {@link SlowConsumerPolicy} applies; STOMP frames other than MESSAGE are
+ * never dropped.
+ */
+@Component
+@Slf4j
+public class OutboundGuard implements WebSocketHandlerDecoratorFactory {
+
+    /**
+     * @param queuedBytes      bytes of frames waiting for the writer, excluding the one being written
+     * @param sendingForMillis how long the current write has been blocked, 0 when idle
+     */
+    public record ClientStats(String sessionId, int queuedFrames, long queuedBytes, long maxQueuedBytes,
+                              long sentFrames, long droppedFrames, double meanSendMicros, double maxSendMicros,
+                              long sendingForMillis) {
+    }
+
+    private final FixMetrics metrics;
+    private final WorkerThreads workerThreads;
+    private final SlowConsumerPolicy policy;
+    private final long bufferSizeLimit;
+    private final long sendTimeLimitNanos;
+    private final Map<String, GuardedSession> sessions = new ConcurrentHashMap<>();
+
+    public OutboundGuard(FixMetrics metrics, WorkerThreads workerThreads,
+                         @Value("${fix.ws.outbound.policy:DISCONNECT}") SlowConsumerPolicy policy,
+                         @Value("${fix.ws.outbound.buffer-size-limit:524288}") long bufferSizeLimit,
+                         @Value("${fix.ws.outbound.send-time-limit-ms:10000}") long sendTimeLimitMillis) {
+        this.metrics = metrics;
+        this.workerThreads = workerThreads;
+        this.policy = policy;
+        this.bufferSizeLimit = bufferSizeLimit;
+        this.sendTimeLimitNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeLimitMillis);
+        metrics.wsOutboundGauges(this, OutboundGuard::queuedBytes, guard -> guard.sessions.size());
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                GuardedSession guarded = new GuardedSession(session);
+                sessions.put(session.getId(), guarded);
+                guarded.start();
+                super.afterConnectionEstablished(guarded);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                GuardedSession guarded = sessions.remove(session.getId());
+                if (guarded != null) {
+                    guarded.stop();
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    public List<ClientStats> stats() {
+        return sessions.values().stream().map(GuardedSession::stats).toList();
+    }
+
+    private double queuedBytes() {
+        return sessions.values().stream().mapToLong(GuardedSession::queuedBytes).sum();
+    }
+
+    /**
+     * Subscription of a STOMP MESSAGE frame, or null for frames that must not be dropped.
+     */
+    static String subscriptionOf(WebSocketMessage<?> message) {
+        if (!(message instanceof TextMessage text) || !text.getPayload().startsWith("MESSAGE\n")) {
+            return null;
+        }
+        String frame = text.getPayload();
+        int lineStart = frame.indexOf('\n') + 1;
+        while (lineStart < frame.length()) {
+            int lineEnd = frame.indexOf('\n', lineStart);
+            if (lineEnd < 0 || lineEnd == lineStart) {
+                break;
+            }
+            if (frame.startsWith("subscription:", lineStart)) {
+                return frame.substring(lineStart + "subscription:".length(), lineEnd);
+            }
+            lineStart = lineEnd + 1;
+        }
+        // A MESSAGE without subscription header can still be dropped, just not conflated
+        return "";
+    }
+
+    private record Frame(WebSocketMessage<?> message, int bytes, String subscription) {
+    }
+
+    /**
+     * One client. Channel threads enqueue, the writer thread sends.
+     */
+    private final class GuardedSession extends WebSocketSessionDecorator {
+
+        private final Thread writer;
+
+        // Guarded by this
+        private final ArrayDeque<Frame> queue = new ArrayDeque<>();
+        private long queuedBytes;
+        private long maxQueuedBytes;
+        private long sendStartNanos;
+        private long sentFrames;
+        private long droppedFrames;
+        private long sendNanosTotal;
+        private long maxSendNanos;
+        private boolean stopped;
+
+        private GuardedSession(WebSocketSession session) {
+            super(session);
+            this.writer = workerThreads.newThread("ws-writer-" + session.getId(), this::writeLoop);
+        }
+
+        void start() {
+            writer.start();
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            String limitExceeded = null;
+            synchronized (this) {
+                if (stopped) {
+                    return;
+                }
+                queue.addLast(new Frame(message, message.getPayloadLength(), subscriptionOf(message)));
+                queuedBytes += queue.peekLast().bytes();
+                maxQueuedBytes = Math.max(maxQueuedBytes, queuedBytes);
+                if (queuedBytes > bufferSizeLimit) {
+                    limitExceeded = applyPolicy();
+                } else if (policy == SlowConsumerPolicy.DISCONNECT && sendStartNanos != 0
+                        && System.nanoTime() - sendStartNanos > sendTimeLimitNanos) {
+                    limitExceeded = "Write blocked for more than " + TimeUnit.NANOSECONDS.toMillis(sendTimeLimitNanos)
+                            + " ms";
+                }
+                notifyAll();
+            }
+            if (limitExceeded != null) {
+                log.warn("Disconnecting slow WebSocket client {}: {}", getId(), limitExceeded);
+                metrics.wsSlowDisconnect();
+                // SubProtocolWebSocketHandler closes the session with SESSION_NOT_RELIABLE
+                throw new SessionLimitExceededException(limitExceeded, CloseStatus.SESSION_NOT_RELIABLE);
+            }
+        }
+
+        /**
+         * @return why the client is disconnected, or null if the queue was trimmed instead
+         */
+        private String applyPolicy() {
+            if (policy == SlowConsumerPolicy.DISCONNECT) {
+                return queuedBytes + " bytes queued, limit " + bufferSizeLimit;
+            }
+            long dropped = 0;
+            if (policy == SlowConsumerPolicy.CONFLATE) {
+                String latest = queue.peekLast().subscription();
+                if (latest != null && !latest.isEmpty()) {
+                    Iterator<Frame> frames = queue.iterator();
+                    for (int older = queue.size() - 1; older > 0; older--) {
+                        Frame frame = frames.next();
+                        if (latest.equals(frame.subscription())) {
+                            frames.remove();
+                            queuedBytes -= frame.bytes();
+                            dropped++;
+                        }
+                    }
+                }
+            }
+            for (Iterator<Frame> frames = queue.iterator(); queuedBytes > bufferSizeLimit && frames.hasNext(); ) {
+                Frame frame = frames.next();
+                if (frame.subscription() != null) {
+                    frames.remove();
+                    queuedBytes -= frame.bytes();
+                    dropped++;
+                }
+            }
+            if (dropped > 0) {
+                droppedFrames += dropped;
+                metrics.wsDropped(policy, dropped);
+            }
+            return null;
+        }
+
+        private void writeLoop() {
+            while (true) {
+                Frame frame;
+                long startNanos;
+                synchronized (this) {
+                    while (queue.isEmpty() && !stopped) {
+                        try {
+                            wait();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                    }
+                    if (stopped) {
+                        return;
+                    }
+                    frame = queue.pollFirst();
+                    queuedBytes -= frame.bytes();
+                    startNanos = System.nanoTime();
+                    sendStartNanos = startNanos;
+                }
+                try {
+                    getDelegate().sendMessage(frame.message());
+                } catch (IOException | RuntimeException e) {
+                    log.debug("Write to WebSocket client {} failed, closing it", getId(), e);
+                    stop();
+                    // Otherwise later frames would be swallowed by a session that still looks open
+                    closeQuietly();
+                    return;
+                }
+                long elapsedNanos = System.nanoTime() - startNanos;
+                metrics.wsSendTimer().record(elapsedNanos, TimeUnit.NANOSECONDS);
+                synchronized (this) {
+                    sendStartNanos = 0;
+                    sentFrames++;
+                    sendNanosTotal += elapsedNanos;
+                    maxSendNanos = Math.max(maxSendNanos, elapsedNanos);
+                }
+            }
+        }
+
+        @Override
+        public void close(CloseStatus status) throws IOException {
+            stop();
+            super.close(status);
+        }
+
+        private void closeQuietly() {
+            try {
+                getDelegate().close(CloseStatus.SESSION_NOT_RELIABLE);
+            } catch (IOException | RuntimeException e) {
+                log.debug("Closing WebSocket client {} failed", getId(), e);
+            }
+        }
+
+        synchronized void stop() {
+            stopped = true;
+            queue.clear();
+            queuedBytes = 0;
+            notifyAll();
+        }
+
+        synchronized long queuedBytes() {
+            return queuedBytes;
+        }
+
+        synchronized ClientStats stats() {
+            long sendingForNanos = sendStartNanos == 0 ? 0 : System.nanoTime() - sendStartNanos;
+            return new ClientStats(getId(), queue.size(), queuedBytes, maxQueuedBytes, sentFrames, droppedFrames,
+                    sentFrames == 0 ? 0 : sendNanosTotal / 1000.0 / sentFrames, maxSendNanos / 1000.0,
+                    TimeUnit.NANOSECONDS.toMillis(sendingForNanos));
+        }
+    }
+}
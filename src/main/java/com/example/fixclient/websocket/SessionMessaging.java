@@ -0,0 +1,39 @@
+package com.example.fixclient.websocket;
+
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.messaging.simp.SimpMessageType;
+
+/**
+ * Sends to the user destinations of one WebSocket session.
+ * <p>
+ * Clients connect without a Principal, so {@code convertAndSendToUser(wsSessionId, ...)}
+ * finds no user of that name and the message is dropped. The user destination
+ * resolver falls back to the session id carried in the message headers when it
+ * matches the user name, which is what {@link #headers(String)} provides.
+ */
+public final class SessionMessaging {
+
+    private SessionMessaging() {
+    }
+
+    /**
+     * Sends {@code payload} to {@code destination} of the given WebSocket session,
+     * e.g. {@code /queue/upload} reaches the client's {@code /user/queue/upload}.
+     */
+    public static void sendToSession(SimpMessageSendingOperations messagingTemplate, String wsSessionId,
+                                     String destination, Object payload) {
+        messagingTemplate.convertAndSendToUser(wsSessionId, destination, payload, headers(wsSessionId));
+    }
+
+    /**
+     * @return message headers addressing the given WebSocket session
+     */
+    public static MessageHeaders headers(String wsSessionId) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setSessionId(wsSessionId);
+        headers.setLeaveMutable(true);
+        return headers.getMessageHeaders();
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.fixclient.capture;
+
+import com.example.fixclient.listener.FixTrafficListener;
+import com.example.fixclient.model.ReplayRequest;
+import com.example.fixclient.service.FixSessionGateway;
+import com.example.fixclient.websocket.SessionMessaging;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import quickfix.Message;
+import quickfix.SessionID;
+import quickfix.field.ClOrdID;
+import quickfix.field.MsgSeqNum;
+import quickfix.field.SendingTime;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ReplayEngineTest {
+
+    private final SessionID recorded = new SessionID("FIX.4.1", "INITIATOR1", "ACCEPTOR_A");
+    private final SessionID target = new SessionID("FIX.4.1", "INITIATOR2", "ACCEPTOR_A");
+
+    @Mock
+    private FixSessionGateway sessionGateway;
+
+    @Mock
+    private SimpMessageSendingOperations messagingTemplate;
+
+    @TempDir
+    private Path dir;
+
+    private SessionRecorder recorder;
+    private ReplayEngine replayEngine;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        recorder = new SessionRecorder(dir, 4096);
+        replayEngine = new ReplayEngine(sessionGateway, recorder, messagingTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        replayEngine.shutdown();
+        recorder.close();
+    }
+
+    @Test
+    void replay_ResendsOutboundAppMessagesWithoutSessionFields() throws Exception {
+        // Arrange
+        when(sessionGateway.sendToTarget(any(Message.class), any(SessionID.class))).thenReturn(true);
+        String name = recorder.start(recorded);
+        for (int i = 1; i <= 3; i++) {
+            Message order = SessionRecorderTest.order("ORD-" + i);
+            order.getHeader().setInt(MsgSeqNum.FIELD, i);
+            order.getHeader().setUtcTimeStamp(SendingTime.FIELD, LocalDateTime.now());
+            order.setString(9489, "signature");
+            recorder.onMessage(recorded, FixTrafficListener.Direction.OUTBOUND, false, order);
+            recorder.onMessage(recorded, FixTrafficListener.Direction.INBOUND, false,
+                    SessionRecorderTest.order("ACK-" + i));
+        }
+        recorder.stop(recorded);
+
+        // Act
+        ReplayEngine.ReplayStats stats = replayEngine.replay(recorder.capturePath(name), target, 0);
+
+        // Assert
+        assertEquals(3, stats.sent());
+        assertEquals(0, stats.failed());
+        ArgumentCaptor<Message> sent = ArgumentCaptor.forClass(Message.class);
+        verify(sessionGateway, times(3)).sendToTarget(sent.capture(), eq(target));
+        List<Message> messages = sent.getAllValues();
+        for (int i = 0; i < messages.size(); i++) {
+            Message message = messages.get(i);
+            assertEquals("ORD-" + (i + 1), message.getString(ClOrdID.FIELD));
+            assertFalse(message.getHeader().isSetField(MsgSeqNum.FIELD));
+            assertFalse(message.getHeader().isSetField(SendingTime.FIELD));
+            assertFalse(message.isSetField(9489));
+        }
+    }
+
+    @Test
+    void timedReplay_CountsFailedSendsAndReportsDrift() throws Exception {
+        // Arrange
+        when(sessionGateway.sendToTarget(any(Message.class), any(SessionID.class))).thenReturn(true, false);
+        String name = recorder.start(recorded);
+        recorder.onMessage(recorded, FixTrafficListener.Direction.OUTBOUND, false, SessionRecorderTest.order("ORD-1"));
+        Thread.sleep(5);
+        recorder.onMessage(recorded, FixTrafficListener.Direction.OUTBOUND, false, SessionRecorderTest.order("ORD-2"));
+        recorder.stop(recorded);
+
+        // Act
+        ReplayEngine.ReplayStats stats = replayEngine.replay(recorder.capturePath(name), target, 1.0);
+
+        // Assert
+        assertEquals(1, stats.sent());
+        assertEquals(1, stats.failed());
+        assertTrue(stats.durationMillis() >= 4);
+        assertTrue(stats.maxDriftMicros() >= 0);
+    }
+
+    @Test
+    void queuedReplay_ReportsStatsToRequestingSession() throws Exception {
+        // Arrange
+        when(sessionGateway.sendToTarget(any(Message.class), any(SessionID.class))).thenReturn(true);
+        String name = recorder.start(recorded);
+        recorder.onMessage(recorded, FixTrafficListener.Direction.OUTBOUND, false, SessionRecorderTest.order("ORD-1"));
+        recorder.stop(recorded);
+
+        // Act
+        replayEngine.replay(new ReplayRequest(name, "INITIATOR2", "ACCEPTOR_A", 0), "ws-1");
+
+        // Assert
+        ArgumentCaptor<Object> stats = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, timeout(2000)).convertAndSendToUser(eq("ws-1"), eq("/queue/replay"),
+                stats.capture(), eq(SessionMessaging.headers("ws-1")));
+        assertEquals(1, ((ReplayEngine.ReplayStats) stats.getValue()).sent());
+    }
+}
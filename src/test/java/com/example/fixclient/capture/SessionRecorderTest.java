@@ -0,0 +1,100 @@
+package com.example.fixclient.capture;
+
+import com.example.fixclient.exception.CaptureNotFoundException;
+import com.example.fixclient.listener.FixTrafficListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import quickfix.Message;
+import quickfix.SessionID;
+import quickfix.field.ClOrdID;
+import quickfix.field.MsgType;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionRecorderTest {
+
+    private final SessionID sessionID = new SessionID("FIX.4.1", "INITIATOR1", "ACCEPTOR_A");
+
+    private SessionRecorder recorder;
+
+    @AfterEach
+    void tearDown() {
+        if (recorder != null) {
+            recorder.close();
+        }
+    }
+
+    @Test
+    void recordedMessages_AreReadBackInOrderAcrossSegments(@TempDir Path dir) throws Exception {
+        // Arrange
+        recorder = new SessionRecorder(dir, 512);
+        String name = recorder.start(sessionID);
+
+        // Act
+        for (int i = 0; i < 20; i++) {
+            recorder.onMessage(sessionID, FixTrafficListener.Direction.OUTBOUND, false, order("ORD-" + i));
+        }
+        recorder.onMessage(sessionID, FixTrafficListener.Direction.INBOUND, true, heartbeat());
+        recorder.stop(sessionID);
+
+        // Assert
+        Path capture = recorder.capturePath(name);
+        assertTrue(CaptureReader.segments(capture).size() > 1);
+        List<CaptureReader.CapturedMessage> messages = new ArrayList<>();
+        CaptureReader.read(capture, messages::add);
+        assertEquals(21, messages.size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(FixTrafficListener.Direction.OUTBOUND, messages.get(i).direction());
+            assertFalse(messages.get(i).admin());
+            assertTrue(messages.get(i).text().contains("11=ORD-" + i + "\u0001"));
+        }
+        CaptureReader.CapturedMessage last = messages.get(20);
+        assertEquals(FixTrafficListener.Direction.INBOUND, last.direction());
+        assertTrue(last.admin());
+        assertTrue(last.timestampNanos() >= messages.get(19).timestampNanos());
+    }
+
+    @Test
+    void unrecordedSessions_AreIgnored(@TempDir Path dir) throws Exception {
+        // Arrange
+        recorder = new SessionRecorder(dir, 4096);
+        SessionID other = new SessionID("FIX.4.1", "INITIATOR2", "ACCEPTOR_A");
+        String name = recorder.start(sessionID);
+
+        // Act
+        recorder.onMessage(other, FixTrafficListener.Direction.OUTBOUND, false, order("ORD-1"));
+        recorder.stop(sessionID);
+
+        // Assert
+        assertFalse(recorder.isRecording(other));
+        List<CaptureReader.CapturedMessage> messages = new ArrayList<>();
+        CaptureReader.read(recorder.capturePath(name), messages::add);
+        assertTrue(messages.isEmpty());
+    }
+
+    @Test
+    void capturePath_RejectsUnknownAndEscapingNames(@TempDir Path dir) {
+        recorder = new SessionRecorder(dir, 4096);
+
+        assertThrows(CaptureNotFoundException.class, () -> recorder.capturePath("missing"));
+        assertThrows(CaptureNotFoundException.class, () -> recorder.capturePath("../" + dir.getFileName()));
+    }
+
+    static Message order(String clOrdId) {
+        Message message = new Message();
+        message.getHeader().setString(MsgType.FIELD, MsgType.ORDER_SINGLE);
+        message.setString(ClOrdID.FIELD, clOrdId);
+        return message;
+    }
+
+    private static Message heartbeat() {
+        Message message = new Message();
+        message.getHeader().setString(MsgType.FIELD, MsgType.HEARTBEAT);
+        return message;
+    }
+}
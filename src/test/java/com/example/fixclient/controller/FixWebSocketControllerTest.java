@@ -1,18 +1,41 @@
 package com.example.fixclient.controller;
 
+import com.example.fixclient.capture.ReplayEngine;
+import com.example.fixclient.capture.SessionRecorder;
 import com.example.fixclient.exception.BatchAlreadyRunningException;
+import com.example.fixclient.exception.SessionNotOwnedException;
+import com.example.fixclient.index.TrafficIndex;
+import com.example.fixclient.metrics.MessageTracer;
+import com.example.fixclient.model.CaptureRequest;
+import com.example.fixclient.listener.FixTrafficListener;
 import com.example.fixclient.model.MessageRequestDto;
+import com.example.fixclient.model.OrderQuery;
+import com.example.fixclient.model.ReplayRequest;
 import com.example.fixclient.model.StartSessionRequest;
+import com.example.fixclient.model.TrafficQuery;
+import com.example.fixclient.model.UploadOpenRequest;
+import com.example.fixclient.orders.OrderStateCache;
 import com.example.fixclient.service.BatchMessageSenderService;
 import com.example.fixclient.service.FixSessionManager;
+import com.example.fixclient.service.WarmupService;
+import com.example.fixclient.stream.RawTrafficStream;
+import com.example.fixclient.upload.ChunkedUploadService;
+import com.example.fixclient.websocket.OutboundGuard;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import quickfix.Message;
+import quickfix.SessionID;
+import quickfix.field.ClOrdID;
+import quickfix.field.MsgType;
+import quickfix.field.OrdStatus;
 
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
@@ -24,12 +47,35 @@ class FixWebSocketControllerTest {
     @Mock
     private BatchMessageSenderService batchSender;
 
+    @Mock
+    private SessionRecorder recorder;
+
+    @Mock
+    private ReplayEngine replayEngine;
+
+    @Mock
+    private ChunkedUploadService uploads;
+
+    @Mock
+    private OutboundGuard outboundGuard;
+
+    @Mock
+    private WarmupService warmup;
+
+    @Mock
+    private RawTrafficStream rawStream;
+
+    private final OrderStateCache orderStates = new OrderStateCache(100);
+
     private FixWebSocketController controller;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        controller = new FixWebSocketController(sessionManager, batchSender);
+        controller = new FixWebSocketController(sessionManager, batchSender, new MessageTracer(16, 0), recorder,
+                replayEngine, orderStates,
+                new TrafficIndex(new int[]{11}, 16, 4096), uploads, outboundGuard, warmup,
+                rawStream);
     }
 
     @Test
@@ -94,4 +140,90 @@ class FixWebSocketControllerTest {
         controller.stopBatchMessages();
         verify(batchSender).stopSending();
     }
+
+    @Test
+    void testOpenUpload_RepliesWithUploadId() {
+        UploadOpenRequest request = new UploadOpenRequest("SENDER", null, null);
+        SimpMessageHeaderAccessor headerAccessor = SimpMessageHeaderAccessor.create();
+        headerAccessor.setSessionId("ws-123");
+        ChunkedUploadService.UploadAck ack = new ChunkedUploadService.UploadAck("upload-1",
+                ChunkedUploadService.State.OPEN, -1, 16, 0, 0, null);
+        when(uploads.open(request, "ws-123")).thenReturn(ack);
+
+        assertSame(ack, controller.openUpload(request, headerAccessor));
+    }
+
+    @Test
+    void testSearchTraffic_OnlyForTheOwner() {
+        SimpMessageHeaderAccessor headerAccessor = SimpMessageHeaderAccessor.create();
+        headerAccessor.setSessionId("ws-123");
+        when(sessionManager.getOwner(new SessionID("FIX.4.1", "SENDER", "TARGET"))).thenReturn("ws-123");
+        when(sessionManager.getOwner(new SessionID("FIX.4.1", "SENDER", "OTHER"))).thenReturn("ws-456");
+
+        assertEquals(0, controller.searchTraffic(new TrafficQuery("SENDER", "TARGET", null, null, null),
+                headerAccessor).indexedMessages());
+        assertThrows(SessionNotOwnedException.class, () ->
+                controller.searchTraffic(new TrafficQuery("SENDER", "OTHER", null, null, null), headerAccessor));
+        assertThrows(SessionNotOwnedException.class, () ->
+                controller.searchTraffic(new TrafficQuery("SENDER", "NOBODY", null, null, null), headerAccessor));
+    }
+
+    @Test
+    void testCaptureAndReplay_OnlyForTheOwner() throws Exception {
+        SimpMessageHeaderAccessor headerAccessor = SimpMessageHeaderAccessor.create();
+        headerAccessor.setSessionId("ws-123");
+        SessionID owned = new SessionID("FIX.4.1", "SENDER", "TARGET");
+        when(sessionManager.getOwner(owned)).thenReturn("ws-123");
+        when(sessionManager.getOwner(new SessionID("FIX.4.1", "SENDER", "OTHER"))).thenReturn("ws-456");
+        ReplayRequest replay = new ReplayRequest("capture-1", "SENDER", "TARGET", 0);
+
+        controller.startCapture(new CaptureRequest("SENDER", "TARGET"), headerAccessor);
+        controller.stopCapture(new CaptureRequest("SENDER", "TARGET"), headerAccessor);
+        controller.replay(replay, headerAccessor);
+
+        verify(recorder).start(owned);
+        verify(recorder).stop(owned);
+        verify(replayEngine).replay(replay, "ws-123");
+        CaptureRequest other = new CaptureRequest("SENDER", "OTHER");
+        assertThrows(SessionNotOwnedException.class, () -> controller.startCapture(other, headerAccessor));
+        assertThrows(SessionNotOwnedException.class, () -> controller.stopCapture(other, headerAccessor));
+        assertThrows(SessionNotOwnedException.class, () ->
+                controller.replay(new ReplayRequest("capture-1", "SENDER", "OTHER", 0), headerAccessor));
+        verifyNoMoreInteractions(recorder, replayEngine);
+    }
+
+    @Test
+    void testOrders_OnlyForOwnedSessions() {
+        SimpMessageHeaderAccessor headerAccessor = SimpMessageHeaderAccessor.create();
+        headerAccessor.setSessionId("ws-123");
+        SessionID owned = new SessionID("FIX.4.1", "SENDER", "TARGET");
+        SessionID other = new SessionID("FIX.4.1", "SENDER", "OTHER");
+        when(sessionManager.getOwner(owned)).thenReturn("ws-123");
+        when(sessionManager.getOwner(other)).thenReturn("ws-456");
+        for (SessionID sessionID : List.of(owned, other)) {
+            Message report = new Message();
+            report.getHeader().setString(MsgType.FIELD, MsgType.EXECUTION_REPORT);
+            report.setString(ClOrdID.FIELD, "ORD-1");
+            report.setChar(OrdStatus.FIELD, OrdStatus.NEW);
+            orderStates.onMessage(sessionID, FixTrafficListener.Direction.INBOUND, false, report);
+        }
+
+        List<OrderStateCache.Summary> summaries = controller.orders(new OrderQuery(null, null, null), headerAccessor);
+
+        assertEquals(1, summaries.size());
+        assertEquals("TARGET", summaries.get(0).targetCompId());
+        assertEquals("NEW", controller.orderState(new OrderQuery("SENDER", "TARGET", "ORD-1"), headerAccessor)
+                .status());
+        assertThrows(SessionNotOwnedException.class, () ->
+                controller.orderState(new OrderQuery("SENDER", "OTHER", "ORD-1"), headerAccessor));
+    }
+
+    @Test
+    void testRawStreamToken_IsIssuedToTheCallingSession() {
+        SimpMessageHeaderAccessor headerAccessor = SimpMessageHeaderAccessor.create();
+        headerAccessor.setSessionId("ws-123");
+        when(rawStream.issueToken("ws-123")).thenReturn("token");
+
+        assertSame("token", controller.rawStreamToken(headerAccessor));
+    }
 }
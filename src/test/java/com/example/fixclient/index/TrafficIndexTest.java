@@ -0,0 +1,126 @@
+package com.example.fixclient.index;
+
+import com.example.fixclient.listener.FixTrafficListener;
+import org.junit.jupiter.api.Test;
+import quickfix.Message;
+import quickfix.SessionID;
+import quickfix.field.ClOrdID;
+import quickfix.field.MsgType;
+import quickfix.field.OrdStatus;
+import quickfix.field.Symbol;
+import quickfix.field.Text;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrafficIndexTest {
+
+    private final SessionID sessionID = new SessionID("FIX.4.1", "INITIATOR1", "ACCEPTOR_A");
+
+    @Test
+    void search_IntersectsIndexedTermsNewestFirst() {
+        // Arrange
+        TrafficIndex index = new TrafficIndex(new int[]{11, 35, 39, 55}, 1000, 1 << 20);
+        for (int i = 0; i < 100; i++) {
+            String symbol = i % 2 == 0 ? "IBM" : "MSFT";
+            index.onMessage(sessionID, FixTrafficListener.Direction.OUTBOUND, false, order("ORD-" + i, symbol));
+            index.onMessage(sessionID, FixTrafficListener.Direction.INBOUND, false,
+                    report("ORD-" + i, symbol, i % 10 == 0 ? OrdStatus.REJECTED : OrdStatus.NEW));
+        }
+
+        // Act
+        TrafficIndex.SearchResult rejects = index.search("INITIATOR1", "ACCEPTOR_A",
+                Map.of(35, "8", 39, "8", 55, "IBM"), null, null);
+        TrafficIndex.SearchResult byClOrdId = index.search("INITIATOR1", "ACCEPTOR_A",
+                Map.of(11, "ORD-42"), null, null);
+
+        // Assert
+        assertEquals(200, rejects.indexedMessages());
+        assertEquals(10, rejects.hits().size());
+        assertTrue(rejects.hits().get(0).message().contains("|11=ORD-90|"));
+        assertTrue(rejects.hits().get(9).message().contains("|11=ORD-0|"));
+        assertTrue(rejects.hits().get(0).seq() > rejects.hits().get(1).seq());
+        assertFalse(rejects.truncated());
+
+        assertEquals(2, byClOrdId.hits().size());
+        assertEquals(FixTrafficListener.Direction.INBOUND, byClOrdId.hits().get(0).direction());
+        assertEquals(FixTrafficListener.Direction.OUTBOUND, byClOrdId.hits().get(1).direction());
+    }
+
+    @Test
+    void search_ChecksUnindexedTermsAgainstRawMessagesAndHonoursLimit() {
+        // Arrange
+        TrafficIndex index = new TrafficIndex(new int[]{35}, 1000, 1 << 20);
+        for (int i = 0; i < 20; i++) {
+            Message report = report("ORD-" + i, "IBM", OrdStatus.REJECTED);
+            report.setString(Text.FIELD, i % 2 == 0 ? "Unknown symbol" : "Price out of range");
+            index.onMessage(sessionID, FixTrafficListener.Direction.INBOUND, false, report);
+        }
+
+        // Act
+        TrafficIndex.SearchResult result = index.search("INITIATOR1", "ACCEPTOR_A",
+                Map.of(35, "8", 58, "Unknown symbol"), null, 3);
+        TrafficIndex.SearchResult future = index.search("INITIATOR1", "ACCEPTOR_A",
+                Map.of(58, "Unknown symbol"), System.currentTimeMillis() + 60_000, null);
+
+        // Assert
+        assertEquals(3, result.hits().size());
+        assertTrue(result.truncated());
+        assertTrue(result.hits().get(0).message().contains("|11=ORD-18|"));
+        assertTrue(future.hits().isEmpty());
+    }
+
+    @Test
+    void oldMessages_AreEvictedByCountAndBytes() {
+        // Arrange
+        TrafficIndex byCount = new TrafficIndex(new int[]{11}, 8, 1 << 20);
+        TrafficIndex byBytes = new TrafficIndex(new int[]{11}, 1000, 1024);
+
+        // Act
+        for (int i = 0; i < 3000; i++) {
+            byCount.onMessage(sessionID, FixTrafficListener.Direction.OUTBOUND, false, order("ORD-" + i, "IBM"));
+            byBytes.onMessage(sessionID, FixTrafficListener.Direction.OUTBOUND, false, order("ORD-" + i, "IBM"));
+        }
+
+        // Assert
+        TrafficIndex.SearchResult all = byCount.search("INITIATOR1", "ACCEPTOR_A", Map.of(), null, 1000);
+        assertEquals(8, all.indexedMessages());
+        assertEquals(8, all.hits().size());
+        assertTrue(all.hits().get(7).message().contains("|11=ORD-2992|"));
+        assertTrue(byCount.search("INITIATOR1", "ACCEPTOR_A", Map.of(11, "ORD-2991"), null, null).hits().isEmpty());
+
+        TrafficIndex.SearchResult recent = byBytes.search("INITIATOR1", "ACCEPTOR_A", Map.of(), null, 1000);
+        assertTrue(recent.indexedMessages() > 0 && recent.indexedMessages() < 1024 / 20);
+        int total = recent.hits().stream().mapToInt(h -> h.message().length()).sum();
+        assertTrue(total <= 1024);
+        assertTrue(recent.hits().get(0).message().contains("|11=ORD-2999|"));
+        assertEquals(1, byBytes.search("INITIATOR1", "ACCEPTOR_A", Map.of(11, "ORD-2999"), null, null).hits().size());
+    }
+
+    @Test
+    void search_UnknownSessionOrValue_ReturnsNoHits() {
+        TrafficIndex index = new TrafficIndex(new int[]{11}, 100, 4096);
+        index.onMessage(sessionID, FixTrafficListener.Direction.OUTBOUND, false, order("ORD-1", "IBM"));
+
+        assertTrue(index.search("INITIATOR2", "ACCEPTOR_A", Map.of(11, "ORD-1"), null, null).hits().isEmpty());
+        assertTrue(index.search("INITIATOR1", "ACCEPTOR_A", Map.of(11, "ORD-2"), null, null).hits().isEmpty());
+    }
+
+    private static Message order(String clOrdId, String symbol) {
+        Message message = new Message();
+        message.getHeader().setString(MsgType.FIELD, MsgType.ORDER_SINGLE);
+        message.setString(ClOrdID.FIELD, clOrdId);
+        message.setString(Symbol.FIELD, symbol);
+        return message;
+    }
+
+    private static Message report(String clOrdId, String symbol, char status) {
+        Message message = new Message();
+        message.getHeader().setString(MsgType.FIELD, MsgType.EXECUTION_REPORT);
+        message.setString(ClOrdID.FIELD, clOrdId);
+        message.setString(Symbol.FIELD, symbol);
+        message.setChar(OrdStatus.FIELD, status);
+        return message;
+    }
+}
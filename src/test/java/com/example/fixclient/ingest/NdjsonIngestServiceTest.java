@@ -0,0 +1,114 @@
+package com.example.fixclient.ingest;
+
+import com.example.fixclient.model.MessageRequestDto;
+import com.example.fixclient.service.BatchMessageSenderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+class NdjsonIngestServiceTest {
+
+    private static final String MSG = "\"8=FIX.4.1|35=D|56=ACCEPTOR|\"";
+
+    @Mock
+    private BatchMessageSenderService batchSender;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private NdjsonIngestService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(batchSender.sendChunk(any(MessageRequestDto.class), isNull()))
+                .thenAnswer(invocation -> invocation.<MessageRequestDto>getArgument(0).fixMessages().size());
+        service = new NdjsonIngestService(batchSender, 2);
+    }
+
+    @Test
+    void lines_AreSentInChunksWithOneResultPerChunk() throws Exception {
+        // Arrange
+        String body = "{\"senderCompId\":\"INIT\",\"interval\":0,\"fixMessages\":[" + MSG + "," + MSG + "," + MSG + "]}\n"
+                + "{\"senderCompId\":\"INIT\",\"urgent\":true,\"fixMessages\":[" + MSG + "]}\n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        NdjsonIngestService.Summary summary = service.ingest(input(body), out);
+
+        // Assert
+        assertEquals(new NdjsonIngestService.Summary(2, 4, 4, 0), summary);
+        InOrder inOrder = inOrder(batchSender);
+        inOrder.verify(batchSender).sendChunk(argThat(r -> r.fixMessages().size() == 2 && !r.isUrgent()), isNull());
+        inOrder.verify(batchSender).sendChunk(argThat(r -> r.fixMessages().size() == 1 && !r.isUrgent()), isNull());
+        inOrder.verify(batchSender).sendChunk(argThat(MessageRequestDto::isUrgent), isNull());
+        List<NdjsonIngestService.LineResult> results = results(out);
+        assertEquals(3, results.size());
+        assertEquals(new NdjsonIngestService.LineResult(1, 0, "INIT", 2, 2, 0, false, null), results.get(0));
+        assertEquals(new NdjsonIngestService.LineResult(1, 1, "INIT", 3, 3, 0, true, null), results.get(1));
+        assertEquals(new NdjsonIngestService.LineResult(2, 0, "INIT", 1, 1, 0, true, null), results.get(2));
+    }
+
+    @Test
+    void senderAfterMessages_FailsThatLineOnly() throws Exception {
+        // Arrange
+        String body = "{\"fixMessages\":[" + MSG + "],\"senderCompId\":\"INIT\"}\n"
+                + "{\"senderCompId\":\"INIT\",\"fixMessages\":[" + MSG + "]}\n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        NdjsonIngestService.Summary summary = service.ingest(input(body), out);
+
+        // Assert
+        assertEquals(new NdjsonIngestService.Summary(2, 2, 1, 1), summary);
+        verify(batchSender, times(1)).sendChunk(any(MessageRequestDto.class), isNull());
+        List<NdjsonIngestService.LineResult> results = results(out);
+        assertNotNull(results.get(0).error());
+        assertEquals(1, results.get(0).failed());
+        assertNull(results.get(1).error());
+    }
+
+    @Test
+    void malformedJson_EndsIngestWithError() throws Exception {
+        // Arrange
+        String body = "{\"senderCompId\":\"INIT\",\"fixMessages\":[" + MSG + "]}\n"
+                + "{\"senderCompId\":\"INIT\",\"fixMessages\":[" + MSG + "\n"
+                + "{\"senderCompId\":\"INIT\",\"fixMessages\":[" + MSG + "]}\n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        NdjsonIngestService.Summary summary = service.ingest(input(body), out);
+
+        // Assert
+        assertEquals(1, summary.lines());
+        List<NdjsonIngestService.LineResult> results = results(out);
+        NdjsonIngestService.LineResult last = results.get(results.size() - 1);
+        assertTrue(last.error().startsWith("Malformed JSON"));
+        assertEquals(3, last.line());
+    }
+
+    private static ByteArrayInputStream input(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<NdjsonIngestService.LineResult> results(ByteArrayOutputStream out) throws Exception {
+        List<NdjsonIngestService.LineResult> results = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            results.add(mapper.readValue(line, NdjsonIngestService.LineResult.class));
+        }
+        return results;
+    }
+}
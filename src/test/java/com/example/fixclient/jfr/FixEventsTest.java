@@ -0,0 +1,79 @@
+package com.example.fixclient.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import quickfix.Message;
+import quickfix.SessionID;
+import quickfix.field.MsgType;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FixEventsTest {
+
+    private final SessionID sessionID = new SessionID("FIX.4.1", "INITIATOR1", "ACCEPTOR_A");
+
+    @Test
+    void messageEvent_RecordsCallbackSessionAndMsgType(@TempDir Path dir) throws Exception {
+        // Arrange
+        Message message = new Message();
+        message.getHeader().setString(MsgType.FIELD, MsgType.ORDER_SINGLE);
+        Path file = dir.resolve("fix.jfr");
+
+        // Act
+        try (Recording recording = new Recording()) {
+            recording.enable(FixMessageEvent.class).withThreshold(Duration.ZERO);
+            recording.start();
+            FixMessageEvent event = new FixMessageEvent();
+            event.begin();
+            event.complete("toApp", message, sessionID);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        // Assert
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        RecordedEvent recorded = events.stream()
+                .filter(e -> e.getEventType().getName().equals("com.example.fix.Message"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals("toApp", recorded.getString("callback"));
+        assertEquals("D", recorded.getString("msgType"));
+        assertEquals("INITIATOR1", recorded.getString("sender"));
+        assertEquals("ACCEPTOR_A", recorded.getString("target"));
+    }
+
+    @Test
+    void disabledEvents_AreNotRecorded(@TempDir Path dir) throws Exception {
+        // Arrange
+        Path file = dir.resolve("fix.jfr");
+
+        // Act
+        try (Recording recording = new Recording()) {
+            recording.enable(SessionLifecycleEvent.class);
+            recording.disable(BatchIterationEvent.class);
+            recording.start();
+            SessionLifecycleEvent lifecycle = new SessionLifecycleEvent();
+            lifecycle.begin();
+            lifecycle.complete(SessionLifecycleEvent.START, "INITIATOR1", "ACCEPTOR_A", "ENV1");
+            BatchIterationEvent iteration = new BatchIterationEvent();
+            iteration.begin();
+            iteration.complete("INITIATOR1", 1, 2, 2);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        // Assert
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().equals("com.example.fix.SessionLifecycle")
+                && "ENV1".equals(e.getString("environment"))));
+        assertTrue(events.stream().noneMatch(e -> e.getEventType().getName().equals("com.example.fix.BatchIteration")));
+    }
+}
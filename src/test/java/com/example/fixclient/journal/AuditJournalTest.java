@@ -0,0 +1,153 @@
+package com.example.fixclient.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.health.contributor.Status;
+import quickfix.Log;
+import quickfix.SessionID;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuditJournalTest {
+
+    private static final SessionID SESSION_1 = new SessionID("FIX.4.1", "INITIATOR1", "ACCEPTOR");
+    private static final SessionID SESSION_2 = new SessionID("FIX.4.1", "INITIATOR2", "ACCEPTOR");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testLogRecords_AreWrittenAndDecoded() throws IOException {
+        // Arrange
+        AuditJournal journal = new AuditJournal(directory, 1 << 20, 1 << 20);
+        journal.start();
+        JournalLogFactory factory = new JournalLogFactory(journal);
+        Log log1 = factory.create(SESSION_1);
+        Log log2 = factory.create(SESSION_2);
+
+        // Act
+        log1.onOutgoing("8=FIX.4.1\u000135=D\u000111=ABC123\u0001");
+        log2.onIncoming("8=FIX.4.1\u000135=8\u000111=XYZ\u0001");
+        log1.onEvent("Session created");
+        log2.onErrorEvent("Something failed");
+        journal.close();
+
+        // Assert
+        List<JournalReader.Entry> entries = readAll();
+        assertEquals(4, entries.size());
+        assertEquals(SESSION_1.toString(), entries.get(0).session());
+        assertEquals("OUT", entries.get(0).type());
+        assertEquals("8=FIX.4.1\u000135=D\u000111=ABC123\u0001", entries.get(0).text());
+        assertEquals(SESSION_2.toString(), entries.get(1).session());
+        assertEquals("IN", entries.get(1).type());
+        assertEquals("EVENT", entries.get(2).type());
+        assertEquals("ERROR", entries.get(3).type());
+        assertTrue(entries.get(0).timestampMicros() <= entries.get(3).timestampMicros());
+        assertEquals(4, journal.getWrittenCount());
+    }
+
+    @Test
+    void testRollingFiles_AreSelfDescribing() throws IOException {
+        // Arrange
+        AuditJournal journal = new AuditJournal(directory, 1 << 20, 4096);
+        journal.start();
+        Log log = new JournalLogFactory(journal).create(SESSION_1);
+        String message = "8=FIX.4.1\u000135=D\u0001" + "58=" + "X".repeat(200) + "\u0001";
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            log.onOutgoing(message);
+        }
+        journal.close();
+
+        // Assert
+        List<Path> files = JournalReader.journalFiles(directory);
+        assertTrue(files.size() > 1, "Expected the journal to roll");
+        for (Path file : files) {
+            List<JournalReader.Entry> entries = new ArrayList<>();
+            JournalReader.read(file, entries::add);
+            entries.forEach(e -> assertEquals(SESSION_1.toString(), e.session()));
+        }
+        assertEquals(100, readAll().size());
+    }
+
+    @Test
+    void testOversizedPayload_IsFlaggedAsTruncated() throws IOException {
+        // Arrange
+        AuditJournal journal = new AuditJournal(directory, 1 << 20, 1 << 20);
+        journal.start();
+        Log log = new JournalLogFactory(journal).create(SESSION_1);
+
+        // Act
+        log.onOutgoing("X".repeat(AuditJournal.MAX_PAYLOAD + 10));
+        log.onOutgoing("8=FIX.4.1\u000135=0\u0001");
+        journal.close();
+
+        // Assert
+        List<JournalReader.Entry> entries = readAll();
+        assertEquals(2, entries.size());
+        assertEquals("OUT", entries.get(0).type());
+        assertEquals(AuditJournal.MAX_PAYLOAD, entries.get(0).text().length());
+        assertTrue(entries.get(0).truncated());
+        assertFalse(entries.get(1).truncated());
+        assertEquals(1, journal.getTruncatedCount());
+    }
+
+    @Test
+    void testFailedWrite_RollsToANewFileAndReportsDownUntilThen() throws Exception {
+        // Arrange: the first file is opened read-only, so its header write fails
+        AtomicBoolean failNext = new AtomicBoolean(true);
+        AuditJournal journal = new AuditJournal(directory, 1 << 20, 1 << 20) {
+            @Override
+            FileChannel openChannel(Path file) throws IOException {
+                if (failNext.getAndSet(false)) {
+                    Files.createFile(file);
+                    return FileChannel.open(file, StandardOpenOption.READ);
+                }
+                return super.openChannel(file);
+            }
+        };
+        journal.start();
+        Log log = new JournalLogFactory(journal).create(SESSION_1);
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (journal.getWriteFailureCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Status failedStatus = journal.health().getStatus();
+
+        // Act
+        log.onOutgoing("8=FIX.4.1\u000135=D\u000111=AFTER\u0001");
+        while (journal.getWrittenCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Status recoveredStatus = journal.health().getStatus();
+        journal.close();
+
+        // Assert
+        assertEquals(Status.DOWN, failedStatus);
+        assertEquals(Status.UP, recoveredStatus);
+        assertEquals(1, journal.getWriteFailureCount());
+        List<JournalReader.Entry> entries = readAll();
+        assertEquals(1, entries.size());
+        assertEquals("8=FIX.4.1\u000135=D\u000111=AFTER\u0001", entries.get(0).text());
+    }
+
+    private List<JournalReader.Entry> readAll() throws IOException {
+        List<JournalReader.Entry> entries = new ArrayList<>();
+        for (Path file : JournalReader.journalFiles(directory)) {
+            JournalReader.read(file, entries::add);
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.fixclient.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import quickfix.SessionID;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class FixMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private FixMetrics metrics;
+    private final SessionID sessionID = new SessionID("FIX.4.1", "INITIATOR1", "ACCEPTOR_A");
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new FixMetrics(registry);
+    }
+
+    @Test
+    void sessionMeters_CountByDirectionAndMsgType() {
+        // Act
+        FixMetrics.SessionMeters meters = metrics.session(sessionID);
+        meters.sent("D");
+        meters.sent("D");
+        meters.received("8");
+        meters.received("AE");
+
+        // Assert
+        assertSame(meters, metrics.session(sessionID));
+        assertEquals(2, count("out", "D"));
+        assertEquals(1, count("in", "8"));
+        assertEquals(1, count("in", "AE"));
+    }
+
+    @Test
+    void sessionMeters_TimersAreTaggedBySession() {
+        // Act
+        metrics.session(sessionID).toAppTimer().record(5, TimeUnit.MILLISECONDS);
+
+        // Assert
+        assertEquals(1, registry.get("fix.toapp")
+                .tags("sender", "INITIATOR1", "target", "ACCEPTOR_A")
+                .timer()
+                .count());
+    }
+
+    private double count(String direction, String msgType) {
+        return registry.get("fix.messages")
+                .tags("sender", "INITIATOR1", "direction", direction, "msgType", msgType)
+                .counter()
+                .count();
+    }
+}
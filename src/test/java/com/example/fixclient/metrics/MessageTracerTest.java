@@ -0,0 +1,78 @@
+package com.example.fixclient.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MessageTracerTest {
+
+    @Test
+    void begin_SamplesEveryNthMessage() {
+        // Arrange
+        MessageTracer tracer = new MessageTracer(8, 3);
+
+        // Act
+        int sampledCount = 0;
+        for (int i = 0; i < 9; i++) {
+            if (tracer.begin() != MessageTracer.NO_TRACE) {
+                sampledCount++;
+            }
+        }
+
+        // Assert
+        assertEquals(3, sampledCount);
+    }
+
+    @Test
+    void summary_ReportsConsecutiveStagesIncludingAck() {
+        // Arrange
+        MessageTracer tracer = new MessageTracer(8, 1);
+        tracer.requestReceived(System.nanoTime());
+
+        // Act
+        int slot = tracer.begin();
+        tracer.stamp(slot, MessageTracer.Stage.PARSED);
+        tracer.expectAck(slot, "ORD-1");
+        tracer.setCurrent(slot);
+        tracer.stamp(tracer.current(), MessageTracer.Stage.TO_APP_ENTER);
+        tracer.stamp(tracer.current(), MessageTracer.Stage.TO_APP_EXIT);
+        tracer.stamp(slot, MessageTracer.Stage.SENT);
+        tracer.setCurrent(MessageTracer.NO_TRACE);
+        tracer.requestDone();
+        tracer.acknowledged("ORD-1");
+
+        // Assert
+        MessageTracer.Summary summary = tracer.summary();
+        assertEquals(1, summary.sampled());
+        List<MessageTracer.StageLatency> stages = summary.stages();
+        assertEquals(6, stages.size());
+        assertEquals(MessageTracer.Stage.INBOUND, stages.get(0).from());
+        assertEquals(MessageTracer.Stage.DISPATCHED, stages.get(0).to());
+        assertEquals(MessageTracer.Stage.SENT, stages.get(5).from());
+        assertEquals(MessageTracer.Stage.ACKED, stages.get(5).to());
+        stages.forEach(stage -> assertTrue(stage.p50Micros() >= 0));
+    }
+
+    @Test
+    void begin_OverwritesOldestSlotAndDropsItsPendingAck() {
+        // Arrange
+        MessageTracer tracer = new MessageTracer(1, 1);
+        int first = tracer.begin();
+        tracer.expectAck(first, "ORD-1");
+
+        // Act
+        int second = tracer.begin();
+        tracer.stamp(second, MessageTracer.Stage.SENT);
+        tracer.acknowledged("ORD-1");
+
+        // Assert
+        assertEquals(first, second);
+        MessageTracer.Summary summary = tracer.summary();
+        assertEquals(1, summary.stages().size());
+        assertEquals(MessageTracer.Stage.DISPATCHED, summary.stages().get(0).from());
+        assertEquals(MessageTracer.Stage.SENT, summary.stages().get(0).to());
+    }
+}
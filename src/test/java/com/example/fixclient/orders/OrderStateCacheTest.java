@@ -0,0 +1,162 @@
+package com.example.fixclient.orders;
+
+import com.example.fixclient.exception.OrderNotFoundException;
+import com.example.fixclient.listener.FixTrafficListener;
+import org.junit.jupiter.api.Test;
+import quickfix.Message;
+import quickfix.SessionID;
+import quickfix.field.AvgPx;
+import quickfix.field.ClOrdID;
+import quickfix.field.CumQty;
+import quickfix.field.MsgType;
+import quickfix.field.OrdStatus;
+import quickfix.field.OrigClOrdID;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderStateCacheTest {
+
+    private final SessionID sessionID = new SessionID("FIX.4.1", "INITIATOR1", "ACCEPTOR_A");
+
+    @Test
+    void executionReports_UpdateStatusQuantityAndPrice() {
+        // Arrange
+        OrderStateCache cache = new OrderStateCache(100);
+
+        // Act
+        receive(cache, report("ORD-1", null, OrdStatus.NEW, 0, 0));
+        receive(cache, report("ORD-1", null, OrdStatus.PARTIALLY_FILLED, 40, 101.5));
+        receive(cache, report("ORD-2", null, OrdStatus.NEW, 0, 0));
+
+        // Assert
+        OrderStateCache.OrderState order = cache.find("INITIATOR1", "ACCEPTOR_A", "ORD-1");
+        assertEquals("PARTIALLY_FILLED", order.status());
+        assertEquals(40, order.cumQty());
+        assertEquals(101.5, order.avgPx());
+        assertTrue(order.updatedMillis() > 0);
+
+        OrderStateCache.Summary summary = cache.summaries("INITIATOR1", null).get(0);
+        assertEquals(2, summary.tracked());
+        assertEquals(2, summary.open());
+        assertEquals(Map.of("NEW", 1, "PARTIALLY_FILLED", 1), summary.byStatus());
+    }
+
+    @Test
+    void cancelAndCancelReject_FollowTheOrderChain() {
+        // Arrange
+        OrderStateCache cache = new OrderStateCache(100);
+        receive(cache, report("ORD-1", null, OrdStatus.NEW, 0, 0));
+
+        // Act
+        receive(cache, cancelReject("CXL-1", "ORD-1", OrdStatus.PENDING_CANCEL));
+        receive(cache, report("CXL-2", "ORD-1", OrdStatus.CANCELED, 0, 0));
+
+        // Assert
+        assertEquals("CANCELED", cache.find("INITIATOR1", "ACCEPTOR_A", "CXL-2").status());
+        assertThrows(OrderNotFoundException.class, () -> cache.find("INITIATOR1", "ACCEPTOR_A", "ORD-1"));
+        OrderStateCache.Summary summary = cache.summaries(null, null).get(0);
+        assertEquals(1, summary.tracked());
+        assertEquals(0, summary.open());
+    }
+
+    @Test
+    void cancelRejectAfterPendingCancel_RestoresTheOrderStatus() {
+        // Arrange
+        OrderStateCache cache = new OrderStateCache(100);
+        receive(cache, report("ORD-1", null, OrdStatus.NEW, 0, 0));
+        receive(cache, report("CXL-1", "ORD-1", OrdStatus.PENDING_CANCEL, 0, 0));
+
+        // Act
+        receive(cache, cancelReject("CXL-1", "ORD-1", OrdStatus.NEW));
+
+        // Assert
+        assertEquals("NEW", cache.find("INITIATOR1", "ACCEPTOR_A", "CXL-1").status());
+        assertEquals(Map.of("NEW", 1), cache.summaries(null, null).get(0).byStatus());
+    }
+
+    @Test
+    void replacedOrder_StaysOpenUnderItsNewClOrdId() {
+        // Arrange
+        OrderStateCache cache = new OrderStateCache(0);
+        receive(cache, report("ORD-1", null, OrdStatus.NEW, 0, 0));
+
+        // Act
+        receive(cache, report("RPL-1", "ORD-1", OrdStatus.REPLACED, 0, 0));
+
+        // Assert
+        assertEquals("REPLACED", cache.find("INITIATOR1", "ACCEPTOR_A", "RPL-1").status());
+        OrderStateCache.Summary summary = cache.summaries(null, null).get(0);
+        assertEquals(1, summary.tracked());
+        assertEquals(1, summary.open());
+        assertEquals(0, summary.evicted());
+    }
+
+    @Test
+    void terminalOrders_AreEvictedOldestFirst() {
+        // Arrange
+        OrderStateCache cache = new OrderStateCache(2);
+
+        // Act
+        for (int i = 1; i <= 500; i++) {
+            receive(cache, report("ORD-" + i, null, OrdStatus.NEW, 0, 0));
+            receive(cache, report("ORD-" + i, null, OrdStatus.FILLED, 100, 10));
+        }
+        receive(cache, report("OPEN-1", null, OrdStatus.NEW, 0, 0));
+
+        // Assert
+        OrderStateCache.Summary summary = cache.summaries("INITIATOR1", "ACCEPTOR_A").get(0);
+        assertEquals(3, summary.tracked());
+        assertEquals(1, summary.open());
+        assertEquals(498, summary.evicted());
+        assertEquals(Map.of("FILLED", 2, "NEW", 1), summary.byStatus());
+        assertThrows(OrderNotFoundException.class, () -> cache.find("INITIATOR1", "ACCEPTOR_A", "ORD-498"));
+        assertEquals("FILLED", cache.find("INITIATOR1", "ACCEPTOR_A", "ORD-500").status());
+    }
+
+    @Test
+    void outboundAndOtherSessions_AreNotMixedIn() {
+        // Arrange
+        OrderStateCache cache = new OrderStateCache(100);
+        SessionID other = new SessionID("FIX.4.1", "INITIATOR2", "ACCEPTOR_A");
+
+        // Act
+        cache.onMessage(sessionID, FixTrafficListener.Direction.OUTBOUND, false,
+                report("ORD-1", null, OrdStatus.NEW, 0, 0));
+        cache.onMessage(other, FixTrafficListener.Direction.INBOUND, false,
+                report("ORD-2", null, OrdStatus.NEW, 0, 0));
+
+        // Assert
+        List<OrderStateCache.Summary> summaries = cache.summaries("INITIATOR1", null);
+        assertTrue(summaries.isEmpty());
+        assertEquals(1, cache.summaries(null, "ACCEPTOR_A").size());
+    }
+
+    private void receive(OrderStateCache cache, Message message) {
+        cache.onMessage(sessionID, FixTrafficListener.Direction.INBOUND, false, message);
+    }
+
+    private static Message report(String clOrdId, String origClOrdId, char status, double cumQty, double avgPx) {
+        Message message = new Message();
+        message.getHeader().setString(MsgType.FIELD, MsgType.EXECUTION_REPORT);
+        message.setString(ClOrdID.FIELD, clOrdId);
+        if (origClOrdId != null) {
+            message.setString(OrigClOrdID.FIELD, origClOrdId);
+        }
+        message.setChar(OrdStatus.FIELD, status);
+        message.setDouble(CumQty.FIELD, cumQty);
+        message.setDouble(AvgPx.FIELD, avgPx);
+        return message;
+    }
+
+    private static Message cancelReject(String clOrdId, String origClOrdId, char status) {
+        Message message = new Message();
+        message.getHeader().setString(MsgType.FIELD, MsgType.ORDER_CANCEL_REJECT);
+        message.setString(ClOrdID.FIELD, clOrdId);
+        message.setString(OrigClOrdID.FIELD, origClOrdId);
+        message.setChar(OrdStatus.FIELD, status);
+        return message;
+    }
+}
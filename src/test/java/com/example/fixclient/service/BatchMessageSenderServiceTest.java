@@ -2,7 +2,11 @@ package com.example.fixclient.service;
 
 import com.example.fixclient.exception.SessionLogonRequiredException;
 import com.example.fixclient.exception.SessionNotFoundException;
+import com.example.fixclient.metrics.FixMetrics;
+import com.example.fixclient.metrics.MessageTracer;
 import com.example.fixclient.model.MessageRequestDto;
+import com.example.fixclient.websocket.SessionMessaging;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,9 +18,11 @@ import quickfix.SessionID;
 import quickfix.SessionNotFound;
 
 import java.util.List;
+import java.util.function.IntConsumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
@@ -35,7 +41,8 @@ class BatchMessageSenderServiceTest {
     @BeforeEach
     void setUp() {
         mocks = MockitoAnnotations.openMocks(this);
-        service = new BatchMessageSenderService(sessionGateway, messagingTemplate);
+        service = new BatchMessageSenderService(sessionGateway, messagingTemplate,
+                new FixMetrics(new SimpleMeterRegistry()), new MessageTracer(16, 0));
     }
 
     @AfterEach
@@ -53,7 +60,7 @@ class BatchMessageSenderServiceTest {
         String rawMessage = "8=FIX.4.1|35=D|49=INITIATOR|56=ACCEPTOR|55=TEST|";
 
         when(sessionGateway.doesSessionExist(any(SessionID.class))).thenReturn(true);
-        when(sessionGateway.sendToTarget(any(Message.class), any(SessionID.class))).thenReturn(true);
+        when(sessionGateway.sendToTarget(any(Message.class), any(SessionID.class), isNull())).thenReturn(true);
 
         // Act
         boolean started = service.startSending(new MessageRequestDto(2, 50, senderCompId, List.of(rawMessage)), "ws-session-id");
@@ -62,16 +69,11 @@ class BatchMessageSenderServiceTest {
         assertTrue(started);
         assertTrue(service.isRunning());
 
-        // Wait for execution
         try {
-            Thread.sleep(100);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
-
-        try {
-            verify(sessionGateway, atLeast(2)).sendToTarget(any(Message.class), any(SessionID.class));
-            verify(messagingTemplate, atLeast(2)).convertAndSendToUser(eq("ws-session-id"), eq("/topic/progress"), any());
+            verify(sessionGateway, timeout(1000).atLeast(2))
+                    .sendToTarget(any(Message.class), any(SessionID.class), isNull());
+            verify(messagingTemplate, timeout(1000).atLeast(2)).convertAndSendToUser(eq("ws-session-id"),
+                    eq("/topic/progress"), any(), eq(SessionMessaging.headers("ws-session-id")));
         } catch (SessionNotFound e) {
             fail("Should not throw exception");
         }
@@ -110,7 +112,7 @@ class BatchMessageSenderServiceTest {
 
         try {
             verify(sessionGateway, atLeast(1)).sendToTarget(
-                    argThat(msg -> msg.toString().contains("10=")), any(SessionID.class)
+                    argThat(msg -> msg.toString().contains("10=")), any(SessionID.class), isNull()
             );
         } catch (SessionNotFound e) {
             fail(e);
@@ -123,12 +125,29 @@ class BatchMessageSenderServiceTest {
         String rawMessage = "8=FIX.4.1|35=D|49=INITIATOR|56=ACCEPTOR|55=TEST|";
 
         when(sessionGateway.doesSessionExist(any(SessionID.class))).thenReturn(true);
-        when(sessionGateway.sendToTarget(any(Message.class), any(SessionID.class))).thenReturn(true);
+        when(sessionGateway.sendToTarget(any(Message.class), any(SessionID.class), isNull())).thenReturn(true);
 
         service.sendOnce(new MessageRequestDto(1, 0, senderCompId, List.of(rawMessage)), "ws-session-id");
 
-        verify(sessionGateway, times(1)).sendToTarget(any(Message.class), any(SessionID.class));
-        verify(messagingTemplate, times(1)).convertAndSendToUser(eq("ws-session-id"), eq("/topic/progress"), any());
+        verify(sessionGateway, times(1)).sendToTarget(any(Message.class), any(SessionID.class), isNull());
+        verify(messagingTemplate, times(1)).convertAndSendToUser(eq("ws-session-id"), eq("/topic/progress"), any(),
+                eq(SessionMessaging.headers("ws-session-id")));
+    }
+
+    @Test
+    void testSendOnce_UrgentFlagSelectsUrgentLane() throws SessionNotFound {
+        String rawMessage = "8=FIX.4.1|35=D|49=INITIATOR|56=ACCEPTOR|55=TEST|";
+
+        when(sessionGateway.doesSessionExist(any(SessionID.class))).thenReturn(true);
+        when(sessionGateway.sendToTarget(any(Message.class), any(SessionID.class), eq(OutboundLane.URGENT)))
+                .thenReturn(true);
+
+        service.sendOnce(new MessageRequestDto(1, 0, "INITIATOR", List.of(rawMessage), null, null, true),
+                "ws-session-id");
+
+        verify(sessionGateway).sendToTarget(any(Message.class), any(SessionID.class), eq(OutboundLane.URGENT));
+        verify(messagingTemplate).convertAndSendToUser(eq("ws-session-id"), eq("/topic/progress"), any(),
+                eq(SessionMessaging.headers("ws-session-id")));
     }
 
     @Test
@@ -138,11 +157,49 @@ class BatchMessageSenderServiceTest {
         String rawMessage2 = "8=FIX.4.1|35=D|49=INITIATOR|56=ACCEPTOR|55=MSG2|";
 
         when(sessionGateway.doesSessionExist(any(SessionID.class))).thenReturn(true);
-        when(sessionGateway.sendToTarget(any(Message.class), any(SessionID.class))).thenReturn(true);
+        when(sessionGateway.sendBurst(anyList(), any(SessionID.class), isNull(), any(IntConsumer.class)))
+                .thenReturn(new boolean[]{true, true});
 
         service.sendOnce(new MessageRequestDto(1, 0, senderCompId, List.of(rawMessage1, rawMessage2)), "ws-session-id");
 
-        verify(sessionGateway, times(2)).sendToTarget(any(Message.class), any(SessionID.class));
+        verify(sessionGateway, times(1)).sendBurst(argThat(basket -> basket.size() == 2),
+                eq(new SessionID("FIX.4.1", senderCompId, "ACCEPTOR")), isNull(), any(IntConsumer.class));
+        verify(sessionGateway, never()).sendToTarget(any(Message.class), any(SessionID.class), isNull());
+        verify(messagingTemplate, times(2)).convertAndSendToUser(eq("ws-session-id"), eq("/topic/progress"), any(),
+                eq(SessionMessaging.headers("ws-session-id")));
+    }
+
+    @Test
+    void testSendOnce_SplitsBasketBySession() throws SessionNotFound {
+        String rawMessage1 = "8=FIX.4.1|35=D|49=INITIATOR|56=ACCEPTOR_A|55=MSG1|";
+        String rawMessage2 = "8=FIX.4.1|35=D|49=INITIATOR|56=ACCEPTOR_A|55=MSG2|";
+        String rawMessage3 = "8=FIX.4.1|35=D|49=INITIATOR|56=ACCEPTOR_B|55=MSG3|";
+
+        when(sessionGateway.doesSessionExist(any(SessionID.class))).thenReturn(true);
+        when(sessionGateway.sendBurst(anyList(), any(SessionID.class), isNull(), any(IntConsumer.class)))
+                .thenReturn(new boolean[]{true, true});
+        when(sessionGateway.sendToTarget(any(Message.class), any(SessionID.class), isNull())).thenReturn(true);
+
+        service.sendOnce(new MessageRequestDto(1, 0, "INITIATOR", List.of(rawMessage1, rawMessage2, rawMessage3)),
+                "ws-session-id");
+
+        verify(sessionGateway).sendBurst(argThat(basket -> basket.size() == 2),
+                eq(new SessionID("FIX.4.1", "INITIATOR", "ACCEPTOR_A")), isNull(), any(IntConsumer.class));
+        verify(sessionGateway).sendToTarget(any(Message.class), eq(new SessionID("FIX.4.1", "INITIATOR", "ACCEPTOR_B")), isNull());
+    }
+
+    @Test
+    void testSendOnce_BurstFailureThrowsSessionLogonRequired() throws SessionNotFound {
+        String rawMessage = "8=FIX.4.1|35=D|49=INITIATOR|56=ACCEPTOR|55=TEST|";
+
+        when(sessionGateway.doesSessionExist(any(SessionID.class))).thenReturn(true);
+        when(sessionGateway.sendBurst(anyList(), any(SessionID.class), isNull(), any(IntConsumer.class)))
+                .thenReturn(new boolean[]{false, false});
+
+        assertThrows(SessionLogonRequiredException.class, () ->
+                service.sendOnce(new MessageRequestDto(1, 0, "INITIATOR", List.of(rawMessage, rawMessage)),
+                        "ws-session-id")
+        );
     }
 
     @Test
@@ -157,13 +214,52 @@ class BatchMessageSenderServiceTest {
         );
     }
 
+    @Test
+    void testSendOnce_SendsValidatedMessagesBeforeThrowing() throws SessionNotFound {
+        String valid = "8=FIX.4.1|35=D|49=INITIATOR|56=ACCEPTOR|55=MSG1|";
+        String unknownSession = "8=FIX.4.1|35=D|49=INITIATOR|56=UNKNOWN|55=MSG2|";
+        String notSent = "8=FIX.4.1|35=D|49=INITIATOR|56=ACCEPTOR|55=MSG3|";
+
+        when(sessionGateway.doesSessionExist(new SessionID("FIX.4.1", "INITIATOR", "ACCEPTOR"))).thenReturn(true);
+        when(sessionGateway.sendBurst(anyList(), any(SessionID.class), isNull(), any(IntConsumer.class)))
+                .thenReturn(new boolean[]{true, true});
+
+        assertThrows(SessionNotFoundException.class, () ->
+                service.sendOnce(new MessageRequestDto(1, 0, "INITIATOR", List.of(valid, valid, unknownSession,
+                        notSent)), "ws-session-id")
+        );
+
+        verify(sessionGateway).sendBurst(argThat(basket -> basket.size() == 2),
+                eq(new SessionID("FIX.4.1", "INITIATOR", "ACCEPTOR")), isNull(), any(IntConsumer.class));
+        verify(sessionGateway, never()).sendToTarget(any(Message.class), any(SessionID.class), isNull());
+    }
+
+    @Test
+    void testSendChunk_SkippedMessagesClaimNoTraceSlot() throws SessionNotFound {
+        MessageTracer tracer = new MessageTracer(16, 1);
+        BatchMessageSenderService tracing = new BatchMessageSenderService(sessionGateway, messagingTemplate,
+                new FixMetrics(new SimpleMeterRegistry()), tracer);
+        String valid = "8=FIX.4.1|35=D|49=INITIATOR|56=ACCEPTOR|55=MSG1|";
+        String unknownSession = "8=FIX.4.1|35=D|49=INITIATOR|56=UNKNOWN|55=MSG2|";
+        String noTarget = "8=FIX.4.1|35=D|49=INITIATOR|55=MSG3|";
+
+        when(sessionGateway.doesSessionExist(new SessionID("FIX.4.1", "INITIATOR", "ACCEPTOR"))).thenReturn(true);
+        when(sessionGateway.sendToTarget(any(Message.class), any(SessionID.class), isNull())).thenReturn(true);
+
+        int sent = tracing.sendChunk(new MessageRequestDto(1, 0, "INITIATOR", List.of(unknownSession, noTarget,
+                valid)), null);
+
+        assertEquals(1, sent);
+        assertEquals(1, tracer.summary().sampled());
+    }
+
     @Test
     void testSendOnce_ThrowsSessionLogonRequired() throws SessionNotFound {
         String senderCompId = "INITIATOR";
         String rawMessage = "8=FIX.4.1|35=D|49=INITIATOR|56=ACCEPTOR|55=TEST|";
 
         when(sessionGateway.doesSessionExist(any(SessionID.class))).thenReturn(true);
-        when(sessionGateway.sendToTarget(any(Message.class), any(SessionID.class))).thenReturn(false);
+        when(sessionGateway.sendToTarget(any(Message.class), any(SessionID.class), isNull())).thenReturn(false);
 
         assertThrows(SessionLogonRequiredException.class, () ->
                 service.sendOnce(new MessageRequestDto(1, 0, senderCompId, List.of(rawMessage)), "ws-session-id")
@@ -0,0 +1,129 @@
+package com.example.fixclient.service;
+
+import com.example.fixclient.metrics.FixMetrics;
+import com.example.fixclient.model.OverrunPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchSchedulerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final FixMetrics metrics = new FixMetrics(registry);
+    private BatchScheduler scheduler;
+
+    @AfterEach
+    void tearDown() {
+        if (scheduler != null) {
+            scheduler.stop();
+        }
+    }
+
+    @Test
+    void subMillisecondPeriod_KeepsTheIntendedRate() throws Exception {
+        // Arrange
+        scheduler = new BatchScheduler("CLIENT", TimeUnit.MICROSECONDS.toNanos(200), OverrunPolicy.CATCH_UP,
+                () -> {
+                }, metrics);
+
+        // Act
+        scheduler.start();
+        awaitIterations(500);
+        scheduler.stop();
+        assertTrue(scheduler.awaitTermination(1, TimeUnit.SECONDS));
+        BatchScheduler.Stats stats = scheduler.stats();
+
+        // Assert
+        assertEquals(5000.0, stats.intendedRate(), 0.001);
+        assertEquals(5000.0, stats.achievedRate(), 500.0);
+        assertEquals(0, stats.skipped());
+        assertFalse(stats.running());
+    }
+
+    @Test
+    void skipPolicy_DropsMissedSlotsAndKeepsTheTimeline() throws Exception {
+        // Arrange
+        scheduler = new BatchScheduler("CLIENT", TimeUnit.MILLISECONDS.toNanos(1), OverrunPolicy.SKIP,
+                () -> sleepMillis(3), metrics);
+
+        // Act
+        scheduler.start();
+        awaitIterations(5);
+        scheduler.stop();
+        assertTrue(scheduler.awaitTermination(1, TimeUnit.SECONDS));
+        BatchScheduler.Stats stats = scheduler.stats();
+
+        // Assert
+        assertTrue(stats.overruns() >= 4, "overruns " + stats.overruns());
+        assertTrue(stats.skipped() >= 2 * stats.overruns(), "skipped " + stats.skipped());
+        assertTrue(stats.driftMicros() < 1000, "drift " + stats.driftMicros());
+        assertEquals(stats.skipped(), registry.get("fix.batch.skipped").counter().count(), 0.001);
+    }
+
+    @Test
+    void stretchPolicy_AccumulatesDrift() throws Exception {
+        // Arrange
+        scheduler = new BatchScheduler("CLIENT", TimeUnit.MILLISECONDS.toNanos(1), OverrunPolicy.STRETCH,
+                () -> sleepMillis(2), metrics);
+
+        // Act
+        scheduler.start();
+        awaitIterations(5);
+        scheduler.stop();
+        assertTrue(scheduler.awaitTermination(1, TimeUnit.SECONDS));
+        BatchScheduler.Stats stats = scheduler.stats();
+
+        // Assert
+        assertTrue(stats.overruns() >= 4, "overruns " + stats.overruns());
+        assertEquals(0, stats.skipped());
+        assertTrue(stats.driftMicros() >= 4000, "drift " + stats.driftMicros());
+        assertEquals(stats.overruns(), registry.get("fix.batch.overruns").counter().count(), 0.001);
+    }
+
+    @Test
+    void catchUpPolicy_RunsMissedIterationsBackToBack() throws Exception {
+        // Arrange
+        AtomicInteger runs = new AtomicInteger();
+        scheduler = new BatchScheduler("CLIENT", TimeUnit.MILLISECONDS.toNanos(2), OverrunPolicy.CATCH_UP,
+                () -> {
+                    if (runs.incrementAndGet() == 1) {
+                        sleepMillis(20);
+                    }
+                }, metrics);
+
+        // Act
+        scheduler.start();
+        awaitIterations(20);
+        scheduler.stop();
+        assertTrue(scheduler.awaitTermination(1, TimeUnit.SECONDS));
+        BatchScheduler.Stats stats = scheduler.stats();
+
+        // Assert
+        assertTrue(stats.overruns() >= 1, "overruns " + stats.overruns());
+        assertEquals(0, stats.skipped());
+        // Back on the original timeline once the missed slots were run
+        assertTrue(stats.driftMicros() < 2000, "drift " + stats.driftMicros());
+        assertEquals(500.0, stats.achievedRate(), 50.0);
+    }
+
+    private void awaitIterations(long iterations) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (scheduler.stats().iterations() < iterations) {
+            assertTrue(System.nanoTime() < deadline, "timed out waiting for " + iterations + " iterations");
+            Thread.sleep(1);
+        }
+    }
+
+    private static void sleepMillis(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
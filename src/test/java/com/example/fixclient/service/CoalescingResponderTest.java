@@ -0,0 +1,78 @@
+package com.example.fixclient.service;
+
+import org.junit.jupiter.api.Test;
+import quickfix.Responder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoalescingResponderTest {
+
+    private final List<String> writes = new ArrayList<>();
+    private final Responder transport = new Responder() {
+        @Override
+        public boolean send(String data) {
+            writes.add(data);
+            return true;
+        }
+
+        @Override
+        public void disconnect() {
+        }
+
+        @Override
+        public String getRemoteAddress() {
+            return "127.0.0.1";
+        }
+    };
+
+    @Test
+    void burst_IsWrittenOnceAtTheEnd() {
+        // Arrange
+        CoalescingResponder responder = new CoalescingResponder(transport);
+
+        // Act
+        responder.beginBurst();
+        responder.send("A");
+        responder.send("B");
+        responder.send("C");
+        List<String> beforeEnd = List.copyOf(writes);
+        boolean written = responder.endBurst();
+
+        // Assert
+        assertTrue(beforeEnd.isEmpty());
+        assertTrue(written);
+        assertEquals(List.of("ABC"), writes);
+    }
+
+    @Test
+    void sendFromAnotherThread_FlushesTheBurstFirst() throws Exception {
+        // Arrange
+        CoalescingResponder responder = new CoalescingResponder(transport);
+        responder.beginBurst();
+        responder.send("1");
+        responder.send("2");
+
+        // Act
+        Thread heartbeat = new Thread(() -> responder.send("HB"));
+        heartbeat.start();
+        heartbeat.join();
+        responder.send("3");
+        responder.endBurst();
+
+        // Assert
+        assertEquals(List.of("12", "HB", "3"), writes);
+    }
+
+    @Test
+    void sendOutsideBurst_IsWrittenImmediately() {
+        CoalescingResponder responder = new CoalescingResponder(transport);
+
+        responder.send("A");
+        assertTrue(responder.endBurst());
+
+        assertEquals(List.of("A"), writes);
+    }
+}
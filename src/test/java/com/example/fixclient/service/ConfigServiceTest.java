@@ -1,9 +1,15 @@
 package com.example.fixclient.service;
 
+import com.example.fixclient.config.ConfigSnapshot;
 import com.example.fixclient.config.EnvironmentConfig;
+import com.example.fixclient.exception.ConfigurationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -70,4 +76,83 @@ class ConfigServiceTest {
         // Invalid if env unknown
         assertFalse(configService.isValid("unknown", "TARGET", "INITIATOR1"));
     }
+
+    @Test
+    void testFindPassword() {
+        assertEquals("pass1", configService.findPassword("INITIATOR1"));
+        assertEquals("pass2", configService.findPassword("DISALBED_INIT"));
+        assertNull(configService.findPassword("UNKNOWN_INIT"));
+    }
+
+    @Test
+    void testReload_SwapsSnapshot(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("configuration.json");
+        Files.writeString(file, configJson(9876, "pass1"));
+        ConfigService service = new ConfigService(file);
+        service.loadConfig();
+        ConfigSnapshot before = service.getSnapshot();
+
+        Files.writeString(file, configJson(9877, "changed"));
+        service.reload();
+
+        assertEquals(9877, service.getPort("ENV1"));
+        assertEquals("changed", service.findPassword("INITIATOR1"));
+        assertEquals(9876, before.environment("ENV1").connection().port());
+        service.stopWatching();
+    }
+
+    @Test
+    void testReload_KeepsPreviousSnapshotOnInvalidFile(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("configuration.json");
+        Files.writeString(file, configJson(9876, "pass1"));
+        ConfigService service = new ConfigService(file);
+        service.loadConfig();
+
+        Files.writeString(file, "{ not json");
+        service.reload();
+
+        assertEquals(9876, service.getPort("ENV1"));
+        assertEquals("pass1", service.getPassword("ENV1", "INITIATOR1"));
+        service.stopWatching();
+    }
+
+    @Test
+    void testReload_KeepsPreviousSnapshotOnInvalidEntries(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("configuration.json");
+        Files.writeString(file, configJson(9876, "pass1"));
+        ConfigService service = new ConfigService(file);
+        service.loadConfig();
+
+        for (String invalid : List.of("{ \"ENV1\": null }", "{ \"ENV1\": { \"initiators\": [ null ] } }",
+                "{ \"ENV1\": { \"initiators\": [ { \"keystorePassword\": \"x\" } ] } }")) {
+            Files.writeString(file, invalid);
+            service.reload();
+        }
+
+        assertEquals(9876, service.getPort("ENV1"));
+        assertEquals("pass1", service.getPassword("ENV1", "INITIATOR1"));
+        service.stopWatching();
+    }
+
+    @Test
+    void testLoadConfig_RejectsInitiatorWithoutSender(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("configuration.json");
+        Files.writeString(file, "{ \"ENV1\": { \"initiators\": [ { \"keystorePassword\": \"x\" } ] } }");
+        ConfigService service = new ConfigService(file);
+
+        ConfigurationException e = assertThrows(ConfigurationException.class, service::loadConfig);
+
+        assertTrue(e.getMessage().contains("ENV1 has an initiator without senderCompId"), e.getMessage());
+    }
+
+    private static String configJson(int port, String password) {
+        return """
+                {
+                  "ENV1": {
+                    "connection": { "address": "127.0.0.1", "port": %d },
+                    "initiators": [ { "senderCompId": "INITIATOR1", "keystorePassword": "%s" } ]
+                  }
+                }
+                """.formatted(port, password);
+    }
 }
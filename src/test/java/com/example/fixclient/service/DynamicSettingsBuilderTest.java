@@ -10,6 +10,7 @@ import quickfix.SessionID;
 import quickfix.SessionSettings;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -56,4 +57,18 @@ class DynamicSettingsBuilderTest {
         assertEquals("9876", settings.getString(sessionID, "SocketConnectPort"));
 
     }
+
+    @Test
+    void buildSettings_ReturnsIndependentCopiesOfTemplate() throws Exception {
+        // Act
+        SessionSettings first = builder.buildSettings("SENDER_A", "TARGET", "DEV");
+        first.setString("HeartBtInt", "10");
+        SessionSettings second = builder.buildSettings("SENDER_B", "TARGET", "DEV");
+
+        // Assert
+        SessionID secondId = new SessionID("FIX.4.1", "SENDER_B", "TARGET");
+        assertEquals("90", second.getString(secondId, "HeartBtInt"));
+        assertEquals("FIX41.xml", second.getString(secondId, "DataDictionary"));
+        assertFalse(second.isSetting(new SessionID("FIX.4.1", "SENDER_A", "TARGET"), "SenderCompID"));
+    }
 }
@@ -0,0 +1,148 @@
+package com.example.fixclient.service;
+
+import com.example.fixclient.config.SimulatorConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import quickfix.Application;
+import quickfix.Message;
+import quickfix.Session;
+import quickfix.SessionID;
+import quickfix.field.ClOrdID;
+import quickfix.field.CumQty;
+import quickfix.field.ExecType;
+import quickfix.field.MsgType;
+import quickfix.field.OrderQty;
+import quickfix.field.Symbol;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ExchangeSimulatorTest {
+
+    @Mock
+    private FixSessionGateway sessionGateway;
+
+    private AutoCloseable mocks;
+    private ExchangeSimulator simulator;
+    private final SessionID sessionID = new SessionID("FIX.4.1", "ACCEPTOR_A", "INITIATOR1");
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mocks = MockitoAnnotations.openMocks(this);
+        when(sessionGateway.sendToTarget(any(Message.class), any(SessionID.class))).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        simulator.shutdown();
+        mocks.close();
+    }
+
+    @Test
+    void testFromApp_PartialFillModel_SendsAckPartialsAndFill() throws Exception {
+        // Arrange
+        simulator = new ExchangeSimulator(config(SimulatorConfig.FillModel.PARTIAL_FILL), sessionGateway);
+
+        // Act
+        simulator.fromApp(newOrder("ORD-1", 300), sessionID);
+
+        // Assert
+        ArgumentCaptor<Message> reports = ArgumentCaptor.forClass(Message.class);
+        verify(sessionGateway, timeout(2000).times(4)).sendToTarget(reports.capture(), eq(sessionID));
+        List<Message> sent = reports.getAllValues();
+        assertEquals(ExecType.NEW, sent.get(0).getChar(ExecType.FIELD));
+        assertEquals(ExecType.PARTIAL_FILL, sent.get(1).getChar(ExecType.FIELD));
+        assertEquals(ExecType.PARTIAL_FILL, sent.get(2).getChar(ExecType.FIELD));
+        assertEquals(ExecType.FILL, sent.get(3).getChar(ExecType.FIELD));
+        assertEquals(300, sent.get(3).getDouble(CumQty.FIELD), 0.0001);
+        sent.forEach(m -> assertTrue(m.toString().contains("11=ORD-1")));
+
+        ExchangeSimulator.Counters counters = simulator.getCounters();
+        assertEquals(1, counters.ordersReceived());
+        assertEquals(1, counters.acks());
+        assertEquals(2, counters.partialFills());
+        assertEquals(1, counters.fills());
+    }
+
+    @Test
+    void testFromApp_RejectModel_SendsSingleReject() throws Exception {
+        // Arrange
+        simulator = new ExchangeSimulator(config(SimulatorConfig.FillModel.REJECT), sessionGateway);
+
+        // Act
+        simulator.fromApp(newOrder("ORD-2", 100), sessionID);
+
+        // Assert
+        ArgumentCaptor<Message> reports = ArgumentCaptor.forClass(Message.class);
+        verify(sessionGateway, timeout(2000)).sendToTarget(reports.capture(), eq(sessionID));
+        assertEquals(ExecType.REJECTED, reports.getValue().getChar(ExecType.FIELD));
+        assertEquals(1, simulator.getCounters().rejects());
+    }
+
+    @Test
+    void testFromApp_IgnoresNonOrderMessages() throws Exception {
+        // Arrange
+        simulator = new ExchangeSimulator(config(SimulatorConfig.FillModel.FULL_FILL), sessionGateway);
+        Message message = new Message();
+        message.getHeader().setString(MsgType.FIELD, MsgType.ORDER_CANCEL_REQUEST);
+
+        // Act
+        simulator.fromApp(message, sessionID);
+
+        // Assert
+        verify(sessionGateway, after(200).never()).sendToTarget(any(Message.class), any(SessionID.class));
+        assertEquals(0, simulator.getCounters().ordersReceived());
+    }
+
+    @Test
+    void testForAcceptor_AnswersOnReceivingSession() throws Exception {
+        // Arrange
+        simulator = new ExchangeSimulator(config(SimulatorConfig.FillModel.ACK_ONLY), sessionGateway);
+        Session session = mock(Session.class);
+        when(session.send(any(Message.class))).thenReturn(true);
+        Application acceptorApplication = simulator.forAcceptor(id -> sessionID.equals(id) ? session : null);
+
+        // Act
+        acceptorApplication.fromApp(newOrder("ORD-3", 100), sessionID);
+
+        // Assert
+        ArgumentCaptor<Message> reports = ArgumentCaptor.forClass(Message.class);
+        verify(session, timeout(2000)).send(reports.capture());
+        assertEquals(ExecType.NEW, reports.getValue().getChar(ExecType.FIELD));
+        verify(sessionGateway, never()).sendToTarget(any(Message.class), any(SessionID.class));
+    }
+
+    @Test
+    void testSampleLatency_StaysWithinBounds() {
+        simulator = new ExchangeSimulator(new SimulatorConfig(null, null, null, null,
+                SimulatorConfig.LatencyDistribution.EXPONENTIAL, 500L, 2000L, 1, null), sessionGateway);
+
+        for (int i = 0; i < 1000; i++) {
+            long sample = simulator.sampleLatencyMicros();
+            assertTrue(sample >= 0 && sample <= 2000);
+        }
+    }
+
+    private static SimulatorConfig config(SimulatorConfig.FillModel model) {
+        return new SimulatorConfig(model, 2, null, null, SimulatorConfig.LatencyDistribution.FIXED, 0L, null, 1,
+                null);
+    }
+
+    private static Message newOrder(String clOrdId, double qty) {
+        Message message = new Message();
+        message.getHeader().setString(MsgType.FIELD, MsgType.ORDER_SINGLE);
+        message.setString(ClOrdID.FIELD, clOrdId);
+        message.setString(Symbol.FIELD, "TEST");
+        message.setDouble(OrderQty.FIELD, qty);
+        return message;
+    }
+}
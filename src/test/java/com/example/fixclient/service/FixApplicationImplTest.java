@@ -1,22 +1,30 @@
 package com.example.fixclient.service;
 
+import com.example.fixclient.metrics.FixMetrics;
+import com.example.fixclient.metrics.MessageTracer;
 import com.example.fixclient.model.SessionStatus;
+import com.example.fixclient.websocket.SessionMessaging;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.mock.env.MockEnvironment;
 import quickfix.FieldNotFound;
 import quickfix.Message;
 import quickfix.SessionID;
 import quickfix.field.MsgType;
+import quickfix.field.PossDupFlag;
 import quickfix.field.Text;
 import quickfix.Session;
 
 import java.io.IOException;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -37,7 +45,9 @@ class FixApplicationImplTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        fixApplication = new FixApplicationImpl(certificateService, messagingTemplate);
+        fixApplication = new FixApplicationImpl(certificateService, messagingTemplate,
+                new FixMetrics(new SimpleMeterRegistry()), new MessageTracer(16, 0), List.of(),
+                new WorkerThreads(new MockEnvironment()));
         fixApplication.setSessionManager(sessionManager);
         sessionID = new SessionID("FIX.4.1", "INITIATOR", "ACCEPTOR");
     }
@@ -185,6 +195,23 @@ class FixApplicationImplTest {
         verify(certificateService).signMessage(message);
     }
 
+    @Test
+    void testToApp_DoesNotResign_WhenResendingSignedMessage() throws FieldNotFound {
+        // Arrange
+        Message message = new Message();
+        message.getHeader().setBoolean(PossDupFlag.FIELD, true);
+        message.setString(9481, "original-timestamp");
+        message.setString(9489, "originalSignature");
+
+        // Act
+        fixApplication.toApp(message, sessionID);
+
+        // Assert
+        assertEquals("original-timestamp", message.getString(9481));
+        assertEquals("originalSignature", message.getString(9489));
+        verify(certificateService, never()).signMessage(any());
+    }
+
     @Test
     void testFromAdmin_HandlesSeqNumMismatch() throws FieldNotFound, IOException {
         // Arrange
@@ -237,4 +264,19 @@ class FixApplicationImplTest {
         // verify sessionManager.stopSessionByIds was NOT called
         verify(sessionManager, never()).stopSessionByIds(anyString(), anyString());
     }
+
+    @Test
+    void testFromApp_ForwardsToOwningWebSocketSession() {
+        // Arrange
+        Message message = new Message();
+        message.getHeader().setString(MsgType.FIELD, MsgType.EXECUTION_REPORT);
+        when(sessionManager.getOwner(sessionID)).thenReturn("ws-1");
+
+        // Act
+        fixApplication.fromApp(message, sessionID);
+
+        // Assert
+        verify(messagingTemplate).convertAndSendToUser("ws-1", "/topic/fixMessages", message.toString(),
+                SessionMessaging.headers("ws-1"));
+    }
 }
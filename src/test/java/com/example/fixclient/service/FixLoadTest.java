@@ -0,0 +1,655 @@
+package com.example.fixclient.service;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.example.fixclient.config.EnvironmentConfig;
+import com.example.fixclient.config.SimulatorConfig;
+import com.example.fixclient.journal.AuditJournal;
+import com.example.fixclient.journal.JournalLogFactory;
+import com.example.fixclient.metrics.FixMetrics;
+import com.example.fixclient.metrics.MessageTracer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.task.SimpleAsyncTaskExecutorBuilder;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import quickfix.Application;
+import quickfix.DefaultMessageFactory;
+import quickfix.FieldNotFound;
+import quickfix.FileStoreFactory;
+import quickfix.Message;
+import quickfix.Session;
+import quickfix.SessionID;
+import quickfix.SessionSettings;
+import quickfix.SocketAcceptor;
+import quickfix.SocketInitiator;
+import quickfix.field.ClOrdID;
+import quickfix.field.HandlInst;
+import quickfix.field.MsgType;
+import quickfix.field.OrdType;
+import quickfix.field.OrderQty;
+import quickfix.field.OrigClOrdID;
+import quickfix.field.Price;
+import quickfix.field.Side;
+import quickfix.field.Symbol;
+import quickfix.fix41.NewOrderSingle;
+import quickfix.fix41.OrderCancelRequest;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * End-to-end load test: the production initiator stack (FixApplicationImpl,
+ * CertificateService signing, ResendWindowStore over FileStore, journal logging)
+ * against the exchange simulator over loopback TLS with the {@code certs/} fixtures.
+ * <p>
+ * Only runs with {@code mvn -Ploadtest test}. Scenarios and thresholds come from
+ * the {@code loadtest.*} system properties set by that profile. Latency is measured
+ * from each order's intended send time to its acknowledgement, so a stalled sender
+ * shows up as latency rather than being hidden.
+ */
+class FixLoadTest {
+
+    private static final String ENV = "LOAD";
+    private static final String ACCEPTOR = "ACCEPTOR_A";
+    private static final List<String> SENDERS = List.of("INITIATOR1", "INITIATOR2");
+    private static final long WARMUP_SECONDS = 3;
+
+    @TempDir
+    static Path workDir;
+
+    private static AuditJournal journal;
+    private static ExchangeSimulator simulator;
+    private static SocketAcceptor acceptor;
+    private static FixSessionGateway gateway;
+    private static AckRecorder recorder;
+    private static DynamicSettingsBuilder settingsBuilder;
+    private static final List<SocketInitiator> initiators = new ArrayList<>();
+    private static final List<SessionID> sessions = new ArrayList<>();
+
+    @BeforeAll
+    static void startStack() throws Exception {
+        Logger root = (Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.toLevel(System.getProperty("loadtest.logLevel"), Level.WARN));
+
+        int port = freePort();
+        List<EnvironmentConfig.InitiatorConfig> initiatorConfigs = SENDERS.stream()
+                .map(sender -> new EnvironmentConfig.InitiatorConfig(sender, "password", true))
+                .toList();
+        ConfigService configService = new ConfigService(Map.of(ENV, new EnvironmentConfig(
+                new EnvironmentConfig.ConnectionConfig("127.0.0.1", port), initiatorConfigs)));
+        FixMetrics metrics = new FixMetrics(new SimpleMeterRegistry());
+
+        journal = new AuditJournal(workDir.resolve("journal"), 8 * 1024 * 1024, 64 * 1024 * 1024);
+        journal.start();
+        gateway = new FixSessionGateway(metrics, new String[]{"F", "G", "q", "1"});
+        simulator = new ExchangeSimulator(new SimulatorConfig(SimulatorConfig.FillModel.ACK_ONLY, null, null, null,
+                SimulatorConfig.LatencyDistribution.FIXED, 0L, null, 2, null), gateway);
+
+        SessionSettings acceptorSettings = new TestAcceptorService(journal, simulator, configService, "lazy",
+                ACCEPTOR, "certs/INITIATOR1.p12", "password").buildSettings(port);
+        acceptorSettings.setString("FileStorePath", workDir.resolve("acceptor").toString());
+        acceptor = new SocketAcceptor(simulator, new FileStoreFactory(acceptorSettings), acceptorSettings,
+                new JournalLogFactory(journal), new DefaultMessageFactory());
+        acceptor.start();
+
+        FixApplicationImpl application = new FixApplicationImpl(new CertificateService(configService, metrics),
+                mock(SimpMessageSendingOperations.class), metrics, new MessageTracer(16, 0), List.of(),
+                new WorkerThreads(new MockEnvironment()));
+        recorder = new AckRecorder(application);
+        settingsBuilder = new DynamicSettingsBuilder(configService);
+        for (String sender : SENDERS) {
+            SessionSettings settings = settingsBuilder.buildSettings(sender, ACCEPTOR, ENV);
+            settings.setString("FileStorePath", workDir.resolve("initiator").toString());
+            settings.setString("ResetOnLogon", "Y");
+            SocketInitiator initiator = new SocketInitiator(recorder,
+                    new ResendWindowStoreFactory(new FileStoreFactory(settings), settings, metrics), settings,
+                    new JournalLogFactory(journal), new DefaultMessageFactory());
+            initiator.start();
+            SessionID sessionID = new SessionID("FIX.4.1", sender, ACCEPTOR);
+            gateway.enableBurstWrites(sessionID);
+            initiators.add(initiator);
+            sessions.add(sessionID);
+        }
+        awaitLogon();
+    }
+
+    @AfterAll
+    static void stopStack() {
+        initiators.forEach(initiator -> initiator.stop(true));
+        if (acceptor != null) {
+            acceptor.stop(true);
+        }
+        if (simulator != null) {
+            simulator.shutdown();
+        }
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    @Test
+    void sustainedTraffic_MeetsThresholds() throws Exception {
+        int[] rates = intList("loadtest.rates", "1000,5000");
+        int[] sessionCounts = intList("loadtest.sessions", "1,2");
+        long seconds = Long.getLong("loadtest.seconds", 10);
+        double minThroughputRatio = Double.parseDouble(System.getProperty("loadtest.minThroughputRatio", "0.95"));
+        double maxP99Micros = Double.parseDouble(System.getProperty("loadtest.maxP99Micros", "20000"));
+        long maxAllocPerMessage = Long.getLong("loadtest.maxAllocBytesPerMessage", 262144);
+
+        // Let the JIT settle before anything is measured
+        run(rates[0], sessions.size(), WARMUP_SECONDS);
+
+        List<String> report = new ArrayList<>();
+        List<String> failures = new ArrayList<>();
+        report.add(String.format("%-8s %-9s %10s %10s %10s %10s %10s %8s %12s", "target", "sessions", "msg/s",
+                "p50(us)", "p99(us)", "p999(us)", "max(us)", "gc(ms)", "alloc/msg"));
+        for (int rate : rates) {
+            for (int sessionCount : sessionCounts) {
+                Result result = run(rate, Math.min(sessionCount, sessions.size()), seconds);
+                report.add(result.format());
+                if (result.achievedRate < rate * minThroughputRatio) {
+                    failures.add(result.label() + " throughput " + Math.round(result.achievedRate) + " < "
+                            + Math.round(rate * minThroughputRatio));
+                }
+                if (result.p99Micros > maxP99Micros) {
+                    failures.add(result.label() + " p99 " + result.p99Micros + "us > " + maxP99Micros + "us");
+                }
+                if (result.allocPerMessage > maxAllocPerMessage) {
+                    failures.add(result.label() + " allocation " + result.allocPerMessage + " B/msg > "
+                            + maxAllocPerMessage);
+                }
+            }
+        }
+
+        String text = String.join(System.lineSeparator(), report);
+        System.out.println(System.lineSeparator() + text);
+        String reportPath = System.getProperty("loadtest.report");
+        if (reportPath != null) {
+            Files.writeString(Path.of(reportPath), text + System.lineSeparator());
+        }
+        assertTrue(failures.isEmpty(), "Load test regressions:" + System.lineSeparator()
+                + String.join(System.lineSeparator(), failures));
+    }
+
+    /**
+     * Sends baskets of orders to one session, message by message and as a burst,
+     * and reports the latency from the basket's intended send time to the
+     * acknowledgement of its last order.
+     */
+    @Test
+    void basketSend_BurstVersusPerMessage() throws Exception {
+        int[] basketSizes = intList("loadtest.baskets", "10,50");
+        int baskets = Integer.getInteger("loadtest.basketCount", 400);
+        long intervalNanos = TimeUnit.MICROSECONDS.toNanos(Long.getLong("loadtest.basketIntervalMicros", 5000));
+        SessionID sessionID = sessions.get(0);
+        boolean coalesced = Session.lookupSession(sessionID).getResponder() instanceof CoalescingResponder;
+
+        // Warm both paths before measuring
+        runBaskets(sessionID, basketSizes[0], baskets / 4, intervalNanos, false);
+        runBaskets(sessionID, basketSizes[0], baskets / 4, intervalNanos, true);
+
+        List<String> report = new ArrayList<>();
+        report.add("Basket send, last-order ack latency (coalesced writes: " + coalesced + ")");
+        report.add(String.format("%-8s %-12s %10s %10s %10s %10s", "basket", "mode", "p50(us)", "p99(us)",
+                "max(us)", "acked"));
+        for (int size : basketSizes) {
+            for (boolean burst : new boolean[]{false, true}) {
+                Scenario scenario = runBaskets(sessionID, size, baskets, intervalNanos, burst);
+                long[] lastOrder = new long[baskets];
+                for (int b = 0; b < baskets; b++) {
+                    lastOrder[b] = scenario.latencies[b * size + size - 1];
+                }
+                long[] sorted = Arrays.stream(lastOrder).filter(latency -> latency >= 0).sorted().toArray();
+                report.add(String.format("%-8d %-12s %10.1f %10.1f %10.1f %10d", size,
+                        burst ? "burst" : "per-message", micros(sorted, 0.50), micros(sorted, 0.99),
+                        sorted.length > 0 ? sorted[sorted.length - 1] / 1000.0 : Double.NaN, scenario.acked.get()));
+                assertTrue(scenario.acked.get() == scenario.size, "Not all basket orders were acknowledged");
+            }
+        }
+
+        String text = String.join(System.lineSeparator(), report);
+        System.out.println(System.lineSeparator() + text);
+        String reportPath = System.getProperty("loadtest.basketReport");
+        if (reportPath != null) {
+            Files.writeString(Path.of(reportPath), text + System.lineSeparator());
+        }
+    }
+
+    /**
+     * Sends cancels at a fixed pace while another thread keeps the session busy
+     * with order baskets, once with the cancels forced into the bulk lane and once
+     * in the urgent lane. Reports the time from each cancel's intended send time
+     * until it was handed to the connection.
+     */
+    @Test
+    void cancelUnderBulkLoad_UrgentLaneOvertakesBaskets() throws Exception {
+        int basketSize = Integer.getInteger("loadtest.cancelBulkBasket", 100);
+        long basketIntervalNanos = TimeUnit.MICROSECONDS.toNanos(Long.getLong("loadtest.cancelBulkIntervalMicros", 50000));
+        int cancels = Integer.getInteger("loadtest.cancelCount", 200);
+        long cancelIntervalNanos = TimeUnit.MICROSECONDS.toNanos(Long.getLong("loadtest.cancelIntervalMicros", 5000));
+        double maxUrgentP99Micros = Double.parseDouble(System.getProperty("loadtest.maxCancelP99Micros", "50000"));
+        SessionID sessionID = sessions.get(0);
+        recorder.scenario = null;
+
+        // Warm the cancel path
+        runCancels(sessionID, basketSize, basketIntervalNanos, cancels / 4, cancelIntervalNanos, OutboundLane.URGENT);
+
+        List<String> report = new ArrayList<>();
+        report.add("Cancel send latency under " + basketSize + "-order baskets every "
+                + TimeUnit.NANOSECONDS.toMicros(basketIntervalNanos) + "us");
+        report.add(String.format("%-8s %10s %10s %10s", "lane", "p50(us)", "p99(us)", "max(us)"));
+        double bulkP99 = Double.NaN;
+        double urgentP99 = Double.NaN;
+        for (OutboundLane lane : new OutboundLane[]{OutboundLane.BULK, OutboundLane.URGENT}) {
+            long[] sorted = Arrays.stream(runCancels(sessionID, basketSize, basketIntervalNanos, cancels,
+                    cancelIntervalNanos, lane)).sorted().toArray();
+            report.add(String.format("%-8s %10.1f %10.1f %10.1f", lane, micros(sorted, 0.50), micros(sorted, 0.99),
+                    sorted[sorted.length - 1] / 1000.0));
+            if (lane == OutboundLane.URGENT) {
+                urgentP99 = micros(sorted, 0.99);
+            } else {
+                bulkP99 = micros(sorted, 0.99);
+            }
+        }
+
+        String text = String.join(System.lineSeparator(), report);
+        System.out.println(System.lineSeparator() + text);
+        String reportPath = System.getProperty("loadtest.cancelReport");
+        if (reportPath != null) {
+            Files.writeString(Path.of(reportPath), text + System.lineSeparator());
+        }
+        assertTrue(urgentP99 < bulkP99, "Urgent cancels were not faster than bulk ones");
+        assertTrue(urgentP99 <= maxUrgentP99Micros, "Urgent cancel p99 " + urgentP99 + "us > " + maxUrgentP99Micros + "us");
+    }
+
+    @Test
+    void inboundChannel_PooledVersusVirtualThreadsUnderSessionStarts() throws Exception {
+        int starts = Integer.getInteger("loadtest.concurrentStarts", 32);
+        long startMillis = Long.getLong("loadtest.sessionStartMillis", 250);
+        long pingIntervalNanos = TimeUnit.MICROSECONDS.toNanos(Long.getLong("loadtest.pingIntervalMicros", 1000));
+        double maxVirtualP99Micros = Double.parseDouble(System.getProperty("loadtest.maxInboundP99Micros", "20000"));
+
+        List<String> report = new ArrayList<>();
+        report.add("Inbound channel ping latency during " + starts + " concurrent session starts blocking "
+                + startMillis + "ms each");
+        report.add(String.format("%-8s %10s %10s %10s", "threads", "p50(us)", "p99(us)", "max(us)"));
+        // Boot's applicationTaskExecutor with and without spring.threads.virtual.enabled
+        ThreadPoolTaskExecutor pool = new ThreadPoolTaskExecutorBuilder().corePoolSize(8).threadNamePrefix("task-")
+                .build();
+        pool.initialize();
+        double pooledP99;
+        try {
+            long[] sorted = Arrays.stream(runInbound(pool, starts, startMillis, pingIntervalNanos)).sorted().toArray();
+            report.add(String.format("%-8s %10.1f %10.1f %10.1f", "pooled", micros(sorted, 0.50), micros(sorted, 0.99),
+                    sorted[sorted.length - 1] / 1000.0));
+            pooledP99 = micros(sorted, 0.99);
+        } finally {
+            pool.shutdown();
+        }
+        boolean virtualSupported = Runtime.version().feature() >= 21;
+        double virtualP99 = Double.NaN;
+        if (virtualSupported) {
+            SimpleAsyncTaskExecutor virtual = new SimpleAsyncTaskExecutorBuilder().virtualThreads(true)
+                    .threadNamePrefix("task-").build();
+            long[] sorted = Arrays.stream(runInbound(virtual, starts, startMillis, pingIntervalNanos)).sorted().toArray();
+            report.add(String.format("%-8s %10.1f %10.1f %10.1f", "virtual", micros(sorted, 0.50), micros(sorted, 0.99),
+                    sorted[sorted.length - 1] / 1000.0));
+            virtualP99 = micros(sorted, 0.99);
+        } else {
+            report.add(String.format("%-8s needs Java 21, running on %d", "virtual", Runtime.version().feature()));
+        }
+
+        String text = String.join(System.lineSeparator(), report);
+        System.out.println(System.lineSeparator() + text);
+        String reportPath = System.getProperty("loadtest.inboundReport");
+        if (reportPath != null) {
+            Files.writeString(Path.of(reportPath), text + System.lineSeparator());
+        }
+        assumeTrue(virtualSupported, "Virtual threads need Java 21");
+        assertTrue(virtualP99 < pooledP99, "Virtual threads did not lower inbound latency");
+        assertTrue(virtualP99 <= maxVirtualP99Micros, "Inbound p99 " + virtualP99 + "us > " + maxVirtualP99Micros + "us");
+    }
+
+    /**
+     * Queues {@code starts} session starts on a channel like clientInboundChannel,
+     * then pings it at a fixed rate for as long as the starts would hold an
+     * 8-thread pool. A start builds the real settings from disk and then blocks
+     * for {@code startMillis}, standing in for the connect, TLS handshake and
+     * logon wait. Ping latency runs from the intended send time to the handler.
+     */
+    private static long[] runInbound(Executor executor, int starts, long startMillis, long pingIntervalNanos)
+            throws InterruptedException {
+        int pings = (int) (TimeUnit.MILLISECONDS.toNanos(startMillis) * ((starts + 7) / 8) / pingIntervalNanos);
+        long[] latencies = new long[pings];
+        CountDownLatch handled = new CountDownLatch(starts + pings);
+        ExecutorSubscribableChannel channel = new ExecutorSubscribableChannel(executor);
+        channel.subscribe(message -> {
+            try {
+                if (message.getPayload() instanceof long[] ping) {
+                    latencies[(int) ping[0]] = System.nanoTime() - ping[1];
+                } else {
+                    settingsBuilder.buildSettings(SENDERS.get(0), ACCEPTOR, ENV);
+                    Thread.sleep(startMillis);
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException("Inbound handler failed", e);
+            } finally {
+                handled.countDown();
+            }
+        });
+
+        for (int i = 0; i < starts; i++) {
+            channel.send(MessageBuilder.withPayload("start").build());
+        }
+        long start = System.nanoTime();
+        for (int p = 0; p < pings; p++) {
+            long intended = start + p * pingIntervalNanos;
+            waitUntil(intended);
+            channel.send(MessageBuilder.withPayload(new long[]{p, intended}).build());
+        }
+        assertTrue(handled.await(60, TimeUnit.SECONDS), "Inbound channel did not drain");
+        return latencies;
+    }
+
+    private static long[] runCancels(SessionID sessionID, int basketSize, long basketIntervalNanos, int cancels,
+                                     long cancelIntervalNanos, OutboundLane lane) throws Exception {
+        AtomicBoolean done = new AtomicBoolean();
+        Thread bulk = new Thread(() -> {
+            long next = System.nanoTime();
+            int id = 1_000_000;
+            while (!done.get()) {
+                List<Message> basket = new ArrayList<>(basketSize);
+                for (int m = 0; m < basketSize; m++) {
+                    basket.add(order(id++));
+                }
+                try {
+                    gateway.sendBurst(basket, sessionID);
+                } catch (Exception e) {
+                    throw new IllegalStateException("Basket send failed on " + sessionID, e);
+                }
+                next += basketIntervalNanos;
+                waitUntil(next);
+            }
+        }, "load-baskets");
+        bulk.start();
+
+        long[] latencies = new long[cancels];
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(50);
+        for (int c = 0; c < cancels; c++) {
+            long intended = start + c * cancelIntervalNanos;
+            waitUntil(intended);
+            gateway.sendToTarget(new OrderCancelRequest(new OrigClOrdID(Integer.toString(c)),
+                    new ClOrdID("C" + c), new Symbol("LOAD"), new Side(Side.BUY)), sessionID, lane);
+            latencies[c] = System.nanoTime() - intended;
+        }
+        done.set(true);
+        bulk.join();
+        return latencies;
+    }
+
+    private static Scenario runBaskets(SessionID sessionID, int size, int baskets, long intervalNanos,
+                                       boolean burst) throws Exception {
+        Scenario scenario = new Scenario(size * baskets);
+        recorder.scenario = scenario;
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(50);
+        for (int b = 0; b < baskets; b++) {
+            long intended = start + b * intervalNanos;
+            List<Message> basket = new ArrayList<>(size);
+            for (int m = 0; m < size; m++) {
+                int id = b * size + m;
+                scenario.intended[id] = intended;
+                basket.add(order(id));
+            }
+            waitUntil(intended);
+            if (burst) {
+                gateway.sendBurst(basket, sessionID);
+            } else {
+                for (Message order : basket) {
+                    gateway.sendToTarget(order, sessionID);
+                }
+            }
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (scenario.acked.get() < scenario.size && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return scenario;
+    }
+
+    private static Result run(int rate, int sessionCount, long seconds) throws InterruptedException {
+        int perSession = (int) (rate * seconds / sessionCount);
+        Scenario scenario = new Scenario(perSession * sessionCount);
+        recorder.scenario = scenario;
+
+        long gcBefore = gcMillis();
+        long allocBefore = allocatedBytes();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) * sessionCount / rate;
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(50);
+
+        List<Thread> drivers = new ArrayList<>();
+        for (int s = 0; s < sessionCount; s++) {
+            int sessionIndex = s;
+            Thread driver = new Thread(() -> drive(scenario, sessions.get(sessionIndex), sessionIndex, sessionCount,
+                    perSession, start, intervalNanos), "load-driver-" + s);
+            drivers.add(driver);
+            driver.start();
+        }
+        for (Thread driver : drivers) {
+            driver.join();
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (scenario.acked.get() < scenario.size && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        long elapsed = scenario.lastAck - start;
+        long acked = scenario.acked.get();
+        long[] latencies = Arrays.stream(scenario.latencies).filter(latency -> latency >= 0).sorted().toArray();
+        return new Result(rate, sessionCount,
+                acked * (double) TimeUnit.SECONDS.toNanos(1) / Math.max(elapsed, 1),
+                micros(latencies, 0.50), micros(latencies, 0.99), micros(latencies, 0.999),
+                latencies.length > 0 ? latencies[latencies.length - 1] / 1000.0 : Double.NaN,
+                gcMillis() - gcBefore, (allocatedBytes() - allocBefore) / Math.max(acked, 1));
+    }
+
+    private static void drive(Scenario scenario, SessionID sessionID, int sessionIndex, int sessionCount,
+                              int count, long start, long intervalNanos) {
+        for (int k = 0; k < count; k++) {
+            int id = k * sessionCount + sessionIndex;
+            long intended = start + k * intervalNanos;
+            waitUntil(intended);
+            scenario.intended[id] = intended;
+            try {
+                gateway.sendToTarget(order(id), sessionID);
+            } catch (Exception e) {
+                throw new IllegalStateException("Send failed on " + sessionID, e);
+            }
+        }
+    }
+
+    private static NewOrderSingle order(int id) {
+        NewOrderSingle order = new NewOrderSingle(new ClOrdID(Integer.toString(id)),
+                new HandlInst(HandlInst.AUTOMATED_EXECUTION_ORDER_PRIVATE_NO_BROKER_INTERVENTION),
+                new Symbol("LOAD"), new Side(Side.BUY), new OrdType(OrdType.LIMIT));
+        order.set(new OrderQty(100));
+        order.set(new Price(10.5));
+        return order;
+    }
+
+    private static void waitUntil(long deadline) {
+        long wait;
+        while ((wait = deadline - System.nanoTime()) > 0) {
+            if (wait > 50_000) {
+                LockSupport.parkNanos(wait - 50_000);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private static void awaitLogon() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        for (SessionID sessionID : sessions) {
+            while (true) {
+                Session session = Session.lookupSession(sessionID);
+                if (session != null && session.isLoggedOn()) {
+                    break;
+                }
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException(sessionID + " did not log on");
+                }
+                Thread.sleep(50);
+            }
+        }
+    }
+
+    private static double micros(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1000.0;
+    }
+
+    private static long gcMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime)
+                .filter(time -> time > 0)
+                .sum();
+    }
+
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return Arrays.stream(threads.getThreadAllocatedBytes(threads.getAllThreadIds()))
+                .filter(bytes -> bytes > 0)
+                .sum();
+    }
+
+    private static int[] intList(String property, String defaultValue) {
+        return Arrays.stream(System.getProperty(property, defaultValue).split(","))
+                .map(String::trim)
+                .mapToInt(Integer::parseInt)
+                .toArray();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static final class Scenario {
+        private final int size;
+        private final long[] intended;
+        private final long[] latencies;
+        private final AtomicLong acked = new AtomicLong();
+        private volatile long lastAck;
+
+        private Scenario(int size) {
+            this.size = size;
+            this.intended = new long[size];
+            this.latencies = new long[size];
+            Arrays.fill(latencies, -1);
+        }
+    }
+
+    private record Result(int rate, int sessions, double achievedRate, double p50Micros, double p99Micros,
+                          double p999Micros, double maxMicros, long gcMillis, long allocPerMessage) {
+
+        String label() {
+            return rate + " msg/s x " + sessions + " session(s):";
+        }
+
+        String format() {
+            return String.format("%-8d %-9d %10.0f %10.1f %10.1f %10.1f %10.1f %8d %12d", rate, sessions,
+                    achievedRate, p50Micros, p99Micros, p999Micros, maxMicros, gcMillis, allocPerMessage);
+        }
+    }
+
+    /**
+     * Production application plus acknowledgement timing for the current scenario.
+     */
+    private static final class AckRecorder implements Application {
+
+        private final FixApplicationImpl delegate;
+        private volatile Scenario scenario;
+
+        private AckRecorder(FixApplicationImpl delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void fromApp(Message message, SessionID sessionId) throws FieldNotFound {
+            long now = System.nanoTime();
+            Scenario current = scenario;
+            if (current != null && MsgType.EXECUTION_REPORT.equals(message.getHeader().getString(MsgType.FIELD))) {
+                int id = Integer.parseInt(message.getString(ClOrdID.FIELD));
+                if (id < current.size && current.latencies[id] < 0) {
+                    current.latencies[id] = now - current.intended[id];
+                    current.lastAck = now;
+                    current.acked.incrementAndGet();
+                }
+            }
+            delegate.fromApp(message, sessionId);
+        }
+
+        @Override
+        public void onCreate(SessionID sessionId) {
+            delegate.onCreate(sessionId);
+        }
+
+        @Override
+        public void onLogon(SessionID sessionId) {
+            delegate.onLogon(sessionId);
+        }
+
+        @Override
+        public void onLogout(SessionID sessionId) {
+            delegate.onLogout(sessionId);
+        }
+
+        @Override
+        public void toAdmin(Message message, SessionID sessionId) {
+            delegate.toAdmin(message, sessionId);
+        }
+
+        @Override
+        public void fromAdmin(Message message, SessionID sessionId) {
+            delegate.fromAdmin(message, sessionId);
+        }
+
+        @Override
+        public void toApp(Message message, SessionID sessionId) {
+            delegate.toApp(message, sessionId);
+        }
+    }
+}
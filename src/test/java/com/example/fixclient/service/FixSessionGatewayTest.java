@@ -0,0 +1,104 @@
+package com.example.fixclient.service;
+
+import com.example.fixclient.config.EnvironmentConfig;
+import com.example.fixclient.exception.ThrottleRejectedException;
+import com.example.fixclient.metrics.FixMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import quickfix.ApplicationAdapter;
+import quickfix.DefaultSessionFactory;
+import quickfix.MemoryStoreFactory;
+import quickfix.Message;
+import quickfix.SLF4JLogFactory;
+import quickfix.Session;
+import quickfix.SessionID;
+import quickfix.SessionSettings;
+import quickfix.field.MsgType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FixSessionGatewayTest {
+
+    private static final SessionID SESSION = new SessionID("FIX.4.1", "GATEWAY_TEST", "ACCEPTOR");
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final FixSessionGateway gateway = new FixSessionGateway(new FixMetrics(registry), new String[]{"F"});
+    private Session session;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        SessionSettings settings = new SessionSettings();
+        settings.setString(SESSION, "ConnectionType", "initiator");
+        settings.setString(SESSION, "StartTime", "00:00:00");
+        settings.setString(SESSION, "EndTime", "00:00:00");
+        settings.setString(SESSION, "HeartBtInt", "30");
+        settings.setString(SESSION, "UseDataDictionary", "N");
+        session = new DefaultSessionFactory(new ApplicationAdapter(), new MemoryStoreFactory(),
+                new SLF4JLogFactory(settings)).create(SESSION, settings);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        session.close();
+    }
+
+    @Test
+    void rejectingLimit_SendsWhatTheBucketHoldsOfAnOversizedBasket() throws Exception {
+        // Arrange: idle bucket of 5
+        gateway.setRateLimit(SESSION, new EnvironmentConfig.RateLimitConfig(10, 5,
+                EnvironmentConfig.ThrottleMode.REJECT, null));
+        AtomicInteger handedOver = new AtomicInteger();
+
+        // Act
+        boolean[] sent = gateway.sendBurst(orders(8), SESSION, null, index -> handedOver.incrementAndGet());
+
+        // Assert
+        assertEquals(8, sent.length);
+        assertEquals(5, handedOver.get());
+        assertEquals(1.0, registry.get("fix.throttle.rejected").counter().count());
+        // The bucket is spent, so the next basket is refused as a whole
+        assertThrows(ThrottleRejectedException.class, () -> gateway.sendBurst(orders(2), SESSION, null,
+                index -> handedOver.incrementAndGet()));
+        assertEquals(5, handedOver.get());
+    }
+
+    @Test
+    void removeSession_DropsLimitAndGauges() throws Exception {
+        // Arrange
+        gateway.setRateLimit(SESSION, new EnvironmentConfig.RateLimitConfig(10, 1,
+                EnvironmentConfig.ThrottleMode.REJECT, null));
+        gateway.sendBurst(orders(1), SESSION);
+        assertNotNull(registry.find("fix.throttle.limit").gauge());
+
+        // Act
+        gateway.removeSession(SESSION);
+
+        // Assert
+        assertNull(registry.find("fix.throttle.limit").gauge());
+        assertNull(registry.find("fix.throttle.utilization").gauge());
+        // No limit left, so nothing is refused
+        AtomicInteger handedOver = new AtomicInteger();
+        gateway.sendBurst(orders(3), SESSION, null, index -> handedOver.incrementAndGet());
+        assertEquals(3, handedOver.get());
+        // A restart with a limit registers fresh gauges for the new bucket
+        gateway.setRateLimit(SESSION, new EnvironmentConfig.RateLimitConfig(20, 1, null, null));
+        assertEquals(20.0, registry.get("fix.throttle.limit").gauge().value());
+    }
+
+    private static List<Message> orders(int count) {
+        List<Message> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Message order = new Message();
+            order.getHeader().setString(MsgType.FIELD, MsgType.ORDER_SINGLE);
+            orders.add(order);
+        }
+        return Collections.unmodifiableList(orders);
+    }
+}
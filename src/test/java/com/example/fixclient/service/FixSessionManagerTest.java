@@ -0,0 +1,145 @@
+package com.example.fixclient.service;
+
+import com.example.fixclient.config.EnvironmentConfig;
+import com.example.fixclient.journal.AuditJournal;
+import com.example.fixclient.metrics.FixMetrics;
+import com.example.fixclient.tls.TlsContextProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.ObjectProvider;
+import quickfix.ConfigError;
+import quickfix.Session;
+import quickfix.SessionID;
+import quickfix.SessionSettings;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+class FixSessionManagerTest {
+
+    @Mock
+    private FixApplicationImpl application;
+
+    @Mock
+    private DynamicSettingsBuilder settingsBuilder;
+
+    @Mock
+    private ObjectProvider<TestAcceptorService> localAcceptor;
+
+    @Mock
+    private RttProber rttProber;
+
+    @Mock
+    private TlsContextProvider tlsContexts;
+
+    @TempDir
+    private Path dir;
+
+    private AuditJournal journal;
+    private FixSessionManager manager;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        // Nothing listens on the port, the initiator just keeps reconnecting
+        ConfigService configService = new ConfigService(Map.of("ENV1", new EnvironmentConfig(
+                new EnvironmentConfig.ConnectionConfig("127.0.0.1", freePort()),
+                List.of(new EnvironmentConfig.InitiatorConfig("INITIATOR1", "password", null)))));
+        SessionSettings settings = new DynamicSettingsBuilder(configService)
+                .buildSettings("INITIATOR1", "ACCEPTOR_A", "ENV1");
+        settings.setString("FileStorePath", dir.resolve("store").toString());
+        when(settingsBuilder.buildSettings("INITIATOR1", "ACCEPTOR_A", "ENV1")).thenReturn(settings);
+        journal = new AuditJournal(dir.resolve("journal"), 1 << 20, 1 << 20);
+        journal.start();
+        FixMetrics metrics = new FixMetrics(new SimpleMeterRegistry());
+        manager = new FixSessionManager(application, settingsBuilder, journal, localAcceptor, metrics,
+                new FixSessionGateway(metrics, new String[0]), rttProber, configService, tlsContexts);
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.shutdown();
+        journal.close();
+    }
+
+    @Test
+    void userStartingWarmupSession_TakesItOver() throws Exception {
+        // Arrange
+        manager.startSession("INITIATOR1", "ACCEPTOR_A", "ENV1", WarmupService.OWNER);
+
+        // Act
+        manager.startSession("INITIATOR1", "ACCEPTOR_A", "ENV1", "ws-1");
+        boolean stopped = manager.stopSessionOwnedBy("INITIATOR1", "ACCEPTOR_A", "ENV1", WarmupService.OWNER);
+
+        // Assert
+        assertFalse(stopped);
+        assertEquals("ws-1", manager.getOwner("INITIATOR1", "ACCEPTOR_A", "ENV1"));
+        assertNull(manager.getOwner("INITIATOR1", "ACCEPTOR_A", "ENV2"));
+        manager.stopSessionsByWsId("ws-1", Runnable::run);
+        assertNull(manager.getOwner("INITIATOR1", "ACCEPTOR_A", "ENV1"));
+    }
+
+    @Test
+    void userSession_IsNotTakenOverOrStoppedForAnotherOwner() throws Exception {
+        // Arrange
+        manager.startSession("INITIATOR1", "ACCEPTOR_A", "ENV1", "ws-1");
+
+        // Act
+        manager.startSession("INITIATOR1", "ACCEPTOR_A", "ENV1", "ws-2");
+        boolean stopped = manager.stopSessionOwnedBy("INITIATOR1", "ACCEPTOR_A", "ENV1", WarmupService.OWNER);
+
+        // Assert
+        assertFalse(stopped);
+        assertEquals("ws-1", manager.getOwner("INITIATOR1", "ACCEPTOR_A", "ENV1"));
+        assertTrue(manager.stopSessionOwnedBy("INITIATOR1", "ACCEPTOR_A", "ENV1", "ws-1"));
+        assertNull(manager.getOwner("INITIATOR1", "ACCEPTOR_A", "ENV1"));
+    }
+
+    @Test
+    void reconnectingClient_OwnsTheSessionItStartsWhileTheOldOneLogsOut() throws Exception {
+        // Arrange
+        manager.startSession("INITIATOR1", "ACCEPTOR_A", "ENV1", "ws-1");
+        List<Runnable> logouts = new ArrayList<>();
+
+        // Act: the disconnect releases ownership, the logout is left pending
+        manager.stopSessionsByWsId("ws-1", logouts::add);
+        assertNull(manager.getOwner("INITIATOR1", "ACCEPTOR_A", "ENV1"));
+        CompletableFuture<Void> restart = CompletableFuture.runAsync(() -> {
+            try {
+                manager.startSession("INITIATOR1", "ACCEPTOR_A", "ENV1", "ws-2");
+            } catch (ConfigError e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(200);
+        boolean startedBeforeLogout = restart.isDone();
+        logouts.forEach(Runnable::run);
+        restart.get(10, TimeUnit.SECONDS);
+
+        // Assert
+        assertFalse(startedBeforeLogout);
+        assertEquals(1, logouts.size());
+        assertEquals("ws-2", manager.getOwner("INITIATOR1", "ACCEPTOR_A", "ENV1"));
+        assertNotNull(Session.lookupSession(new SessionID("FIX.4.1", "INITIATOR1", "ACCEPTOR_A")));
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
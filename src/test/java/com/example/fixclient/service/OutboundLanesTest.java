@@ -0,0 +1,128 @@
+package com.example.fixclient.service;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutboundLanesTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Timer urgentWait = registry.timer("urgent");
+    private final Timer bulkWait = registry.timer("bulk");
+    private final OutboundLanes lanes = new OutboundLanes(urgentWait, bulkWait);
+    private final List<String> wire = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    void urgentSend_OvertakesQueuedBulkAndKeepsLaneOrder() throws Exception {
+        // Arrange
+        lanes.acquire(OutboundLane.BULK);
+        List<Thread> senders = new ArrayList<>();
+        senders.add(sender("bulk-1", OutboundLane.BULK));
+        senders.add(sender("bulk-2", OutboundLane.BULK));
+        senders.add(sender("urgent-1", OutboundLane.URGENT));
+        senders.add(sender("urgent-2", OutboundLane.URGENT));
+
+        // Act
+        for (Thread sender : senders) {
+            sender.start();
+            awaitQueued(sender);
+        }
+        lanes.release();
+        for (Thread sender : senders) {
+            sender.join(2000);
+        }
+
+        // Assert
+        assertEquals(List.of("urgent-1", "urgent-2", "bulk-1", "bulk-2"), wire);
+        assertEquals(2, urgentWait.count());
+        assertEquals(3, bulkWait.count());
+    }
+
+    @Test
+    void bulkBurst_YieldsToUrgentBetweenMessagesAndResumesFirst() throws Exception {
+        // Arrange
+        CountDownLatch urgentQueued = new CountDownLatch(1);
+        Thread burst = new Thread(() -> {
+            lanes.acquire(OutboundLane.BULK);
+            try {
+                for (int i = 0; i < 4; i++) {
+                    if (i == 2) {
+                        awaitLatch(urgentQueued);
+                        while (!lanes.urgentWaiting()) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                    if (lanes.urgentWaiting()) {
+                        lanes.yieldToUrgent();
+                    }
+                    wire.add("burst-" + i);
+                }
+            } finally {
+                lanes.release();
+            }
+        });
+        Thread otherBulk = sender("bulk", OutboundLane.BULK);
+        Thread cancel = sender("cancel", OutboundLane.URGENT);
+
+        // Act
+        burst.start();
+        awaitQueued(burst);
+        otherBulk.start();
+        awaitQueued(otherBulk);
+        cancel.start();
+        urgentQueued.countDown();
+        burst.join(2000);
+        otherBulk.join(2000);
+        cancel.join(2000);
+
+        // Assert
+        assertEquals(List.of("burst-0", "burst-1", "cancel", "burst-2", "burst-3", "bulk"), wire);
+    }
+
+    @Test
+    void owner_CanReacquire() {
+        // Act
+        lanes.acquire(OutboundLane.BULK);
+        lanes.acquire(OutboundLane.URGENT);
+        lanes.release();
+        lanes.release();
+
+        // Assert
+        assertThrows(IllegalMonitorStateException.class, lanes::release);
+    }
+
+    private Thread sender(String name, OutboundLane lane) {
+        return new Thread(() -> {
+            lanes.acquire(lane);
+            try {
+                wire.add(name);
+            } finally {
+                lanes.release();
+            }
+        }, name);
+    }
+
+    private static void awaitQueued(Thread thread) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (thread.getState() != Thread.State.WAITING && thread.getState() != Thread.State.TERMINATED) {
+            assertTrue(System.nanoTime() < deadline, thread.getName() + " never blocked");
+            Thread.sleep(1);
+        }
+    }
+
+    private static void awaitLatch(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.fixclient.service;
+
+import com.example.fixclient.metrics.FixMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import quickfix.MemoryStore;
+import quickfix.MessageStore;
+import quickfix.SessionID;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.withSettings;
+
+class ResendWindowStoreTest {
+
+    private final SessionID sessionID = new SessionID("FIX.4.1", "INITIATOR", "ACCEPTOR");
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final FixMetrics metrics = new FixMetrics(registry);
+    private MessageStore delegate;
+    private ResendWindowStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        delegate = Mockito.spy(new MemoryStore(sessionID));
+        store = new ResendWindowStore(delegate, sessionID, 3, metrics);
+    }
+
+    @Test
+    void testGet_ServesRecentRangeFromMemory() throws IOException {
+        // Arrange
+        for (int seq = 1; seq <= 5; seq++) {
+            store.set(seq, "msg" + seq);
+        }
+        List<String> result = new ArrayList<>();
+
+        // Act
+        store.get(3, 5, result);
+
+        // Assert
+        assertEquals(List.of("msg3", "msg4", "msg5"), result);
+        verify(delegate, never()).get(anyInt(), anyInt(), anyCollection());
+        assertEquals(3, store.getServedFromMemory());
+        assertEquals(0, store.getServedFromStore());
+    }
+
+    @Test
+    void testGet_FallsBackToStoreForOlderPartOfGap() throws IOException {
+        // Arrange
+        for (int seq = 1; seq <= 5; seq++) {
+            store.set(seq, "msg" + seq);
+        }
+        List<String> result = new ArrayList<>();
+
+        // Act
+        store.get(1, 5, result);
+
+        // Assert
+        assertEquals(List.of("msg1", "msg2", "msg3", "msg4", "msg5"), result);
+        verify(delegate).get(1, 2, result);
+        assertEquals(3, store.getServedFromMemory());
+        assertEquals(2, store.getServedFromStore());
+        assertEquals(1, store.getGapFillCount());
+        assertEquals(1, registry.get("fix.resend.gapfill").tag("sender", "INITIATOR").timer().count());
+        assertEquals(3.0, registry.get("fix.resend.served").tag("source", "memory").counter().count());
+        assertEquals(2.0, registry.get("fix.resend.served").tag("source", "store").counter().count());
+    }
+
+    @Test
+    void testClose_ClosesCloseableDelegate() throws IOException {
+        // Arrange
+        MessageStore closeable = mock(MessageStore.class, withSettings().extraInterfaces(Closeable.class));
+        ResendWindowStore window = new ResendWindowStore(closeable, sessionID, 3, metrics);
+
+        // Act
+        window.close();
+        store.close();
+
+        // Assert
+        verify((Closeable) closeable).close();
+    }
+
+    @Test
+    void testReset_ClearsWindow() throws IOException {
+        // Arrange
+        store.set(1, "msg1");
+        store.reset();
+        List<String> result = new ArrayList<>();
+
+        // Act
+        store.get(1, 1, result);
+
+        // Assert
+        assertEquals(0, result.size());
+        assertEquals(0, store.getServedFromMemory());
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.fixclient.service;
+
+import com.example.fixclient.listener.FixTrafficListener;
+import com.example.fixclient.metrics.FixMetrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import quickfix.Message;
+import quickfix.SessionID;
+import quickfix.field.MsgType;
+import quickfix.field.TestReqID;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RttProberTest {
+
+    private final SessionID sessionID = new SessionID("FIX.4.1", "INITIATOR1", "ACCEPTOR_A");
+
+    @Mock
+    private FixSessionGateway sessionGateway;
+
+    private SimpleMeterRegistry registry;
+    private RttProber prober;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        registry = new SimpleMeterRegistry();
+        when(sessionGateway.isLoggedOn(sessionID)).thenReturn(true);
+        when(sessionGateway.sendToTarget(any(Message.class), eq(sessionID))).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (prober != null) {
+            prober.shutdown();
+        }
+    }
+
+    @Test
+    void heartbeatEchoingTestReqId_IsRecordedAsRoundTrip() throws Exception {
+        // Arrange
+        prober = new RttProber(sessionGateway, new FixMetrics(registry), 60_000, 5_000);
+        prober.register(sessionID, "ENV1");
+
+        // Act
+        prober.probeAll();
+        ArgumentCaptor<Message> sent = ArgumentCaptor.forClass(Message.class);
+        verify(sessionGateway).sendToTarget(sent.capture(), eq(sessionID));
+        String testReqId = sent.getValue().getString(TestReqID.FIELD);
+        prober.onMessage(sessionID, FixTrafficListener.Direction.OUTBOUND, true, sent.getValue());
+        prober.onMessage(sessionID, FixTrafficListener.Direction.INBOUND, true, heartbeat(testReqId));
+        prober.onMessage(sessionID, FixTrafficListener.Direction.INBOUND, true, heartbeat(testReqId));
+
+        // Assert
+        assertEquals(MsgType.TEST_REQUEST, sent.getValue().getHeader().getString(MsgType.FIELD));
+        assertTrue(testReqId.startsWith(RttProber.TEST_REQ_ID_PREFIX));
+        assertEquals(1, registry.get("fix.rtt").tag("environment", "ENV1").tag("sender", "INITIATOR1")
+                .timer().count());
+    }
+
+    @Test
+    void roundTrip_StartsWhenTheTestRequestGoesOut() throws Exception {
+        // Arrange
+        prober = new RttProber(sessionGateway, new FixMetrics(registry), 60_000, 5_000);
+        prober.register(sessionID, "ENV1");
+        prober.probeAll();
+        prober.probeAll();
+        ArgumentCaptor<Message> sent = ArgumentCaptor.forClass(Message.class);
+        verify(sessionGateway, times(2)).sendToTarget(sent.capture(), eq(sessionID));
+        Message queued = sent.getAllValues().get(0);
+        Message neverSeen = sent.getAllValues().get(1);
+
+        // Act: the first one waits locally before toAdmin sees it
+        Thread.sleep(200);
+        prober.onMessage(sessionID, FixTrafficListener.Direction.OUTBOUND, true, queued);
+        prober.onMessage(sessionID, FixTrafficListener.Direction.INBOUND, true,
+                heartbeat(queued.getString(TestReqID.FIELD)));
+        prober.onMessage(sessionID, FixTrafficListener.Direction.INBOUND, true,
+                heartbeat(neverSeen.getString(TestReqID.FIELD)));
+
+        // Assert
+        Timer rtt = registry.get("fix.rtt").timer();
+        assertEquals(1, rtt.count());
+        assertTrue(rtt.totalTime(TimeUnit.MILLISECONDS) < 200);
+    }
+
+    @Test
+    void unansweredProbes_AreCountedAsTimeouts() throws Exception {
+        // Arrange
+        prober = new RttProber(sessionGateway, new FixMetrics(registry), 60_000, 0);
+        prober.register(sessionID, "ENV1");
+
+        // Act
+        prober.probeAll();
+        Thread.sleep(1);
+        prober.probeAll();
+
+        // Assert
+        verify(sessionGateway, times(2)).sendToTarget(any(Message.class), eq(sessionID));
+        assertEquals(1, registry.get("fix.rtt.timeouts").counter().count());
+        assertEquals(0, registry.get("fix.rtt").timer().count());
+    }
+
+    @Test
+    void disabledProber_DoesNotRegisterSessions() throws Exception {
+        prober = new RttProber(sessionGateway, new FixMetrics(registry), 0, 5_000);
+        prober.register(sessionID, "ENV1");
+
+        prober.probeAll();
+
+        assertFalse(prober.isEnabled());
+        verify(sessionGateway, never()).sendToTarget(any(Message.class), any(SessionID.class));
+    }
+
+    private static Message heartbeat(String testReqId) {
+        Message message = new Message();
+        message.getHeader().setString(MsgType.FIELD, MsgType.HEARTBEAT);
+        message.setString(TestReqID.FIELD, testReqId);
+        return message;
+    }
+}
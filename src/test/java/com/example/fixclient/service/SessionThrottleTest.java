@@ -0,0 +1,115 @@
+package com.example.fixclient.service;
+
+import com.example.fixclient.config.EnvironmentConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionThrottleTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Timer waitTimer = registry.timer("wait");
+    private final Counter rejections = registry.counter("rejected");
+    private final SessionThrottle throttle = new SessionThrottle(waitTimer, rejections);
+
+    @Test
+    void withoutLimit_EverythingPasses() {
+        // Act
+        throttle.update(null);
+
+        // Assert
+        assertFalse(throttle.isLimited());
+        assertEquals(0, throttle.reserve(1_000_000));
+        assertEquals(0.0, throttle.utilization());
+    }
+
+    @Test
+    void burst_IsAdmittedAtOnceThenSendsAreSpaced() {
+        // Arrange
+        throttle.update(new EnvironmentConfig.RateLimitConfig(100, 5, null, null));
+
+        // Act
+        List<Long> waits = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            waits.add(throttle.reserve(1));
+        }
+
+        // Assert
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, waits.get(i), "message " + i);
+        }
+        // 10 ms per message once the burst is spent
+        assertEquals(10.0, TimeUnit.NANOSECONDS.toMicros(waits.get(5)) / 1000.0, 1.0);
+        assertEquals(20.0, TimeUnit.NANOSECONDS.toMicros(waits.get(6)) / 1000.0, 1.0);
+        assertEquals(1.0, throttle.utilization());
+    }
+
+    @Test
+    void rejectMode_RefusesWithoutConsuming() {
+        // Arrange
+        throttle.update(new EnvironmentConfig.RateLimitConfig(10, 2, EnvironmentConfig.ThrottleMode.REJECT, null));
+        assertEquals(0, throttle.reserve(2));
+
+        // Act
+        long refused = throttle.reserve(1);
+        throttle.update(new EnvironmentConfig.RateLimitConfig(10, 2, EnvironmentConfig.ThrottleMode.QUEUE, null));
+        long queued = throttle.reserve(1);
+
+        // Assert
+        assertEquals(SessionThrottle.REJECTED, refused);
+        assertEquals(1.0, rejections.count());
+        // Only the two admitted messages are ahead of the queued one
+        assertEquals(100.0, TimeUnit.NANOSECONDS.toMillis(queued), 2.0);
+    }
+
+    @Test
+    void queuedSendWaitingTooLong_IsRejected() {
+        // Arrange
+        throttle.update(new EnvironmentConfig.RateLimitConfig(10, 1, EnvironmentConfig.ThrottleMode.QUEUE, 50L));
+        assertEquals(0, throttle.reserve(1));
+
+        // Act
+        long wait = throttle.reserve(1);
+
+        // Assert
+        assertEquals(SessionThrottle.REJECTED, wait);
+    }
+
+    @Test
+    void concurrentSenders_ShareOneBudget() throws Exception {
+        // Arrange
+        throttle.update(new EnvironmentConfig.RateLimitConfig(1000, 10, null, null));
+        AtomicInteger sent = new AtomicInteger();
+        List<Thread> senders = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            senders.add(new Thread(() -> {
+                for (int i = 0; i < 50; i++) {
+                    throttle.await(throttle.reserve(1));
+                    sent.incrementAndGet();
+                }
+            }));
+        }
+
+        // Act
+        long start = System.nanoTime();
+        senders.forEach(Thread::start);
+        for (Thread sender : senders) {
+            sender.join();
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Assert
+        assertEquals(200, sent.get());
+        // 10 go out as the initial burst, the other 190 at 1 ms each
+        assertTrue(elapsedMillis >= 189, "elapsed " + elapsedMillis);
+        assertTrue(waitTimer.count() >= 180, "waits " + waitTimer.count());
+    }
+}
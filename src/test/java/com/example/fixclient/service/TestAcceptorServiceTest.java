@@ -0,0 +1,165 @@
+package com.example.fixclient.service;
+
+import com.example.fixclient.config.EnvironmentConfig;
+import com.example.fixclient.config.SimulatorConfig;
+import com.example.fixclient.journal.AuditJournal;
+import com.example.fixclient.journal.JournalLogFactory;
+import com.example.fixclient.metrics.FixMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import quickfix.ApplicationAdapter;
+import quickfix.DefaultMessageFactory;
+import quickfix.FieldNotFound;
+import quickfix.FileStoreFactory;
+import quickfix.Message;
+import quickfix.Session;
+import quickfix.SessionID;
+import quickfix.SessionSettings;
+import quickfix.SocketAcceptor;
+import quickfix.SocketInitiator;
+import quickfix.field.ClOrdID;
+import quickfix.field.HandlInst;
+import quickfix.field.MsgType;
+import quickfix.field.OrdType;
+import quickfix.field.OrderQty;
+import quickfix.field.Side;
+import quickfix.field.Symbol;
+import quickfix.fix41.NewOrderSingle;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestAcceptorServiceTest {
+
+    private TestAcceptorService acceptorService;
+
+    @BeforeEach
+    void setUp() {
+        ConfigService configService = new ConfigService(Map.of(
+                "ENV1", env(9876, "INITIATOR1", "INITIATOR2"),
+                "ENV2", env(9877, "INITIATOR1"),
+                "ENV3", env(9876, "INITIATOR3")));
+        acceptorService = new TestAcceptorService(null, null, configService, "lazy", "ACCEPTOR_A",
+                "certs/INITIATOR1.p12", "password");
+    }
+
+    @Test
+    void buildSettings_CreatesSessionForEveryInitiatorOnPort() throws Exception {
+        // Act
+        SessionSettings settings = acceptorService.buildSettings(9876);
+
+        // Assert
+        List<SessionID> sessions = new ArrayList<>();
+        settings.sectionIterator().forEachRemaining(sessions::add);
+        assertEquals(3, sessions.size());
+        assertTrue(sessions.contains(new SessionID("FIX.4.1", "ACCEPTOR_A", "INITIATOR1")));
+        assertTrue(sessions.contains(new SessionID("FIX.4.1", "ACCEPTOR_A", "INITIATOR2")));
+        assertTrue(sessions.contains(new SessionID("FIX.4.1", "ACCEPTOR_A", "INITIATOR3")));
+        assertEquals("9876", settings.getString("SocketAcceptPort"));
+    }
+
+    @Test
+    void buildSettings_SeparatesPorts() throws Exception {
+        // Act
+        SessionSettings settings = acceptorService.buildSettings(9877);
+
+        // Assert
+        List<SessionID> sessions = new ArrayList<>();
+        settings.sectionIterator().forEachRemaining(sessions::add);
+        assertEquals(List.of(new SessionID("FIX.4.1", "ACCEPTOR_A", "INITIATOR1")), sessions);
+        assertEquals("9877", settings.getString("SocketAcceptPort"));
+        assertEquals("store/acceptor/9877", settings.getString("FileStorePath"));
+    }
+
+    @Test
+    void initiatorInTwoEnvironments_GetsReportsOnTheAcceptorItOrderedOn(@TempDir Path dir) throws Exception {
+        // Arrange: INITIATOR1 in ENV1 and ENV2, so both acceptors have FIX.4.1:ACCEPTOR_A->INITIATOR1
+        int env1Port = freePort();
+        int env2Port = freePort();
+        ConfigService configService = new ConfigService(Map.of(
+                "ENV1", env(env1Port, "INITIATOR1"),
+                "ENV2", env(env2Port, "INITIATOR1")));
+        AuditJournal journal = new AuditJournal(dir.resolve("journal"), 1 << 20, 1 << 20);
+        journal.start();
+        ExchangeSimulator simulator = new ExchangeSimulator(new SimulatorConfig(SimulatorConfig.FillModel.ACK_ONLY,
+                null, null, null, SimulatorConfig.LatencyDistribution.FIXED, 0L, null, 1, null),
+                new FixSessionGateway(new FixMetrics(new SimpleMeterRegistry()), new String[0]));
+        TestAcceptorService service = new TestAcceptorService(journal, simulator, configService, "lazy",
+                "ACCEPTOR_A", "certs/INITIATOR1.p12", "password");
+        List<SocketAcceptor> acceptors = new ArrayList<>();
+        for (int port : new int[]{env1Port, env2Port}) {
+            SessionSettings settings = service.buildSettings(port);
+            settings.setString("FileStorePath", dir.resolve("acceptor-" + port).toString());
+            SocketAcceptor acceptor = service.createAcceptor(settings);
+            acceptor.start();
+            acceptors.add(acceptor);
+        }
+
+        BlockingQueue<Message> reports = new LinkedBlockingQueue<>();
+        SessionID initiatorID = new SessionID("FIX.4.1", "INITIATOR1", "ACCEPTOR_A");
+        SessionSettings initiatorSettings = new DynamicSettingsBuilder(configService)
+                .buildSettings("INITIATOR1", "ACCEPTOR_A", "ENV1");
+        initiatorSettings.setString("FileStorePath", dir.resolve("initiator").toString());
+        initiatorSettings.setString("ResetOnLogon", "Y");
+        SocketInitiator initiator = new SocketInitiator(new ApplicationAdapter() {
+            @Override
+            public void fromApp(Message message, SessionID sessionId) throws FieldNotFound {
+                if (MsgType.EXECUTION_REPORT.equals(message.getHeader().getString(MsgType.FIELD))) {
+                    reports.add(message);
+                }
+            }
+        }, new FileStoreFactory(initiatorSettings), initiatorSettings, new JournalLogFactory(journal),
+                new DefaultMessageFactory());
+        try {
+            initiator.start();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+            while (!Session.lookupSession(initiatorID).isLoggedOn()) {
+                assertTrue(System.nanoTime() < deadline, "ENV1 session did not log on");
+                Thread.sleep(20);
+            }
+            NewOrderSingle order = new NewOrderSingle(new ClOrdID("ORD-ENV1"),
+                    new HandlInst(HandlInst.AUTOMATED_EXECUTION_ORDER_PRIVATE_NO_BROKER_INTERVENTION),
+                    new Symbol("TEST"), new Side(Side.BUY), new OrdType(OrdType.MARKET));
+            order.set(new OrderQty(100));
+
+            // Act
+            assertTrue(Session.sendToTarget(order, initiatorID));
+
+            // Assert
+            Message report = reports.poll(10, TimeUnit.SECONDS);
+            assertNotNull(report, "No ExecutionReport from the ENV1 acceptor");
+            assertEquals("ORD-ENV1", report.getString(ClOrdID.FIELD));
+            assertEquals(0, simulator.getCounters().sendFailures());
+        } finally {
+            initiator.stop(true);
+            acceptors.forEach(acceptor -> acceptor.stop(true));
+            simulator.shutdown();
+            journal.close();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static EnvironmentConfig env(int port, String... senders) {
+        List<EnvironmentConfig.InitiatorConfig> initiators = new ArrayList<>();
+        for (String sender : senders) {
+            initiators.add(new EnvironmentConfig.InitiatorConfig(sender, "password", null));
+        }
+        return new EnvironmentConfig(new EnvironmentConfig.ConnectionConfig("127.0.0.1", port), initiators);
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.fixclient.service;
+
+import com.example.fixclient.config.ConfigSnapshot;
+import com.example.fixclient.config.EnvironmentConfig;
+import com.example.fixclient.model.MessageRequestDto;
+import com.example.fixclient.model.SessionStatus;
+import com.example.fixclient.tls.TlsContextProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.env.MockEnvironment;
+import quickfix.Message;
+import quickfix.SessionID;
+import quickfix.SessionSettings;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+class WarmupServiceTest {
+
+    private static final SessionID SESSION = new SessionID("FIX.4.1", "INITIATOR1", "ACCEPTOR_A");
+
+    @Mock
+    private ConfigService configService;
+
+    @Mock
+    private CertificateService certificateService;
+
+    @Mock
+    private DynamicSettingsBuilder settingsBuilder;
+
+    @Mock
+    private TlsContextProvider tlsContexts;
+
+    @Mock
+    private ObjectProvider<TestAcceptorService> localAcceptor;
+
+    @Mock
+    private TestAcceptorService acceptor;
+
+    @Mock
+    private ObjectProvider<FixSessionManager> sessionManagerProvider;
+
+    @Mock
+    private FixSessionManager sessionManager;
+
+    @Mock
+    private BatchMessageSenderService batchSender;
+
+    private WarmupService warmup;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        EnvironmentConfig env = new EnvironmentConfig(new EnvironmentConfig.ConnectionConfig("127.0.0.1", 9876),
+                List.of(new EnvironmentConfig.InitiatorConfig("INITIATOR1", "password", true)));
+        when(configService.getSnapshot()).thenReturn(ConfigSnapshot.of(Map.of("ENV1", env)));
+        when(settingsBuilder.buildSettings(anyString(), anyString(), anyString())).thenReturn(new SessionSettings());
+        when(certificateService.preload("INITIATOR1")).thenReturn(true);
+        when(certificateService.signMessage(any(Message.class))).thenReturn("c2lnbmF0dXJl");
+        when(localAcceptor.getIfAvailable()).thenReturn(acceptor);
+        when(sessionManagerProvider.getIfAvailable()).thenReturn(sessionManager);
+        when(sessionManagerProvider.getObject()).thenReturn(sessionManager);
+        // A generous quiet threshold so every round counts as stable
+        warmup = new WarmupService(configService, certificateService, settingsBuilder, tlsContexts, localAcceptor,
+                sessionManagerProvider, batchSender, new WorkerThreads(new MockEnvironment()), false,
+                "ACCEPTOR_A", 10, 2, 5, 60_000, 2_000);
+    }
+
+    @Test
+    void remoteEnvironment_PreloadsAndRunsInProcessRounds() throws Exception {
+        // Arrange
+        when(acceptor.ensureStarted("ENV1")).thenReturn(false);
+
+        // Act
+        warmup.run();
+
+        // Assert
+        WarmupService.Report report = warmup.report();
+        assertEquals(WarmupService.State.WARM, report.state());
+        assertEquals(1, report.certificates());
+        assertEquals(2, report.rounds());
+        assertEquals(20, report.messages());
+        assertEquals(0, report.sessionMessages());
+        assertNull(report.session());
+        verify(tlsContexts).context(any(SessionSettings.class), eq(SESSION));
+        verify(certificateService, times(20)).signMessage(argThat(message -> message.toString().contains(
+                "11=" + WarmupService.CL_ORD_ID_PREFIX)));
+        verify(sessionManager, never()).startSession(any(), any(), any(), any());
+        verifyNoInteractions(batchSender);
+    }
+
+    @Test
+    void localAcceptor_SendsThroughIdleSessionAndStopsIt() throws Exception {
+        // Arrange
+        when(acceptor.ensureStarted("ENV1")).thenReturn(true);
+        when(sessionManager.getOwner("INITIATOR1", "ACCEPTOR_A", "ENV1")).thenReturn(WarmupService.OWNER);
+        when(sessionManager.getStatus("INITIATOR1", "ACCEPTOR_A", "ENV1")).thenReturn(SessionStatus.CONNECTED);
+        when(batchSender.sendChunk(any(MessageRequestDto.class), isNull()))
+                .thenAnswer(invocation -> invocation.<MessageRequestDto>getArgument(0).fixMessages().size());
+
+        // Act
+        warmup.run();
+
+        // Assert
+        WarmupService.Report report = warmup.report();
+        assertEquals(WarmupService.State.WARM, report.state());
+        assertEquals(SESSION.toString(), report.session());
+        assertEquals(20, report.sessionMessages());
+        verify(sessionManager).startSession("INITIATOR1", "ACCEPTOR_A", "ENV1", WarmupService.OWNER);
+        verify(sessionManager).stopSessionOwnedBy("INITIATOR1", "ACCEPTOR_A", "ENV1", WarmupService.OWNER);
+    }
+
+    @Test
+    void sessionTakenOverMidWarmup_GetsNoMoreSyntheticOrders() throws Exception {
+        // Arrange
+        when(acceptor.ensureStarted("ENV1")).thenReturn(true);
+        // Still ours after the start, the logon and three messages, then a user starts it mid-round
+        when(sessionManager.getOwner("INITIATOR1", "ACCEPTOR_A", "ENV1")).thenReturn(WarmupService.OWNER,
+                WarmupService.OWNER, WarmupService.OWNER, WarmupService.OWNER, WarmupService.OWNER, "ws-1");
+        when(sessionManager.getStatus("INITIATOR1", "ACCEPTOR_A", "ENV1")).thenReturn(SessionStatus.CONNECTED);
+        when(batchSender.sendChunk(any(MessageRequestDto.class), isNull()))
+                .thenAnswer(invocation -> invocation.<MessageRequestDto>getArgument(0).fixMessages().size());
+
+        // Act
+        warmup.run();
+
+        // Assert
+        WarmupService.Report report = warmup.report();
+        assertEquals(WarmupService.State.WARM, report.state());
+        assertEquals(SESSION.toString(), report.session());
+        assertEquals(3, report.sessionMessages());
+        verify(batchSender, times(3)).sendChunk(any(MessageRequestDto.class), isNull());
+        verify(sessionManager).stopSessionOwnedBy("INITIATOR1", "ACCEPTOR_A", "ENV1", WarmupService.OWNER);
+        verify(sessionManager, never()).stopSession(any(), any(), any());
+    }
+
+    @Test
+    void sessionStartedByUserFirst_IsNotUsed() throws Exception {
+        // Arrange
+        when(acceptor.ensureStarted("ENV1")).thenReturn(true);
+        when(sessionManager.getOwner("INITIATOR1", "ACCEPTOR_A", "ENV1")).thenReturn("ws-1");
+
+        // Act
+        warmup.run();
+
+        // Assert
+        assertNull(warmup.report().session());
+        assertEquals(0, warmup.report().sessionMessages());
+        verifyNoInteractions(batchSender);
+        verify(sessionManager, never()).stopSessionOwnedBy(any(), any(), any(), any());
+    }
+
+    @Test
+    void activeSession_IsLeftAlone() throws Exception {
+        // Arrange
+        when(acceptor.ensureStarted("ENV1")).thenReturn(true);
+        when(sessionManager.isActive(SESSION)).thenReturn(true);
+
+        // Act
+        warmup.run();
+
+        // Assert
+        assertEquals(WarmupService.State.WARM, warmup.report().state());
+        assertEquals(0, warmup.report().sessionMessages());
+        verify(sessionManager, never()).startSession(any(), any(), any(), any());
+        verify(sessionManager, never()).stopSession(any(), any(), any());
+        verify(sessionManager, never()).stopSessionOwnedBy(any(), any(), any(), any());
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.fixclient.stream;
+
+import com.example.fixclient.service.FixApplicationImpl;
+import com.example.fixclient.service.FixSessionManager;
+import jakarta.websocket.ContainerProvider;
+import jakarta.websocket.WebSocketContainer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+import quickfix.Message;
+import quickfix.SessionID;
+import quickfix.field.*;
+import quickfix.fix41.ExecutionReport;
+
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+
+/**
+ * Messages per second one client receives over STOMP/SockJS versus
+ * {@code /ws-raw}, against the running application on a random port.
+ * <p>
+ * Only runs with {@code mvn -Ploadtest test}. The same ExecutionReport is fed
+ * through {@link FixApplicationImpl#fromApp}, which publishes to both paths,
+ * and only one kind of client is connected per run. The publisher stays at
+ * most {@code loadtest.rawWindow} messages ahead of the client, so the number
+ * is sustained delivery rather than how fast the server can queue.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "logging.level.root=WARN",
+        "fix.journal.directory=target/loadtest-raw/journal",
+        "fix.capture.directory=target/loadtest-raw/capture"})
+class RawStreamLoadTest {
+
+    private static final SessionID SESSION = new SessionID("FIX.4.1", "INITIATOR1", "ACCEPTOR_A");
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Autowired
+    private FixApplicationImpl application;
+
+    @MockitoSpyBean
+    private FixSessionManager sessionManager;
+
+    private final AtomicLong received = new AtomicLong();
+    private final CompletableFuture<String> stompSessionId = new CompletableFuture<>();
+    private WebSocketContainer container;
+
+    @BeforeEach
+    void setUp() {
+        // The application wired itself to the manager before the spy replaced it
+        application.setSessionManager(sessionManager);
+        context.addApplicationListener(event -> {
+            if (event instanceof SessionConnectedEvent connected) {
+                stompSessionId.complete(SimpMessageHeaderAccessor.getSessionId(connected.getMessage().getHeaders()));
+            }
+        });
+        container = ContainerProvider.getWebSocketContainer();
+        container.setDefaultMaxTextMessageBufferSize(1 << 20);
+        container.setDefaultMaxBinaryMessageBufferSize(1 << 20);
+    }
+
+    @Test
+    void rawStream_DeliversMoreMessagesPerSecondThanStomp() throws Exception {
+        int messages = Integer.getInteger("loadtest.rawMessages", 100_000);
+        int window = Integer.getInteger("loadtest.rawWindow", 2_000);
+        double minSpeedup = Double.parseDouble(System.getProperty("loadtest.minRawSpeedup", "1.0"));
+        Message report = executionReport();
+        int messageBytes = report.toString().length();
+
+        // STOMP over SockJS, as the browser UI connects
+        WebSocketStompClient stompClient = new WebSocketStompClient(
+                new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient(container)))));
+        stompClient.setMessageConverter(new StringMessageConverter());
+        StompSession stomp = stompClient.connectAsync("http://localhost:" + port + "/ws",
+                new StompSessionHandlerAdapter() {
+                }).get(10, TimeUnit.SECONDS);
+        stomp.subscribe("/user/topic/fixMessages", new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return String.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                received.incrementAndGet();
+            }
+        });
+        String owner = stompSessionId.get(10, TimeUnit.SECONDS);
+        doReturn(owner).when(sessionManager).getOwner(any());
+        publish(report, messages / 10, window);
+        double stompRate = publish(report, messages, window);
+        stomp.disconnect();
+        stompClient.stop();
+
+        // Raw binary stream
+        WebSocketSession raw = new StandardWebSocketClient(container).execute(new AbstractWebSocketHandler() {
+            @Override
+            protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) {
+                ByteBuffer frame = message.getPayload();
+                long records = 0;
+                while (frame.hasRemaining()) {
+                    int length = frame.getInt();
+                    frame.position(frame.position() + length);
+                    records++;
+                }
+                received.addAndGet(records);
+            }
+
+            @Override
+            protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+                if (!message.getPayload().startsWith("OK")) {
+                    throw new IllegalStateException(message.getPayload());
+                }
+            }
+        }, "ws://localhost:" + port + "/ws-raw").get(10, TimeUnit.SECONDS);
+        raw.sendMessage(new TextMessage("SUB " + owner));
+        Thread.sleep(200);
+        publish(report, messages / 10, window);
+        double rawRate = publish(report, messages, window);
+        raw.close();
+
+        List<String> lines = new ArrayList<>();
+        lines.add("Messages per second to one client, " + messages + " ExecutionReports of " + messageBytes
+                + " bytes, window " + window);
+        lines.add(String.format("%-8s %12.0f", "stomp", stompRate));
+        lines.add(String.format("%-8s %12.0f", "raw", rawRate));
+        lines.add(String.format("speedup  %12.2f", rawRate / stompRate));
+        String text = String.join(System.lineSeparator(), lines);
+        System.out.println(System.lineSeparator() + text);
+        String reportPath = System.getProperty("loadtest.rawReport");
+        if (reportPath != null) {
+            Files.writeString(Path.of(reportPath), text + System.lineSeparator());
+        }
+        assertTrue(rawRate >= stompRate * minSpeedup,
+                "Raw stream " + rawRate + " msg/s is not " + minSpeedup + "x STOMP " + stompRate + " msg/s");
+    }
+
+    /**
+     * @return messages per second the client received
+     */
+    private double publish(Message report, int messages, int window) throws Exception {
+        received.set(0);
+        long start = System.nanoTime();
+        for (int m = 0; m <= messages; m++) {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (m - received.get() >= (m < messages ? window : 1)) {
+                assertTrue(System.nanoTime() < deadline, "Client received only " + received.get() + " of " + m);
+                Thread.onSpinWait();
+            }
+            if (m < messages) {
+                application.fromApp(report, SESSION);
+            }
+        }
+        return messages / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static Message executionReport() {
+        ExecutionReport report = new ExecutionReport(new OrderID("O-1"), new ExecID("E-1"), new ExecTransType('0'),
+                new ExecType(ExecType.NEW), new OrdStatus(OrdStatus.NEW), new Symbol("LOAD"), new Side(Side.BUY), new OrderQty(100),
+                new LastShares(0), new LastPx(0), new LeavesQty(100), new CumQty(0), new AvgPx(0));
+        report.set(new ClOrdID("C-1"));
+        report.getHeader().setString(SenderCompID.FIELD, SESSION.getTargetCompID());
+        report.getHeader().setString(TargetCompID.FIELD, SESSION.getSenderCompID());
+        report.getHeader().setInt(MsgSeqNum.FIELD, 1);
+        report.getHeader().setUtcTimeStamp(SendingTime.FIELD, LocalDateTime.now());
+        return report;
+    }
+}
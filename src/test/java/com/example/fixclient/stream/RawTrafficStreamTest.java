@@ -0,0 +1,228 @@
+package com.example.fixclient.stream;
+
+import com.example.fixclient.listener.FixTrafficListener.Direction;
+import com.example.fixclient.metrics.FixMetrics;
+import com.example.fixclient.service.FixSessionManager;
+import com.example.fixclient.service.WorkerThreads;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import quickfix.Message;
+import quickfix.SessionID;
+import quickfix.field.ClOrdID;
+import quickfix.field.MsgType;
+import quickfix.field.TestReqID;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RawTrafficStreamTest {
+
+    private static final SessionID OWNED = new SessionID("FIX.4.1", "INITIATOR", "ACCEPTOR");
+    private static final SessionID OTHER = new SessionID("FIX.4.1", "INITIATOR", "OTHER");
+
+    @Mock
+    private ObjectProvider<FixSessionManager> sessionManagerProvider;
+
+    @Mock
+    private FixSessionManager sessionManager;
+
+    @Mock
+    private WebSocketSession socket;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<WebSocketMessage<?>> written = Collections.synchronizedList(new ArrayList<>());
+    private RawTrafficStream stream;
+    private String token;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        when(sessionManagerProvider.getIfAvailable()).thenReturn(sessionManager);
+        when(sessionManager.getOwner(OWNED)).thenReturn("stomp-1");
+        when(socket.getId()).thenReturn("raw-1");
+        doAnswer(invocation -> written.add(invocation.getArgument(0))).when(socket).sendMessage(any());
+        stream = new RawTrafficStream(sessionManagerProvider, new FixMetrics(registry),
+                new WorkerThreads(new MockEnvironment()), 1024, 600, false);
+        token = stream.issueToken("stomp-1");
+        stream.afterConnectionEstablished(socket);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stream.afterConnectionClosed(socket, CloseStatus.NORMAL);
+    }
+
+    @Test
+    void sub_StreamsOwnedApplicationTrafficInBatches() throws Exception {
+        // Arrange
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return written.add(invocation.getArgument(0));
+        }).when(socket).sendMessage(any());
+        command("SUB " + token);
+        assertTrue(writing.await(2, TimeUnit.SECONDS));
+
+        // Act
+        stream.onMessage(OWNED, Direction.OUTBOUND, false, order("1"));
+        stream.onMessage(OTHER, Direction.OUTBOUND, false, order("2"));
+        stream.onMessage(OWNED, Direction.INBOUND, true, heartbeat());
+        stream.onMessage(OWNED, Direction.INBOUND, false, order("3"));
+        release.countDown();
+
+        // Assert
+        awaitWritten(2);
+        assertEquals("OK SUB " + token, ((TextMessage) written.get(0)).getPayload());
+        List<String> records = records((BinaryMessage) written.get(1));
+        assertEquals(2, records.size());
+        assertTrue(records.get(0).startsWith("1|FIX.4.1:INITIATOR->ACCEPTOR|8=FIX.4.1"));
+        assertTrue(records.get(0).contains("11=1"));
+        assertTrue(records.get(1).startsWith("0|FIX.4.1:INITIATOR->ACCEPTOR|"));
+        assertTrue(records.get(1).contains("11=3"));
+    }
+
+    @Test
+    void filterAndUnsub_ChangeWhatIsStreamed() throws Exception {
+        // Arrange
+        command("SUB " + token);
+        command("FILTER 0");
+        awaitWritten(2);
+
+        // Act
+        stream.onMessage(OWNED, Direction.OUTBOUND, false, order("1"));
+        stream.onMessage(OWNED, Direction.INBOUND, true, heartbeat());
+        awaitWritten(3);
+        command("UNSUB " + token);
+        command("BOGUS");
+        awaitWritten(5);
+        stream.onMessage(OWNED, Direction.INBOUND, true, heartbeat());
+
+        // Assert
+        List<String> records = records((BinaryMessage) written.get(2));
+        assertEquals(1, records.size());
+        assertTrue(records.get(0).startsWith("2|FIX.4.1:INITIATOR->ACCEPTOR|"));
+        assertEquals("ERR unknown command BOGUS", ((TextMessage) written.get(4)).getPayload());
+        Thread.sleep(50);
+        assertEquals(5, written.size());
+    }
+
+    @Test
+    void fullBacklog_DropsAndReportsCount() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        command("SUB " + token);
+        awaitWritten(1);
+        doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return written.add(invocation.getArgument(0));
+        }).when(socket).sendMessage(any());
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            stream.onMessage(OWNED, Direction.OUTBOUND, false, order(Integer.toString(i)));
+        }
+        release.countDown();
+
+        // Assert
+        double dropped = registry.counter("fix.raw.dropped").count();
+        assertTrue(dropped > 0);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (List.copyOf(written).stream()
+                .noneMatch(m -> m instanceof TextMessage t && t.getPayload().startsWith("DROPPED"))) {
+            assertTrue(System.nanoTime() < deadline, "No DROPPED notice");
+            Thread.onSpinWait();
+        }
+    }
+
+    @Test
+    void sub_NeedsAnIssuedTokenAndAllStreamingIsOff() throws Exception {
+        // Arrange
+        stream.revokeTokens("stomp-1");
+
+        // Act
+        command("SUB stomp-1");
+        command("SUB " + token);
+        command("SUB *");
+        awaitWritten(3);
+        stream.onMessage(OWNED, Direction.OUTBOUND, false, order("1"));
+        stream.onMessage(OTHER, Direction.OUTBOUND, false, order("2"));
+
+        // Assert
+        assertEquals("ERR unknown token", ((TextMessage) written.get(0)).getPayload());
+        assertEquals("ERR unknown token", ((TextMessage) written.get(1)).getPayload());
+        assertEquals("ERR SUB * is disabled", ((TextMessage) written.get(2)).getPayload());
+        Thread.sleep(50);
+        assertEquals(3, written.size());
+    }
+
+    private void command(String command) {
+        stream.handleTextMessage(socket, new TextMessage(command));
+    }
+
+    private static Message order(String clOrdId) {
+        Message message = new Message();
+        message.getHeader().setString(8, "FIX.4.1");
+        message.getHeader().setString(MsgType.FIELD, MsgType.ORDER_SINGLE);
+        message.setString(ClOrdID.FIELD, clOrdId);
+        return message;
+    }
+
+    private static Message heartbeat() {
+        Message message = new Message();
+        message.getHeader().setString(8, "FIX.4.1");
+        message.getHeader().setString(MsgType.FIELD, MsgType.HEARTBEAT);
+        message.setString(TestReqID.FIELD, "T");
+        return message;
+    }
+
+    /**
+     * Decodes each record as flags|sessionID|message.
+     */
+    private static List<String> records(BinaryMessage frame) {
+        ByteBuffer buffer = frame.getPayload();
+        List<String> records = new ArrayList<>();
+        while (buffer.hasRemaining()) {
+            int length = buffer.getInt();
+            int end = buffer.position() + length;
+            byte flags = buffer.get();
+            buffer.getLong();
+            byte[] session = new byte[buffer.getShort()];
+            buffer.get(session);
+            byte[] fix = new byte[end - buffer.position()];
+            buffer.get(fix);
+            records.add(flags + "|" + new String(session, StandardCharsets.UTF_8) + "|"
+                    + new String(fix, StandardCharsets.ISO_8859_1).replace('\u0001', '|'));
+        }
+        return records;
+    }
+
+    private void awaitWritten(int frames) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (written.size() < frames) {
+            assertTrue(System.nanoTime() < deadline, "Only " + written.size() + " frames written");
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.fixclient.tls;
+
+import com.example.fixclient.metrics.FixMetrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.mina.core.filterchain.IoFilter;
+import org.apache.mina.core.session.DummySession;
+import org.apache.mina.filter.ssl.SslEvent;
+import org.apache.mina.filter.ssl.SslFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import quickfix.SessionID;
+import quickfix.SessionSettings;
+import quickfix.mina.ssl.SSLContextFactory;
+import quickfix.mina.ssl.SSLSupport;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSession;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TlsContextProviderTest {
+
+    private static final SessionID ACCEPTOR_A = new SessionID("FIX.4.1", "INITIATOR1", "ACCEPTOR_A");
+    private static final SessionID ACCEPTOR_B = new SessionID("FIX.4.1", "INITIATOR1", "ACCEPTOR_B");
+
+    @Mock
+    private IoFilter.NextFilter nextFilter;
+
+    @Mock
+    private SSLSession cachedSsl;
+
+    @Mock
+    private SSLSession freshSsl;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final FixMetrics metrics = new FixMetrics(registry);
+    private final TlsContextProvider provider = new TlsContextProvider(metrics, 16, 60);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void context_IsSharedPerKeystoreAndTuned() throws Exception {
+        // Arrange
+        SessionSettings settings = new SessionSettings();
+        for (SessionID sessionID : new SessionID[]{ACCEPTOR_A, ACCEPTOR_B}) {
+            settings.setString(sessionID, SSLSupport.SETTING_USE_SSL, "Y");
+            settings.setString(sessionID, SSLSupport.SETTING_KEY_STORE_NAME, "certs/INITIATOR1.p12");
+            settings.setString(sessionID, SSLSupport.SETTING_KEY_STORE_PWD, "password");
+            settings.setString(sessionID, SSLSupport.SETTING_ENABLED_PROTOCOLS, "TLSv1.2");
+        }
+
+        // Act
+        SSLContext first = provider.context(settings, ACCEPTOR_A);
+        SSLContext second = provider.context(settings, ACCEPTOR_B);
+
+        // Assert
+        assertSame(first, second);
+        assertSame(first, SSLContextFactory.getInstance(SSLSupport.getSslConfig(settings, ACCEPTOR_A)));
+        assertEquals(1, provider.cachedContexts());
+        assertEquals(16, first.getClientSessionContext().getSessionCacheSize());
+        assertEquals(60, first.getClientSessionContext().getSessionTimeout());
+        assertNotNull(provider.prepare(settings, ACCEPTOR_A, "ENV1"));
+    }
+
+    @Test
+    void plainSession_GetsNoFilter() throws Exception {
+        // Arrange
+        SessionSettings settings = new SessionSettings();
+        settings.setString(ACCEPTOR_A, "SocketConnectHost", "127.0.0.1");
+
+        // Act / Assert
+        assertNull(provider.prepare(settings, ACCEPTOR_A, "ENV1"));
+        assertEquals(0, provider.cachedContexts());
+    }
+
+    @Test
+    void handshakeTimer_SeparatesResumedFromFullHandshakes() throws Exception {
+        // Arrange
+        TlsContextProvider.HandshakeTimer filter = new TlsContextProvider.HandshakeTimer(
+                metrics.tlsHandshakeTimer("ENV1", false), metrics.tlsHandshakeTimer("ENV1", true));
+        DummySession resumed = new DummySession();
+        DummySession full = new DummySession();
+        when(cachedSsl.getCreationTime()).thenReturn(System.currentTimeMillis() - 60_000);
+        when(freshSsl.getCreationTime()).thenReturn(System.currentTimeMillis() + 60_000);
+
+        // Act
+        filter.sessionCreated(nextFilter, resumed);
+        filter.sessionCreated(nextFilter, full);
+        resumed.setAttribute(SslFilter.SSL_SECURED, cachedSsl);
+        full.setAttribute(SslFilter.SSL_SECURED, freshSsl);
+        filter.event(nextFilter, resumed, SslEvent.SECURED);
+        filter.event(nextFilter, full, SslEvent.SECURED);
+        // A renegotiation is not a new connection
+        filter.event(nextFilter, full, SslEvent.SECURED);
+
+        // Assert
+        assertEquals(1, timer("true").count());
+        assertEquals(1, timer("false").count());
+        verify(nextFilter).sessionCreated(resumed);
+        verify(nextFilter).event(resumed, SslEvent.SECURED);
+    }
+
+    private Timer timer(String resumed) {
+        return registry.get("fix.tls.handshake").tag("environment", "ENV1").tag("resumed", resumed).timer();
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.fixclient.upload;
+
+import com.example.fixclient.exception.UploadNotFoundException;
+import com.example.fixclient.exception.UploadRejectedException;
+import com.example.fixclient.model.MessageRequestDto;
+import com.example.fixclient.model.UploadChunk;
+import com.example.fixclient.model.UploadCommand;
+import com.example.fixclient.model.UploadOpenRequest;
+import com.example.fixclient.service.BatchMessageSenderService;
+import com.example.fixclient.service.WorkerThreads;
+import com.example.fixclient.websocket.SessionMessaging;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class ChunkedUploadServiceTest {
+
+    private static final String WS = "ws-1";
+    private static final String MSG = "8=FIX.4.1|35=D|56=ACCEPTOR|";
+
+    @Mock
+    private BatchMessageSenderService batchSender;
+
+    @Mock
+    private SimpMessageSendingOperations messagingTemplate;
+
+    private ChunkedUploadService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(batchSender.sendChunk(any(MessageRequestDto.class), eq(WS)))
+                .thenAnswer(invocation -> invocation.<MessageRequestDto>getArgument(0).fixMessages().size());
+        service = new ChunkedUploadService(batchSender, messagingTemplate,
+                new WorkerThreads(new MockEnvironment()), 4, 10, 2, 60_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void chunksOutOfOrder_AreSentInSequenceAndCompleted() {
+        // Arrange
+        String uploadId = service.open(new UploadOpenRequest("INITIATOR", null, null), WS).uploadId();
+
+        // Act
+        service.chunk(new UploadChunk(uploadId, 1, List.of(MSG, MSG)), WS);
+        service.chunk(new UploadChunk(uploadId, 0, List.of(MSG)), WS);
+        service.commit(new UploadCommand(uploadId, 1L), WS);
+
+        // Assert
+        ChunkedUploadService.UploadAck last = awaitAck(ChunkedUploadService.State.COMPLETED);
+        assertEquals(1, last.ackedSeq());
+        assertEquals(3, last.messagesSent());
+        assertEquals(0, last.messagesFailed());
+        InOrder inOrder = inOrder(batchSender);
+        inOrder.verify(batchSender).sendChunk(argThat(r -> r.fixMessages().size() == 1), eq(WS));
+        inOrder.verify(batchSender).sendChunk(argThat(r -> r.fixMessages().size() == 2), eq(WS));
+        assertEquals(0, service.openUploads());
+    }
+
+    @Test
+    void earlyChunks_AreSentBeforeCommit() {
+        // Arrange
+        String uploadId = service.open(new UploadOpenRequest("INITIATOR", true, 2), WS).uploadId();
+
+        // Act
+        service.chunk(new UploadChunk(uploadId, 0, List.of(MSG)), WS);
+
+        // Assert
+        verify(batchSender, timeout(2000)).sendChunk(argThat(MessageRequestDto::isUrgent), eq(WS));
+        ChunkedUploadService.UploadAck ack = awaitAck(ChunkedUploadService.State.OPEN, 0);
+        assertEquals(2, ack.credits());
+    }
+
+    @Test
+    void chunkOutsideWindow_IsRejected() throws Exception {
+        // Arrange
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(batchSender.sendChunk(any(MessageRequestDto.class), eq(WS))).thenAnswer(invocation -> {
+            sending.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return 1;
+        });
+        String uploadId = service.open(new UploadOpenRequest("INITIATOR", null, 2), WS).uploadId();
+        service.chunk(new UploadChunk(uploadId, 0, List.of(MSG)), WS);
+        assertTrue(sending.await(2, TimeUnit.SECONDS));
+        service.chunk(new UploadChunk(uploadId, 1, List.of(MSG)), WS);
+
+        // Act / Assert
+        assertThrows(UploadRejectedException.class,
+                () -> service.chunk(new UploadChunk(uploadId, 2, List.of(MSG)), WS));
+        // Retransmissions are ignored
+        service.chunk(new UploadChunk(uploadId, 1, List.of(MSG)), WS);
+        release.countDown();
+    }
+
+    @Test
+    void oversizedChunkAndForeignUpload_AreRejected() {
+        // Arrange
+        String uploadId = service.open(new UploadOpenRequest("INITIATOR", null, null), WS).uploadId();
+
+        // Act / Assert
+        assertThrows(UploadRejectedException.class,
+                () -> service.chunk(new UploadChunk(uploadId, 0, Collections.nCopies(11, MSG)), WS));
+        assertThrows(UploadNotFoundException.class,
+                () -> service.chunk(new UploadChunk(uploadId, 0, List.of(MSG)), "ws-other"));
+        service.open(new UploadOpenRequest("INITIATOR", null, null), WS);
+        assertThrows(UploadRejectedException.class,
+                () -> service.open(new UploadOpenRequest("INITIATOR", null, null), WS));
+    }
+
+    @Test
+    void disconnect_AbortsUploadsOfThatSession() {
+        // Arrange
+        String uploadId = service.open(new UploadOpenRequest("INITIATOR", null, null), WS).uploadId();
+
+        // Act
+        service.abortAll(WS);
+
+        // Assert
+        awaitAck(ChunkedUploadService.State.ABORTED);
+        assertEquals(0, service.openUploads());
+        assertThrows(UploadNotFoundException.class,
+                () -> service.chunk(new UploadChunk(uploadId, 0, List.of(MSG)), WS));
+        verify(batchSender, never()).sendChunk(any(), any());
+    }
+
+    @Test
+    void open_RepliesWithIdAndCredits() {
+        // Act
+        ChunkedUploadService.UploadAck ack = service.open(new UploadOpenRequest("INITIATOR", null, 8), WS);
+
+        // Assert
+        assertNotNull(ack.uploadId());
+        assertEquals(ChunkedUploadService.State.OPEN, ack.state());
+        assertEquals(-1, ack.ackedSeq());
+        assertEquals(4, ack.credits());
+    }
+
+    @Test
+    void abandonedUpload_IsAbortedAndFreesItsSlot() {
+        // Arrange
+        service.shutdown();
+        service = new ChunkedUploadService(batchSender, messagingTemplate,
+                new WorkerThreads(new MockEnvironment()), 4, 10, 1, 100);
+        String uploadId = service.open(new UploadOpenRequest("INITIATOR", null, null), WS).uploadId();
+
+        // Act: committed, but the chunks never come
+        service.commit(new UploadCommand(uploadId, 3L), WS);
+
+        // Assert
+        ChunkedUploadService.UploadAck ack = awaitAck(ChunkedUploadService.State.ABORTED);
+        assertEquals(uploadId, ack.uploadId());
+        assertTrue(ack.error().startsWith("No chunk received"));
+        assertEquals(0, service.openUploads());
+        assertNotNull(service.open(new UploadOpenRequest("INITIATOR", null, null), WS).uploadId());
+    }
+
+    private ChunkedUploadService.UploadAck awaitAck(ChunkedUploadService.State state) {
+        return awaitAck(state, Long.MIN_VALUE);
+    }
+
+    private ChunkedUploadService.UploadAck awaitAck(ChunkedUploadService.State state, long ackedSeq) {
+        ArgumentCaptor<Object> acks = ArgumentCaptor.forClass(Object.class);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (true) {
+            verify(messagingTemplate, timeout(2000).atLeastOnce())
+                    .convertAndSendToUser(eq(WS), eq(ChunkedUploadService.ACK_DESTINATION), acks.capture(),
+                            eq(SessionMessaging.headers(WS)));
+            for (Object value : acks.getAllValues()) {
+                ChunkedUploadService.UploadAck ack = (ChunkedUploadService.UploadAck) value;
+                if (ack.state() == state && (ackedSeq == Long.MIN_VALUE || ack.ackedSeq() == ackedSeq)) {
+                    return ack;
+                }
+            }
+            assertTrue(System.nanoTime() < deadline, "No " + state + " acknowledgement");
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.fixclient.websocket;
+
+import com.example.fixclient.metrics.FixMetrics;
+import com.example.fixclient.model.SlowConsumerPolicy;
+import com.example.fixclient.service.WorkerThreads;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class OutboundGuardTest {
+
+    @Mock
+    private WebSocketHandler handler;
+
+    @Mock
+    private WebSocketSession socket;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<String> written = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch writing = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private WebSocketHandler decorated;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        when(socket.getId()).thenReturn("ws-1");
+        // The first write stalls until released, like a browser that stopped reading
+        doAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            written.add(invocation.<TextMessage>getArgument(0).getPayload());
+            return null;
+        }).when(socket).sendMessage(any());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        release.countDown();
+        if (decorated != null) {
+            decorated.afterConnectionClosed(socket, CloseStatus.NORMAL);
+        }
+    }
+
+    @Test
+    void dropOldest_KeepsQueueWithinLimitAndControlFrames() throws Exception {
+        // Arrange
+        OutboundGuard guard = guard(SlowConsumerPolicy.DROP_OLDEST, 3 * frameBytes("a", 0));
+        WebSocketSession session = connect(guard);
+        session.sendMessage(frame("a", 0));
+        assertTrue(writing.await(2, TimeUnit.SECONDS));
+
+        // Act
+        session.sendMessage(new TextMessage("RECEIPT\nreceipt-id:1\n\n\0"));
+        for (int i = 1; i <= 5; i++) {
+            session.sendMessage(frame("a", i));
+        }
+
+        // Assert
+        OutboundGuard.ClientStats stats = guard.stats().get(0);
+        assertEquals(3, stats.queuedFrames());
+        assertTrue(stats.queuedBytes() <= 3 * frameBytes("a", 0));
+        assertEquals(3, stats.droppedFrames());
+        release.countDown();
+        awaitWritten(4);
+        assertEquals(List.of(frame("a", 0).getPayload(), "RECEIPT\nreceipt-id:1\n\n\0",
+                frame("a", 4).getPayload(), frame("a", 5).getPayload()), written);
+        assertEquals(3, registry.counter("fix.ws.dropped", "policy", "DROP_OLDEST").count());
+    }
+
+    @Test
+    void conflate_KeepsNewestPerSubscription() throws Exception {
+        // Arrange
+        OutboundGuard guard = guard(SlowConsumerPolicy.CONFLATE, 2 * frameBytes("a", 0));
+        WebSocketSession session = connect(guard);
+        session.sendMessage(frame("a", 0));
+        assertTrue(writing.await(2, TimeUnit.SECONDS));
+
+        // Act
+        session.sendMessage(frame("a", 1));
+        session.sendMessage(frame("b", 1));
+        session.sendMessage(frame("a", 2));
+        session.sendMessage(frame("b", 2));
+
+        // Assert
+        release.countDown();
+        awaitWritten(3);
+        assertEquals(List.of(frame("a", 0).getPayload(), frame("a", 2).getPayload(), frame("b", 2).getPayload()),
+                written);
+    }
+
+    @Test
+    void disconnect_FailsSendOnceOverLimit() throws Exception {
+        // Arrange
+        OutboundGuard guard = guard(SlowConsumerPolicy.DISCONNECT, 2 * frameBytes("a", 0));
+        WebSocketSession session = connect(guard);
+        session.sendMessage(frame("a", 0));
+        assertTrue(writing.await(2, TimeUnit.SECONDS));
+        session.sendMessage(frame("a", 1));
+        session.sendMessage(frame("a", 2));
+
+        // Act / Assert
+        assertThrows(SessionLimitExceededException.class, () -> session.sendMessage(frame("a", 3)));
+        assertEquals(1, registry.counter("fix.ws.slow.disconnects").count());
+        session.close(CloseStatus.SESSION_NOT_RELIABLE);
+        verify(socket).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertEquals(0, guard.stats().get(0).queuedFrames());
+    }
+
+    @Test
+    void failedWrite_ClosesTheSession() throws Exception {
+        // Arrange
+        doThrow(new IOException("Broken pipe")).when(socket).sendMessage(any());
+        OutboundGuard guard = guard(SlowConsumerPolicy.DISCONNECT, 2 * frameBytes("a", 0));
+        WebSocketSession session = connect(guard);
+
+        // Act
+        session.sendMessage(frame("a", 0));
+
+        // Assert
+        verify(socket, timeout(2_000)).close(CloseStatus.SESSION_NOT_RELIABLE);
+        session.sendMessage(frame("a", 1));
+        verify(socket, times(1)).sendMessage(any());
+    }
+
+    private OutboundGuard guard(SlowConsumerPolicy policy, long bufferSizeLimit) {
+        return new OutboundGuard(new FixMetrics(registry), new WorkerThreads(new MockEnvironment()), policy,
+                bufferSizeLimit, 10_000);
+    }
+
+    private WebSocketSession connect(OutboundGuard guard) throws Exception {
+        decorated = guard.decorate(handler);
+        decorated.afterConnectionEstablished(socket);
+        ArgumentCaptor<WebSocketSession> session = ArgumentCaptor.forClass(WebSocketSession.class);
+        verify(handler).afterConnectionEstablished(session.capture());
+        return session.getValue();
+    }
+
+    private static TextMessage frame(String subscription, int seq) {
+        return new TextMessage("MESSAGE\ndestination:/topic/" + subscription + "\nsubscription:" + subscription
+                + "\nmessage-id:" + seq + "\n\n8=FIX.4.1|35=8|34=" + seq + "|\0");
+    }
+
+    private static int frameBytes(String subscription, int seq) {
+        return frame(subscription, seq).getPayloadLength();
+    }
+
+    private void awaitWritten(int frames) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (written.size() < frames) {
+            assertTrue(System.nanoTime() < deadline, "Only " + written.size() + " frames written");
+            Thread.onSpinWait();
+        }
+    }
+}
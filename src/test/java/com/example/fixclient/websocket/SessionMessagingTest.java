@@ -0,0 +1,47 @@
+package com.example.fixclient.websocket;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.DefaultUserDestinationResolver;
+import org.springframework.messaging.simp.user.UserDestinationResult;
+import org.springframework.web.socket.messaging.DefaultSimpUserRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionMessagingTest {
+
+    private final List<Message<?>> sent = new ArrayList<>();
+    private final SimpMessagingTemplate template = new SimpMessagingTemplate((message, timeout) -> sent.add(message));
+    // No Principal on the connection, so the registry never knows the user
+    private final DefaultUserDestinationResolver resolver = new DefaultUserDestinationResolver(
+            new DefaultSimpUserRegistry());
+
+    @Test
+    void sendToSession_ResolvesWithoutPrincipal() {
+        // Act
+        SessionMessaging.sendToSession(template, "ws-1", "/queue/upload", "ack");
+
+        // Assert
+        assertEquals(1, sent.size());
+        assertEquals("ws-1", SimpMessageHeaderAccessor.getSessionId(sent.get(0).getHeaders()));
+        UserDestinationResult result = resolver.resolveDestination(sent.get(0));
+        assertNotNull(result);
+        assertEquals(Set.of("/queue/upload-userws-1"), result.getTargetDestinations());
+    }
+
+    @Test
+    void plainUserSend_IsNotResolved() {
+        // Act
+        template.convertAndSendToUser("ws-1", "/queue/upload", "ack");
+
+        // Assert
+        UserDestinationResult result = resolver.resolveDestination(sent.get(0));
+        assertTrue(result == null || result.getTargetDestinations().isEmpty());
+    }
+}